@@ -0,0 +1,103 @@
+/*----------------------------------------------------------------------------------------------------------------------
+ * Copyright (C) 2008-2024 Nawapunth Manusitthipol.
+ *----------------------------------------------------------------------------------------------------------------------
+ * LICENSE:
+ * 
+ * This file is part of Nawa's RegParser.
+ * 
+ * The project is a free software; you can redistribute it and/or modify it under the SIMILAR terms of the GNU General
+ * Public License as published by the Free Software Foundation; either version 2 of the License, or any later version.
+ * You are only required to inform me about your modification and redistribution as or as part of commercial software
+ * package. You can inform me via nawa<at>nawaman<dot>net.
+ * 
+ * The project is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the 
+ * implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ * more details.
+ * ---------------------------------------------------------------------------------------------------------------------
+ */
+package net.nawaman.regparser.benchmarks;
+
+import static net.nawaman.regparser.PredefinedCharClasses.WhiteSpace;
+import static net.nawaman.regparser.Quantifier.ZeroOrMore;
+import static net.nawaman.regparser.RegParser.newRegParser;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import net.nawaman.regparser.AsChecker;
+import net.nawaman.regparser.RegParser;
+import net.nawaman.regparser.checkers.CheckerAlternative;
+import net.nawaman.regparser.checkers.WordChecker;
+import net.nawaman.regparser.result.ParseResult;
+
+/**
+ * Benchmarks of parsing a text of keywords with an alternative of the given number of keywords.
+ * 
+ * @author Nawapunth Manusitthipol (https://github.com/NawaMan)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AlternativeBenchmark {
+    
+    @Param({ "2", "8", "32" })
+    public int fanOut;
+    
+    @Param({ "10000" })
+    public int length;
+    
+    private RegParser namedParser;
+    private RegParser unnamedParser;
+    private String    text;
+    
+    @Setup
+    public void setup() {
+        var keywords = new String[fanOut];
+        var checkers = new AsChecker[fanOut];
+        for (int i = 0; i < fanOut; i++) {
+            keywords[i] = "keyword" + i;
+            checkers[i] = new WordChecker(keywords[i]);
+        }
+        var alternative = new CheckerAlternative(checkers);
+        
+        namedParser = newRegParser()
+                    .entry(newRegParser()
+                            .entry("$Keyword", alternative)
+                            .entry(WhiteSpace, ZeroOrMore),
+                           ZeroOrMore)
+                    .build();
+        unnamedParser = newRegParser()
+                      .entry(newRegParser()
+                              .entry(alternative)
+                              .entry(WhiteSpace, ZeroOrMore),
+                             ZeroOrMore)
+                      .build();
+        
+        text = Corpus.keywords(keywords, length);
+    }
+    
+    @Benchmark
+    public ParseResult parseNamed() {
+        return namedParser.parse(text);
+    }
+    
+    @Benchmark
+    public ParseResult parseUnnamed() {
+        return unnamedParser.parse(text);
+    }
+    
+}
@@ -0,0 +1,107 @@
+/*----------------------------------------------------------------------------------------------------------------------
+ * Copyright (C) 2008-2024 Nawapunth Manusitthipol.
+ *----------------------------------------------------------------------------------------------------------------------
+ * LICENSE:
+ * 
+ * This file is part of Nawa's RegParser.
+ * 
+ * The project is a free software; you can redistribute it and/or modify it under the SIMILAR terms of the GNU General
+ * Public License as published by the Free Software Foundation; either version 2 of the License, or any later version.
+ * You are only required to inform me about your modification and redistribution as or as part of commercial software
+ * package. You can inform me via nawa<at>nawaman<dot>net.
+ * 
+ * The project is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the 
+ * implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ * more details.
+ * ---------------------------------------------------------------------------------------------------------------------
+ */
+package net.nawaman.regparser.benchmarks;
+
+import static net.nawaman.regparser.PredefinedCharClasses.Alphabet;
+import static net.nawaman.regparser.Quantifier.OneOrMore;
+import static net.nawaman.regparser.Quantifier.ZeroOrMore;
+import static net.nawaman.regparser.RegParser.newRegParser;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import net.nawaman.regparser.ParserTypeBackRef;
+import net.nawaman.regparser.ParserTypeBackRefCaseInsensitive;
+import net.nawaman.regparser.ParserTypeProvider;
+import net.nawaman.regparser.ParserTypeRef;
+import net.nawaman.regparser.RegParser;
+import net.nawaman.regparser.checkers.CharSingle;
+import net.nawaman.regparser.checkers.WordChecker;
+import net.nawaman.regparser.result.ParseResult;
+
+/**
+ * Benchmarks of parsing XML-like elements whose end tags refer back to their begin tags.
+ * 
+ * @author Nawapunth Manusitthipol (https://github.com/NawaMan)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BackReferenceBenchmark {
+    
+    @Param({ "10000" })
+    public int length;
+    
+    private ParserTypeProvider typeProvider;
+    private RegParser          backRefParser;
+    private RegParser          backRefCIParser;
+    private String             text;
+    
+    @Setup
+    public void setup() {
+        typeProvider = new ParserTypeProvider.Simple(
+                            ParserTypeBackRef.BackRef_Instance,
+                            ParserTypeBackRefCaseInsensitive.BackRefCI_Instance);
+        
+        var backRef   = new ParserTypeRef.Simple(ParserTypeBackRef.BackRef_Instance.name(),                  "$Begin");
+        var backRefCI = new ParserTypeRef.Simple(ParserTypeBackRefCaseInsensitive.BackRefCI_Instance.name(), "$Begin");
+        backRefParser   = elementsParser(backRef);
+        backRefCIParser = elementsParser(backRefCI);
+        
+        text = Corpus.elements(length);
+    }
+    
+    private static RegParser elementsParser(ParserTypeRef endTag) {
+        return newRegParser()
+                .entry(newRegParser()
+                        .entry(new CharSingle('<'))
+                        .entry("$Begin", newRegParser(Alphabet.oneOrMore()))
+                        .entry(new CharSingle('>'))
+                        .entry("$Content", Alphabet, OneOrMore)
+                        .entry(new WordChecker("</"))
+                        .entry("$End", endTag)
+                        .entry(new CharSingle('>')),
+                       ZeroOrMore)
+                .build();
+    }
+    
+    @Benchmark
+    public ParseResult parseBackRef() {
+        return backRefParser.parse(text, typeProvider);
+    }
+    
+    @Benchmark
+    public ParseResult parseBackRefCaseInsensitive() {
+        return backRefCIParser.parse(text, typeProvider);
+    }
+    
+}
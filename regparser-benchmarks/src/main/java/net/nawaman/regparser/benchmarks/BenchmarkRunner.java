@@ -0,0 +1,43 @@
+/*----------------------------------------------------------------------------------------------------------------------
+ * Copyright (C) 2008-2024 Nawapunth Manusitthipol.
+ *----------------------------------------------------------------------------------------------------------------------
+ * LICENSE:
+ * 
+ * This file is part of Nawa's RegParser.
+ * 
+ * The project is a free software; you can redistribute it and/or modify it under the SIMILAR terms of the GNU General
+ * Public License as published by the Free Software Foundation; either version 2 of the License, or any later version.
+ * You are only required to inform me about your modification and redistribution as or as part of commercial software
+ * package. You can inform me via nawa<at>nawaman<dot>net.
+ * 
+ * The project is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the 
+ * implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ * more details.
+ * ---------------------------------------------------------------------------------------------------------------------
+ */
+package net.nawaman.regparser.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks with the GC profiler so the allocation rates are reported along with the times.
+ * 
+ * All the JMH command line options are accepted -- for example, {@code java -jar benchmarks.jar Greediness -f 2}.
+ * 
+ * @author Nawapunth Manusitthipol (https://github.com/NawaMan)
+ */
+public final class BenchmarkRunner {
+    
+    public static void main(String[] args) throws Exception {
+        var commandLine = new CommandLineOptions(args);
+        var options     = new OptionsBuilder()
+                        .parent(commandLine)
+                        .addProfiler(GCProfiler.class)
+                        .build();
+        new Runner(options).run();
+    }
+    
+}
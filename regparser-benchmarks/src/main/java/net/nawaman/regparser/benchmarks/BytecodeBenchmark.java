@@ -0,0 +1,91 @@
+/*----------------------------------------------------------------------------------------------------------------------
+ * Copyright (C) 2008-2024 Nawapunth Manusitthipol.
+ *----------------------------------------------------------------------------------------------------------------------
+ * LICENSE:
+ * 
+ * This file is part of Nawa's RegParser.
+ * 
+ * The project is a free software; you can redistribute it and/or modify it under the SIMILAR terms of the GNU General
+ * Public License as published by the Free Software Foundation; either version 2 of the License, or any later version.
+ * You are only required to inform me about your modification and redistribution as or as part of commercial software
+ * package. You can inform me via nawa<at>nawaman<dot>net.
+ * 
+ * The project is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the 
+ * implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ * more details.
+ * ---------------------------------------------------------------------------------------------------------------------
+ */
+package net.nawaman.regparser.benchmarks;
+
+import static net.nawaman.regparser.RegParser.compile;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import net.nawaman.regparser.RegParser;
+import net.nawaman.regparser.result.ParseResult;
+
+/**
+ * Benchmarks of matching with the interpreted parser against the one compiled into bytecode.
+ * 
+ * @author Nawapunth Manusitthipol (https://github.com/NawaMan)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BytecodeBenchmark {
+    
+    @Param({ "false", "true" })
+    public boolean isCompiled;
+    
+    @Param({ "1000", "10000" })
+    public int length;
+    
+    private RegParser declarations;
+    private RegParser words;
+    private String    declarationText;
+    private String    wordText;
+    
+    @Setup
+    public void setup() {
+        declarations = compile("(var[: :]+[a-z]+[: :]*=[: :]*\\[[0-9]+(,[: :]*[0-9]+)*\\];[:NewLine:])+");
+        words        = compile("((alpha|beta|gamma|delta|epsilon|zeta|eta|theta|iota|kappa|lambda|mu)[: :]?)+");
+        if (isCompiled) {
+            declarations = declarations.toCompiled();
+            words        = words.toCompiled();
+        }
+        
+        declarationText = Corpus.declarations(length);
+        wordText        = Corpus.words(length);
+    }
+    
+    @Benchmark
+    public ParseResult matchDeclarations() {
+        return declarations.match(declarationText);
+    }
+    
+    @Benchmark
+    public ParseResult matchWords() {
+        return words.match(wordText);
+    }
+    
+    @Benchmark
+    public int startLengthOfDeclarations() {
+        return declarations.startLengthOf(declarationText, 0, null);
+    }
+    
+}
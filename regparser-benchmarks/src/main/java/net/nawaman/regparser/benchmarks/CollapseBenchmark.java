@@ -0,0 +1,92 @@
+/*----------------------------------------------------------------------------------------------------------------------
+ * Copyright (C) 2008-2024 Nawapunth Manusitthipol.
+ *----------------------------------------------------------------------------------------------------------------------
+ * LICENSE:
+ * 
+ * This file is part of Nawa's RegParser.
+ * 
+ * The project is a free software; you can redistribute it and/or modify it under the SIMILAR terms of the GNU General
+ * Public License as published by the Free Software Foundation; either version 2 of the License, or any later version.
+ * You are only required to inform me about your modification and redistribution as or as part of commercial software
+ * package. You can inform me via nawa<at>nawaman<dot>net.
+ * 
+ * The project is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the 
+ * implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ * more details.
+ * ---------------------------------------------------------------------------------------------------------------------
+ */
+package net.nawaman.regparser.benchmarks;
+
+import static net.nawaman.regparser.RegParserEntry.newParserEntry;
+import static net.nawaman.regparser.result.ParseResult.newResult;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import net.nawaman.regparser.PredefinedCharClasses;
+import net.nawaman.regparser.RegParserEntry;
+import net.nawaman.regparser.result.ParseResult;
+
+/**
+ * Benchmarks of collapsing a raw parse result.
+ * 
+ * The raw result is like what the solver produces before collapsing -- one entry per char with a named entry every few
+ *   chars.
+ * Collapsing changes the result so each invocation builds a new one;
+ *   {@link #build()} measures the building alone to be subtracted from {@link #buildAndCollapse()}.
+ * 
+ * @author Nawapunth Manusitthipol (https://github.com/NawaMan)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CollapseBenchmark {
+    
+    @Param({ "1000", "10000" })
+    public int length;
+    
+    private RegParserEntry namedEntry;
+    private String         text;
+    
+    @Setup
+    public void setup() {
+        namedEntry = newParserEntry("$Name", PredefinedCharClasses.Alphabet);
+        text       = Corpus.letters(length);
+    }
+    
+    @Benchmark
+    public ParseResult build() {
+        return rawResult();
+    }
+    
+    @Benchmark
+    public ParseResult buildAndCollapse() {
+        var result = rawResult();
+        result.collapse(null);
+        return result;
+    }
+    
+    private ParseResult rawResult() {
+        var result = newResult(0, text);
+        for (int i = 0; i < length; i++) {
+            var parserEntry = ((i % 8) == 7) ? namedEntry : null;
+            result.append(i + 1, parserEntry, null);
+        }
+        return result;
+    }
+    
+}
@@ -0,0 +1,81 @@
+/*----------------------------------------------------------------------------------------------------------------------
+ * Copyright (C) 2008-2024 Nawapunth Manusitthipol.
+ *----------------------------------------------------------------------------------------------------------------------
+ * LICENSE:
+ * 
+ * This file is part of Nawa's RegParser.
+ * 
+ * The project is a free software; you can redistribute it and/or modify it under the SIMILAR terms of the GNU General
+ * Public License as published by the Free Software Foundation; either version 2 of the License, or any later version.
+ * You are only required to inform me about your modification and redistribution as or as part of commercial software
+ * package. You can inform me via nawa<at>nawaman<dot>net.
+ * 
+ * The project is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the 
+ * implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ * more details.
+ * ---------------------------------------------------------------------------------------------------------------------
+ */
+package net.nawaman.regparser.benchmarks;
+
+import static net.nawaman.regparser.RegParser.compile;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import net.nawaman.regparser.ParserTypeProvider;
+import net.nawaman.regparser.RegParser;
+import net.nawaman.regparser.types.IdentifierParserType;
+
+/**
+ * Benchmarks of compiling RegParser patterns.
+ * 
+ * @author Nawapunth Manusitthipol (https://github.com/NawaMan)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CompileBenchmark {
+    
+    private ParserTypeProvider.Extensible typeProvider;
+    
+    @Setup
+    public void setup() {
+        typeProvider = new ParserTypeProvider.Extensible(new IdentifierParserType());
+    }
+    
+    @Benchmark
+    public RegParser compileSimple() {
+        return compile("Colou?r[:WhiteSpace:]+[0-9]+");
+    }
+    
+    @Benchmark
+    public RegParser compileDeclaration() {
+        return compile(typeProvider,
+                "var"
+                + "[:WhiteSpace:]+($Name:!$Identifier!)"
+                + "[:WhiteSpace:]*[:=:]"
+                + "[:WhiteSpace:]*[:[:]"
+                + "[:WhiteSpace:]*(($Values:~[0-9]+~)?([:WhiteSpace:]*[:,:][:WhiteSpace:]*($Values:~[0-9]+~))*)"
+                + "[:WhiteSpace:]*[:]:]"
+                + "[:WhiteSpace:]*[:;:]");
+    }
+    
+    @Benchmark
+    public RegParser compileAlternatives() {
+        return compile("(alpha|beta|gamma|delta|epsilon|zeta|eta|theta)([:WhiteSpace:]+(alpha|beta|gamma|delta))*");
+    }
+    
+}
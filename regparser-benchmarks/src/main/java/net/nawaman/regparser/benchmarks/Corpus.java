@@ -0,0 +1,124 @@
+/*----------------------------------------------------------------------------------------------------------------------
+ * Copyright (C) 2008-2024 Nawapunth Manusitthipol.
+ *----------------------------------------------------------------------------------------------------------------------
+ * LICENSE:
+ * 
+ * This file is part of Nawa's RegParser.
+ * 
+ * The project is a free software; you can redistribute it and/or modify it under the SIMILAR terms of the GNU General
+ * Public License as published by the Free Software Foundation; either version 2 of the License, or any later version.
+ * You are only required to inform me about your modification and redistribution as or as part of commercial software
+ * package. You can inform me via nawa<at>nawaman<dot>net.
+ * 
+ * The project is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the 
+ * implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ * more details.
+ * ---------------------------------------------------------------------------------------------------------------------
+ */
+package net.nawaman.regparser.benchmarks;
+
+import java.util.Random;
+
+/**
+ * Generates the texts used by the benchmarks.
+ * 
+ * The texts are generated from a fixed seed so every run parses the same text.
+ * 
+ * @author Nawapunth Manusitthipol (https://github.com/NawaMan)
+ */
+public final class Corpus {
+    
+    private static final long SEED = 20080101L;
+    
+    private static final String[] WORDS = {
+            "alpha", "beta", "gamma", "delta", "epsilon", "zeta", "eta", "theta", "iota", "kappa", "lambda", "mu"
+    };
+    
+    private static final String[] LEVELS = { "INFO", "INFO", "INFO", "DEBUG", "DEBUG", "WARN", "ERROR" };
+    
+    private Corpus() {
+    }
+    
+    /** @return  the text of the given length made of letters only. */
+    public static String letters(int length) {
+        var random = new Random(SEED);
+        var buffer = new StringBuilder(length);
+        while (buffer.length() < length) {
+            buffer.append((char)('a' + random.nextInt(26)));
+        }
+        return buffer.toString();
+    }
+    
+    /** @return  the text of about the given length made of words separated by a space. */
+    public static String words(int length) {
+        var random = new Random(SEED);
+        var buffer = new StringBuilder(length + 16);
+        while (buffer.length() < length) {
+            if (buffer.length() != 0) {
+                buffer.append(' ');
+            }
+            buffer.append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        return buffer.toString();
+    }
+    
+    /** @return  the text of about the given length made of the given keywords separated by a space. */
+    public static String keywords(String[] keywords, int length) {
+        var random = new Random(SEED);
+        var buffer = new StringBuilder(length + 16);
+        while (buffer.length() < length) {
+            if (buffer.length() != 0) {
+                buffer.append(' ');
+            }
+            buffer.append(keywords[random.nextInt(keywords.length)]);
+        }
+        return buffer.toString();
+    }
+    
+    /** @return  the text of about the given length made of nested XML-like elements. */
+    public static String elements(int length) {
+        var random = new Random(SEED);
+        var buffer = new StringBuilder(length + 64);
+        while (buffer.length() < length) {
+            var tag = WORDS[random.nextInt(WORDS.length)];
+            buffer.append('<').append(tag).append('>');
+            buffer.append(WORDS[random.nextInt(WORDS.length)]);
+            buffer.append("</").append(tag).append('>');
+        }
+        return buffer.toString();
+    }
+    
+    /** @return  the text of about the given length made of variable declarations like {@code var name = [1, 2, 3];}. */
+    public static String declarations(int length) {
+        var random = new Random(SEED);
+        var buffer = new StringBuilder(length + 64);
+        while (buffer.length() < length) {
+            buffer.append("var ").append(WORDS[random.nextInt(WORDS.length)]).append(" = [");
+            int count = 1 + random.nextInt(8);
+            for (int i = 0; i < count; i++) {
+                if (i != 0) {
+                    buffer.append(", ");
+                }
+                buffer.append(random.nextInt(1000));
+            }
+            buffer.append("];\n");
+        }
+        return buffer.toString();
+    }
+    
+    /** @return  the text of about the given length made of log lines like {@code INFO alpha beta: 42}. */
+    public static String logLines(int length) {
+        var random = new Random(SEED);
+        var buffer = new StringBuilder(length + 64);
+        while (buffer.length() < length) {
+            buffer.append(LEVELS[random.nextInt(LEVELS.length)]).append(": ");
+            int count = 1 + random.nextInt(6);
+            for (int i = 0; i < count; i++) {
+                buffer.append(WORDS[random.nextInt(WORDS.length)]).append(' ');
+            }
+            buffer.append(random.nextInt(1000)).append('\n');
+        }
+        return buffer.toString();
+    }
+    
+}
@@ -0,0 +1,100 @@
+/*----------------------------------------------------------------------------------------------------------------------
+ * Copyright (C) 2008-2024 Nawapunth Manusitthipol.
+ *----------------------------------------------------------------------------------------------------------------------
+ * LICENSE:
+ * 
+ * This file is part of Nawa's RegParser.
+ * 
+ * The project is a free software; you can redistribute it and/or modify it under the SIMILAR terms of the GNU General
+ * Public License as published by the Free Software Foundation; either version 2 of the License, or any later version.
+ * You are only required to inform me about your modification and redistribution as or as part of commercial software
+ * package. You can inform me via nawa<at>nawaman<dot>net.
+ * 
+ * The project is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the 
+ * implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ * more details.
+ * ---------------------------------------------------------------------------------------------------------------------
+ */
+package net.nawaman.regparser.benchmarks;
+
+import static net.nawaman.regparser.RegParser.compile;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import net.nawaman.regparser.RegParser;
+
+/**
+ * Benchmarks of searching a log for the matches with and without skipping the offsets that cannot start a match.
+ * 
+ * @author Nawapunth Manusitthipol (https://github.com/NawaMan)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FindBenchmark {
+    
+    @Param({ "10000", "100000" })
+    public int length;
+    
+    private RegParser errors;
+    private RegParser numbers;
+    private String    logText;
+    
+    @Setup
+    public void setup() {
+        errors  = compile("ERROR:[: :]+(#Word:~[a-z]+~)");
+        numbers = compile("(#Number:~[0-9]+~)[:NewLine:]");
+        logText = Corpus.logLines(length);
+    }
+    
+    private static int naiveCount(RegParser parser, String text) {
+        int count = 0;
+        int start = 0;
+        while (start <= text.length()) {
+            var result = parser.parse(text, start);
+            if (result == null) {
+                start++;
+                continue;
+            }
+            count++;
+            start = Math.max(result.endPosition(), start + 1);
+        }
+        return count;
+    }
+    
+    @Benchmark
+    public int naiveLiteral() {
+        return naiveCount(errors, logText);
+    }
+    
+    @Benchmark
+    public long findAllLiteral() {
+        return errors.findAll(logText).count();
+    }
+    
+    @Benchmark
+    public int naiveFirstChars() {
+        return naiveCount(numbers, logText);
+    }
+    
+    @Benchmark
+    public long findAllFirstChars() {
+        return numbers.findAll(logText).count();
+    }
+    
+}
@@ -0,0 +1,102 @@
+/*----------------------------------------------------------------------------------------------------------------------
+ * Copyright (C) 2008-2024 Nawapunth Manusitthipol.
+ *----------------------------------------------------------------------------------------------------------------------
+ * LICENSE:
+ * 
+ * This file is part of Nawa's RegParser.
+ * 
+ * The project is a free software; you can redistribute it and/or modify it under the SIMILAR terms of the GNU General
+ * Public License as published by the Free Software Foundation; either version 2 of the License, or any later version.
+ * You are only required to inform me about your modification and redistribution as or as part of commercial software
+ * package. You can inform me via nawa<at>nawaman<dot>net.
+ * 
+ * The project is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the 
+ * implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ * more details.
+ * ---------------------------------------------------------------------------------------------------------------------
+ */
+package net.nawaman.regparser.benchmarks;
+
+import static net.nawaman.regparser.PredefinedCharClasses.Any;
+import static net.nawaman.regparser.PredefinedCharClasses.Digit;
+import static net.nawaman.regparser.PredefinedCharClasses.NonDigit;
+import static net.nawaman.regparser.RegParser.newRegParser;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import net.nawaman.regparser.Greediness;
+import net.nawaman.regparser.Quantifier;
+import net.nawaman.regparser.RegParser;
+import net.nawaman.regparser.checkers.WordChecker;
+import net.nawaman.regparser.result.ParseResult;
+
+/**
+ * Benchmarks of parsing and matching a repeated entry in each greediness mode.
+ * 
+ * Note that the possessive {@code .*} consumes the {@code end} so that parse fails -- the failure is what is measured.
+ * 
+ * @author Nawapunth Manusitthipol (https://github.com/NawaMan)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GreedinessBenchmark {
+    
+    @Param({ "Possessive", "Maximum", "Minimum" })
+    public Greediness greediness;
+    
+    @Param({ "1000", "10000" })
+    public int length;
+    
+    private RegParser anyThenEnd;
+    private RegParser nonDigitsThenDigits;
+    private String    text;
+    private String    digitText;
+    
+    @Setup
+    public void setup() {
+        var quantifier = new Quantifier(0, -1, greediness);
+        anyThenEnd = newRegParser()
+                   .entry(Any, quantifier)
+                   .entry(new WordChecker("end"))
+                   .build();
+        nonDigitsThenDigits = newRegParser()
+                            .entry(NonDigit, quantifier)
+                            .entry(Digit,    Quantifier.OneOrMore)
+                            .build();
+        
+        text      = Corpus.letters(length) + "end";
+        digitText = Corpus.letters(length) + "0123456789";
+    }
+    
+    @Benchmark
+    public ParseResult parseAnyThenWord() {
+        return anyThenEnd.parse(text);
+    }
+    
+    @Benchmark
+    public ParseResult matchAnyThenWord() {
+        return anyThenEnd.match(text);
+    }
+    
+    @Benchmark
+    public ParseResult parseCharRun() {
+        return nonDigitsThenDigits.parse(digitText);
+    }
+    
+}
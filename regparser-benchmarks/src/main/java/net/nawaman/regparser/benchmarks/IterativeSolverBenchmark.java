@@ -0,0 +1,94 @@
+/*----------------------------------------------------------------------------------------------------------------------
+ * Copyright (C) 2008-2024 Nawapunth Manusitthipol.
+ *----------------------------------------------------------------------------------------------------------------------
+ * LICENSE:
+ * 
+ * This file is part of Nawa's RegParser.
+ * 
+ * The project is a free software; you can redistribute it and/or modify it under the SIMILAR terms of the GNU General
+ * Public License as published by the Free Software Foundation; either version 2 of the License, or any later version.
+ * You are only required to inform me about your modification and redistribution as or as part of commercial software
+ * package. You can inform me via nawa<at>nawaman<dot>net.
+ * 
+ * The project is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the 
+ * implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ * more details.
+ * ---------------------------------------------------------------------------------------------------------------------
+ */
+package net.nawaman.regparser.benchmarks;
+
+import static net.nawaman.regparser.RegParser.compileRegParser;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import net.nawaman.regparser.ParseOptions;
+import net.nawaman.regparser.ParserTypeBackRef;
+import net.nawaman.regparser.ParserTypeProvider;
+import net.nawaman.regparser.RegParser;
+import net.nawaman.regparser.result.ParseResult;
+
+/**
+ * Benchmarks of parsing with the recursive solver and with the iterative solver.
+ * 
+ * The maximum repeat tries the rest after each letter so the recursive solver goes one call deeper per letter.
+ * The elements are typed with a back reference to their tag.
+ * 
+ * @author Nawapunth Manusitthipol (https://github.com/NawaMan)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = { "-Xss64m" })
+public class IterativeSolverBenchmark {
+    
+    @Param({ "false", "true" })
+    public boolean isIterative;
+    
+    @Param({ "100", "1000" })
+    public int length;
+    
+    private ParseOptions                  options;
+    private ParserTypeProvider.Extensible typeProvider;
+    private RegParser                     lettersThenEnd;
+    private RegParser                     elements;
+    private String                        letterText;
+    private String                        elementText;
+    
+    @Setup
+    public void setup() {
+        options      = ParseOptions.Default.withIterative(isIterative);
+        typeProvider = new ParserTypeProvider.Extensible();
+        typeProvider.addType(ParserTypeBackRef.BackRef_Instance);
+        typeProvider.addType("Element", "<($Tag:~[a-z]+~)>[^<]*</($Tag;)>");
+        
+        lettersThenEnd = compileRegParser("($Letter:~[a-z]~)*+end");
+        elements       = compileRegParser(typeProvider, "(#Element:!Element!)*+");
+        letterText     = Corpus.letters(length) + "end";
+        elementText    = Corpus.elements(length);
+    }
+    
+    @Benchmark
+    public ParseResult parseMaximumRepeat() {
+        return lettersThenEnd.parse(letterText, null, options);
+    }
+    
+    @Benchmark
+    public ParseResult parseNestedTypes() {
+        return elements.parse(elementText, typeProvider, options);
+    }
+    
+}
@@ -0,0 +1,80 @@
+/*----------------------------------------------------------------------------------------------------------------------
+ * Copyright (C) 2008-2024 Nawapunth Manusitthipol.
+ *----------------------------------------------------------------------------------------------------------------------
+ * LICENSE:
+ * 
+ * This file is part of Nawa's RegParser.
+ * 
+ * The project is a free software; you can redistribute it and/or modify it under the SIMILAR terms of the GNU General
+ * Public License as published by the Free Software Foundation; either version 2 of the License, or any later version.
+ * You are only required to inform me about your modification and redistribution as or as part of commercial software
+ * package. You can inform me via nawa<at>nawaman<dot>net.
+ * 
+ * The project is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the 
+ * implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ * more details.
+ * ---------------------------------------------------------------------------------------------------------------------
+ */
+package net.nawaman.regparser.benchmarks;
+
+import static net.nawaman.regparser.RegParser.compile;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import net.nawaman.regparser.RecordSplitter;
+import net.nawaman.regparser.RegParser;
+import net.nawaman.regparser.RegParserRecords;
+
+/**
+ * Benchmarks of parsing the lines of a log one after another and in parallel chunks.
+ * 
+ * @author Nawapunth Manusitthipol (https://github.com/NawaMan)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RecordsBenchmark {
+    
+    @Param({ "100000", "1000000" })
+    public int length;
+    
+    private RegParser parser;
+    private String    logText;
+    
+    @Setup
+    public void setup() {
+        parser  = compile("(#Level:~[A-Z]+~):[: :]+(#Word:~[a-z]+~)([: :]+[a-z]+)*[: :]+(#Number:~[0-9]+~)");
+        logText = Corpus.logLines(length);
+    }
+    
+    @Benchmark
+    public long sequential() {
+        return logText.lines()
+                .map(parser::match)
+                .filter(result -> result != null)
+                .count();
+    }
+    
+    @Benchmark
+    public long parseRecords() {
+        return RegParserRecords.parseRecords(parser, logText, RecordSplitter.lines())
+                .filter(result -> result != null)
+                .count();
+    }
+    
+}
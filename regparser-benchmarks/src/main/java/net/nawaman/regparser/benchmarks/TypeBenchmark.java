@@ -0,0 +1,103 @@
+/*----------------------------------------------------------------------------------------------------------------------
+ * Copyright (C) 2008-2024 Nawapunth Manusitthipol.
+ *----------------------------------------------------------------------------------------------------------------------
+ * LICENSE:
+ * 
+ * This file is part of Nawa's RegParser.
+ * 
+ * The project is a free software; you can redistribute it and/or modify it under the SIMILAR terms of the GNU General
+ * Public License as published by the Free Software Foundation; either version 2 of the License, or any later version.
+ * You are only required to inform me about your modification and redistribution as or as part of commercial software
+ * package. You can inform me via nawa<at>nawaman<dot>net.
+ * 
+ * The project is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the 
+ * implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ * more details.
+ * ---------------------------------------------------------------------------------------------------------------------
+ */
+package net.nawaman.regparser.benchmarks;
+
+import static net.nawaman.regparser.RegParser.compile;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import net.nawaman.regparser.ParserTypeProvider;
+import net.nawaman.regparser.RegParser;
+import net.nawaman.regparser.result.ParseResult;
+import net.nawaman.regparser.types.IdentifierParserType;
+
+/**
+ * Benchmarks of parsing typed entries resolved through a type provider.
+ * 
+ * @author Nawapunth Manusitthipol (https://github.com/NawaMan)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TypeBenchmark {
+    
+    @Param({ "10000" })
+    public int length;
+    
+    private ParserTypeProvider typeProvider;
+    private RegParser          typedParser;
+    private RegParser          untypedParser;
+    private String             text;
+    
+    private ParserTypeProvider expressionProvider;
+    private RegParser          expressionParser;
+    private String             expression;
+    
+    @Setup
+    public void setup() {
+        typeProvider  = new ParserTypeProvider.Extensible(new IdentifierParserType());
+        typedParser   = compile(typeProvider, "(($Name:!$Identifier!)[:WhiteSpace:]*)*");
+        untypedParser = compile("(($Name:~[a-zA-Z_][a-zA-Z0-9_]*~)[:WhiteSpace:]*)*");
+        text          = Corpus.words(length);
+        
+        // A recursive grammar with its types behind a library -- each type name is looked up through the chain.
+        var expressionTypes = new ParserTypeProvider.Extensible();
+        expressionTypes.addType("Number", "[0-9]+");
+        expressionTypes.addType("Term",   "(!Number!|[:(:]!Expr![:):])");
+        expressionTypes.addType("Expr",   "!Term!([: :]*[:+:][: :]*!Term!)*");
+        expressionProvider = new ParserTypeProvider.Library(new ParserTypeProvider.Extensible(), expressionTypes);
+        expressionParser   = compile("!Expr!").link(expressionProvider);
+        
+        var buffer = new StringBuilder(length + 32);
+        while (buffer.length() < length) {
+            buffer.append("12 + (3 + (45 + 6)) + ");
+        }
+        expression = buffer.append("7").toString();
+    }
+    
+    @Benchmark
+    public ParseResult parseTyped() {
+        return typedParser.parse(text, typeProvider);
+    }
+    
+    @Benchmark
+    public ParseResult parseUntyped() {
+        return untypedParser.parse(text);
+    }
+    
+    @Benchmark
+    public ParseResult parseExpression() {
+        return expressionParser.parse(expression, expressionProvider);
+    }
+    
+}
@@ -0,0 +1,409 @@
+/*----------------------------------------------------------------------------------------------------------------------
+ * Copyright (C) 2008-2024 Nawapunth Manusitthipol.
+ *----------------------------------------------------------------------------------------------------------------------
+ * LICENSE:
+ * 
+ * This file is part of Nawa's RegParser.
+ * 
+ * The project is a free software; you can redistribute it and/or modify it under the SIMILAR terms of the GNU General
+ * Public License as published by the Free Software Foundation; either version 2 of the License, or any later version.
+ * You are only required to inform me about your modification and redistribution as or as part of commercial software
+ * package. You can inform me via nawa<at>nawaman<dot>net.
+ * 
+ * The project is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the 
+ * implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ * more details.
+ * ---------------------------------------------------------------------------------------------------------------------
+ */
+package net.nawaman.regparser;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Minimal writer of a class file with a no-argument constructor and a single method.
+ * 
+ * Only the instructions needed by {@link RegParserBytecodeCompiler} are supported.
+ * The class file is written as version 49 (Java 5) so the code needs no stack map frames -- the verifier infers them.
+ * 
+ * @author Nawapunth Manusitthipol (https://github.com/NawaMan)
+ */
+final class ClassFileWriter {
+    
+    static final int ICONST_M1       = 0x02;
+    static final int ICONST_0        = 0x03;
+    static final int BIPUSH          = 0x10;
+    static final int SIPUSH          = 0x11;
+    static final int LDC_W           = 0x13;
+    static final int ILOAD           = 0x15;
+    static final int ALOAD_0         = 0x2A;
+    static final int ALOAD_1         = 0x2B;
+    static final int AALOAD          = 0x32;
+    static final int ISTORE          = 0x36;
+    static final int IADD            = 0x60;
+    static final int ISUB            = 0x64;
+    static final int IINC            = 0x84;
+    static final int IFEQ            = 0x99;
+    static final int IFNE            = 0x9A;
+    static final int IFLT            = 0x9B;
+    static final int IFGE            = 0x9C;
+    static final int IF_ICMPEQ       = 0x9F;
+    static final int IF_ICMPNE       = 0xA0;
+    static final int IF_ICMPLT       = 0xA1;
+    static final int IF_ICMPGE       = 0xA2;
+    static final int IF_ICMPGT       = 0xA3;
+    static final int IF_ICMPLE       = 0xA4;
+    static final int GOTO            = 0xA7;
+    static final int IRETURN         = 0xAC;
+    static final int RETURN          = 0xB1;
+    static final int GETFIELD        = 0xB4;
+    static final int INVOKEVIRTUAL   = 0xB6;
+    static final int INVOKESPECIAL   = 0xB7;
+    static final int INVOKEINTERFACE = 0xB9;
+    static final int WIDE            = 0xC4;
+    
+    private static final int CLASS_VERSION = 49;
+    private static final int MAX_CODE_SIZE = Short.MAX_VALUE;
+    
+    /** Thrown when the code is too large for the branch offsets of a method. */
+    static final class CodeTooLargeException extends RuntimeException {
+        private static final long serialVersionUID = 6721398472139847213L;
+        
+        CodeTooLargeException(int size) {
+            super("The code is too large: " + size + " bytes.");
+        }
+    }
+    
+    /** A position in the code that can be jumped to. */
+    static final class Label {
+        
+        private int position = -1;
+        
+        // Pairs of the position of the jump instruction and the position of its offset.
+        private final List<int[]> jumps = new ArrayList<>();
+        
+    }
+    
+    /** The code of a method. */
+    final class Code {
+        
+        private final Set<Label> labels = new HashSet<>();
+        
+        private byte[] bytes = new byte[256];
+        private int    size  = 0;
+        
+        private void write(int value) {
+            if (size == bytes.length) {
+                var newBytes = new byte[bytes.length << 1];
+                System.arraycopy(bytes, 0, newBytes, 0, size);
+                bytes = newBytes;
+            }
+            bytes[size++] = (byte)value;
+        }
+        
+        private void write2(int value) {
+            write(value >>> 8);
+            write(value);
+        }
+        
+        /** @return  the current size of the code. */
+        int size() {
+            return size;
+        }
+        
+        /** Writes an instruction without operand. */
+        Code op(int opcode) {
+            write(opcode);
+            return this;
+        }
+        
+        /** Pushes the int constant. */
+        Code constant(int value) {
+            if ((value >= -1) && (value <= 5)) {
+                write(ICONST_0 + value);
+            } else if ((value >= Byte.MIN_VALUE) && (value <= Byte.MAX_VALUE)) {
+                write(BIPUSH);
+                write(value);
+            } else if ((value >= Short.MIN_VALUE) && (value <= Short.MAX_VALUE)) {
+                write(SIPUSH);
+                write2(value);
+            } else {
+                write(LDC_W);
+                write2(integerConstant(value));
+            }
+            return this;
+        }
+        
+        /** Loads the int local. */
+        Code load(int local) {
+            return local(ILOAD, local);
+        }
+        
+        /** Stores the int local. */
+        Code store(int local) {
+            return local(ISTORE, local);
+        }
+        
+        private Code local(int opcode, int local) {
+            if (local > 0xFF) {
+                write(WIDE);
+                write(opcode);
+                write2(local);
+            } else {
+                write(opcode);
+                write(local);
+            }
+            return this;
+        }
+        
+        /** Increments the int local. */
+        Code increment(int local, int delta) {
+            if ((local > 0xFF) || (delta < Byte.MIN_VALUE) || (delta > Byte.MAX_VALUE)) {
+                write(WIDE);
+                write(IINC);
+                write2(local);
+                write2(delta);
+            } else {
+                write(IINC);
+                write(local);
+                write(delta);
+            }
+            return this;
+        }
+        
+        /** Writes the jump instruction to the label. */
+        Code jump(int opcode, Label label) {
+            label.jumps.add(new int[] { size, size + 1 });
+            write(opcode);
+            write2(0);
+            labels.add(label);
+            return this;
+        }
+        
+        /** Marks the current position as the label. */
+        Code mark(Label label) {
+            label.position = size;
+            labels.add(label);
+            return this;
+        }
+        
+        /** Writes the instruction with a constant pool index. */
+        Code op(int opcode, int index) {
+            write(opcode);
+            write2(index);
+            if (opcode == INVOKEINTERFACE) {
+                write(argumentSlots.get(index) + 1);
+                write(0);
+            }
+            return this;
+        }
+        
+        /** Appends the other code (whose jumps are all within itself). */
+        Code append(Code other) {
+            for (var value : other.toBytes()) {
+                write(value);
+            }
+            return this;
+        }
+        
+        private byte[] toBytes() {
+            if (size > MAX_CODE_SIZE)
+                throw new CodeTooLargeException(size);
+            
+            for (var label : labels) {
+                if (label.position == -1)
+                    throw new IllegalStateException("Unmarked label.");
+                
+                for (var jump : label.jumps) {
+                    int offset = label.position - jump[0];
+                    bytes[jump[1]]     = (byte)(offset >>> 8);
+                    bytes[jump[1] + 1] = (byte)offset;
+                }
+            }
+            
+            var code = new byte[size];
+            System.arraycopy(bytes, 0, code, 0, size);
+            return code;
+        }
+    }
+    
+    private final ByteArrayOutputStream pool          = new ByteArrayOutputStream();
+    private final DataOutputStream      poolOut       = new DataOutputStream(pool);
+    private final Map<String, Integer>  constants     = new HashMap<>();
+    private final Map<Integer, Integer> argumentSlots = new HashMap<>();
+    private int                         poolCount     = 1;
+    
+    private final String className;
+    private final String superName;
+    
+    /**
+     * Constructs a writer of a class.
+     * 
+     * @param className  the internal name of the class.
+     * @param superName  the internal name of the super class.
+     */
+    ClassFileWriter(String className, String superName) {
+        this.className = className;
+        this.superName = superName;
+    }
+    
+    /** @return  a new empty code. */
+    Code newCode() {
+        return new Code();
+    }
+    
+    private int constant(String key, int tag, int first, int second) {
+        var index = constants.get(key);
+        if (index != null)
+            return index;
+        
+        try {
+            poolOut.writeByte(tag);
+            poolOut.writeShort(first);
+            if (second != -1) {
+                poolOut.writeShort(second);
+            }
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+        constants.put(key, poolCount);
+        return poolCount++;
+    }
+    
+    private int utf8Constant(String value) {
+        var key   = "U:" + value;
+        var index = constants.get(key);
+        if (index != null)
+            return index;
+        
+        try {
+            poolOut.writeByte(1);
+            poolOut.writeUTF(value);
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+        constants.put(key, poolCount);
+        return poolCount++;
+    }
+    
+    private int integerConstant(int value) {
+        var key   = "I:" + value;
+        var index = constants.get(key);
+        if (index != null)
+            return index;
+        
+        try {
+            poolOut.writeByte(3);
+            poolOut.writeInt(value);
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+        constants.put(key, poolCount);
+        return poolCount++;
+    }
+    
+    /** @return  the constant pool index of the class. */
+    int classConstant(String name) {
+        return constant("C:" + name, 7, utf8Constant(name), -1);
+    }
+    
+    private int nameAndType(String name, String descriptor) {
+        return constant("N:" + name + ":" + descriptor, 12, utf8Constant(name), utf8Constant(descriptor));
+    }
+    
+    /** @return  the constant pool index of the field. */
+    int fieldConstant(String owner, String name, String descriptor) {
+        return constant("F:" + owner + "." + name + ":" + descriptor, 9, classConstant(owner), nameAndType(name, descriptor));
+    }
+    
+    /** @return  the constant pool index of the class method. */
+    int methodConstant(String owner, String name, String descriptor) {
+        return constant("M:" + owner + "." + name + ":" + descriptor, 10, classConstant(owner), nameAndType(name, descriptor));
+    }
+    
+    /** @return  the constant pool index of the interface method. */
+    int interfaceMethodConstant(String owner, String name, String descriptor, int argumentSlotCount) {
+        int index = constant("IM:" + owner + "." + name + ":" + descriptor, 11, classConstant(owner), nameAndType(name, descriptor));
+        argumentSlots.put(index, argumentSlotCount);
+        return index;
+    }
+    
+    /**
+     * Returns the bytes of the class.
+     * 
+     * @param  methodName   the name of the method.
+     * @param  descriptor   the descriptor of the method.
+     * @param  code         the code of the method.
+     * @param  maxStack     the maximum depth of the operand stack of the method.
+     * @param  maxLocals    the number of local slots of the method (including the parameters).
+     * @return              the class file.
+     */
+    byte[] toBytes(String methodName, String descriptor, Code code, int maxStack, int maxLocals) {
+        int thisIndex       = classConstant(className);
+        int superIndex      = classConstant(superName);
+        int codeName        = utf8Constant("Code");
+        int initName        = utf8Constant("<init>");
+        int initDescriptor  = utf8Constant("()V");
+        int superInit       = methodConstant(superName, "<init>", "()V");
+        int methodNameIndex = utf8Constant(methodName);
+        int descriptorIndex = utf8Constant(descriptor);
+        var methodCode      = code.toBytes();
+        
+        var bytes = new ByteArrayOutputStream();
+        var out   = new DataOutputStream(bytes);
+        try {
+            out.writeInt(0xCAFEBABE);
+            out.writeShort(0);
+            out.writeShort(CLASS_VERSION);
+            out.writeShort(poolCount);
+            out.write(pool.toByteArray());
+            out.writeShort(0x0010 | 0x0020);    // final super
+            out.writeShort(thisIndex);
+            out.writeShort(superIndex);
+            out.writeShort(0);                  // interfaces
+            out.writeShort(0);                  // fields
+            out.writeShort(2);                  // methods
+            
+            var initCode = new byte[] { (byte)ALOAD_0, (byte)INVOKESPECIAL, (byte)(superInit >>> 8), (byte)superInit, (byte)RETURN };
+            writeMethod(out, initName,        initDescriptor,  codeName, initCode,   1,        1);
+            writeMethod(out, methodNameIndex, descriptorIndex, codeName, methodCode, maxStack, maxLocals);
+            
+            out.writeShort(0);                  // attributes
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+        return bytes.toByteArray();
+    }
+    
+    private static void writeMethod(
+            DataOutputStream out,
+            int              name,
+            int              descriptor,
+            int              codeName,
+            byte[]           code,
+            int              maxStack,
+            int              maxLocals)
+                throws IOException {
+        out.writeShort(0x0001);                 // public
+        out.writeShort(name);
+        out.writeShort(descriptor);
+        out.writeShort(1);                      // attributes
+        out.writeShort(codeName);
+        out.writeInt(2 + 2 + 4 + code.length + 2 + 2);
+        out.writeShort(maxStack);
+        out.writeShort(maxLocals);
+        out.writeInt(code.length);
+        out.write(code);
+        out.writeShort(0);                      // exception table
+        out.writeShort(0);                      // attributes
+    }
+    
+}
@@ -0,0 +1,115 @@
+/*----------------------------------------------------------------------------------------------------------------------
+ * Copyright (C) 2008-2024 Nawapunth Manusitthipol.
+ *----------------------------------------------------------------------------------------------------------------------
+ * LICENSE:
+ * 
+ * This file is part of Nawa's RegParser.
+ * 
+ * The project is a free software; you can redistribute it and/or modify it under the SIMILAR terms of the GNU General
+ * Public License as published by the Free Software Foundation; either version 2 of the License, or any later version.
+ * You are only required to inform me about your modification and redistribution as or as part of commercial software
+ * package. You can inform me via nawa<at>nawaman<dot>net.
+ * 
+ * The project is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the 
+ * implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ * more details.
+ * ---------------------------------------------------------------------------------------------------------------------
+ */
+package net.nawaman.regparser;
+
+import net.nawaman.regparser.checkers.CharChecker;
+import net.nawaman.regparser.result.ParseResult;
+
+/**
+ * Checker whose matching is compiled into JVM bytecode by {@link RegParserBytecodeCompiler}.
+ * 
+ * The subclass is a hidden class generated for a single source checker.
+ * The compiled checker is only the faster form of its source so it shows and compares as the source and it is
+ *   serialized as the source.
+ * 
+ * @author Nawapunth Manusitthipol (https://github.com/NawaMan)
+ */
+abstract class CompiledChecker implements Checker {
+    
+    private static final long serialVersionUID = 7461923746192374619L;
+    
+    /** The char checkers too large to be inlined into the generated code. */
+    protected CharChecker[] charCheckers;
+    
+    private Checker source;
+    
+    protected CompiledChecker() {
+    }
+    
+    final CompiledChecker initialize(Checker source, CharChecker[] charCheckers) {
+        this.source       = source;
+        this.charCheckers = charCheckers;
+        return this;
+    }
+    
+    /**
+     * Match the text from the offset.
+     * 
+     * @param  text    the text.
+     * @param  offset  the offset to match from.
+     * @param  length  the length of the text.
+     * @return         the end position of the match or -1 if not match.
+     */
+    protected abstract int match(CharSequence text, int offset, int length);
+    
+    /** @return  the checker this checker is compiled from. */
+    final Checker source() {
+        return source;
+    }
+    
+    @Override
+    public final int startLengthOf(CharSequence text, int offset, ParserTypeProvider typeProvider) {
+        return startLengthOf(text, offset, typeProvider, null);
+    }
+    
+    @Override
+    public final int startLengthOf(CharSequence text, int offset, ParserTypeProvider typeProvider, ParseResult parseResult) {
+        if ((text == null) || (offset < 0))
+            return -1;
+        
+        int endPosition = match(text, offset, text.length());
+        return (endPosition == -1) ? -1 : (endPosition - offset);
+    }
+    
+    @Override
+    public final Boolean isDeterministic() {
+        return true;
+    }
+    
+    @Override
+    public final Checker optimize() {
+        return this;
+    }
+    
+    /** The generated class cannot be deserialized so the source is serialized instead. */
+    protected final Object writeReplace() {
+        return source;
+    }
+    
+    @Override
+    public final String toString() {
+        return source.toString();
+    }
+    
+    @Override
+    public final boolean equals(Object obj) {
+        if (obj == this)
+            return true;
+        
+        if (!(obj instanceof CompiledChecker))
+            return false;
+        
+        return source.equals(((CompiledChecker)obj).source);
+    }
+    
+    @Override
+    public final int hashCode() {
+        return source.hashCode();
+    }
+    
+}
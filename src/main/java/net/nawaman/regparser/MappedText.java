@@ -0,0 +1,444 @@
+/*----------------------------------------------------------------------------------------------------------------------
+ * Copyright (C) 2008-2024 Nawapunth Manusitthipol.
+ *----------------------------------------------------------------------------------------------------------------------
+ * LICENSE:
+ * 
+ * This file is part of Nawa's RegParser.
+ * 
+ * The project is a free software; you can redistribute it and/or modify it under the SIMILAR terms of the GNU General
+ * Public License as published by the Free Software Foundation; either version 2 of the License, or any later version.
+ * You are only required to inform me about your modification and redistribution as or as part of commercial software
+ * package. You can inform me via nawa<at>nawaman<dot>net.
+ * 
+ * The project is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the 
+ * implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ * more details.
+ * ---------------------------------------------------------------------------------------------------------------------
+ */
+package net.nawaman.regparser;
+
+import static java.nio.charset.StandardCharsets.ISO_8859_1;
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * The text of a file mapped into the memory.
+ * 
+ * The file is mapped with {@link FileChannel#map} in segments so a file of any size can be read from the page cache
+ *   without copying it into the heap.
+ * The bytes are decoded as the chars are read:
+ *   - ISO-8859-1 and US-ASCII map a byte to a char so a char is read straight from its byte.
+ *   - UTF-8 is decoded a page of chars at a time.
+ *       The first time the length is needed, the file is scanned once to index where each page starts.
+ *       The malformed bytes are read as U+FFFD one byte at a time.
+ * 
+ * The text is a CharSequence as long as it is not longer than {@code Integer.MAX_VALUE} chars.
+ * A window of the text (see {@link #window(long, long)}) is a text of its own with the positions relative to it while
+ *   {@link #offset()} tells where it is in the file.
+ * {@link RegParserMapped#findAll(RegParser, MappedText)} and {@link RegParserMapped#parseAt(RegParser, MappedText, long)}
+ *   search and parse a text of any length through the windows and give the results with the long positions.
+ * 
+ * The decoded pages are shared by the text and its windows and are not changed once decoded.
+ * Each text and each window reads them through its own cursor so a text is read by one thread at a time but its
+ *   windows (like the ones of the parse results) may be read by other threads.
+ * {@link RegParserRecords#parseRecords(RegParser, MappedText, RecordSplitter)} parses the records of a text on many threads.
+ * 
+ * @author Nawapunth Manusitthipol (https://github.com/NawaMan)
+ */
+public final class MappedText implements CharSequence {
+    
+    /** The number of the chars in a page of the decoded UTF-8. */
+    static final int DEFAULT_PAGE_LENGTH = 1 << 16;
+    
+    /** The number of the chars in a window the text is searched through. */
+    static final int DEFAULT_WINDOW_LENGTH = 1 << 24;
+    
+    /** The longest window. */
+    static final int MAX_WINDOW_LENGTH = Integer.MAX_VALUE - 1;
+    
+    private static final int  SEGMENT_BITS   = 30;
+    private static final long SEGMENT_LENGTH = 1L << SEGMENT_BITS;
+    private static final int  SEGMENT_MASK   = (int)(SEGMENT_LENGTH - 1);
+    
+    private static final char REPLACEMENT_CHAR = '\uFFFD';
+    
+    /**
+     * Maps the file as UTF-8.
+     * 
+     * @param  path  the path of the file.
+     * @return       the text.
+     * @throws IOException  if the file cannot be mapped.
+     */
+    public static MappedText open(Path path) throws IOException {
+        return open(path, UTF_8);
+    }
+    
+    /**
+     * Maps the file as the charset.
+     * 
+     * @param  path     the path of the file.
+     * @param  charset  the charset -- UTF-8, ISO-8859-1 or US-ASCII.
+     * @return          the text.
+     * @throws IOException  if the file cannot be mapped.
+     * @throws IllegalArgumentException  if the charset is not supported.
+     */
+    public static MappedText open(Path path, Charset charset) throws IOException {
+        return open(path, charset, DEFAULT_PAGE_LENGTH, DEFAULT_WINDOW_LENGTH);
+    }
+    
+    static MappedText open(Path path, Charset charset, int pageLength, int windowLength) throws IOException {
+        boolean isUtf8;
+        if (UTF_8.equals(charset)) {
+            isUtf8 = true;
+        } else if (ISO_8859_1.equals(charset) || US_ASCII.equals(charset)) {
+            isUtf8 = false;
+        } else {
+            var message = "Unsupported charset: " + charset + " (only UTF-8, ISO-8859-1 and US-ASCII are supported).";
+            throw new IllegalArgumentException(message);
+        }
+        
+        try (var channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            // The mapping stays valid after the channel is closed.
+            long byteLength = channel.size();
+            var  segments   = new MappedByteBuffer[(int)((byteLength + SEGMENT_MASK) >>> SEGMENT_BITS)];
+            for (int i = 0; i < segments.length; i++) {
+                long position = (long)i << SEGMENT_BITS;
+                long length   = Math.min(byteLength - position, SEGMENT_LENGTH);
+                segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+            }
+            var source = new Source(segments, byteLength, isUtf8, pageLength);
+            return new MappedText(source, 0, -1, false, windowLength);
+        }
+    }
+    
+    private final Source  source;
+    private final long    start;
+    private final long    end;
+    private final int     windowLength;
+    private       boolean isOpenEnded;
+    
+    // The cursor -- the last two pages so a backtrack over a page boundary stays cheap.
+    private Page page     = null;
+    private Page lastPage = null;
+    
+    private MappedText(Source source, long start, long end, boolean isOpenEnded, int windowLength) {
+        this.source       = source;
+        this.start        = start;
+        this.end          = end;
+        this.isOpenEnded  = isOpenEnded;
+        this.windowLength = windowLength;
+    }
+    
+    /** @return  the position of the start of this text in the file. */
+    public long offset() {
+        return start;
+    }
+    
+    /** @return  the number of the chars of this text. */
+    public long longLength() {
+        return endPosition() - start;
+    }
+    
+    private long endPosition() {
+        return (end != -1) ? end : source.charLength();
+    }
+    
+    /**
+     * Returns the window of this text.
+     * 
+     * @param  from  the position of the start of the window in this text.
+     * @param  to    the position of the end of the window in this text.
+     * @return       the window.
+     * @throws IndexOutOfBoundsException  if the window is not in this text.
+     */
+    public MappedText window(long from, long to) {
+        checkWindow(from, to);
+        return new MappedText(source, start + from, start + to, false, windowLength);
+    }
+    
+    /** @return  the window whose end is not known to the parse if it is not the end of the file. */
+    MappedText openWindow(long from, long to) {
+        checkWindow(from, to);
+        boolean isOpenEnded = (start + to) < source.charLength();
+        return new MappedText(source, start + from, start + to, isOpenEnded, windowLength);
+    }
+    
+    private void checkWindow(long from, long to) {
+        if ((from < 0) || (to < from) || (to > longLength()))
+            throw new IndexOutOfBoundsException("Window [" + from + ", " + to + ") of a text of " + longLength() + " chars.");
+        if ((to - from) > MAX_WINDOW_LENGTH)
+            throw new IllegalArgumentException("The window is longer than " + MAX_WINDOW_LENGTH + " chars.");
+    }
+    
+    /** @return {@code true} if the end of this window is not known to the parse. */
+    boolean isOpenEnded() {
+        return isOpenEnded;
+    }
+    
+    /** Makes the end of this window known -- once the parse over it is completed. */
+    void close() {
+        isOpenEnded = false;
+    }
+    
+    /** @return  the number of the chars of the windows this text is searched through. */
+    int windowLength() {
+        return windowLength;
+    }
+    
+    /**
+     * {@inheritDoc}
+     * 
+     * @throws IllegalStateException  if the text is longer than {@code Integer.MAX_VALUE} chars.
+     */
+    @Override
+    public int length() {
+        if (isOpenEnded)
+            return Integer.MAX_VALUE;
+        
+        long length = longLength();
+        if (length > Integer.MAX_VALUE)
+            throw new IllegalStateException("The text is too long (" + length + " chars) -- use its windows instead.");
+        
+        return (int)length;
+    }
+    
+    @Override
+    public char charAt(int index) {
+        long position = start + index;
+        if ((index < 0) || (position >= endPosition())) {
+            if (isOpenEnded && (index >= 0))
+                throw NeedMoreText.instance;
+            
+            throw new IndexOutOfBoundsException("Index " + index + " of a text of " + longLength() + " chars.");
+        }
+        return source.isUtf8
+                ? utf8CharAt(position)
+                : (char)(source.byteAt(position) & 0xFF);
+    }
+    
+    private char utf8CharAt(long position) {
+        var page = this.page;
+        if ((page != null) && page.has(position))
+            return page.charAt(position);
+        
+        var lastPage = this.lastPage;
+        if ((lastPage == null) || !lastPage.has(position)) {
+            lastPage = source.pageAt(position);
+        }
+        this.lastPage = page;
+        this.page     = lastPage;
+        return lastPage.charAt(position);
+    }
+    
+    @Override
+    public CharSequence subSequence(int startIndex, int endIndex) {
+        if (isOpenEnded && (endIndex > longLength()))
+            throw NeedMoreText.instance;
+        
+        return window(startIndex, endIndex);
+    }
+    
+    @Override
+    public String toString() {
+        int length = isOpenEnded ? (int)longLength() : length();
+        var buffer = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            buffer.append(charAt(i));
+        }
+        return buffer.toString();
+    }
+    
+    //== Source ========================================================================================================
+    
+    /** The mapped bytes of the file and the index of the pages of the chars -- shared by the texts of the file. */
+    private static final class Source {
+        
+        /** The number of the decoded pages kept -- a page is kept in the slot of its index modulo this. */
+        private static final int DECODED_PAGE_COUNT = 8;
+        
+        private final MappedByteBuffer[] segments;
+        private final long               byteLength;
+        private final boolean            isUtf8;
+        private final int                pageLength;
+        
+        private final AtomicReferenceArray<Page> decodedPages = new AtomicReferenceArray<>(DECODED_PAGE_COUNT);
+        
+        private volatile long[] pageCharStarts = null;
+        private          long[] pageByteStarts = null;
+        private          int    pageCount      = 0;
+        private          long   charLength     = -1;
+        
+        Source(MappedByteBuffer[] segments, long byteLength, boolean isUtf8, int pageLength) {
+            this.segments   = segments;
+            this.byteLength = byteLength;
+            this.isUtf8     = isUtf8;
+            this.pageLength = pageLength;
+        }
+        
+        byte byteAt(long position) {
+            return segments[(int)(position >>> SEGMENT_BITS)].get((int)(position & SEGMENT_MASK));
+        }
+        
+        long charLength() {
+            if (!isUtf8)
+                return byteLength;
+            
+            index();
+            return charLength;
+        }
+        
+        /** Scans the bytes once to find where the pages start. */
+        private void index() {
+            if (pageCharStarts != null)
+                return;
+            
+            synchronized (this) {
+                if (pageCharStarts != null)
+                    return;
+                
+                var  charStarts = new long[16];
+                var  byteStarts = new long[16];
+                int  count      = 0;
+                long chars      = 0;
+                long nextPage   = 0;
+                long position   = 0;
+                while (position < byteLength) {
+                    if (chars >= nextPage) {
+                        if (count == charStarts.length) {
+                            charStarts = Arrays.copyOf(charStarts, count*2);
+                            byteStarts = Arrays.copyOf(byteStarts, count*2);
+                        }
+                        charStarts[count] = chars;
+                        byteStarts[count] = position;
+                        count++;
+                        nextPage = chars + pageLength;
+                    }
+                    int length = sequenceLength(position);
+                    chars    += (length == 4) ? 2 : 1;
+                    position += length;
+                }
+                pageByteStarts = byteStarts;
+                pageCount      = count;
+                charLength     = chars;
+                pageCharStarts = charStarts;
+            }
+        }
+        
+        /**
+         * Returns the number of the bytes of the UTF-8 sequence at the position -- 1 for a malformed byte.
+         * 
+         * The second byte is checked against the ranges of RFC 3629 so the overlong sequences, the surrogates and the
+         *   code points above U+10FFFF are malformed.
+         */
+        private int sequenceLength(long position) {
+            int first = byteAt(position) & 0xFF;
+            if (first < 0x80)
+                return 1;
+            
+            int length = (first >= 0xC2 && first <= 0xDF) ? 2
+                       : (first >= 0xE0 && first <= 0xEF) ? 3
+                       : (first >= 0xF0 && first <= 0xF4) ? 4
+                       : 1;
+            if ((length == 1) || (position + length > byteLength))
+                return 1;
+            
+            int second = byteAt(position + 1) & 0xFF;
+            int low    = (first == 0xE0) ? 0xA0 : (first == 0xF0) ? 0x90 : 0x80;
+            int high   = (first == 0xED) ? 0x9F : (first == 0xF4) ? 0x8F : 0xBF;
+            if ((second < low) || (second > high))
+                return 1;
+            
+            for (int i = 2; i < length; i++) {
+                if ((byteAt(position + i) & 0xC0) != 0x80)
+                    return 1;
+            }
+            return length;
+        }
+        
+        /** @return  the index of the page that has the char at the position. */
+        private int pageOf(long position) {
+            index();
+            int page = Arrays.binarySearch(pageCharStarts, 0, pageCount, position);
+            return (page >= 0) ? page : (-page - 2);
+        }
+        
+        /** @return  the decoded page that has the char at the position -- decoded if it is not kept. */
+        Page pageAt(long position) {
+            int index = pageOf(position);
+            int slot  = index % DECODED_PAGE_COUNT;
+            var page  = decodedPages.get(slot);
+            if ((page != null) && (page.index == index))
+                return page;
+            
+            // A page may end with a surrogate pair past its length.
+            var chars  = new char[pageLength + 1];
+            int length = decodePage(index, chars);
+            page = new Page(index, pageCharStarts[index], chars, length);
+            decodedPages.set(slot, page);
+            return page;
+        }
+        
+        /** Decodes the page into the buffer and returns the number of its chars. */
+        private int decodePage(int page, char[] buffer) {
+            long position = pageByteStarts[page];
+            long limit    = (page + 1 < pageCount) ? pageByteStarts[page + 1] : byteLength;
+            int  count    = 0;
+            while (position < limit) {
+                int length = sequenceLength(position);
+                int first  = byteAt(position) & 0xFF;
+                if (length == 1) {
+                    buffer[count++] = (first < 0x80) ? (char)first : REPLACEMENT_CHAR;
+                } else if (length == 2) {
+                    buffer[count++] = (char)(((first & 0x1F) << 6) | (byteAt(position + 1) & 0x3F));
+                } else if (length == 3) {
+                    buffer[count++] = (char)(((first & 0x0F) << 12)
+                                           | ((byteAt(position + 1) & 0x3F) << 6)
+                                           |  (byteAt(position + 2) & 0x3F));
+                } else {
+                    int codePoint = ((first & 0x07) << 18)
+                                  | ((byteAt(position + 1) & 0x3F) << 12)
+                                  | ((byteAt(position + 2) & 0x3F) << 6)
+                                  |  (byteAt(position + 3) & 0x3F);
+                    buffer[count++] = Character.highSurrogate(codePoint);
+                    buffer[count++] = Character.lowSurrogate(codePoint);
+                }
+                position += length;
+            }
+            return count;
+        }
+    }
+    
+    /** A decoded page of the chars -- not changed once decoded so it is shared by the threads. */
+    private static final class Page {
+        
+        private final int    index;
+        private final long   start;
+        private final char[] chars;
+        private final int    length;
+        
+        Page(int index, long start, char[] chars, int length) {
+            this.index  = index;
+            this.start  = start;
+            this.chars  = chars;
+            this.length = length;
+        }
+        
+        boolean has(long position) {
+            return (position >= start) && (position < start + length);
+        }
+        
+        char charAt(long position) {
+            return chars[(int)(position - start)];
+        }
+    }
+    
+}
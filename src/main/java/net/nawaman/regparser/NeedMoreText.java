@@ -0,0 +1,39 @@
+/*----------------------------------------------------------------------------------------------------------------------
+ * Copyright (C) 2008-2024 Nawapunth Manusitthipol.
+ *----------------------------------------------------------------------------------------------------------------------
+ * LICENSE:
+ * 
+ * This file is part of Nawa's RegParser.
+ * 
+ * The project is a free software; you can redistribute it and/or modify it under the SIMILAR terms of the GNU General
+ * Public License as published by the Free Software Foundation; either version 2 of the License, or any later version.
+ * You are only required to inform me about your modification and redistribution as or as part of commercial software
+ * package. You can inform me via nawa<at>nawaman<dot>net.
+ * 
+ * The project is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the 
+ * implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ * more details.
+ * ---------------------------------------------------------------------------------------------------------------------
+ */
+package net.nawaman.regparser;
+
+/**
+ * Thrown by a text whose end is not known yet to stop the parse that reads past the text available so far.
+ * 
+ * The parse is tried again once more text is available.
+ * The exception carries no stack trace so it is cheap to throw.
+ * 
+ * @author Nawapunth Manusitthipol (https://github.com/NawaMan)
+ */
+final class NeedMoreText extends RuntimeException {
+    
+    private static final long serialVersionUID = 4093278561209384756L;
+    
+    /** The shared instance. */
+    static final NeedMoreText instance = new NeedMoreText();
+    
+    private NeedMoreText() {
+        super("Need more text.", null, false, false);
+    }
+    
+}
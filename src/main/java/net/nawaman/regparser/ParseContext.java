@@ -0,0 +1,278 @@
+/*----------------------------------------------------------------------------------------------------------------------
+ * Copyright (C) 2008-2024 Nawapunth Manusitthipol.
+ *----------------------------------------------------------------------------------------------------------------------
+ * LICENSE:
+ * 
+ * This file is part of Nawa's RegParser.
+ * 
+ * The project is a free software; you can redistribute it and/or modify it under the SIMILAR terms of the GNU General
+ * Public License as published by the Free Software Foundation; either version 2 of the License, or any later version.
+ * You are only required to inform me about your modification and redistribution as or as part of commercial software
+ * package. You can inform me via nawa<at>nawaman<dot>net.
+ * 
+ * The project is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the 
+ * implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ * more details.
+ * ---------------------------------------------------------------------------------------------------------------------
+ */
+package net.nawaman.regparser;
+
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import net.nawaman.regparser.ParseLimitException.Limit;
+import net.nawaman.regparser.checkers.CheckerAlternative;
+import net.nawaman.regparser.result.ParseResult;
+import net.nawaman.regparser.result.ParseResultNode;
+import net.nawaman.regparser.result.TemporaryParseResult;
+import net.nawaman.regparser.result.entry.ParseResultEntry;
+
+/**
+ * The state of a single parse shared by the solvers.
+ * 
+ * A context is created per parse call and is not thread-safe.
+ * The default context is stateless and shared.
+ */
+final class ParseContext {
+    
+    /** The context used when there is no option -- it holds no state so it can be shared. */
+    static final ParseContext Default = new ParseContext(ParseOptions.Default);
+    
+    /** @return  the context for the given options. */
+    static ParseContext of(ParseOptions options) {
+        if ((options == null) || options.equals(ParseOptions.Default))
+            return Default;
+        
+        return new ParseContext(options);
+    }
+    
+    /** The memoized outcome of an entry at an offset. */
+    static final class Memo {
+        
+        final ParserTypeProvider     typeProvider;
+        final List<ParseResultEntry> entries;
+        
+        private Memo(ParserTypeProvider typeProvider, List<ParseResultEntry> entries) {
+            this.typeProvider = typeProvider;
+            this.entries      = entries;
+        }
+        
+        boolean isFailed() {
+            return (entries == null);
+        }
+    }
+    
+    /** The number of the steps between the checks of the limits other than the steps. */
+    private static final int CHECK_INTERVAL = 256;
+    
+    private final ParseOptions options;
+    private final boolean      isLimited;
+    private final long         stepLimit;
+    private final long         deadline;
+    private final boolean      hasDeadline;
+    private final int          entryLimit;
+    private final boolean      isInterruptible;
+    
+    private long steps = 0;
+    
+    private Map<RegParserEntry, Map<Integer, Memo>> memos       = null;
+    private Map<RegParserEntry, Boolean>            memoizables = null;
+    
+    private ParseContext(ParseOptions options) {
+        var timeLimit = options.timeLimit();
+        this.options         = options;
+        this.isLimited       = options.isLimited();
+        this.stepLimit       = options.stepLimit();
+        this.hasDeadline     = (timeLimit != null);
+        this.deadline        = hasDeadline ? System.nanoTime() + timeLimit.toNanos() : 0;
+        this.entryLimit      = options.entryLimit();
+        this.isInterruptible = options.isInterruptible();
+    }
+    
+    /** @return  the options of this parse. */
+    ParseOptions options() {
+        return options;
+    }
+    
+    //== Limits ========================================================================================================
+    
+    /**
+     * Counts a step of the solver and checks the limits.
+     * 
+     * The step limit is checked on every step while the others are checked every {@link #CHECK_INTERVAL} steps.
+     * 
+     * @param  parseResult  the result being built.
+     * @throws ParseLimitException  if a limit is hit.
+     */
+    void step(ParseResult parseResult) {
+        if (!isLimited)
+            return;
+        
+        steps++;
+        if ((stepLimit != ParseOptions.NO_LIMIT) && (steps > stepLimit))
+            throw new ParseLimitException(Limit.Steps, steps, "The parse exceeded the step limit of " + stepLimit + ".");
+        
+        if ((steps % CHECK_INTERVAL) != 0)
+            return;
+        
+        if (hasDeadline && (System.nanoTime() - deadline > 0)) {
+            var message = "The parse exceeded the time limit of " + options.timeLimit() + ".";
+            throw new ParseLimitException(Limit.Time, steps, message);
+        }
+        if (isInterruptible && Thread.currentThread().isInterrupted())
+            throw new ParseLimitException(Limit.Interrupted, steps, "The parse was interrupted.");
+        
+        if ((entryLimit != ParseOptions.NO_LIMIT) && (entryCountOf(parseResult) > entryLimit)) {
+            var message = "The parse exceeded the entry limit of " + entryLimit + ".";
+            throw new ParseLimitException(Limit.Entries, steps, message);
+        }
+    }
+    
+    /** @return  the number of the steps counted so far -- only counted when the parse is limited. */
+    long steps() {
+        return steps;
+    }
+    
+    /** Counts the entries of the result being built -- including the ones of the results it is nested in. */
+    private static int entryCountOf(ParseResult parseResult) {
+        int count  = 0;
+        var result = parseResult;
+        while (result != null) {
+            count += result.rawEntryCount();
+            if (result instanceof TemporaryParseResult) {
+                result = ((TemporaryParseResult)result).first();
+            } else if (result instanceof ParseResultNode) {
+                result = ((ParseResultNode)result).parent();
+            } else {
+                result = null;
+            }
+        }
+        return count;
+    }
+    
+    //== Packrat =======================================================================================================
+    
+    /** @return {@code true} if the outcome of the entry should be memoized. */
+    boolean shouldMemoize(RegParserEntry entry, ParserTypeProvider typeProvider) {
+        if (!options.isPackrat())
+            return false;
+        
+        var checker = entry.checker();
+        boolean isTyped = (entry.type() != null) || (entry.typeRef() != null);
+        if (!isTyped
+         && !(checker instanceof RegParser)
+         && !(checker instanceof CheckerAlternative))
+            return false;
+        
+        if (memoizables == null) {
+            memoizables = new IdentityHashMap<>();
+        }
+        var isMemoizable = memoizables.get(entry);
+        if (isMemoizable == null) {
+            var visiteds = new IdentityHashMap<Object, Object>();
+            isMemoizable = isHostIndependent(entry, typeProvider, visiteds);
+            memoizables.put(entry, isMemoizable);
+        }
+        return isMemoizable;
+    }
+    
+    /** @return  the memo of the entry at the offset or {@code null} if the entry was not parsed there before. */
+    Memo memoOf(RegParserEntry entry, int offset, ParserTypeProvider typeProvider) {
+        if (memos == null)
+            return null;
+        
+        var entryMemos = memos.get(entry);
+        if (entryMemos == null)
+            return null;
+        
+        // The same entry may be used by RegParsers with different default type providers.
+        var memo = entryMemos.get(offset);
+        return ((memo != null) && (memo.typeProvider == typeProvider)) ? memo : null;
+    }
+    
+    /** Memoize the outcome of the entry at the offset -- the entries is {@code null} when the attempt failed. */
+    void memoize(RegParserEntry entry, int offset, ParserTypeProvider typeProvider, List<ParseResultEntry> entries) {
+        if (memos == null) {
+            memos = new IdentityHashMap<>();
+        }
+        
+        var memo = new Memo(typeProvider, entries);
+        memos
+        .computeIfAbsent(entry, __ -> new HashMap<>())
+        .put(offset, memo);
+    }
+    
+    /**
+     * Checks if the entry does not look back into the result it is parsed into (the host).
+     * 
+     * Types with validation do that (back references included) and so may the types whose checkers are not fixed
+     *   (see {@link ParserType#hasFixedChecker()}) so the entry is searched for them.
+     **/
+    private boolean isHostIndependent(RegParserEntry entry, ParserTypeProvider typeProvider, Map<Object, Object> visiteds) {
+        if (visiteds.put(entry, entry) != null)
+            return true;
+        
+        var type    = entry.type();
+        var typeRef = entry.typeRef();
+        if (typeRef != null) {
+            var typeName = typeRef.name();
+            if (typeName.contains("?") || typeName.contains("~"))
+                return false;
+            
+            type = (typeProvider != null) ? typeProvider.type(typeName) : null;
+            if (type == null) {
+                type = ParserTypeProvider.Simple.defaultProvider().type(typeName);
+            }
+            if (type == null)
+                return false;
+        }
+        
+        if (type != null) {
+            // Only the type that says its checker does not depend on the host -- as TypeLink keeps its checker.
+            if (type.hasValidation()
+             || !type.hasFixedChecker())
+                return false;
+            if (visiteds.put(type, type) != null)
+                return true;
+            
+            var parameter   = (typeRef != null) ? typeRef.parameter() : null;
+            var typeChecker = type.checker(null, parameter, typeProvider);
+            return isHostIndependent(typeChecker, typeProvider, visiteds);
+        }
+        
+        return isHostIndependent(entry.checker(), typeProvider, visiteds);
+    }
+    
+    private boolean isHostIndependent(Checker checker, ParserTypeProvider typeProvider, Map<Object, Object> visiteds) {
+        if (checker == null)
+            return true;
+        if (visiteds.put(checker, checker) != null)
+            return true;
+        
+        if (checker instanceof RegParser) {
+            var regParser = (RegParser)checker;
+            for (int i = 0; i < regParser.getEntryCount(); i++) {
+                if (!isHostIndependent(regParser.getEntryAt(i), typeProvider, visiteds))
+                    return false;
+            }
+            return true;
+        }
+        
+        if (checker instanceof CheckerAlternative) {
+            var alternative = (CheckerAlternative)checker;
+            var checkers    = alternative.checkers().toArray(Checker[]::new);
+            for (var each : checkers) {
+                if (!isHostIndependent(each, typeProvider, visiteds))
+                    return false;
+            }
+            return !alternative.hasDefault()
+                || isHostIndependent(alternative.defaultChecker(), typeProvider, visiteds);
+        }
+        
+        // Other checkers only look at the text.
+        return true;
+    }
+    
+}
@@ -0,0 +1,60 @@
+/*----------------------------------------------------------------------------------------------------------------------
+ * Copyright (C) 2008-2024 Nawapunth Manusitthipol.
+ *----------------------------------------------------------------------------------------------------------------------
+ * LICENSE:
+ * 
+ * This file is part of Nawa's RegParser.
+ * 
+ * The project is a free software; you can redistribute it and/or modify it under the SIMILAR terms of the GNU General
+ * Public License as published by the Free Software Foundation; either version 2 of the License, or any later version.
+ * You are only required to inform me about your modification and redistribution as or as part of commercial software
+ * package. You can inform me via nawa<at>nawaman<dot>net.
+ * 
+ * The project is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the 
+ * implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ * more details.
+ * ---------------------------------------------------------------------------------------------------------------------
+ */
+package net.nawaman.regparser;
+
+/**
+ * Exception thrown when a parse hits one of the limits of its {@link ParseOptions}.
+ * 
+ * @author Nawapunth Manusitthipol (https://github.com/NawaMan)
+ */
+public class ParseLimitException extends ParsingException {
+    
+    private static final long serialVersionUID = 7439265718236457812L;
+    
+    /** The limits of a parse. */
+    public static enum Limit {
+        /** The number of the steps of the solver. */
+        Steps,
+        /** The wall-clock time of the parse. */
+        Time,
+        /** The number of the entries of the result. */
+        Entries,
+        /** The interruption of the parsing thread. */
+        Interrupted;
+    }
+    
+    private final Limit limit;
+    private final long  steps;
+    
+    public ParseLimitException(Limit limit, long steps, String message) {
+        super(message);
+        this.limit = limit;
+        this.steps = steps;
+    }
+    
+    /** @return  the limit that was hit. */
+    public Limit limit() {
+        return limit;
+    }
+    
+    /** @return  the number of the steps taken before the parse stopped. */
+    public long steps() {
+        return steps;
+    }
+    
+}
@@ -0,0 +1,282 @@
+/*----------------------------------------------------------------------------------------------------------------------
+ * Copyright (C) 2008-2024 Nawapunth Manusitthipol.
+ *----------------------------------------------------------------------------------------------------------------------
+ * LICENSE:
+ * 
+ * This file is part of Nawa's RegParser.
+ * 
+ * The project is a free software; you can redistribute it and/or modify it under the SIMILAR terms of the GNU General
+ * Public License as published by the Free Software Foundation; either version 2 of the License, or any later version.
+ * You are only required to inform me about your modification and redistribution as or as part of commercial software
+ * package. You can inform me via nawa<at>nawaman<dot>net.
+ * 
+ * The project is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the 
+ * implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ * more details.
+ * ---------------------------------------------------------------------------------------------------------------------
+ */
+package net.nawaman.regparser;
+
+import java.io.Serializable;
+import java.time.Duration;
+import java.util.Objects;
+
+/**
+ * Options of a single parse.
+ * 
+ * The options are immutable, use the {@code withXXX(...)} methods to get a modified copy.
+ * 
+ * In packrat mode, the outcome of each typed entry, nested RegParser and alternative attempted at an offset is memoized
+ *   for the duration of the parse.
+ * When the solver backtracks and tries the same entry at the same offset again, the memoized outcome is replayed
+ *   instead of being parsed again.
+ * This bounds the cost of heavily backtracking grammars to linear time in the text length at the cost of memory.
+ * 
+ * A memoized outcome must not depend on where it is parsed from (the host result).
+ * For that reason, types with validation (those with '?' or '~' in their names -- which includes back references)
+ *   and RegParsers containing them are never memoized.
+ * Custom checkers and types are assumed to only depend on the text, the offset and the type provider.
+ * 
+ * In iterative mode, the parse is solved by a loop over an explicit stack of pending attempts instead of recursive
+ *   method calls.
+ * The result is the same but the depth of the nesting and the backtracking is only bounded by the heap so deeply
+ *   nested texts and long non-possessive repeats can be parsed without a large thread stack.
+ * 
+ * The limits bound the work of a parse of an untrusted text -- a {@link ParseLimitException} is thrown when one is hit:
+ *   - the step limit bounds the number of the steps of the solver (an entry tried or a repeat advanced) including the
+ *       ones of the attempts that are backtracked.
+ *   - the time limit bounds the wall-clock time from the start of the parse.
+ *   - the entry limit bounds the number of the entries of the result being built.
+ *   - an interruptible parse stops when its thread is interrupted (the interrupt status is kept).
+ * The steps are counted exactly while the time, the entries and the interruption are checked every few hundred steps.
+ * The automaton used for the plain RegParsers runs in linear time so it is not limited.
+ * 
+ * With the collapse deferred, the result is collapsed on the first access to its entries instead of at the end of the
+ *   parse (see {@link net.nawaman.regparser.result.ParseResult#deferCollapse(ParserTypeProvider)}).
+ * 
+ * With the lazy second stage, the second stage of an entry (see {@link RegParserEntry#secondStage()}) is not parsed
+ *   with the collapse but on the first access to the sub result of the entry which holds the entries of the second stage
+ *   (see {@link net.nawaman.regparser.result.ParseResult#collapse(ParserTypeProvider, boolean)}).
+ * 
+ * @author Nawapunth Manusitthipol (https://github.com/NawaMan)
+ */
+public final class ParseOptions implements Serializable {
+    
+    private static final long serialVersionUID = 2837569283475692837L;
+    
+    /** The value of a limit that is not set. */
+    public static final int NO_LIMIT = -1;
+    
+    /** The default options. */
+    public static final ParseOptions Default = new ParseOptions(false, false, NO_LIMIT, NO_LIMIT, NO_LIMIT, false, false, false);
+    
+    /** The options with packrat mode enabled. */
+    public static final ParseOptions Packrat = new ParseOptions(true, false, NO_LIMIT, NO_LIMIT, NO_LIMIT, false, false, false);
+    
+    /** The options with iterative mode enabled. */
+    public static final ParseOptions Iterative = new ParseOptions(false, true, NO_LIMIT, NO_LIMIT, NO_LIMIT, false, false, false);
+    
+    private final boolean isPackrat;
+    private final boolean isIterative;
+    private final long    stepLimit;
+    private final long    timeLimitNanos;
+    private final int     entryLimit;
+    private final boolean isInterruptible;
+    private final boolean isCollapseDeferred;
+    private final boolean isSecondStageLazy;
+    
+    private ParseOptions(
+            boolean isPackrat,
+            boolean isIterative,
+            long    stepLimit,
+            long    timeLimitNanos,
+            int     entryLimit,
+            boolean isInterruptible,
+            boolean isCollapseDeferred,
+            boolean isSecondStageLazy) {
+        this.isPackrat          = isPackrat;
+        this.isIterative        = isIterative;
+        this.stepLimit          = (stepLimit      < 0) ? NO_LIMIT : stepLimit;
+        this.timeLimitNanos     = (timeLimitNanos < 0) ? NO_LIMIT : timeLimitNanos;
+        this.entryLimit         = (entryLimit     < 0) ? NO_LIMIT : entryLimit;
+        this.isInterruptible    = isInterruptible;
+        this.isCollapseDeferred = isCollapseDeferred;
+        this.isSecondStageLazy  = isSecondStageLazy;
+    }
+    
+    /** @return {@code true} if the outcome of the entries should be memoized. */
+    public boolean isPackrat() {
+        return isPackrat;
+    }
+    
+    /** @return  the options with the packrat mode. */
+    public ParseOptions withPackrat() {
+        return withPackrat(true);
+    }
+    
+    /** @return  the options with the packrat mode set to the given value. */
+    public ParseOptions withPackrat(boolean isPackrat) {
+        if (this.isPackrat == isPackrat)
+            return this;
+        
+        return new ParseOptions(isPackrat, isIterative, stepLimit, timeLimitNanos, entryLimit, isInterruptible,
+                isCollapseDeferred, isSecondStageLazy);
+    }
+    
+    /** @return {@code true} if the parse should be solved with an explicit stack instead of recursion. */
+    public boolean isIterative() {
+        return isIterative;
+    }
+    
+    /** @return  the options with the iterative mode. */
+    public ParseOptions withIterative() {
+        return withIterative(true);
+    }
+    
+    /** @return  the options with the iterative mode set to the given value. */
+    public ParseOptions withIterative(boolean isIterative) {
+        if (this.isIterative == isIterative)
+            return this;
+        
+        return new ParseOptions(isPackrat, isIterative, stepLimit, timeLimitNanos, entryLimit, isInterruptible,
+                isCollapseDeferred, isSecondStageLazy);
+    }
+    
+    /** @return  the maximum number of the steps of the solver or {@link #NO_LIMIT}. */
+    public long stepLimit() {
+        return stepLimit;
+    }
+    
+    /** @return  the options with the maximum number of the steps of the solver -- a negative value for no limit. */
+    public ParseOptions withStepLimit(long stepLimit) {
+        return new ParseOptions(isPackrat, isIterative, stepLimit, timeLimitNanos, entryLimit, isInterruptible,
+                isCollapseDeferred, isSecondStageLazy);
+    }
+    
+    /** @return  the maximum time of a parse or {@code null} for no limit. */
+    public Duration timeLimit() {
+        return (timeLimitNanos == NO_LIMIT) ? null : Duration.ofNanos(timeLimitNanos);
+    }
+    
+    /** @return  the options with the maximum time of a parse -- {@code null} for no limit. */
+    public ParseOptions withTimeLimit(Duration timeLimit) {
+        long timeLimitNanos = (timeLimit == null) ? NO_LIMIT : Math.max(0, timeLimit.toNanos());
+        return new ParseOptions(isPackrat, isIterative, stepLimit, timeLimitNanos, entryLimit, isInterruptible,
+                isCollapseDeferred, isSecondStageLazy);
+    }
+    
+    /** @return  the maximum number of the entries of the result being built or {@link #NO_LIMIT}. */
+    public int entryLimit() {
+        return entryLimit;
+    }
+    
+    /** @return  the options with the maximum number of the entries of the result -- a negative value for no limit. */
+    public ParseOptions withEntryLimit(int entryLimit) {
+        return new ParseOptions(isPackrat, isIterative, stepLimit, timeLimitNanos, entryLimit, isInterruptible,
+                isCollapseDeferred, isSecondStageLazy);
+    }
+    
+    /** @return {@code true} if the parse stops when its thread is interrupted. */
+    public boolean isInterruptible() {
+        return isInterruptible;
+    }
+    
+    /** @return  the options that stop the parse when its thread is interrupted. */
+    public ParseOptions withInterruptible() {
+        return withInterruptible(true);
+    }
+    
+    /** @return  the options with the interruptible mode set to the given value. */
+    public ParseOptions withInterruptible(boolean isInterruptible) {
+        if (this.isInterruptible == isInterruptible)
+            return this;
+        
+        return new ParseOptions(isPackrat, isIterative, stepLimit, timeLimitNanos, entryLimit, isInterruptible,
+                isCollapseDeferred, isSecondStageLazy);
+    }
+    
+    /** @return {@code true} if the result is collapsed on the first access to its entries. */
+    public boolean isCollapseDeferred() {
+        return isCollapseDeferred;
+    }
+    
+    /** @return  the options that defer the collapse of the result to the first access to its entries. */
+    public ParseOptions withDeferredCollapse() {
+        return withDeferredCollapse(true);
+    }
+    
+    /** @return  the options with the deferred collapse set to the given value. */
+    public ParseOptions withDeferredCollapse(boolean isCollapseDeferred) {
+        if (this.isCollapseDeferred == isCollapseDeferred)
+            return this;
+        
+        return new ParseOptions(isPackrat, isIterative, stepLimit, timeLimitNanos, entryLimit, isInterruptible,
+                isCollapseDeferred, isSecondStageLazy);
+    }
+    
+    /** @return {@code true} if the second stages of the entries are parsed on the first access to their results. */
+    public boolean isSecondStageLazy() {
+        return isSecondStageLazy;
+    }
+    
+    /** @return  the options that parse the second stages of the entries on the first access to their results. */
+    public ParseOptions withLazySecondStage() {
+        return withLazySecondStage(true);
+    }
+    
+    /** @return  the options with the lazy second stage set to the given value. */
+    public ParseOptions withLazySecondStage(boolean isSecondStageLazy) {
+        if (this.isSecondStageLazy == isSecondStageLazy)
+            return this;
+        
+        return new ParseOptions(isPackrat, isIterative, stepLimit, timeLimitNanos, entryLimit, isInterruptible,
+                isCollapseDeferred, isSecondStageLazy);
+    }
+    
+    /** @return {@code true} if any of the limits is set. */
+    public boolean isLimited() {
+        return (stepLimit      != NO_LIMIT)
+            || (timeLimitNanos != NO_LIMIT)
+            || (entryLimit     != NO_LIMIT)
+            || isInterruptible;
+    }
+    
+    @Override
+    public String toString() {
+        return "ParseOptions["
+             + "isPackrat="          + isPackrat       + ", "
+             + "isIterative="        + isIterative     + ", "
+             + "stepLimit="          + stepLimit       + ", "
+             + "timeLimit="          + timeLimit()     + ", "
+             + "entryLimit="         + entryLimit      + ", "
+             + "isInterruptible="    + isInterruptible + ", "
+             + "isCollapseDeferred=" + isCollapseDeferred + ", "
+             + "isSecondStageLazy="  + isSecondStageLazy
+             + "]";
+    }
+    
+    @Override
+    public boolean equals(Object obj) {
+        if (obj == this)
+            return true;
+        if (!(obj instanceof ParseOptions))
+            return false;
+        
+        var other = (ParseOptions)obj;
+        return (isPackrat          == other.isPackrat)
+            && (isIterative        == other.isIterative)
+            && (stepLimit          == other.stepLimit)
+            && (timeLimitNanos     == other.timeLimitNanos)
+            && (entryLimit         == other.entryLimit)
+            && (isInterruptible    == other.isInterruptible)
+            && (isCollapseDeferred == other.isCollapseDeferred)
+            && (isSecondStageLazy  == other.isSecondStageLazy);
+    }
+    
+    @Override
+    public int hashCode() {
+        return Objects.hash(isPackrat, isIterative, stepLimit, timeLimitNanos, entryLimit, isInterruptible,
+                isCollapseDeferred, isSecondStageLazy);
+    }
+    
+}
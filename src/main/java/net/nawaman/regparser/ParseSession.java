@@ -0,0 +1,337 @@
+/*----------------------------------------------------------------------------------------------------------------------
+ * Copyright (C) 2008-2024 Nawapunth Manusitthipol.
+ *----------------------------------------------------------------------------------------------------------------------
+ * LICENSE:
+ * 
+ * This file is part of Nawa's RegParser.
+ * 
+ * The project is a free software; you can redistribute it and/or modify it under the SIMILAR terms of the GNU General
+ * Public License as published by the Free Software Foundation; either version 2 of the License, or any later version.
+ * You are only required to inform me about your modification and redistribution as or as part of commercial software
+ * package. You can inform me via nawa<at>nawaman<dot>net.
+ * 
+ * The project is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the 
+ * implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ * more details.
+ * ---------------------------------------------------------------------------------------------------------------------
+ */
+package net.nawaman.regparser;
+
+import static java.util.Objects.requireNonNull;
+
+import java.util.function.Consumer;
+
+import net.nawaman.regparser.result.ParseResult;
+
+/**
+ * A push-mode parse of a text that arrives in chunks as a sequence of the matches (the records) of a parser.
+ * 
+ * The chunks are fed as they arrive and the records are given to the handler as soon as they are completed.
+ * A record is completed once its parse cannot be changed by the text that is yet to come -- that is when the parse did
+ *   not look past the text available so far.
+ * A parse may need to see the char after a match to know that the match has ended so a record may only be completed
+ *   by the next chunk or the end of the text.
+ * A parse that looks past the available text is suspended in the "need more" state and is tried again from the start
+ *   of the record when more text arrives.
+ * So that a long record fed in small chunks is not parsed again with every chunk, a record whose last try was longer
+ *   than {@link #EAGER_LENGTH} chars is only tried again once its text has doubled, once a record delimiter has arrived
+ *   (with a {@link RecordSplitter}) or at the end of the text -- a record is then parsed O(1) times per char at the
+ *   cost that it may be completed later than the chunk that completes it.
+ * The text of the completed records is discarded so the memory is bounded by the longest record (and a chunk).
+ * 
+ * Each record is parsed as its own text -- its positions start from 0.
+ * The records must not be empty (an empty match does not advance the stream).
+ * A session is not thread-safe.
+ * 
+ * For example:
+ *     var session = new ParseSession(parser, record -> handle(record));
+ *     for (var chunk : chunks) {
+ *         session.feed(chunk);
+ *     }
+ *     session.end();
+ * 
+ * @author Nawapunth Manusitthipol (https://github.com/NawaMan)
+ */
+public final class ParseSession {
+    
+    /** The longest text of a record that is tried again with every chunk. */
+    public static final int EAGER_LENGTH = 1 << 10;
+    
+    private final RegParser                     parser;
+    private final ParserTypeProvider            typeProvider;
+    private final ParseOptions                  options;
+    private final RecordSplitter                splitter;
+    private final Consumer<? super ParseResult> recordHandler;
+    private final StringBuilder                 buffer = new StringBuilder();
+    
+    private long    position   = 0;
+    private boolean isNeedMore = false;
+    private boolean isEnded    = false;
+    
+    // The length of the text of the record at its last try and where the search for its delimiter goes on from.
+    private int triedLength = 0;
+    private int searchFrom  = 0;
+    
+    /**
+     * Constructs a session that parses a text fed in chunks as a sequence of the matches of the parser.
+     * 
+     * @param  parser         the parser.
+     * @param  recordHandler  the handler of the matches as they are completed.
+     */
+    public ParseSession(RegParser parser, Consumer<? super ParseResult> recordHandler) {
+        this(parser, null, null, null, recordHandler);
+    }
+    
+    /**
+     * Constructs a session that parses a text fed in chunks as a sequence of the matches of the parser whose ends are
+     *   told by the delimiters of the splitter.
+     * 
+     * A record that is waiting for more text is tried again as soon as a delimiter arrives.
+     * 
+     * @param  parser         the parser.
+     * @param  splitter       the splitter of the records.
+     * @param  recordHandler  the handler of the matches as they are completed.
+     */
+    public ParseSession(RegParser parser, RecordSplitter splitter, Consumer<? super ParseResult> recordHandler) {
+        this(parser, null, null, requireNonNull(splitter), recordHandler);
+    }
+    
+    /**
+     * Constructs a session that parses a text fed in chunks as a sequence of the matches of the parser using the type
+     *   provider and the options.
+     * 
+     * @param  parser         the parser.
+     * @param  typeProvider   the type provider.
+     * @param  options        the options.
+     * @param  recordHandler  the handler of the matches as they are completed.
+     */
+    public ParseSession(
+            RegParser                     parser,
+            ParserTypeProvider            typeProvider,
+            ParseOptions                  options,
+            Consumer<? super ParseResult> recordHandler) {
+        this(parser, typeProvider, options, null, recordHandler);
+    }
+    
+    /**
+     * Constructs a session that parses a text fed in chunks as a sequence of the matches of the parser using the type
+     *   provider and the options whose ends are told by the delimiters of the splitter.
+     * 
+     * @param  parser         the parser.
+     * @param  typeProvider   the type provider.
+     * @param  options        the options.
+     * @param  splitter       the splitter of the records or null if the records are not delimited.
+     * @param  recordHandler  the handler of the matches as they are completed.
+     */
+    public ParseSession(
+            RegParser                     parser,
+            ParserTypeProvider            typeProvider,
+            ParseOptions                  options,
+            RecordSplitter                splitter,
+            Consumer<? super ParseResult> recordHandler) {
+        this.parser        = requireNonNull(parser);
+        this.typeProvider  = typeProvider;
+        this.options       = options;
+        this.splitter      = splitter;
+        this.recordHandler = requireNonNull(recordHandler);
+    }
+    
+    /**
+     * Feeds the next chunk of the text.
+     * 
+     * @param  chunk  the chunk.
+     * @return        the number of the records completed by the chunk.
+     * @throws ParsingException  if the text after the last completed record does not start with a record.
+     */
+    public int feed(CharSequence chunk) {
+        if (isEnded)
+            throw new IllegalStateException("The session has ended.");
+        
+        if (chunk != null) {
+            buffer.append(chunk);
+        }
+        if (!isTryDue())
+            return 0;
+        
+        return parseRecords();
+    }
+    
+    /**
+     * Ends the text.
+     * 
+     * @return  the number of the records completed by the end of the text.
+     * @throws ParsingException  if the rest of the text is not a sequence of records.
+     */
+    public int end() {
+        if (isEnded)
+            return 0;
+        
+        isEnded = true;
+        return parseRecords();
+    }
+    
+    /** @return {@code true} if the text after the last completed record is a part of a record that needs more text. */
+    public boolean isNeedMore() {
+        return isNeedMore;
+    }
+    
+    /** @return {@code true} if the text has ended. */
+    public boolean isEnded() {
+        return isEnded;
+    }
+    
+    /** @return  the position of the end of the last completed record in the whole text. */
+    public long position() {
+        return position;
+    }
+    
+    /** @return  the length of the text kept after the last completed record. */
+    public int bufferedLength() {
+        return buffer.length();
+    }
+    
+    /** @return {@code true} if the record waiting for more text is to be tried again with the text fed so far. */
+    private boolean isTryDue() {
+        if (!isNeedMore)
+            return true;
+        
+        int length = buffer.length();
+        if (length == triedLength)
+            return false;
+        
+        if ((triedLength <= EAGER_LENGTH) || (length >= 2L*triedLength))
+            return true;
+        
+        return (splitter != null) && isDelimiterArrived(length);
+    }
+    
+    private boolean isDelimiterArrived(int length) {
+        int end;
+        while ((end = splitter.recordEnd(buffer, searchFrom)) < length) {
+            // The delimiter is new or ends the text of the last try that may need to see the char after it.
+            int next = splitter.nextStart(buffer, end);
+            if (next >= triedLength)
+                return true;
+            
+            searchFrom = next;
+        }
+        searchFrom = Math.max(searchFrom, length - splitter.cutLength());
+        return false;
+    }
+    
+    private int parseRecords() {
+        int count = 0;
+        int start = 0;
+        try {
+            while (start < buffer.length()) {
+                var text   = new SessionText(buffer, start, isEnded);
+                var record = parseRecord(text);
+                if (record == null) {
+                    if (start != 0) {
+                        searchFrom = 0;
+                    }
+                    isNeedMore  = true;
+                    triedLength = buffer.length() - start;
+                    return count;
+                }
+                
+                int end = record.endPosition();
+                text.freeze(end);
+                start    += end;
+                position += end;
+                count++;
+                recordHandler.accept(record);
+            }
+            isNeedMore  = false;
+            triedLength = 0;
+            searchFrom  = 0;
+            return count;
+        } finally {
+            // Discard the text of the completed records.
+            buffer.delete(0, start);
+        }
+    }
+    
+    /** @return  the completed record or null if it needs more text. */
+    private ParseResult parseRecord(SessionText text) {
+        ParseResult record;
+        try {
+            record = parser.parse(text, 0, typeProvider, options);
+        } catch (NeedMoreText needMore) {
+            return null;
+        }
+        
+        // The parse ran to the end it does not know yet -- like .* does.
+        int available = buffer.length() - text.start;
+        if ((record != null) && !isEnded && (record.endPosition() > available))
+            return null;
+        
+        if ((record == null) || (record.endPosition() == 0)) {
+            var message = "The text at the position " + position + " does not start with a match: "
+                        + text.subSequence(0, Math.min(available, 40));
+            throw new ParsingException(message);
+        }
+        return record;
+    }
+    
+    /**
+     * The text of a record that reads the buffer from the start of the record.
+     * 
+     * Before the text ends, the text is as long as it can be and reading past the available text stops the parse.
+     * Once the record is completed, the text is frozen to the text of the record.
+     */
+    private static final class SessionText implements CharSequence {
+        
+        private final StringBuilder buffer;
+        private final int           start;
+        private final boolean       isEnded;
+        private       String        frozen = null;
+        
+        SessionText(StringBuilder buffer, int start, boolean isEnded) {
+            this.buffer  = buffer;
+            this.start   = start;
+            this.isEnded = isEnded;
+        }
+        
+        void freeze(int end) {
+            frozen = buffer.substring(start, start + end);
+        }
+        
+        @Override
+        public int length() {
+            if (frozen != null)
+                return frozen.length();
+            
+            return isEnded ? (buffer.length() - start) : Integer.MAX_VALUE;
+        }
+        
+        @Override
+        public char charAt(int index) {
+            if (frozen != null)
+                return frozen.charAt(index);
+            
+            int position = start + index;
+            if ((position >= buffer.length()) && !isEnded && (index >= 0))
+                throw NeedMoreText.instance;
+            
+            return buffer.charAt(position);
+        }
+        
+        @Override
+        public CharSequence subSequence(int startIndex, int endIndex) {
+            if (frozen != null)
+                return frozen.subSequence(startIndex, endIndex);
+            
+            if ((start + endIndex > buffer.length()) && !isEnded)
+                throw NeedMoreText.instance;
+            
+            return buffer.substring(start + startIndex, start + endIndex);
+        }
+        
+        @Override
+        public String toString() {
+            return (frozen != null) ? frozen : buffer.substring(start);
+        }
+    }
+    
+}
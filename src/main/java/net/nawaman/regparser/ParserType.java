@@ -19,12 +19,18 @@
 package net.nawaman.regparser;
 
 import java.io.Serializable;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
 
 import net.nawaman.regparser.result.ParseResult;
 
 /**
  * Regular Parser Type
  * 
+ * Thread safety: a type can be used by the threads parsing at the same time.
+ * Its lazily computed values (the type ref, the flags and the parser) are computed again by a thread that does not see
+ *   them yet -- to the same values -- and are published safely so no lock is needed.
+ * Its type provider is set only once.
+ * 
  * @author Nawapunth Manusitthipol (https://github.com/NawaMan)
  */
 abstract public class ParserType implements AsRegParser, Serializable {
@@ -34,10 +40,15 @@ abstract public class ParserType implements AsRegParser, Serializable {
     /** An empty array of RPType */
     public static final ParserType[] EmptyTypeArray = new ParserType[0];
     
-    private ParserTypeRef      defaultRef   = null;
-    private int                flags        = 0;
-    private RegParser          parser       = null;
-    private ParserTypeProvider typeProvider = null;
+    private static final AtomicReferenceFieldUpdater<ParserType, ParserTypeProvider> typeProviderUpdater
+            = AtomicReferenceFieldUpdater.newUpdater(ParserType.class, ParserTypeProvider.class, "typeProvider");
+    
+    private volatile ParserTypeRef      defaultRef   = null;
+    private volatile int                flags        = 0;
+    private volatile RegParser          parser       = null;
+    private volatile ParserTypeProvider typeProvider = null;
+    
+    private transient volatile TypeProviderPair typeProviderPair = null;
     
     /** Returns the name of the type */
     abstract public String name();
@@ -45,6 +56,19 @@ abstract public class ParserType implements AsRegParser, Serializable {
     /** Returns the checker for parsing the type */
     abstract public Checker checker(ParseResult hostResult, String param, ParserTypeProvider typeProvider);
     
+    /**
+     * Checks if the checker of this type does not depend on the host result.
+     * 
+     * The checker of such a type (without validation) is kept by the entries referring to it and used for the parses
+     *   with the same type provider -- without asking the type again.
+     * A type must not return {@code true} if its checker reads the host result.
+     * 
+     * @return  {@code true} if the checker is the same regardless of the host result -- {@code false} by default.
+     */
+    public boolean hasFixedChecker() {
+        return false;
+    }
+    
     @Override
     public RegParser asRegParser() {
         return new RegParserBuilder()
@@ -54,9 +78,10 @@ abstract public class ParserType implements AsRegParser, Serializable {
     
     /** @return the default TypeRef of this type .*/
     public final ParserTypeRef typeRef() {
+        var defaultRef = this.defaultRef;
         return (defaultRef != null)
                 ? defaultRef
-                : (defaultRef = new ParserTypeRef.Simple(name(), null));
+                : (this.defaultRef = new ParserTypeRef.Simple(name(), null));
     }
     
     /** @return the default TypeRef of this type with the parameter. */
@@ -68,22 +93,24 @@ abstract public class ParserType implements AsRegParser, Serializable {
     
     /** @return <code>true</code> if this type will not record the sub-result but record as a text. */
     public final boolean isText() {
+        int flags = this.flags;
         if ((flags & 0x80) != 0)
             return ((flags & 0x08) != 0);
         
         boolean isText = name().startsWith("$");
-        flags = (flags | 0x80) | (isText ? 0x08 : 0x00);
+        this.flags = (flags | 0x80) | (isText ? 0x08 : 0x00);
         
         return isText;
     }
     
     /** @return <code>true</code> if the continuous text results of this type will collapse into one. */
     public final boolean isCollective() {
+        int flags = this.flags;
         if ((flags & 0x40) != 0)
             return ((flags & 0x04) != 0);
         
         boolean isCollective = name().endsWith("[]");
-        flags = (flags | 0x40) | (isCollective ? 0x04 : 0x00);
+        this.flags = (flags | 0x40) | (isCollective ? 0x04 : 0x00);
         
         return isCollective;
     }
@@ -93,12 +120,13 @@ abstract public class ParserType implements AsRegParser, Serializable {
      *           and validation is not mandatory to determine its length.
      **/
     public final boolean hasValidation() {
+        int flags = this.flags;
         if ((flags & 0x20) != 0)
             return ((flags & 0x02) != 0);
         
         var     name          = name();
         boolean hasValidation = name.contains("?") || name.contains("~");
-        flags = (flags | 0x20) | (hasValidation ? 0x02 : 0x00);
+        this.flags = (flags | 0x20) | (hasValidation ? 0x02 : 0x00);
         
         return hasValidation;
     }
@@ -108,12 +136,13 @@ abstract public class ParserType implements AsRegParser, Serializable {
      *           and validation is not mandatory to determine its length.
      **/
     public final boolean isSelfContain() {
+        int flags = this.flags;
         if ((flags & 0x10) != 0)
             return ((flags & 0x01) != 0);
         
         var     name          = name();
         boolean isSelfContain = !name.contains("~");
-        flags = (flags | 0x10) | (isSelfContain ? 0x01 : 0x00);
+        this.flags = (flags | 0x10) | (isSelfContain ? 0x01 : 0x00);
         
         return isSelfContain;
     }
@@ -123,12 +152,13 @@ abstract public class ParserType implements AsRegParser, Serializable {
      *           and validation is not mandatory to determine its length.
      **/
     public final boolean hasFlatAlways() {
+        int flags = this.flags;
         if ((flags & 0x2000) != 0)
             return ((flags & 0x0200) != 0);
         
         var     name          = name();
         boolean hasValidation = name.contains("*");
-        flags = (flags | 0x2000) | (hasValidation ? 0x0200 : 0x0000);
+        this.flags = (flags | 0x2000) | (hasValidation ? 0x0200 : 0x0000);
         
         return hasValidation;
     }
@@ -138,12 +168,13 @@ abstract public class ParserType implements AsRegParser, Serializable {
      *           and validation is not mandatory to determine its length.
      **/
     public final boolean isFlatSingle() {
+        int flags = this.flags;
         if ((flags & 0x1000) != 0)
             return ((flags & 0x0100) != 0);
         
         var     name          = name();
         boolean isSelfContain = !name.contains("+");
-        flags = (flags | 0x1000) | (isSelfContain ? 0x0100 : 0x0000);
+        this.flags = (flags | 0x1000) | (isSelfContain ? 0x0100 : 0x0000);
         
         return isSelfContain;
     }
@@ -153,9 +184,14 @@ abstract public class ParserType implements AsRegParser, Serializable {
         return typeProvider;
     }
     
-    /** Change the type provider used by this type. */
-    final void setTypeProvider(ParserTypeProvider typeProvider) {
-        this.typeProvider = typeProvider;
+    /**
+     * Sets the type provider used by this type if it has none.
+     * 
+     * @param  typeProvider  the type provider.
+     * @return               {@code true} if the type provider is set.
+     */
+    final boolean setTypeProviderIfAbsent(ParserTypeProvider typeProvider) {
+        return typeProviderUpdater.compareAndSet(this, null, typeProvider);
     }
     
     /** @return  the default type provider used by this type. */
@@ -163,10 +199,19 @@ abstract public class ParserType implements AsRegParser, Serializable {
         return typeProvider;
     }
     
+    /** @return  the provider this type parses with when it is given the provider -- with its own type provider. */
+    final ParserTypeProvider typeProviderWith(ParserTypeProvider typeProvider) {
+        var pair = TypeProviderPair.of(typeProviderPair, typeProvider, this.typeProvider);
+        typeProviderPair = pair;
+        return pair.provider();
+    }
+    
     /** @return the RegParser wrapping this type. */
     public final RegParser parser() {
+        var parser = this.parser;
         if (parser == null) {
-            parser = this.asRegParser();
+            parser      = this.asRegParser();
+            this.parser = parser;
         }
         return parser;
     }
@@ -195,11 +240,23 @@ abstract public class ParserType implements AsRegParser, Serializable {
     
     /** @return the match if the text is start with a match (from pOffset on) or -1 if not. */
     public final ParseResult doParse(CharSequence text, int offset, ParserTypeProvider typeProvider) {
-        var provider = ParserTypeProvider.Library.either(typeProvider, this.typeProvider);
+        var provider = typeProviderWith(typeProvider);
         return parser()
                 .parse(text, offset, provider);
     }
     
+    /**
+     * Parse the text from the offset on with the options -- such as the limits of the parse.
+     * 
+     * @return the match if the text is start with a match (from pOffset on) or null if not.
+     * @throws ParseLimitException  if the parse hits one of the limits of the options.
+     */
+    public final ParseResult parse(CharSequence text, int offset, ParserTypeProvider typeProvider, ParseOptions options) {
+        var provider = typeProviderWith(typeProvider);
+        return parser()
+                .parse(text, offset, provider, options);
+    }
+    
     // Match
     
     /** @return the match if the text is start with a match (from start to the end) or -1 if not. */
@@ -241,13 +298,32 @@ abstract public class ParserType implements AsRegParser, Serializable {
     
     /** @return the match if the text is start with a match (from start to the pEndPosition) or -1 if not. */
     final ParseResult doMatch(CharSequence text, int offset, int endPosition, ParserTypeProvider typeProvider) {
-        var provider = ParserTypeProvider.Library.either(typeProvider, this.typeProvider);
+        var provider = typeProviderWith(typeProvider);
         int end      = (endPosition == -1)
                      ? text.length()
                      : endPosition;
         return parser().match(text, offset, end, provider);
     }
     
+    /**
+     * Match the text from the offset to the end position with the options -- such as the limits of the parse.
+     * 
+     * @return the match if the text is start with a match (from start to the pEndPosition) or null if not.
+     * @throws ParseLimitException  if the parse hits one of the limits of the options.
+     */
+    public final ParseResult match(
+                    CharSequence       text,
+                    int                offset,
+                    int                endPosition,
+                    ParserTypeProvider typeProvider,
+                    ParseOptions       options) {
+        var provider = typeProviderWith(typeProvider);
+        int end      = (endPosition == -1)
+                     ? text.length()
+                     : endPosition;
+        return parser().match(text, offset, end, provider, options);
+    }
+    
     // Validation ----------------------------------------------------------------------------------
     
     /** @return a display string that represent a validation code. */
@@ -261,7 +337,7 @@ abstract public class ParserType implements AsRegParser, Serializable {
                             ParseResult   thisResult,
                             String        parameter,
                             ParserTypeProvider typeProvider) {
-        var provider = ParserTypeProvider.Library.either(typeProvider, this.typeProvider);
+        var provider = typeProviderWith(typeProvider);
         return doValidate(hostResult, thisResult, parameter, provider);
     }
     
@@ -389,7 +465,7 @@ abstract public class ParserType implements AsRegParser, Serializable {
                             String             parameter,
                             CompilationContext compilationContext,
                             ParserTypeProvider typeProvider) {
-        var provider = ParserTypeProvider.Library.either(typeProvider, this.typeProvider);
+        var provider = typeProviderWith(typeProvider);
         return doCompile(thisResult, entryIndex, parameter, compilationContext, provider);
     }
     
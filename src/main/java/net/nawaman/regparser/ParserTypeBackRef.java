@@ -23,6 +23,7 @@ import net.nawaman.regparser.checkers.WordChecker;
 import net.nawaman.regparser.result.ParseResultNode;
 import net.nawaman.regparser.result.RootParseResult;
 import net.nawaman.regparser.result.TemporaryParseResult;
+import net.nawaman.regparser.result.TextView;
 import net.nawaman.regparser.result.ParseResult;
 
 /**
@@ -65,14 +66,14 @@ public class ParserTypeBackRef extends ParserType {
         if (word == null)
             return false;
         
-        return word.equals(thisResult.text());
+        return word.contentEquals(thisResult.textView());
     }
     
-    private String lastMatchByName(ParseResult hostResult, String parameter, ParserTypeProvider typeProvider) {
+    private TextView lastMatchByName(ParseResult hostResult, String parameter, ParserTypeProvider typeProvider) {
         if (hostResult == null)
             return null;
         
-        var word = hostResult.lastStringOf(parameter);
+        var word = hostResult.lastTextViewOf(parameter);
         
         // Elevate up (in case pHostResult is a node)
         while (word == null) {
@@ -90,7 +91,7 @@ public class ParserTypeBackRef extends ParserType {
              && (hostResult instanceof RootParseResult))
                 return null;
             
-            word = hostResult.lastStringOf(parameter);
+            word = hostResult.lastTextViewOf(parameter);
         }
         return word;
     }
@@ -59,8 +59,8 @@ public class ParserTypeBackRefCaseInsensitive extends ParserTypeBackRef {
         if (hostResult == null)
             return false;
         
-        var word = hostResult.lastStringOf(parameter);
-        var text = thisResult.text();
+        var word = hostResult.lastTextViewOf(parameter);
+        var text = thisResult.textView();
         
         if (word == text)
             return true;
@@ -69,9 +69,7 @@ public class ParserTypeBackRefCaseInsensitive extends ParserTypeBackRef {
          || (text == null))
             return false ;
         
-        word = word.toLowerCase();
-        text = text.toLowerCase();
-        return word.equals(text);
+        return word.contentEqualsLowerCase(text);
     }
     
 }
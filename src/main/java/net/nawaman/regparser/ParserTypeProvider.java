@@ -32,6 +32,9 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
 
 import net.nawaman.regparser.types.ComposableParserType;
 import net.nawaman.regparser.types.JavaCheckerParserType;
@@ -42,6 +45,16 @@ import net.nawaman.regparser.types.ResultVerifier;
 /**
  * Supply types to the parser
  * 
+ * Thread safety: the parse only reads from the type provider so a provider can be shared by the threads parsing at the
+ *   same time as long as no type is added or removed meanwhile.
+ * To add the types while others are parsing, use {@link Concurrent} whose types are kept in concurrent maps -- the
+ *   types are looked up without locks and a newly added type is seen by the parse started after it is added.
+ * 
+ * The version of a provider changes whenever its types change.
+ * The parser keeps the types it looks up from a provider and looks them up again only when the version changes
+ *   (see {@link RegParser#link(ParserTypeProvider)}).
+ * A provider without a version ({@link #NO_VERSION}) has its types looked up on each use.
+ * 
  * @author Nawapunth Manusitthipol (https://github.com/NawaMan)
  */
 public interface ParserTypeProvider extends Serializable {
@@ -58,6 +71,14 @@ public interface ParserTypeProvider extends Serializable {
     /** Returns the names of all types in this provider */
     public Set<String> errorMessageNames();
     
+    /** The version of a provider that does not keep one -- its types are looked up on each use. */
+    public static final long NO_VERSION = -1;
+    
+    /** @return  the version of the types of this provider -- changed whenever the types change. */
+    public default long version() {
+        return NO_VERSION;
+    }
+    
     // Sub classes -----------------------------------------------------------------------------------------------------
     
     @SuppressWarnings("serial")
@@ -65,31 +86,40 @@ public interface ParserTypeProvider extends Serializable {
         
         /** Include the type to exclusively be a member of the provider */
         public static boolean exclusivelyInclude(ParserTypeProvider provider, ParserType type) {
-            if ((type == null)
-             || (type.typeProvider() != null))
+            if (type == null)
                 return false;
             
-            type.setTypeProvider(provider);
-            return true;
+            return type.setTypeProviderIfAbsent(provider);
         }
         
-        private static ParserTypeProvider.Extensible defaultProvider = null;
+        /** The default provider -- initialized by the class loading on its first use. */
+        private static final class DefaultProvider {
+            
+            static final ParserTypeProvider.Extensible instance = newDefaultProvider();
+            
+            private static ParserTypeProvider.Extensible newDefaultProvider() {
+                var defaultProvider = new ParserTypeProvider.Concurrent();
+                defaultProvider.addType(new TextCaseInsensitiveParserType());
+                defaultProvider.addType(new ParserTypeBackRef());
+                defaultProvider.addType(new ParserTypeBackRefCaseInsensitive());
+                defaultProvider.addType(new JavaCheckerParserType());
+                return defaultProvider;
+            }
+        }
         
+        /** @return  the default type provider (which can be shared by the threads). */
         public static final ParserTypeProvider.Extensible defaultProvider() {
-            if (defaultProvider != null)
-                return defaultProvider;
-            
-            defaultProvider = new ParserTypeProvider.Extensible();
-            defaultProvider.addType(new TextCaseInsensitiveParserType());
-            defaultProvider.addType(new ParserTypeBackRef());
-            defaultProvider.addType(new ParserTypeBackRefCaseInsensitive());
-            defaultProvider.addType(new JavaCheckerParserType());
-            return defaultProvider;
+            return DefaultProvider.instance;
         }
         
+        /** The source of the versions -- a version is never given twice so no change can be missed. */
+        private static final AtomicLong versions = new AtomicLong();
+        
         private final Map<String, ParserType> types;
         private final Map<String, String>     errorMessages;
         
+        private transient volatile long version = versions.incrementAndGet();
+        
         /** Constructs an empty type provider */
         protected Simple() {
             this(new ParserType[0]);
@@ -97,13 +127,19 @@ public interface ParserTypeProvider extends Serializable {
         
         /** Constructs a type provider with the types */
         public Simple(ParserType... types) {
-            this.types         = new HashMap<String, ParserType>();
-            this.errorMessages = new HashMap<String, String>();
+            this(new HashMap<String, ParserType>(), new HashMap<String, String>(), types);
+        }
+        
+        /** Constructs a type provider with the types kept in the given maps */
+        protected Simple(Map<String, ParserType> typeMap, Map<String, String> errorMessageMap, ParserType... types) {
+            this.types         = typeMap;
+            this.errorMessages = errorMessageMap;
             if (types == null) {
                 return;
             }
             for (var type : types) {
-                if (type == null)
+                if ((type        == null)
+                 || (type.name() == null))
                     continue;
                 
                 this.types.put(type.name(), type);
@@ -118,15 +154,28 @@ public interface ParserTypeProvider extends Serializable {
             return types.keySet();
         }
         
+        @Override
+        public long version() {
+            return version;
+        }
+        
+        /** Changes the version -- to be called after the types are changed. */
+        protected final void typesChanged() {
+            version = versions.incrementAndGet();
+        }
+        
         protected boolean addType(ParserType type) {
             if (type == null)
                 return false;
             
             var name = type.name();
-            if (types.containsKey(name))
+            if (name == null)
                 return false;
             
-            types.put(name, type);
+            if (types.putIfAbsent(name, type) != null)
+                return false;
+            
+            typesChanged();
             return true;
         }
         
@@ -139,6 +188,7 @@ public interface ParserTypeProvider extends Serializable {
                 return false;
             
             types.remove(name);
+            typesChanged();
             return true;
         }
         
@@ -150,6 +200,7 @@ public interface ParserTypeProvider extends Serializable {
                 return false;
             
             types.remove(name);
+            typesChanged();
             return true;
         }
         
@@ -174,11 +225,7 @@ public interface ParserTypeProvider extends Serializable {
             if (errorMessage == null)
                 return false;
             
-            if (errorMessages.containsKey(errorName))
-                return false;
-            
-            errorMessages.put(errorName, errorMessage);
-            return true;
+            return (errorMessages.putIfAbsent(errorName, errorMessage) == null);
         }
         
         protected boolean removeError(String errorName) {
@@ -238,6 +285,7 @@ public interface ParserTypeProvider extends Serializable {
                 if (!isToReplace
                  && ((Simple)typeProvider).types.containsKey(name)) {
                     ((Simple)typeProvider).types.put(name, type);
+                    ((Simple)typeProvider).typesChanged();
                 }
                 
                 t++;
@@ -309,13 +357,18 @@ public interface ParserTypeProvider extends Serializable {
             super(types);
         }
         
+        /** Constructs a type provider with the types kept in the given maps */
+        protected Extensible(Map<String, ParserType> typeMap, Map<String, String> errorMessageMap, ParserType... types) {
+            super(typeMap, errorMessageMap, types);
+        }
+        
         // Add Type exclusively ----------------------------------------------------------------------------------------
         
         @Override
         public boolean addType(ParserType type) {
-            if ((type != null)
-             && (type.typeProvider() == null))
-                type.setTypeProvider(this);
+            if (type != null) {
+                type.setTypeProviderIfAbsent(this);
+            }
             
             return super.addType(type);
         }
@@ -378,6 +431,26 @@ public interface ParserTypeProvider extends Serializable {
         }
     }
     
+    /**
+     * Extensible type provider whose types can be added while other threads are parsing with it.
+     * 
+     * The types and the error messages are kept in concurrent maps so they are looked up without locks.
+     * Adding a type is atomic -- of the types added with the same name at the same time, only one is added.
+     */
+    @SuppressWarnings("serial")
+    static public class Concurrent extends Extensible {
+        
+        /** Constructs an empty type provider */
+        public Concurrent() {
+            this(new ParserType[0]);
+        }
+        
+        /** Constructs a type provider with the types */
+        public Concurrent(ParserType... types) {
+            super(new ConcurrentHashMap<String, ParserType>(), new ConcurrentHashMap<String, String>(), types);
+        }
+    }
+    
     @SuppressWarnings("serial")
     static public class Library extends Simple {
         
@@ -389,10 +462,15 @@ public interface ParserTypeProvider extends Serializable {
             if (secondProvider == null)
                 return firstProvider;
             
+            // The second is already looked up by the first -- as when a type parses its nested self.
+            if ((firstProvider == secondProvider)
+             || ((firstProvider instanceof Library) && ((Library)firstProvider).hasProvider(secondProvider)))
+                return firstProvider;
+            
             return new Library(firstProvider, secondProvider);
         }
         
-        private final List<ParserTypeProvider> providers = new ArrayList<ParserTypeProvider>();
+        private final List<ParserTypeProvider> providers = new CopyOnWriteArrayList<ParserTypeProvider>();
         
         public Library(ParserType[] types, ParserTypeProvider... typeProviders) {
             super(types);
@@ -422,17 +500,47 @@ public interface ParserTypeProvider extends Serializable {
             }
             
             providers.add(typeProvider);
+            typesChanged();
+        }
+        
+        /** @return  {@code true} if the provider is one of the providers of this library. */
+        public boolean hasProvider(ParserTypeProvider typeProvider) {
+            for (var provider : providers) {
+                if (provider == typeProvider)
+                    return true;
+            }
+            return false;
         }
         
         public void removeProvider(ParserTypeProvider typeProvider) {
             if (typeProvider == null)
                 return;
             
-            providers.remove(typeProvider);
+            if (providers.remove(typeProvider)) {
+                typesChanged();
+            }
         }
         
         // Override of the services -----------------------------------------------------------------------------------
         
+        /**
+         * Returns the version of this library -- the latest of the versions of its own and of its providers.
+         * 
+         * As a version is never given twice, any change of this library or of its providers gives a later version.
+         */
+        @Override
+        public long version() {
+            long version = super.version();
+            for (var provider : providers) {
+                long providerVersion = provider.version();
+                if (providerVersion == NO_VERSION)
+                    return NO_VERSION;
+                
+                version = Math.max(version, providerVersion);
+            }
+            return version;
+        }
+        
         @Override
         public Set<String> typeNames() {
             var names = new HashSet<String>();
@@ -0,0 +1,169 @@
+/*----------------------------------------------------------------------------------------------------------------------
+ * Copyright (C) 2008-2024 Nawapunth Manusitthipol.
+ *----------------------------------------------------------------------------------------------------------------------
+ * LICENSE:
+ * 
+ * This file is part of Nawa's RegParser.
+ * 
+ * The project is a free software; you can redistribute it and/or modify it under the SIMILAR terms of the GNU General
+ * Public License as published by the Free Software Foundation; either version 2 of the License, or any later version.
+ * You are only required to inform me about your modification and redistribution as or as part of commercial software
+ * package. You can inform me via nawa<at>nawaman<dot>net.
+ * 
+ * The project is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the 
+ * implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ * more details.
+ * ---------------------------------------------------------------------------------------------------------------------
+ */
+package net.nawaman.regparser;
+
+import net.nawaman.regparser.checkers.CharChecker;
+import net.nawaman.regparser.checkers.CharTable;
+import net.nawaman.regparser.checkers.CheckerAlternative;
+import net.nawaman.regparser.checkers.WordChecker;
+import net.nawaman.regparser.checkers.WordSetChecker;
+
+/**
+ * The model of a plain part of a RegParser.
+ * 
+ * A plain part is made of char checkers (whose chars can be enumerated), words, word sets, alternatives and nested
+ *   RegParsers whose entries are all unnamed, untyped and possessive.
+ * Such a part always produces a single unnamed result entry so it can be matched without the solver -- as long as
+ *   the matching mirrors what the solver does, including how it treats the end of the text.
+ * 
+ * @author Nawapunth Manusitthipol (https://github.com/NawaMan)
+ */
+abstract class PlainNode {
+    
+    /** A char of a char checker. */
+    static final class Char extends PlainNode {
+        
+        final int[]       ranges;
+        final CharChecker table;
+        
+        private Char(int[] ranges, CharChecker table) {
+            this.ranges = ranges;
+            this.table  = table;
+        }
+        
+        /** @return {@code true} if the char checker accepts all the chars. */
+        boolean isAll() {
+            return (ranges.length == 2) && (ranges[0] == 0) && (ranges[1] == Character.MAX_VALUE);
+        }
+    }
+    
+    /** A word. */
+    static final class Word extends PlainNode {
+        
+        final String word;
+        
+        private Word(String word) {
+            this.word = word;
+        }
+    }
+    
+    /** The entries from {@code from} to {@code to} of the entries. */
+    static final class Sequence extends PlainNode {
+        
+        final RegParserEntry[] entries;
+        final int              from;
+        final int              to;
+        final PlainNode[]      nodes;
+        
+        Sequence(RegParserEntry[] entries, int from, int to, PlainNode[] nodes) {
+            this.entries = entries;
+            this.from    = from;
+            this.to      = to;
+            this.nodes   = nodes;
+        }
+        
+        /** @return {@code true} if the entry at the index is repeated by the solver one match at a time. */
+        boolean isLoop(int index) {
+            var quantifier = entries[index].quantifier();
+            return !quantifier.isOne_Possessive()
+                && !quantifier.isZero()
+                && !(nodes[index] instanceof Char);
+        }
+    }
+    
+    /** The longest of the alternatives or the default. */
+    static final class Alternative extends PlainNode {
+        
+        final PlainNode[] alternatives;
+        final PlainNode   defaultNode;
+        
+        private Alternative(PlainNode[] alternatives, PlainNode defaultNode) {
+            this.alternatives = alternatives;
+            this.defaultNode  = defaultNode;
+        }
+    }
+    
+    /** @return  the node of the checker or null if the checker is not plain. */
+    static PlainNode of(Checker checker) {
+        if (checker instanceof CharChecker) {
+            var table = CharTable.of((CharChecker)checker);
+            return (table instanceof CharTable)
+                    ? new Char(((CharTable)table).ranges(), table)
+                    : null;
+        }
+        if (checker instanceof WordChecker)
+            return new Word(((WordChecker)checker).word());
+        
+        if (checker instanceof WordSetChecker) {
+            // The solver also takes the longest of the words.
+            var wordSet = (WordSetChecker)checker;
+            return wordSet.isCaseSensitive()
+                    ? new Alternative(wordSet.words().map(Word::new).toArray(PlainNode[]::new), null)
+                    : null;
+        }
+        if (checker instanceof RegParser) {
+            var entries = ((RegParser)checker).entries().toArray(RegParserEntry[]::new);
+            var nodes   = of(entries, 0, entries.length);
+            return (nodes != null)
+                    ? new Sequence(entries, 0, entries.length, nodes)
+                    : null;
+        }
+        if (checker instanceof CheckerAlternative) {
+            var alternative  = (CheckerAlternative)checker;
+            var checkers     = alternative.checkers().toArray(Checker[]::new);
+            var alternatives = new PlainNode[checkers.length];
+            for (int i = 0; i < checkers.length; i++) {
+                alternatives[i] = of(checkers[i]);
+                if (alternatives[i] == null)
+                    return null;
+            }
+            var defaultNode = alternative.hasDefault() ? of(alternative.defaultChecker()) : null;
+            if (alternative.hasDefault() && (defaultNode == null))
+                return null;
+            
+            return new Alternative(alternatives, defaultNode);
+        }
+        return null;
+    }
+    
+    /** @return  the node of the entry or null if the entry is not plain. */
+    static PlainNode of(RegParserEntry entry) {
+        if ((entry               == null)
+         || (entry.name()        != null)
+         || (entry.type()        != null)
+         || (entry.typeRef()     != null)
+         || (entry.secondStage() != null)
+         || (entry.checker()     == null)
+         || !entry.quantifier().isPossessive())
+            return null;
+        
+        return of(entry.checker());
+    }
+    
+    /** @return  the nodes of the entries (indexed by the entry index) or null if any of them is not plain. */
+    static PlainNode[] of(RegParserEntry[] entries, int from, int to) {
+        var nodes = new PlainNode[entries.length];
+        for (int i = from; i < to; i++) {
+            nodes[i] = of(entries[i]);
+            if (nodes[i] == null)
+                return null;
+        }
+        return nodes;
+    }
+    
+}
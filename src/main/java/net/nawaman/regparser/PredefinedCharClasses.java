@@ -24,6 +24,7 @@ import net.nawaman.regparser.checkers.CharNot;
 import net.nawaman.regparser.checkers.CharRange;
 import net.nawaman.regparser.checkers.CharSet;
 import net.nawaman.regparser.checkers.CharSingle;
+import net.nawaman.regparser.checkers.CharTable;
 import net.nawaman.regparser.checkers.CharUnion;
 
 /**
@@ -76,32 +77,32 @@ public class PredefinedCharClasses {
     // For speed
     static public final CharChecker Any           = new CharRange((char)0, Character.MAX_VALUE);
     static public final CharChecker Digit         = new CharRange('0', '9');
-    static public final CharChecker NonDigit      = new CharNot(Digit);
-    static public final CharChecker WhiteSpace    = new CharSet(" \t\n\r\u000B\u000C");
-    static public final CharChecker NonWhiteSpace = new CharNot(WhiteSpace);
-    static public final CharChecker Blank         = new CharSet(" \t");
-    static public final CharChecker NonBlank      = new CharNot(Blank);
+    static public final CharChecker NonDigit      = CharTable.of(new CharNot(Digit));
+    static public final CharChecker WhiteSpace    = CharTable.of(new CharSet(" \t\n\r\u000B\u000C"));
+    static public final CharChecker NonWhiteSpace = CharTable.of(new CharNot(WhiteSpace));
+    static public final CharChecker Blank         = CharTable.of(new CharSet(" \t"));
+    static public final CharChecker NonBlank      = CharTable.of(new CharNot(Blank));
     
     static public final CharChecker OctalDigit          = new CharRange('0', '7');
-    static public final CharChecker HexadecimalDigit    = new CharUnion(
+    static public final CharChecker HexadecimalDigit    = CharTable.of(new CharUnion(
                                                                   new CharRange('0', '9'),
                                                                   new CharRange('a', 'f'),
                                                                   new CharRange('A', 'F')
-                                                          );
-    static public final CharChecker NonOctalDigit       = new CharNot(OctalDigit);
-    static public final CharChecker NonHexadecimalDigit = new CharNot(HexadecimalDigit);
+                                                          ));
+    static public final CharChecker NonOctalDigit       = CharTable.of(new CharNot(OctalDigit));
+    static public final CharChecker NonHexadecimalDigit = CharTable.of(new CharNot(HexadecimalDigit));
     
     static public final CharChecker LowerCaseAlphabet = new CharRange('a', 'z');
     static public final CharChecker UpperCaseAlphabet = new CharRange('A', 'Z');
     static public final CharChecker ASCII             = new CharRange((char)0, (char)0x7F);
-    static public final CharChecker Alphabet          = new CharUnion(LowerCaseAlphabet, UpperCaseAlphabet);
-    static public final CharChecker AlphabetAndDigit  = new CharUnion(Digit, Alphabet);
-    static public final CharChecker Punctuation       = new CharSet("!\"#$%&'()*+,-./:;<=>?@[\\]^_`{|}~");
-    static public final CharChecker Visible           = new CharUnion(Digit, Alphabet, Punctuation);
-    static public final CharChecker Printable         = new CharUnion(Digit, Alphabet, Punctuation, WhiteSpace);
+    static public final CharChecker Alphabet          = CharTable.of(new CharUnion(LowerCaseAlphabet, UpperCaseAlphabet));
+    static public final CharChecker AlphabetAndDigit  = CharTable.of(new CharUnion(Digit, Alphabet));
+    static public final CharChecker Punctuation       = CharTable.of(new CharSet("!\"#$%&'()*+,-./:;<=>?@[\\]^_`{|}~"));
+    static public final CharChecker Visible           = CharTable.of(new CharUnion(Digit, Alphabet, Punctuation));
+    static public final CharChecker Printable         = CharTable.of(new CharUnion(Digit, Alphabet, Punctuation, WhiteSpace));
     
     static public final CharChecker Word    = AlphabetAndDigit;
-    static public final CharChecker NonWord = new CharNot(Word);
+    static public final CharChecker NonWord = CharTable.of(new CharNot(Word));
     
     // Java ------------------------------------------------------------------------------------------------------------
     // For compatibility
@@ -0,0 +1,187 @@
+/*----------------------------------------------------------------------------------------------------------------------
+ * Copyright (C) 2008-2024 Nawapunth Manusitthipol.
+ *----------------------------------------------------------------------------------------------------------------------
+ * LICENSE:
+ * 
+ * This file is part of Nawa's RegParser.
+ * 
+ * The project is a free software; you can redistribute it and/or modify it under the SIMILAR terms of the GNU General
+ * Public License as published by the Free Software Foundation; either version 2 of the License, or any later version.
+ * You are only required to inform me about your modification and redistribution as or as part of commercial software
+ * package. You can inform me via nawa<at>nawaman<dot>net.
+ * 
+ * The project is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the 
+ * implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ * more details.
+ * ---------------------------------------------------------------------------------------------------------------------
+ */
+package net.nawaman.regparser;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Finds where the records of a text end and start -- for {@link RegParserRecords}.
+ * 
+ * A record runs from its start to its delimiter and the next record starts after the delimiter.
+ * The last record runs to the end of the text unless the text ends with a delimiter.
+ * 
+ * The text is split into chunks that are parsed in parallel so a chunk must start where a record starts.
+ * From any position, the end of the first delimiter found is the start of a record so a delimiter must not overlap
+ *   itself (like "aa" in "aaa" does).
+ * 
+ * @author Nawapunth Manusitthipol (https://github.com/NawaMan)
+ */
+public interface RecordSplitter {
+    
+    /**
+     * Returns the splitter of the lines -- ended by "\n" or "\r\n".
+     * 
+     * @return  the splitter.
+     */
+    public static RecordSplitter lines() {
+        return Lines.instance;
+    }
+    
+    /**
+     * Returns the splitter of the records delimited by the char.
+     * 
+     * @param  delimiter  the delimiter.
+     * @return            the splitter.
+     */
+    public static RecordSplitter delimitedBy(char delimiter) {
+        return delimitedBy(String.valueOf(delimiter));
+    }
+    
+    /**
+     * Returns the splitter of the records delimited by the text.
+     * 
+     * @param  delimiter  the delimiter -- must not be empty.
+     * @return            the splitter.
+     */
+    public static RecordSplitter delimitedBy(String delimiter) {
+        requireNonNull(delimiter);
+        if (delimiter.isEmpty())
+            throw new IllegalArgumentException("The delimiter must not be empty.");
+        
+        return new Delimited(delimiter);
+    }
+    
+    /**
+     * Returns the end of the record that starts at the offset -- where its delimiter starts.
+     * 
+     * @param  text    the text.
+     * @param  offset  the start of the record.
+     * @return         the end of the record or the length of the text if the record has no delimiter.
+     */
+    public int recordEnd(CharSequence text, int offset);
+    
+    /**
+     * Returns the start of the record after the delimiter at the end of a record.
+     * 
+     * @param  text       the text.
+     * @param  recordEnd  the end of a record as returned by {@link #recordEnd(CharSequence, int)}.
+     * @return            the start of the next record.
+     */
+    public int nextStart(CharSequence text, int recordEnd);
+    
+    /**
+     * Returns how many chars of a delimiter may be at the end of a text that does not have the whole delimiter yet.
+     * 
+     * A text that grows (like the one of a {@link ParseSession}) is searched again for a delimiter only from that many
+     *   chars before its old end.
+     * The default searches the text again from the start of the record.
+     * 
+     * @return  the length of the longest cut delimiter.
+     */
+    public default int cutLength() {
+        return Integer.MAX_VALUE;
+    }
+    
+    //== Implementations ===============================================================================================
+    
+    /** The splitter of the lines. */
+    static final class Lines implements RecordSplitter {
+        
+        static final Lines instance = new Lines();
+        
+        private Lines() {
+        }
+        
+        @Override
+        public int recordEnd(CharSequence text, int offset) {
+            int length = text.length();
+            for (int i = offset; i < length; i++) {
+                if (text.charAt(i) == '\n')
+                    return ((i > offset) && (text.charAt(i - 1) == '\r')) ? (i - 1) : i;
+            }
+            return length;
+        }
+        
+        @Override
+        public int nextStart(CharSequence text, int recordEnd) {
+            return (text.charAt(recordEnd) == '\r') ? (recordEnd + 2) : (recordEnd + 1);
+        }
+        
+        @Override
+        public int cutLength() {
+            // A line ends at '\n' -- the '\r' before it is not searched for.
+            return 0;
+        }
+        
+        @Override
+        public String toString() {
+            return "RecordSplitter.lines()";
+        }
+    }
+    
+    /** The splitter of the records delimited by a text. */
+    static final class Delimited implements RecordSplitter {
+        
+        private final String delimiter;
+        
+        Delimited(String delimiter) {
+            this.delimiter = delimiter;
+        }
+        
+        @Override
+        public int recordEnd(CharSequence text, int offset) {
+            int length = text.length();
+            if (text instanceof String) {
+                int index = ((String)text).indexOf(delimiter, offset);
+                return (index != -1) ? index : length;
+            }
+            
+            char first = delimiter.charAt(0);
+            int  last  = length - delimiter.length();
+            for (int i = offset; i <= last; i++) {
+                if ((text.charAt(i) == first) && startsWith(text, i))
+                    return i;
+            }
+            return length;
+        }
+        
+        private boolean startsWith(CharSequence text, int offset) {
+            for (int i = 1; i < delimiter.length(); i++) {
+                if (text.charAt(offset + i) != delimiter.charAt(i))
+                    return false;
+            }
+            return true;
+        }
+        
+        @Override
+        public int nextStart(CharSequence text, int recordEnd) {
+            return recordEnd + delimiter.length();
+        }
+        
+        @Override
+        public int cutLength() {
+            return delimiter.length() - 1;
+        }
+        
+        @Override
+        public String toString() {
+            return "RecordSplitter.delimitedBy(\"" + delimiter + "\")";
+        }
+    }
+    
+}
@@ -18,13 +18,18 @@
 package net.nawaman.regparser;
 
 import static java.util.Objects.requireNonNullElse;
+import static net.nawaman.regparser.result.ParseResult.newResult;
 import static net.nawaman.regparser.utils.Util.prependArray;
 
+import java.io.IOException;
 import java.io.PrintStream;
 import java.io.Serializable;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Objects;
+import java.util.function.Function;
 import java.util.stream.Stream;
 
 import net.nawaman.regparser.result.ParseResult;
@@ -32,6 +37,11 @@ import net.nawaman.regparser.result.ParseResult;
 /**
  * The regular parser
  * 
+ * Thread safety: a parser is immutable so it can be shared by the threads parsing at the same time.
+ * Each parse keeps its state in its own result and context; what a parser builds lazily (like its automaton) is built
+ *   at most a few times and published safely so the parse takes no lock.
+ * The debug mode is global and is meant for a single thread.
+ * 
  * @author Nawapunth Manusitthipol (https://github.com/NawaMan)
  */
 public class RegParser implements Checker, Serializable {
@@ -140,8 +150,15 @@ public class RegParser implements Checker, Serializable {
     
     private final RegParserEntry[] entries;
     
-    private boolean isOptimized     = false;
-    private boolean isDeterministic = true;
+    private final boolean isOptimized;
+    private final boolean isDeterministic;
+    
+    /** The automaton of this parser if it is plain -- built on the first parse. */
+    private transient volatile RegParserAutomaton automaton          = null;
+    private transient volatile boolean            isAutomatonChecked = false;
+    
+    /** The prefilter of the offsets where a match may start -- built on the first find. */
+    private transient volatile RegParserScanner scanner = null;
     
     RegParser(RegParserEntry[] entries) {
         this.entries         = requireNonNullElse(entries, RegParserEntry.EmptyRegParserEntryArray);
@@ -188,16 +205,48 @@ public class RegParser implements Checker, Serializable {
         return this.entries[pIndex];
     }
     
+    /** @return  the entries as is -- for the solvers that must not modify them. */
+    RegParserEntry[] entryArray() {
+        return entries;
+    }
+    
     public RegParser attachDefaultTypeProvider(ParserTypeProvider typeProvider) {
         return RegParserWithDefaultTypeProvider.attachDefaultTypeProvider(this, typeProvider);
     }
     
+    /**
+     * Links the type references of this parser to their types in the type provider.
+     * 
+     * The types referred to by this parser, by the parsers nested in it and by the types it refers to are looked up
+     *   once and are kept by the entries -- with the checkers of the types without validation whose checkers do not
+     *   depend on the host result (see {@link ParserType#hasFixedChecker()}).
+     * The parses with the same type provider use the kept types until the version of the provider (or of the default
+     *   provider) changes -- as when a type is added.
+     * The parsers and the types with a default type provider keep the provider they parse with for the last provider
+     *   given so the parses with the same provider use the kept types as well.
+     * A parse links the entries it goes through on its own so linking ahead only saves the first parse the lookups
+     *   and reports a missing type right away.
+     * 
+     * @param  typeProvider  the type provider this parser will be parsed with (may be null).
+     * @return               this parser.
+     * @throws ParsingException  if a type referred to is not found.
+     */
+    public RegParser link(ParserTypeProvider typeProvider) {
+        TypeLink.link(this, typeProvider);
+        return this;
+    }
+    
     // Default TypePackage ---------------------------------------------------------------------------------------------
     
     ParserTypeProvider getDefaultTypeProvider() {
         return null;
     }
     
+    /** @return  the provider the entries of this parser are parsed with when this parser is parsed with the provider. */
+    ParserTypeProvider typeProviderWith(ParserTypeProvider typeProvider) {
+        return typeProvider;
+    }
+    
     // Public services -------------------------------------------------------------------------------------------------
     
     // Parse - as far as it can go.
@@ -207,7 +256,7 @@ public class RegParser implements Checker, Serializable {
         if (text == null)
             return null;
         
-        var parseResult = parse(text, 0, 0, 0, null, null, null, null, 0);
+        var parseResult = parse(text, 0, 0, 0, null, null, null, null, ParseContext.Default, 0);
         if (parseResult == null)
             return null;
         
@@ -220,7 +269,7 @@ public class RegParser implements Checker, Serializable {
         if (text == null)
             return null;
         
-        var parseResult = parse(text, offset, 0, 0, null, null, null, null, 0);
+        var parseResult = parse(text, offset, 0, 0, null, null, null, null, ParseContext.Default, 0);
         if (parseResult == null)
             return null;
         
@@ -230,7 +279,7 @@ public class RegParser implements Checker, Serializable {
     
     /** Returns the the match if the text is start with a match or -1 if not */
     public ParseResult parse(CharSequence text, ParserTypeProvider typeProvider) {
-        var parseResult = parse(text, 0, 0, 0, null, typeProvider, null, null, 0);
+        var parseResult = parse(text, 0, 0, 0, null, typeProvider, null, null, ParseContext.Default, 0);
         if (parseResult == null)
             return null;
         
@@ -243,7 +292,7 @@ public class RegParser implements Checker, Serializable {
         if (text == null)
             return null;
         
-        var parseResult = parse(text, offset, 0, 0, null, typeProvider, null, null, 0);
+        var parseResult = parse(text, offset, 0, 0, null, typeProvider, null, null, ParseContext.Default, 0);
         if (parseResult == null)
             return null;
         
@@ -258,7 +307,7 @@ public class RegParser implements Checker, Serializable {
         if (text == null)
             return null;
         
-        var parseResult = parse(text, 0, 0, 0, null, null, null, null, 0);
+        var parseResult = parse(text, 0, 0, 0, null, null, null, null, ParseContext.Default, 0);
         if (parseResult == null)
             return null;
         
@@ -274,7 +323,7 @@ public class RegParser implements Checker, Serializable {
         if (text == null)
             return null;
         
-        var parseResult = parse(text, offset, 0, 0, null, null, null, null, 0);
+        var parseResult = parse(text, offset, 0, 0, null, null, null, null, ParseContext.Default, 0);
         if (parseResult == null)
             return null;
         
@@ -290,7 +339,7 @@ public class RegParser implements Checker, Serializable {
         if (text == null)
             return null;
         
-        var parseResult = parse(text, 0, 0, 0, null, typeProvider, null, null, 0);
+        var parseResult = parse(text, 0, 0, 0, null, typeProvider, null, null, ParseContext.Default, 0);
         if (parseResult == null)
             return null;
         
@@ -306,7 +355,7 @@ public class RegParser implements Checker, Serializable {
         if (text == null)
             return null;
         
-        var parseResult = parse(text, offset, 0, 0, null, typeProvider, null, null, 0);
+        var parseResult = parse(text, offset, 0, 0, null, typeProvider, null, null, ParseContext.Default, 0);
         if (parseResult == null)
             return null;
         
@@ -317,6 +366,361 @@ public class RegParser implements Checker, Serializable {
         return parseResult;
     }
     
+    // Match only - no parse result.
+    
+    /**
+     * Returns the length of the match of the text from the offset.
+     * 
+     * This gives the same length as the parse but, where possible, without building the parse result.
+     * A plain parser is matched by its automaton and a parser of a single plain checker by the checker alone -- both
+     *   without allocation once warmed up.
+     * The other parsers are parsed by the solver but their result is not collapsed.
+     * 
+     * @param  text    the text.
+     * @param  offset  the offset.
+     * @return         the length of the match or -1 if the text does not start with a match from the offset.
+     */
+    public int matchLength(CharSequence text, int offset) {
+        return matchLength(text, offset, null);
+    }
+    
+    /**
+     * Returns the length of the match of the text from the offset using the type provider.
+     * 
+     * @param  text          the text.
+     * @param  offset        the offset.
+     * @param  typeProvider  the type provider.
+     * @return               the length of the match or -1 if the text does not start with a match from the offset.
+     * @see    #matchLength(CharSequence, int)
+     */
+    public int matchLength(CharSequence text, int offset, ParserTypeProvider typeProvider) {
+        if (text == null)
+            return -1;
+        
+        if (!isDebugMode && (offset >= 0) && (offset < text.length())) {
+            var automaton = automaton();
+            if (automaton != null) {
+                int endPosition = automaton.match(text, offset);
+                return (endPosition == -1) ? -1 : (endPosition - offset);
+            }
+            
+            // The solver matches a single plain checker by its length alone but it records the empty match its own way.
+            var checker = singleCheckerOf(entries);
+            if (checker != null) {
+                int length = checker.startLengthOf(text, offset, typeProvider, null);
+                if (length != 0)
+                    return length;
+            }
+        }
+        
+        var parseResult = parse(text, offset, 0, 0, null, typeProvider, null, null, ParseContext.Default, 0);
+        return (parseResult == null) ? -1 : (parseResult.endPosition() - offset);
+    }
+    
+    /**
+     * Checks if the whole text matches this parser.
+     * 
+     * @param  text  the text.
+     * @return       {@code true} if the whole text matches.
+     * @see    #matchLength(CharSequence, int)
+     */
+    public boolean matches(CharSequence text) {
+        return matches(text, null);
+    }
+    
+    /**
+     * Checks if the whole text matches this parser using the type provider.
+     * 
+     * @param  text          the text.
+     * @param  typeProvider  the type provider.
+     * @return               {@code true} if the whole text matches.
+     * @see    #matchLength(CharSequence, int)
+     */
+    public boolean matches(CharSequence text, ParserTypeProvider typeProvider) {
+        return (text != null)
+            && (matchLength(text, 0, typeProvider) == text.length());
+    }
+    
+    // Find - search the text for the matches.
+    
+    /**
+     * Returns the first match in the text.
+     * 
+     * @param  text  the text.
+     * @return       the first match or null if there is none.
+     * @see    #find(CharSequence, int, ParserTypeProvider)
+     */
+    public ParseResult find(CharSequence text) {
+        return find(text, 0, null);
+    }
+    
+    /**
+     * Returns the first match in the text from the offset on.
+     * 
+     * @param  text    the text.
+     * @param  offset  the offset to start searching from.
+     * @return         the first match or null if there is none.
+     * @see    #find(CharSequence, int, ParserTypeProvider)
+     */
+    public ParseResult find(CharSequence text, int offset) {
+        return find(text, offset, null);
+    }
+    
+    /**
+     * Returns the first match in the text from the offset on using the type provider.
+     * 
+     * The match is the parse from the first offset where the text starts with a match.
+     * The offsets that cannot start a match are skipped without running the solver -- the literal that every match starts
+     *   with is searched for or, without one, the chars that every match starts with are scanned for.
+     * 
+     * @param  text          the text.
+     * @param  offset        the offset to start searching from.
+     * @param  typeProvider  the type provider.
+     * @return               the first match or null if there is none.
+     */
+    public ParseResult find(CharSequence text, int offset, ParserTypeProvider typeProvider) {
+        if (text == null)
+            return null;
+        
+        var scanner = scanner();
+        int start   = scanner.nextCandidate(text, Math.max(offset, 0));
+        while (start != -1) {
+            var parseResult = parse(text, start, typeProvider);
+            if (parseResult != null)
+                return parseResult;
+            
+            start = scanner.nextCandidate(text, start + 1);
+        }
+        return null;
+    }
+    
+    /**
+     * Returns the matches in the text.
+     * 
+     * @param  text  the text.
+     * @return       the lazy stream of the matches.
+     * @see    #findAll(CharSequence, ParserTypeProvider)
+     */
+    public Stream<ParseResult> findAll(CharSequence text) {
+        return findAll(text, null);
+    }
+    
+    /**
+     * Returns the matches in the text using the type provider.
+     * 
+     * A match is only searched for when the stream is read up to it -- the stream that stops at its first match
+     *   searches for that match only.
+     * The next match is searched from the end of the previous one or, after an empty match, from the next offset.
+     * 
+     * @param  text          the text.
+     * @param  typeProvider  the type provider.
+     * @return               the lazy stream of the matches.
+     */
+    public Stream<ParseResult> findAll(CharSequence text, ParserTypeProvider typeProvider) {
+        if (text == null)
+            return Stream.empty();
+        
+        // The offsets are in the text so they are ints.
+        return RegParserMatches.streamOf(
+                offset -> find(text, (int)offset, typeProvider),
+                ParseResult::startPosition,
+                ParseResult::endPosition);
+    }
+    
+    /**
+     * Splits the text around the matches.
+     * 
+     * @param  text  the text.
+     * @return       the texts between the matches.
+     * @see    #split(CharSequence, ParserTypeProvider)
+     */
+    public String[] split(CharSequence text) {
+        return split(text, null);
+    }
+    
+    /**
+     * Splits the text around the matches using the type provider.
+     * 
+     * The empty matches do not split the text.
+     * The texts before the first match and after the last match are included even when they are empty.
+     * 
+     * @param  text          the text.
+     * @param  typeProvider  the type provider.
+     * @return               the texts between the matches.
+     */
+    public String[] split(CharSequence text, ParserTypeProvider typeProvider) {
+        if (text == null)
+            return new String[0];
+        
+        var texts = new ArrayList<String>();
+        int start = 0;
+        var found = findAll(text, typeProvider).iterator();
+        while (found.hasNext()) {
+            var match = found.next();
+            if (match.startPosition() == match.endPosition())
+                continue;
+            
+            texts.add(text.subSequence(start, match.startPosition()).toString());
+            start = match.endPosition();
+        }
+        texts.add(text.subSequence(start, text.length()).toString());
+        return texts.toArray(String[]::new);
+    }
+    
+    /**
+     * Replaces the matches in the text with the replacements.
+     * 
+     * @param  text         the text.
+     * @param  replacement  the function giving the replacement of a match.
+     * @return              the replaced text.
+     * @see    #replaceAll(CharSequence, ParserTypeProvider, Function, Appendable)
+     */
+    public String replaceAll(CharSequence text, Function<? super ParseResult, ? extends CharSequence> replacement) {
+        return replaceAll(text, null, replacement, new StringBuilder()).toString();
+    }
+    
+    /**
+     * Replaces the matches in the text with the replacements and appends the result to the output.
+     * 
+     * @param  <APPENDABLE>  the type of the output.
+     * @param  text          the text.
+     * @param  replacement   the function giving the replacement of a match.
+     * @param  output        the output.
+     * @return               the output.
+     * @see    #replaceAll(CharSequence, ParserTypeProvider, Function, Appendable)
+     */
+    public <APPENDABLE extends Appendable> APPENDABLE replaceAll(
+                    CharSequence                                        text,
+                    Function<? super ParseResult, ? extends CharSequence> replacement,
+                    APPENDABLE                                          output) {
+        return replaceAll(text, null, replacement, output);
+    }
+    
+    /**
+     * Replaces the matches in the text with the replacements using the type provider and appends the result to the
+     *   output.
+     * 
+     * The text is appended as it is scanned so the output can be a writer of a large text.
+     * The matches are the ones of {@link #findAll(CharSequence, ParserTypeProvider)}.
+     * 
+     * @param  <APPENDABLE>   the type of the output.
+     * @param  text           the text.
+     * @param  typeProvider   the type provider.
+     * @param  replacement    the function giving the replacement of a match.
+     * @param  output         the output.
+     * @return                the output.
+     * @throws UncheckedIOException  if the output fails to append.
+     */
+    public <APPENDABLE extends Appendable> APPENDABLE replaceAll(
+                    CharSequence                                        text,
+                    ParserTypeProvider                                  typeProvider,
+                    Function<? super ParseResult, ? extends CharSequence> replacement,
+                    APPENDABLE                                          output) {
+        if (text == null)
+            return output;
+        
+        try {
+            int start = 0;
+            var found = findAll(text, typeProvider).iterator();
+            while (found.hasNext()) {
+                var match = found.next();
+                output.append(text, start, match.startPosition());
+                output.append(replacement.apply(match));
+                start = match.endPosition();
+            }
+            output.append(text, start, text.length());
+            return output;
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+    }
+    
+    /** @return  the prefilter of the offsets where a match may start. */
+    RegParserScanner scanner() {
+        var scanner = this.scanner;
+        if (scanner == null) {
+            scanner      = RegParserScanner.of(this);
+            this.scanner = scanner;
+        }
+        return scanner;
+    }
+    
+    private static Checker singleCheckerOf(RegParserEntry[] entries) {
+        if (entries.length != 1)
+            return null;
+        
+        var entry = entries[0];
+        if ((entry.name()        != null)
+         || (entry.type()        != null)
+         || (entry.typeRef()     != null)
+         || (entry.secondStage() != null)
+         || (entry.checker()     == null)
+         || !entry.quantifier().isOne_Possessive()
+         || !RegParserSolver.isSimpleChecker(entry))
+            return null;
+        
+        return entry.checker();
+    }
+    
+    // With options.
+    
+    /** Returns the the match if the text is start with a match or null if not */
+    public ParseResult parse(CharSequence text, ParserTypeProvider typeProvider, ParseOptions options) {
+        return parse(text, 0, typeProvider, options);
+    }
+    
+    /** Returns the match if the text is start with a match (from pOffset on) or null if not */
+    public ParseResult parse(CharSequence text, int offset, ParserTypeProvider typeProvider, ParseOptions options) {
+        if (text == null)
+            return null;
+        
+        var context     = ParseContext.of(options);
+        var parseResult = parse(text, offset, 0, 0, null, typeProvider, null, null, context, 0);
+        if (parseResult == null)
+            return null;
+        
+        return collapse(parseResult, typeProvider, options);
+    }
+    
+    /** Returns the match if the text is start with a match (from start to the end) or null if not */
+    public ParseResult match(CharSequence text, ParserTypeProvider typeProvider, ParseOptions options) {
+        if (text == null)
+            return null;
+        
+        return match(text, 0, text.length(), typeProvider, options);
+    }
+    
+    /** Returns the match if the text is start with a match (from start to the endPosition) or null if not */
+    public ParseResult match(CharSequence text, int offset, int endPosition, ParserTypeProvider typeProvider, ParseOptions options) {
+        if (text == null)
+            return null;
+        
+        var context     = ParseContext.of(options);
+        var parseResult = parse(text, offset, 0, 0, null, typeProvider, null, null, context, 0);
+        if (parseResult == null)
+            return null;
+        
+        if (parseResult.endPosition() != endPosition)
+            return null;
+        
+        return collapse(parseResult, typeProvider, options);
+    }
+    
+    private static ParseResult collapse(ParseResult parseResult, ParserTypeProvider typeProvider, ParseOptions options) {
+        if (options == null) {
+            parseResult.collapse(typeProvider);
+            return parseResult;
+        }
+        
+        boolean isSecondStageLazy = options.isSecondStageLazy();
+        if (options.isCollapseDeferred()) {
+            return parseResult.deferCollapse(typeProvider, isSecondStageLazy);
+        }
+        
+        parseResult.collapse(typeProvider, isSecondStageLazy);
+        return parseResult;
+    }
+    
     /** Returns the length of the match if the text is start with a match or -1 if not */
     ParseResult parse(
             CharSequence       text,
@@ -327,8 +731,38 @@ public class RegParser implements Checker, Serializable {
             ParserTypeProvider typeProvider,
             ParserType         type,
             String             parameter,
+            ParseContext       context,
             int                tabCount) {
-        return RegParserSolver.startParse(entries , text, offset, index, times, result, typeProvider, type, parameter, tabCount);
+        // A plain parser only finds where the match ends so the automaton finds it in one pass.
+        // The empty match is left to the solver as it results in no entry.
+        if ((result == null) && (index == 0) && (times == 0) && (type == null) && !isDebugMode
+         && (text != null) && (offset >= 0) && (offset <= text.length())) {
+            var automaton = automaton();
+            if (automaton != null) {
+                int endPosition = automaton.match(text, offset);
+                if (endPosition == -1)
+                    return null;
+                
+                if (endPosition != offset) {
+                    var parseResult = newResult(offset, text);
+                    parseResult.append(endPosition, null, null);
+                    return parseResult;
+                }
+            }
+        }
+        // Only the recursive solver prints the debug trace.
+        if (context.options().isIterative() && !isDebugMode)
+            return RegParserIterativeSolver.startParse(entries, text, offset, index, times, result, typeProvider, type, parameter, context, tabCount);
+        
+        return RegParserSolver.startParse(entries , text, offset, index, times, result, typeProvider, type, parameter, context, tabCount);
+    }
+    
+    RegParserAutomaton automaton() {
+        if (!isAutomatonChecked) {
+            automaton          = RegParserAutomaton.of(this);
+            isAutomatonChecked = true;
+        }
+        return automaton;
     }
     
     /** Return the optimized version of this Checker */
@@ -348,6 +782,22 @@ public class RegParser implements Checker, Serializable {
         return RegParserOptimizer.optimize(this);
     }
     
+    /**
+     * Returns this parser with its plain parts compiled into JVM bytecode.
+     * 
+     * The chars, words, alternatives and nested parsers of the unnamed, untyped and possessive entries are generated into
+     *   hidden classes as straight-line code.
+     * The rest -- named and typed entries (including the ones with validation), second stages and non-possessive
+     *   entries -- stay interpreted with their plain parts compiled.
+     * The compiled parser parses the same as this parser.
+     * Compiling costs a class generation for each plain part so it pays off for the parsers that are used many times.
+     * 
+     * @return  the compiled parser or this parser if there is nothing to compile.
+     */
+    public RegParser toCompiled() {
+        return RegParserBytecodeCompiler.compile(this);
+    }
+    
     // To Satisfy Checker ----------------------------------------------------------------------------------------------
     
     /**
@@ -378,7 +828,7 @@ public class RegParser implements Checker, Serializable {
             return -1;
         
         if (result == null) {
-            var parseResult = parse(text, offset, 0, 0, null, typeProvider, null, null, 0);
+            var parseResult = parse(text, offset, 0, 0, null, typeProvider, null, null, ParseContext.Default, 0);
             if (parseResult == null)
                 return -1;
             
@@ -386,7 +836,7 @@ public class RegParser implements Checker, Serializable {
             return endPosition - offset;
         }
         
-        var attemptResult = parse(text, offset, 0, 0, result, typeProvider, null, null, 0);
+        var attemptResult = parse(text, offset, 0, 0, result, typeProvider, null, null, ParseContext.Default, 0);
         if (attemptResult == null) {
             int rawEntryCount = result.rawEntryCount();
             // Recover what may have been added in the fail attempt
@@ -0,0 +1,987 @@
+/*----------------------------------------------------------------------------------------------------------------------
+ * Copyright (C) 2008-2024 Nawapunth Manusitthipol.
+ *----------------------------------------------------------------------------------------------------------------------
+ * LICENSE:
+ * 
+ * This file is part of Nawa's RegParser.
+ * 
+ * The project is a free software; you can redistribute it and/or modify it under the SIMILAR terms of the GNU General
+ * Public License as published by the Free Software Foundation; either version 2 of the License, or any later version.
+ * You are only required to inform me about your modification and redistribution as or as part of commercial software
+ * package. You can inform me via nawa<at>nawaman<dot>net.
+ * 
+ * The project is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the 
+ * implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ * more details.
+ * ---------------------------------------------------------------------------------------------------------------------
+ */
+package net.nawaman.regparser;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Objects;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+import net.nawaman.regparser.PlainNode.Alternative;
+import net.nawaman.regparser.PlainNode.Char;
+import net.nawaman.regparser.PlainNode.Sequence;
+import net.nawaman.regparser.PlainNode.Word;
+
+/**
+ * Lazy automaton that matches a plain RegParser in a single forward pass.
+ * 
+ * A parser is plain when all its entries (and the ones of its nested parsers) are unnamed, untyped and possessive with
+ *   only char checkers, words, alternatives and nested parsers as their checkers (see {@link PlainNode}).
+ * Such a parser only finds where the match ends so the end can be found without the solver.
+ * 
+ * The parts that must be decided before continuing -- a loop iteration (that only counts when it advances), an
+ *   alternative (whose longest branch wins) and a zero entry (that must not match) -- are run as regions alongside the
+ *   continuations they may lead to.
+ * A region is settled as soon as its part is decided, so a state is always a finite product of the threads of the
+ *   grammar and the chars are fed once without backtracking.
+ * The states are built as they are reached and their transitions are cached by char class up to a bound.
+ * Beyond the bound, the transitions are computed as the chars are fed.
+ * 
+ * @author Nawapunth Manusitthipol (https://github.com/NawaMan)
+ */
+final class RegParserAutomaton {
+    
+    /** The maximum number of states whose transitions are cached. */
+    static final int MAX_STATES = 10_000;
+    
+    /** The maximum nesting of the regions. */
+    private static final int MAX_DEPTH = 62;
+    
+    /**
+     * Returns the automaton of the parser.
+     * 
+     * @param  parser  the parser.
+     * @return         the automaton or null if the parser is not plain.
+     */
+    static RegParserAutomaton of(RegParser parser) {
+        var entries = parser.entries().toArray(RegParserEntry[]::new);
+        if (entries.length == 0)
+            return null;
+        
+        var nodes = PlainNode.of(entries, 0, entries.length);
+        if (nodes == null)
+            return null;
+        
+        var root = new Sequence(entries, 0, entries.length, nodes);
+        if (depthOf(root) > MAX_DEPTH)
+            return null;
+        
+        return new RegParserAutomaton(root);
+    }
+    
+    private static int depthOf(PlainNode node) {
+        int depth = 0;
+        if (node instanceof Sequence) {
+            var sequence = (Sequence)node;
+            for (int i = sequence.from; i < sequence.to; i++) {
+                var quantifier = sequence.entries[i].quantifier();
+                int region     = (quantifier.isZero() || sequence.isLoop(i)) ? 1 : 0;
+                depth = Math.max(depth, region + depthOf(sequence.nodes[i]));
+            }
+        } else if (node instanceof Alternative) {
+            var alternative = (Alternative)node;
+            for (var each : alternative.alternatives) {
+                depth = Math.max(depth, 1 + depthOf(each));
+            }
+            if (alternative.defaultNode != null) {
+                depth = Math.max(depth, depthOf(alternative.defaultNode));
+            }
+        }
+        return depth;
+    }
+    
+    private static void collectChars(PlainNode node, TreeSet<Integer> boundaries) {
+        if (node instanceof Char) {
+            var ranges = ((Char)node).ranges;
+            for (int i = 0; i < ranges.length; i += 2) {
+                boundaries.add(ranges[i]);
+                boundaries.add(ranges[i + 1] + 1);
+            }
+        } else if (node instanceof Word) {
+            var word = ((Word)node).word;
+            for (int i = 0; i < word.length(); i++) {
+                boundaries.add((int)word.charAt(i));
+                boundaries.add(word.charAt(i) + 1);
+            }
+        } else if (node instanceof Sequence) {
+            var sequence = (Sequence)node;
+            for (int i = sequence.from; i < sequence.to; i++) {
+                collectChars(sequence.nodes[i], boundaries);
+            }
+        } else {
+            var alternative = (Alternative)node;
+            for (var each : alternative.alternatives) {
+                collectChars(each, boundaries);
+            }
+            if (alternative.defaultNode != null) {
+                collectChars(alternative.defaultNode, boundaries);
+            }
+        }
+    }
+    
+    //== Automaton =====================================================================================================
+    
+    /** The first chars of the char classes -- the chars of a class are all the same to the automaton. */
+    private final char[] classStarts;
+    private final byte[] asciiClasses;
+    private final State  start;
+    
+    private final ConcurrentHashMap<State, State> states = new ConcurrentHashMap<>();
+    
+    private RegParserAutomaton(Sequence root) {
+        var boundaries = new TreeSet<Integer>();
+        boundaries.add(0);
+        collectChars(root, boundaries);
+        boundaries.removeIf(boundary -> boundary > Character.MAX_VALUE);
+        
+        classStarts = new char[boundaries.size()];
+        int index = 0;
+        for (int boundary : boundaries) {
+            classStarts[index++] = (char)boundary;
+        }
+        
+        // The ASCII chars are looked up directly (as long as their classes fit in a byte).
+        asciiClasses = (classStarts.length <= Byte.MAX_VALUE) ? new byte[128] : null;
+        if (asciiClasses != null) {
+            for (char c = 0; c < 128; c++) {
+                asciiClasses[c] = (byte)searchClassOf(c);
+            }
+        }
+        
+        start = intern(new Entry(root, root.from, 0, new Exit(0)));
+    }
+    
+    /** @return  the number of the states whose transitions are cached. */
+    int stateCount() {
+        return states.size();
+    }
+    
+    /**
+     * Match the text from the offset.
+     * 
+     * @param  text    the text.
+     * @param  offset  the offset to match from.
+     * @return         the end position of the match or -1 if not match.
+     */
+    int match(CharSequence text, int offset) {
+        int length = text.length();
+        var state  = start;
+        for (int position = offset; ; position++) {
+            if (state == DEAD)
+                return -1;
+            if (state instanceof Hit)
+                return position - ((Hit)state).age;
+            
+            if (position >= length) {
+                var end = endOf(state);
+                return (end instanceof Hit) ? (length - ((Hit)end).age) : -1;
+            }
+            
+            state = next(state, text.charAt(position));
+        }
+    }
+    
+    private static State endOf(State state) {
+        var end = state.endState;
+        if (end == null) {
+            end            = state.end();
+            state.endState = end;
+        }
+        return end;
+    }
+    
+    private int classOf(char c) {
+        return ((c < 128) && (asciiClasses != null))
+                ? asciiClasses[c]
+                : searchClassOf(c);
+    }
+    
+    private int searchClassOf(char c) {
+        int index = Arrays.binarySearch(classStarts, c);
+        return (index >= 0) ? index : (-index - 2);
+    }
+    
+    private State next(State state, char c) {
+        var transitions = state.transitions;
+        if (transitions == null)
+            return intern(state.feed(c, 0L));
+        
+        int charClass = classOf(c);
+        var next      = transitions[charClass];
+        if (next == null) {
+            next = intern(state.feed(classStarts[charClass], 0L));
+            transitions[charClass] = next;
+        }
+        return next;
+    }
+    
+    private State intern(State state) {
+        var existing = states.get(state);
+        if (existing != null)
+            return existing;
+        
+        if (states.size() >= MAX_STATES)
+            return state;
+        
+        state.transitions = new State[classStarts.length];
+        existing = states.putIfAbsent(state, state);
+        return (existing != null) ? existing : state;
+    }
+    
+    //== States ========================================================================================================
+    
+    /**
+     * A state of the automaton.
+     * 
+     * The threads (entry, node, word and run) are chains of what is left to match ended by the exit of their region.
+     * The regions hold the threads they run alongside.
+     * Feeding the exit of a region gives a hit which tells how many chars ago the part of the region ended.
+     */
+    private static abstract class State {
+        
+        /** The cached transitions by the char class (or null if not cached). */
+        State[] transitions;
+        
+        /** The cached state at the end of the text (or null if not cached). */
+        State endState;
+        
+        /**
+         * Feeds the char to the state.
+         * 
+         * @param  c      the char.
+         * @param  fresh  the bits of the depths of the loops that are just started by this char -- a loop iteration
+         *                  that ends before the char it starts with does not advance so it does not count.
+         * @return        the state after the char.
+         */
+        abstract State feed(char c, long fresh);
+        
+        /** @return  the state at the end of the text -- either {@link #DEAD} or a hit. */
+        abstract State end();
+        
+        /** Collects the ages of the hits of the exit at the depth. */
+        void collectHits(int depth, BitSet ages) {
+        }
+        
+        /** @return  the depth of the exit the thread ends with. */
+        int depth() {
+            return -1;
+        }
+    }
+    
+    private static final State DEAD = new State() {
+        @Override
+        State feed(char c, long fresh) {
+            return this;
+        }
+        @Override
+        State end() {
+            return this;
+        }
+        @Override
+        public String toString() {
+            return "DEAD";
+        }
+    };
+    
+    /** The end of the part of a region. */
+    private static final class Exit extends State {
+        
+        final int depth;
+        
+        Exit(int depth) {
+            this.depth = depth;
+        }
+        
+        @Override
+        State feed(char c, long fresh) {
+            return ((fresh & (1L << depth)) != 0) ? DEAD : new Hit(depth, 1);
+        }
+        
+        @Override
+        State end() {
+            return new Hit(depth, 0);
+        }
+        
+        @Override
+        int depth() {
+            return depth;
+        }
+        
+        @Override
+        public boolean equals(Object obj) {
+            return (obj instanceof Exit) && (((Exit)obj).depth == depth);
+        }
+        
+        @Override
+        public int hashCode() {
+            return depth;
+        }
+    }
+    
+    /** The part of the region at the depth ended the age chars ago. */
+    private static final class Hit extends State {
+        
+        final int depth;
+        final int age;
+        
+        Hit(int depth, int age) {
+            this.depth = depth;
+            this.age   = age;
+        }
+        
+        @Override
+        State feed(char c, long fresh) {
+            return new Hit(depth, age + 1);
+        }
+        
+        @Override
+        State end() {
+            return this;
+        }
+        
+        @Override
+        void collectHits(int depth, BitSet ages) {
+            if (depth == this.depth) {
+                ages.set(age);
+            }
+        }
+        
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof Hit))
+                return false;
+            
+            var hit = (Hit)obj;
+            return (hit.depth == depth) && (hit.age == age);
+        }
+        
+        @Override
+        public int hashCode() {
+            return (depth * 31) + age + 1;
+        }
+    }
+    
+    /** The head of the entry at the index of the sequence that has matched the times. */
+    private static final class Entry extends State {
+        
+        final Sequence sequence;
+        final int      index;
+        final int      times;
+        final State    next;
+        final int      hashCode;
+        
+        Entry(Sequence sequence, int index, int times, State next) {
+            this.sequence = sequence;
+            this.index    = index;
+            this.times    = times;
+            this.next     = next;
+            this.hashCode = Objects.hash(System.identityHashCode(sequence), index, times, next);
+        }
+        
+        private Entry following() {
+            return new Entry(sequence, index + 1, 0, next);
+        }
+        
+        @Override
+        State feed(char c, long fresh) {
+            if (index == sequence.to)
+                return next.feed(c, fresh);
+            
+            var node       = sequence.nodes[index];
+            var quantifier = sequence.entries[index].quantifier();
+            if (quantifier.isOne_Possessive())
+                return new Node(node, following()).feed(c, fresh);
+            
+            int depth = next.depth() + 1;
+            if (quantifier.isZero())
+                return new ZeroRegion(depth, new Node(node, new Exit(depth)), following()).feed(c, fresh);
+            
+            if (!sequence.isLoop(index))
+                return new Run(sequence, index, 0, next).feed(c, fresh);
+            
+            int lowerBound = quantifier.lowerBound();
+            if (quantifier.hasUpperBound() && (times >= quantifier.upperBound()))
+                return following().feed(c, fresh);
+            
+            // Only the lower bound matters when there is no upper bound.
+            int nextTimes = quantifier.hasNoUpperBound() ? Math.min(times + 1, lowerBound) : (times + 1);
+            var repeat    = new Entry(sequence, index, nextTimes, next);
+            var fail      = (times < lowerBound) ? DEAD : following();
+            var iteration = new Node(node, new Exit(depth));
+            return new LoopRegion(depth, iteration, fail, repeat, NO_AGES, NO_STATES).start(c, fresh);
+        }
+        
+        @Override
+        State end() {
+            // This mirrors what the solver does when it reaches the end of the text.
+            if (index == sequence.to)
+                return next.end();
+            
+            var node       = sequence.nodes[index];
+            var entry      = sequence.entries[index];
+            var quantifier = entry.quantifier();
+            int lowerBound = quantifier.lowerBound();
+            if (quantifier.isOne_Possessive()) {
+                return RegParserSolver.isSimpleChecker(entry)
+                        ? DEAD
+                        : new Node(node, following()).end();
+            }
+            if (sequence.isLoop(index) ? (times < lowerBound) : (lowerBound > 0))
+                return DEAD;
+            
+            var skipToIndex = RegParserSolver.findSkipToIndex(sequence.entries, index, lowerBound, sequence.entries.length);
+            if (skipToIndex == null)
+                return DEAD;
+            if (skipToIndex == -1)
+                return next.end();
+            
+            // Only the one that is not simple can be skipped to and only the one of a single match may match here.
+            int skipTo = skipToIndex;
+            if (!sequence.entries[skipTo].quantifier().isOne_Possessive())
+                return DEAD;
+            
+            return new Node(sequence.nodes[skipTo], new Entry(sequence, skipTo + 1, 0, next)).end();
+        }
+        
+        @Override
+        int depth() {
+            return next.depth();
+        }
+        
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof Entry))
+                return false;
+            
+            var entry = (Entry)obj;
+            return (entry.sequence == sequence)
+                && (entry.index    == index)
+                && (entry.times    == times)
+                && entry.next.equals(next);
+        }
+        
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+    
+    /** The node to be matched once. */
+    private static final class Node extends State {
+        
+        final PlainNode node;
+        final State     next;
+        final int       hashCode;
+        
+        Node(PlainNode node, State next) {
+            this.node     = node;
+            this.next     = next;
+            this.hashCode = (System.identityHashCode(node) * 31) + next.hashCode();
+        }
+        
+        @Override
+        State feed(char c, long fresh) {
+            if (node instanceof Char)
+                return ((Char)node).table.inSet(c) ? next : DEAD;
+            
+            if (node instanceof Word) {
+                var word = ((Word)node).word;
+                return word.isEmpty()
+                        ? next.feed(c, fresh)
+                        : new WordAt(word, 0, next).feed(c, fresh);
+            }
+            if (node instanceof Sequence) {
+                var sequence = (Sequence)node;
+                return new Entry(sequence, sequence.from, 0, next).feed(c, fresh);
+            }
+            
+            var alternative = (Alternative)node;
+            int depth       = next.depth() + 1;
+            var branches    = new State[alternative.alternatives.length];
+            for (int i = 0; i < branches.length; i++) {
+                branches[i] = new Node(alternative.alternatives[i], new Exit(depth));
+            }
+            var defaultState = (alternative.defaultNode != null) ? new Node(alternative.defaultNode, next) : DEAD;
+            return new AlternativeRegion(depth, branches, -1, defaultState, next, NO_AGES, NO_STATES).feed(c, fresh);
+        }
+        
+        @Override
+        State end() {
+            // As with all checkers, a char or a word does not match at the end of the text (even an empty one).
+            if ((node instanceof Char) || (node instanceof Word))
+                return DEAD;
+            
+            if (node instanceof Sequence) {
+                var sequence = (Sequence)node;
+                return new Entry(sequence, sequence.from, 0, next).end();
+            }
+            
+            // All the branches that match here are as long so any of them will do.
+            var alternative = (Alternative)node;
+            int depth       = next.depth() + 1;
+            for (var each : alternative.alternatives) {
+                if (new Node(each, new Exit(depth)).end() != DEAD)
+                    return next.end();
+            }
+            return (alternative.defaultNode != null) ? new Node(alternative.defaultNode, next).end() : DEAD;
+        }
+        
+        @Override
+        int depth() {
+            return next.depth();
+        }
+        
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof Node))
+                return false;
+            
+            var node = (Node)obj;
+            return (node.node == this.node) && node.next.equals(next);
+        }
+        
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+    
+    /** The word that has matched the count of its chars. */
+    private static final class WordAt extends State {
+        
+        final String word;
+        final int    count;
+        final State  next;
+        final int    hashCode;
+        
+        WordAt(String word, int count, State next) {
+            this.word     = word;
+            this.count    = count;
+            this.next     = next;
+            this.hashCode = Objects.hash(word, count, next);
+        }
+        
+        @Override
+        State feed(char c, long fresh) {
+            if (word.charAt(count) != c)
+                return DEAD;
+            
+            return ((count + 1) == word.length())
+                    ? next
+                    : new WordAt(word, count + 1, next);
+        }
+        
+        @Override
+        State end() {
+            return DEAD;
+        }
+        
+        @Override
+        int depth() {
+            return next.depth();
+        }
+        
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof WordAt))
+                return false;
+            
+            var wordAt = (WordAt)obj;
+            return (wordAt.count == count) && wordAt.word.equals(word) && wordAt.next.equals(next);
+        }
+        
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+    
+    /** The run of the chars of the entry at the index that has matched the count of the chars. */
+    private static final class Run extends State {
+        
+        final Sequence sequence;
+        final int      index;
+        final int      count;
+        final State    next;
+        final int      hashCode;
+        
+        Run(Sequence sequence, int index, int count, State next) {
+            this.sequence = sequence;
+            this.index    = index;
+            this.count    = count;
+            this.next     = next;
+            this.hashCode = Objects.hash(System.identityHashCode(sequence), index, count, next);
+        }
+        
+        @Override
+        State feed(char c, long fresh) {
+            var quantifier = sequence.entries[index].quantifier();
+            int lowerBound = quantifier.lowerBound();
+            if (quantifier.hasNoUpperBound() || (count < quantifier.upperBound())) {
+                if (((Char)sequence.nodes[index]).table.inSet(c)) {
+                    // Only the lower bound matters when there is no upper bound.
+                    int nextCount = quantifier.hasNoUpperBound() ? Math.min(count + 1, lowerBound) : (count + 1);
+                    return new Run(sequence, index, nextCount, next);
+                }
+            }
+            if (count < lowerBound)
+                return DEAD;
+            
+            return new Entry(sequence, index + 1, 0, next).feed(c, fresh);
+        }
+        
+        @Override
+        State end() {
+            int lowerBound = sequence.entries[index].quantifier().lowerBound();
+            return (count < lowerBound) ? DEAD : new Entry(sequence, index + 1, 0, next).end();
+        }
+        
+        @Override
+        int depth() {
+            return next.depth();
+        }
+        
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof Run))
+                return false;
+            
+            var run = (Run)obj;
+            return (run.sequence == sequence)
+                && (run.index    == index)
+                && (run.count    == count)
+                && run.next.equals(next);
+        }
+        
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+    
+    private static final int[]   NO_AGES   = new int[0];
+    private static final State[] NO_STATES = new State[0];
+    
+    /** The region of a zero entry -- the part must not match for the continuation to go on. */
+    private static final class ZeroRegion extends State {
+        
+        final int   depth;
+        final State part;
+        final State continuation;
+        final int   hashCode;
+        
+        ZeroRegion(int depth, State part, State continuation) {
+            this.depth        = depth;
+            this.part         = part;
+            this.continuation = continuation;
+            this.hashCode     = Objects.hash(depth, part, continuation);
+        }
+        
+        @Override
+        State feed(char c, long fresh) {
+            var nextPart = part.feed(c, fresh);
+            if (nextPart instanceof Hit)
+                return DEAD;
+            
+            var nextContinuation = continuation.feed(c, fresh);
+            if ((nextPart == DEAD) || (nextContinuation == DEAD))
+                return nextContinuation;
+            
+            return new ZeroRegion(depth, nextPart, nextContinuation);
+        }
+        
+        @Override
+        State end() {
+            return (part.end() instanceof Hit) ? DEAD : continuation.end();
+        }
+        
+        @Override
+        void collectHits(int depth, BitSet ages) {
+            part        .collectHits(depth, ages);
+            continuation.collectHits(depth, ages);
+        }
+        
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof ZeroRegion))
+                return false;
+            
+            var region = (ZeroRegion)obj;
+            return (region.depth == depth) && region.part.equals(part) && region.continuation.equals(continuation);
+        }
+        
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+    
+    /**
+     * The region of a loop iteration.
+     * 
+     * The iteration runs alongside the continuation if it fails and the continuations (the next iterations) from where
+     *   it may have ended.
+     */
+    private static final class LoopRegion extends State {
+        
+        final int     depth;
+        final State   iteration;
+        final State   fail;
+        final State   repeat;
+        final int[]   ages;
+        final State[] continuations;
+        final int     hashCode;
+        
+        LoopRegion(int depth, State iteration, State fail, State repeat, int[] ages, State[] continuations) {
+            this.depth         = depth;
+            this.iteration     = iteration;
+            this.fail          = fail;
+            this.repeat        = repeat;
+            this.ages          = ages;
+            this.continuations = continuations;
+            this.hashCode      = Objects.hash(depth, iteration, fail, repeat, Arrays.hashCode(ages), Arrays.hashCode(continuations));
+        }
+        
+        /** Feeds the char the iteration starts with. */
+        State start(char c, long fresh) {
+            return feed(c, fresh, fresh | (1L << depth));
+        }
+        
+        @Override
+        State feed(char c, long fresh) {
+            return feed(c, fresh, fresh);
+        }
+        
+        private State feed(char c, long fresh, long iterationFresh) {
+            var nextIteration = iteration.feed(c, iterationFresh);
+            var nextFail      = fail.feed(c, fresh);
+            if (nextIteration == DEAD)
+                return nextFail;
+            
+            var hits = new BitSet();
+            nextIteration.collectHits(depth, hits);
+            var continuations = new Continuations(ages, this.continuations, c, fresh, hits);
+            if (hits.get(1)) {
+                continuations.add(repeat.feed(c, fresh));
+            }
+            if (nextIteration instanceof Hit)
+                return continuations.of(((Hit)nextIteration).age);
+            
+            return new LoopRegion(depth, nextIteration, nextFail, repeat, continuations.ages(), continuations.states());
+        }
+        
+        @Override
+        State end() {
+            var end = iteration.end();
+            if (end == DEAD)
+                return fail.end();
+            
+            int age = ((Hit)end).age;
+            if (age == 0)
+                return repeat.end();
+            
+            return continuationOf(ages, continuations, age).end();
+        }
+        
+        @Override
+        void collectHits(int depth, BitSet ages) {
+            iteration.collectHits(depth, ages);
+            fail     .collectHits(depth, ages);
+            for (var continuation : continuations) {
+                continuation.collectHits(depth, ages);
+            }
+        }
+        
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof LoopRegion))
+                return false;
+            
+            var region = (LoopRegion)obj;
+            return (region.depth == depth)
+                && region.iteration.equals(iteration)
+                && region.fail     .equals(fail)
+                && region.repeat   .equals(repeat)
+                && Arrays.equals(region.ages,          ages)
+                && Arrays.equals(region.continuations, continuations);
+        }
+        
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+    
+    /**
+     * The region of an alternative.
+     * 
+     * The branches run alongside the default and the continuations from where the branches may have ended.
+     * The latest end of the branches (the longest branch) wins once all the branches are decided.
+     */
+    private static final class AlternativeRegion extends State {
+        
+        final int     depth;
+        final State[] branches;
+        final int     bestAge;
+        final State   defaultState;
+        final State   next;
+        final int[]   ages;
+        final State[] continuations;
+        final int     hashCode;
+        
+        AlternativeRegion(int depth, State[] branches, int bestAge, State defaultState, State next, int[] ages, State[] continuations) {
+            this.depth         = depth;
+            this.branches      = branches;
+            this.bestAge       = bestAge;
+            this.defaultState  = defaultState;
+            this.next          = next;
+            this.ages          = ages;
+            this.continuations = continuations;
+            this.hashCode      = Objects.hash(depth, Arrays.hashCode(branches), bestAge, defaultState, next, Arrays.hashCode(ages), Arrays.hashCode(continuations));
+        }
+        
+        @Override
+        State feed(char c, long fresh) {
+            int bestAge  = (this.bestAge == -1) ? -1 : (this.bestAge + 1);
+            var branches = new ArrayList<State>(this.branches.length);
+            var hits     = new BitSet();
+            for (var branch : this.branches) {
+                var nextBranch = branch.feed(c, fresh);
+                if (nextBranch instanceof Hit) {
+                    int age = ((Hit)nextBranch).age;
+                    bestAge = (bestAge == -1) ? age : Math.min(bestAge, age);
+                } else if (nextBranch != DEAD) {
+                    nextBranch.collectHits(depth, hits);
+                    branches.add(nextBranch);
+                }
+            }
+            if (bestAge != -1) {
+                // The branches that end before the best one cannot win.
+                hits.clear(bestAge + 1, Math.max(bestAge + 1, hits.length()));
+                hits.set(bestAge);
+            }
+            
+            var continuations = new Continuations(ages, this.continuations, c, fresh, hits);
+            if (hits.get(1)) {
+                continuations.add(next.feed(c, fresh));
+            }
+            
+            var defaultState = (bestAge == -1) ? this.defaultState.feed(c, fresh) : DEAD;
+            if (branches.isEmpty())
+                return (bestAge != -1) ? continuations.of(bestAge) : defaultState;
+            
+            return new AlternativeRegion(depth, branches.toArray(State[]::new), bestAge, defaultState, next, continuations.ages(), continuations.states());
+        }
+        
+        @Override
+        State end() {
+            int bestAge = this.bestAge;
+            for (var branch : branches) {
+                var end = branch.end();
+                if (end instanceof Hit) {
+                    int age = ((Hit)end).age;
+                    bestAge = (bestAge == -1) ? age : Math.min(bestAge, age);
+                }
+            }
+            if (bestAge == -1)
+                return defaultState.end();
+            
+            return (bestAge == 0)
+                    ? next.end()
+                    : continuationOf(ages, continuations, bestAge).end();
+        }
+        
+        @Override
+        void collectHits(int depth, BitSet ages) {
+            for (var branch : branches) {
+                branch.collectHits(depth, ages);
+            }
+            defaultState.collectHits(depth, ages);
+            for (var continuation : continuations) {
+                continuation.collectHits(depth, ages);
+            }
+        }
+        
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof AlternativeRegion))
+                return false;
+            
+            var region = (AlternativeRegion)obj;
+            return (region.depth   == depth)
+                && (region.bestAge == bestAge)
+                && Arrays.equals(region.branches, branches)
+                && region.defaultState.equals(defaultState)
+                && region.next        .equals(next)
+                && Arrays.equals(region.ages,          ages)
+                && Arrays.equals(region.continuations, continuations);
+        }
+        
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+    
+    private static State continuationOf(int[] ages, State[] continuations, int age) {
+        for (int i = 0; i < ages.length; i++) {
+            if (ages[i] == age)
+                return continuations[i];
+        }
+        throw new IllegalStateException("No continuation of the age: " + age);
+    }
+    
+    /** The continuations of a region (by their ages) after a char -- only the ones that may still be used are kept. */
+    private static final class Continuations {
+        
+        private int[]   ages;
+        private State[] states;
+        private int     count;
+        
+        Continuations(int[] ages, State[] states, char c, long fresh, BitSet hits) {
+            this.ages   = new int[ages.length + 1];
+            this.states = new State[ages.length + 1];
+            this.count  = 1;
+            for (int i = 0; i < ages.length; i++) {
+                int age = ages[i] + 1;
+                if (hits.get(age)) {
+                    this.ages  [count] = age;
+                    this.states[count] = states[i].feed(c, fresh);
+                    count++;
+                }
+            }
+        }
+        
+        /** Adds the continuation from before the char. */
+        void add(State state) {
+            ages  [0] = 1;
+            states[0] = state;
+        }
+        
+        State of(int age) {
+            for (int i = (states[0] != null) ? 0 : 1; i < count; i++) {
+                if (ages[i] == age)
+                    return states[i];
+            }
+            throw new IllegalStateException("No continuation of the age: " + age);
+        }
+        
+        int[] ages() {
+            int from = (states[0] != null) ? 0 : 1;
+            return ((from == 0) && (count == ages.length)) ? ages : Arrays.copyOfRange(ages, from, count);
+        }
+        
+        State[] states() {
+            int from = (states[0] != null) ? 0 : 1;
+            return ((from == 0) && (count == states.length)) ? states : Arrays.copyOfRange(states, from, count);
+        }
+    }
+    
+}
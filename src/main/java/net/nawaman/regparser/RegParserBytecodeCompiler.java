@@ -0,0 +1,497 @@
+/*----------------------------------------------------------------------------------------------------------------------
+ * Copyright (C) 2008-2024 Nawapunth Manusitthipol.
+ *----------------------------------------------------------------------------------------------------------------------
+ * LICENSE:
+ * 
+ * This file is part of Nawa's RegParser.
+ * 
+ * The project is a free software; you can redistribute it and/or modify it under the SIMILAR terms of the GNU General
+ * Public License as published by the Free Software Foundation; either version 2 of the License, or any later version.
+ * You are only required to inform me about your modification and redistribution as or as part of commercial software
+ * package. You can inform me via nawa<at>nawaman<dot>net.
+ * 
+ * The project is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the 
+ * implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ * more details.
+ * ---------------------------------------------------------------------------------------------------------------------
+ */
+package net.nawaman.regparser;
+
+import static net.nawaman.regparser.ClassFileWriter.AALOAD;
+import static net.nawaman.regparser.ClassFileWriter.ALOAD_0;
+import static net.nawaman.regparser.ClassFileWriter.ALOAD_1;
+import static net.nawaman.regparser.ClassFileWriter.GETFIELD;
+import static net.nawaman.regparser.ClassFileWriter.GOTO;
+import static net.nawaman.regparser.ClassFileWriter.IADD;
+import static net.nawaman.regparser.ClassFileWriter.ICONST_M1;
+import static net.nawaman.regparser.ClassFileWriter.IFEQ;
+import static net.nawaman.regparser.ClassFileWriter.IFGE;
+import static net.nawaman.regparser.ClassFileWriter.IF_ICMPEQ;
+import static net.nawaman.regparser.ClassFileWriter.IF_ICMPGE;
+import static net.nawaman.regparser.ClassFileWriter.IF_ICMPGT;
+import static net.nawaman.regparser.ClassFileWriter.IF_ICMPLE;
+import static net.nawaman.regparser.ClassFileWriter.IF_ICMPLT;
+import static net.nawaman.regparser.ClassFileWriter.IF_ICMPNE;
+import static net.nawaman.regparser.ClassFileWriter.INVOKEINTERFACE;
+import static net.nawaman.regparser.ClassFileWriter.INVOKEVIRTUAL;
+import static net.nawaman.regparser.ClassFileWriter.IRETURN;
+import static net.nawaman.regparser.ClassFileWriter.ISUB;
+import static net.nawaman.regparser.RegParserEntry.newParserEntry;
+
+import java.lang.invoke.MethodHandles;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import net.nawaman.regparser.ClassFileWriter.Code;
+import net.nawaman.regparser.ClassFileWriter.CodeTooLargeException;
+import net.nawaman.regparser.ClassFileWriter.Label;
+import net.nawaman.regparser.PlainNode.Alternative;
+import net.nawaman.regparser.PlainNode.Char;
+import net.nawaman.regparser.PlainNode.Sequence;
+import net.nawaman.regparser.PlainNode.Word;
+import net.nawaman.regparser.checkers.CharChecker;
+import net.nawaman.regparser.checkers.CheckerAlternative;
+
+/**
+ * Compiles the plain parts of a RegParser into JVM bytecode.
+ * 
+ * A plain part is made of char checkers, words, alternatives and nested RegParsers whose entries are all unnamed,
+ *   untyped and possessive.
+ * Such a part always produces a single unnamed result entry so it can be matched by straight-line code that mirrors
+ *   what the solver does -- including how it treats the end of the text.
+ * Each plain part is generated into a hidden class and replaces the part in the parser.
+ * Named entries, typed entries (including the ones with validation), second stages and non-possessive entries stay
+ *   interpreted by the solver with their plain sub parts compiled.
+ * 
+ * A part is only compiled when it cannot match at the end of the text.
+ * The solver treats the checker that may match empty at the end of the text differently depending on its kind so
+ *   such a part is left as it is.
+ * 
+ * @author Nawapunth Manusitthipol (https://github.com/NawaMan)
+ */
+final class RegParserBytecodeCompiler {
+    
+    private static final String CLASS_NAME       = "net/nawaman/regparser/CompiledChecker$Generated";
+    private static final String SUPER_NAME       = "net/nawaman/regparser/CompiledChecker";
+    private static final String MATCH_NAME       = "match";
+    private static final String MATCH_DESCRIPTOR = "(Ljava/lang/CharSequence;II)I";
+    private static final int    MAX_STACK        = 4;
+    
+    /** The number of ranges of a char checker that are checked inline, larger ones are looked up from the table. */
+    private static final int MAX_INLINE_RANGES = 4;
+    
+    // The locals of the generated method (after this and the text).
+    private static final int OFFSET     = 2;
+    private static final int LENGTH     = 3;
+    private static final int POSITION   = 4;
+    private static final int CHAR       = 5;
+    private static final int FREE_LOCAL = 6;
+    
+    /** @return  {@code true} if the entries can match at the end of the text. */
+    private static boolean canMatchAtEnd(RegParserEntry ... entries) {
+        return new RegParser(true, entries).startLengthOf("", 0, null) != -1;
+    }
+    
+    //== Rewrite =======================================================================================================
+    
+    /**
+     * Returns the parser with its plain parts compiled.
+     * 
+     * @param  parser  the parser.
+     * @return         the compiled parser or the given parser if there is nothing to compile.
+     */
+    static RegParser compile(RegParser parser) {
+        var entries    = parser.entries().toArray(RegParserEntry[]::new);
+        var newEntries = compile(entries);
+        if (newEntries == entries)
+            return parser;
+        
+        var typeProvider = parser.getDefaultTypeProvider();
+        return (typeProvider != null)
+                ? new RegParserWithDefaultTypeProvider(true, newEntries, typeProvider)
+                : new RegParser(true, newEntries);
+    }
+    
+    private static RegParserEntry[] compile(RegParserEntry[] entries) {
+        var     newEntries = new ArrayList<RegParserEntry>();
+        boolean isChanged  = false;
+        for (int i = 0; i < entries.length;) {
+            // Merge a run of plain entries into one.
+            int end = i;
+            while ((end < entries.length) && (PlainNode.of(entries[end]) != null)) {
+                end++;
+            }
+            if ((end - i) >= 2) {
+                var runEntries = Arrays.copyOfRange(entries, i, end);
+                if (!canMatchAtEnd(runEntries)) {
+                    var node     = new Sequence(entries, i, end, PlainNode.of(entries, i, end));
+                    var source   = new RegParser(true, runEntries);
+                    var compiled = generate(source, node);
+                    if (compiled != null) {
+                        newEntries.add(newParserEntry(compiled));
+                        isChanged = true;
+                        i         = end;
+                        continue;
+                    }
+                }
+            }
+            
+            var entry    = entries[i];
+            var newEntry = compile(entry);
+            newEntries.add(newEntry);
+            isChanged |= (newEntry != entry);
+            i++;
+        }
+        return isChanged ? newEntries.toArray(RegParserEntry[]::new) : entries;
+    }
+    
+    private static RegParserEntry compile(RegParserEntry entry) {
+        if ((entry               == null)
+         || (entry.type()        != null)
+         || (entry.typeRef()     != null)
+         || (entry.secondStage() != null))
+            return entry;
+        
+        var checker    = entry.checker();
+        var quantifier = entry.quantifier();
+        // Non-possessive alternatives are backtracked by the solver one alternative at a time.
+        boolean isWhole    = quantifier.isPossessive() || !(checker instanceof CheckerAlternative);
+        var     newChecker = compile(checker, isWhole);
+        if (newChecker == checker)
+            return entry;
+        
+        return newParserEntry(entry.name(), newChecker, quantifier);
+    }
+    
+    private static Checker compile(Checker checker, boolean isWhole) {
+        if (!(checker instanceof RegParser)
+         && !(checker instanceof CheckerAlternative))
+            return checker;
+        
+        if (isWhole) {
+            var node = PlainNode.of(checker);
+            if ((node != null) && !canMatchAtEnd(newParserEntry(checker))) {
+                var compiled = generate(checker, node);
+                if (compiled != null)
+                    return compiled;
+            }
+        }
+        
+        if (checker instanceof RegParser)
+            return compile((RegParser)checker);
+        
+        var alternative  = (CheckerAlternative)checker;
+        var alternatives = new ArrayList<Checker>();
+        alternative.checkers().forEach(alternatives::add);
+        if (alternative.hasDefault()) {
+            alternatives.add(alternative.defaultChecker());
+        }
+        
+        boolean isChanged = false;
+        for (int i = 0; i < alternatives.size(); i++) {
+            var each     = alternatives.get(i);
+            var compiled = compile(each, true);
+            alternatives.set(i, compiled);
+            isChanged |= (compiled != each);
+        }
+        return isChanged
+                ? new CheckerAlternative(alternative.hasDefault(), alternatives.toArray(Checker[]::new))
+                : checker;
+    }
+    
+    //== Generate ======================================================================================================
+    
+    private final ClassFileWriter   writer       = new ClassFileWriter(CLASS_NAME, SUPER_NAME);
+    private final Code              code         = writer.newCode();
+    private final List<CharChecker> charCheckers = new ArrayList<>();
+    private int                     localCount   = FREE_LOCAL;
+    
+    private final int charAt       = writer.interfaceMethodConstant("java/lang/CharSequence", "charAt", "(I)C", 1);
+    private final int checkerArray = writer.fieldConstant(SUPER_NAME, "charCheckers", "[Lnet/nawaman/regparser/checkers/CharChecker;");
+    private final int inSet        = writer.methodConstant("net/nawaman/regparser/checkers/CharChecker", "inSet", "(C)Z");
+    
+    private RegParserBytecodeCompiler() {
+    }
+    
+    /** @return  the compiled checker or null if the code is too large. */
+    private static CompiledChecker generate(Checker source, PlainNode node) {
+        try {
+            return new RegParserBytecodeCompiler().define(source, node);
+        } catch (CodeTooLargeException exception) {
+            return null;
+        }
+    }
+    
+    private CompiledChecker define(Checker source, PlainNode node) {
+        var fail = new Label();
+        emit(node, fail);
+        code.load(POSITION).op(IRETURN);
+        code.mark(fail).op(ICONST_M1).op(IRETURN);
+        
+        // The verifier needs all the locals to be assigned before they are used on any path.
+        var method = writer.newCode();
+        method.load(OFFSET).store(POSITION);
+        for (int local = CHAR; local < localCount; local++) {
+            method.constant(0).store(local);
+        }
+        method.append(code);
+        
+        var bytes = writer.toBytes(MATCH_NAME, MATCH_DESCRIPTOR, method, MAX_STACK, localCount);
+        try {
+            var lookup  = MethodHandles.lookup().defineHiddenClass(bytes, true);
+            var checker = (CompiledChecker)lookup.lookupClass().getDeclaredConstructor().newInstance();
+            return checker.initialize(source, charCheckers.toArray(CharChecker[]::new));
+        } catch (ReflectiveOperationException exception) {
+            throw new IllegalStateException("Fail to define the compiled checker for: " + source, exception);
+        }
+    }
+    
+    private int newLocal() {
+        return localCount++;
+    }
+    
+    /** Emits the code that matches the node from the position, jumps to fail if not match. */
+    private void emit(PlainNode node, Label fail) {
+        if (node instanceof Char) {
+            code.load(POSITION).load(LENGTH).jump(IF_ICMPGE, fail);
+            emitReadChar();
+            emitCharTest((Char)node, fail);
+            code.increment(POSITION, 1);
+            
+        } else if (node instanceof Word) {
+            emitWord(((Word)node).word, fail);
+            
+        } else if (node instanceof Sequence) {
+            emitSequence((Sequence)node, fail);
+            
+        } else {
+            emitAlternative((Alternative)node, fail);
+        }
+    }
+    
+    private void emitReadChar() {
+        code.op(ALOAD_1).load(POSITION).op(INVOKEINTERFACE, charAt).store(CHAR);
+    }
+    
+    /** Emits the code that checks if the char is in the ranges, jumps to fail if not. */
+    private void emitCharTest(Char node, Label fail) {
+        if (node.isAll())
+            return;
+        
+        var ranges = node.ranges;
+        if (ranges.length == 0) {
+            code.jump(GOTO, fail);
+            return;
+        }
+        
+        if (ranges.length > (MAX_INLINE_RANGES << 1)) {
+            int index = charCheckers.size();
+            charCheckers.add(node.table);
+            code.op(ALOAD_0).op(GETFIELD, checkerArray).constant(index).op(AALOAD);
+            code.load(CHAR).op(INVOKEVIRTUAL, inSet).jump(IFEQ, fail);
+            return;
+        }
+        
+        // The ranges are sorted so the char before a range is not in any of them.
+        var matched = new Label();
+        for (int i = 0; i < ranges.length; i += 2) {
+            int     start  = ranges[i];
+            int     end    = ranges[i + 1];
+            boolean isLast = (i + 2) == ranges.length;
+            if (start == end) {
+                code.load(CHAR).constant(start).jump(isLast ? IF_ICMPNE : IF_ICMPEQ, isLast ? fail : matched);
+                continue;
+            }
+            if (start > 0) {
+                code.load(CHAR).constant(start).jump(IF_ICMPLT, fail);
+            }
+            if (end < Character.MAX_VALUE) {
+                code.load(CHAR).constant(end).jump(isLast ? IF_ICMPGT : IF_ICMPLE, isLast ? fail : matched);
+            }
+        }
+        code.mark(matched);
+    }
+    
+    private void emitWord(String word, Label fail) {
+        // As with all checkers, a word does not match at the end of the text (even an empty one).
+        code.load(POSITION).load(LENGTH).jump(IF_ICMPGE, fail);
+        if (word.isEmpty())
+            return;
+        
+        code.load(LENGTH).load(POSITION).op(ISUB).constant(word.length()).jump(IF_ICMPLT, fail);
+        for (int i = 0; i < word.length(); i++) {
+            code.op(ALOAD_1).load(POSITION);
+            if (i != 0) {
+                code.constant(i).op(IADD);
+            }
+            code.op(INVOKEINTERFACE, charAt).constant(word.charAt(i)).jump(IF_ICMPNE, fail);
+        }
+        code.increment(POSITION, word.length());
+    }
+    
+    private void emitAlternative(Alternative node, Label fail) {
+        // The longest alternative wins.
+        int start = newLocal();
+        int best  = newLocal();
+        code.load(POSITION).store(start).op(ICONST_M1).store(best);
+        for (var alternative : node.alternatives) {
+            var next = new Label();
+            code.load(start).store(POSITION);
+            emit(alternative, next);
+            code.load(POSITION).load(best).jump(IF_ICMPLE, next);
+            code.load(POSITION).store(best);
+            code.mark(next);
+        }
+        
+        var found = new Label();
+        var done  = new Label();
+        code.load(best).jump(IFGE, found);
+        if (node.defaultNode != null) {
+            code.load(start).store(POSITION);
+            emit(node.defaultNode, fail);
+            code.jump(GOTO, done);
+        } else {
+            code.jump(GOTO, fail);
+        }
+        code.mark(found).load(best).store(POSITION);
+        code.mark(done);
+    }
+    
+    private void emitSequence(Sequence node, Label fail) {
+        // This mirrors the main loop of the solver for possessive entries.
+        var entries = node.entries;
+        var success = new Label();
+        var heads   = new Label[entries.length];
+        var bodies  = new Label[entries.length];
+        var times   = new int[entries.length];
+        for (int i = node.from; i < node.to; i++) {
+            heads[i]  = new Label();
+            bodies[i] = new Label();
+            times[i]  = node.isLoop(i) ? newLocal() : -1;
+        }
+        
+        for (int i = node.from; i < node.to; i++) {
+            var entry      = entries[i];
+            var quantifier = entry.quantifier();
+            int lowerBound = quantifier.lowerBound();
+            int upperBound = quantifier.upperBound();
+            var each       = node.nodes[i];
+            if (times[i] != -1) {
+                code.constant(0).store(times[i]);
+            }
+            
+            // At the end of the text, the solver skips to the next entry that may still match.
+            code.mark(heads[i]);
+            code.load(POSITION).load(LENGTH).jump(IF_ICMPLT, bodies[i]);
+            if (quantifier.isOne_Possessive()) {
+                if (RegParserSolver.isSimpleChecker(entry)) {
+                    code.jump(GOTO, fail);
+                }
+            } else if (times[i] == -1) {
+                if (lowerBound > 0) {
+                    code.jump(GOTO, fail);
+                } else {
+                    emitSkip(node, i, success, fail, bodies, times);
+                }
+            } else {
+                if (lowerBound > 0) {
+                    var skip = new Label();
+                    code.load(times[i]).constant(lowerBound).jump(IF_ICMPGE, skip);
+                    if (RegParserSolver.isSimpleChecker(entry)) {
+                        code.jump(GOTO, fail);
+                    } else {
+                        code.constant(0).store(times[i]).jump(GOTO, bodies[i]);
+                    }
+                    code.mark(skip);
+                }
+                emitSkip(node, i, success, fail, bodies, times);
+            }
+            
+            code.mark(bodies[i]);
+            if (quantifier.isOne_Possessive()) {
+                emit(each, fail);
+                
+            } else if (quantifier.isZero()) {
+                int start   = newLocal();
+                var unmatch = new Label();
+                code.load(POSITION).store(start);
+                emit(each, unmatch);
+                code.jump(GOTO, fail);
+                code.mark(unmatch).load(start).store(POSITION);
+                
+            } else if (times[i] == -1) {
+                emitCharRun((Char)each, lowerBound, upperBound, fail);
+                
+            } else {
+                int start   = newLocal();
+                var unmatch = new Label();
+                var done    = new Label();
+                if (upperBound != Quantifier.NO_UPPERBOUND) {
+                    code.load(times[i]).constant(upperBound).jump(IF_ICMPGE, done);
+                }
+                code.load(POSITION).store(start);
+                emit(each, unmatch);
+                // Only the match that advances counts.
+                code.load(POSITION).load(start).jump(IF_ICMPEQ, unmatch);
+                code.increment(times[i], 1).jump(GOTO, heads[i]);
+                code.mark(unmatch).load(start).store(POSITION);
+                code.mark(done);
+                if (lowerBound > 0) {
+                    code.load(times[i]).constant(lowerBound).jump(IF_ICMPLT, fail);
+                }
+            }
+        }
+        code.mark(success);
+    }
+    
+    /** Emits the jump to where the solver continues when it reaches the end of the text after the entry. */
+    private void emitSkip(Sequence node, int index, Label success, Label fail, Label[] bodies, int[] times) {
+        var entries     = node.entries;
+        var lowerBound  = entries[index].quantifier().lowerBound();
+        var skipToIndex = RegParserSolver.findSkipToIndex(entries, index, lowerBound, entries.length);
+        if (skipToIndex == null) {
+            code.jump(GOTO, fail);
+        } else if ((skipToIndex == -1) || (skipToIndex >= node.to)) {
+            // The rest are for the solver to continue.
+            code.jump(GOTO, success);
+        } else {
+            if (times[skipToIndex] != -1) {
+                code.constant(0).store(times[skipToIndex]);
+            }
+            code.jump(GOTO, bodies[skipToIndex]);
+        }
+    }
+    
+    private void emitCharRun(Char node, int lowerBound, int upperBound, Label fail) {
+        int end   = newLocal();
+        int start = newLocal();
+        if (upperBound == Quantifier.NO_UPPERBOUND) {
+            code.load(LENGTH).store(end);
+        } else {
+            var limited = new Label();
+            var done    = new Label();
+            code.load(LENGTH).load(POSITION).op(ISUB).constant(upperBound).jump(IF_ICMPGT, limited);
+            code.load(LENGTH).store(end).jump(GOTO, done);
+            code.mark(limited).load(POSITION).constant(upperBound).op(IADD).store(end);
+            code.mark(done);
+        }
+        
+        code.load(POSITION).store(start);
+        if (node.isAll()) {
+            code.load(end).store(POSITION);
+        } else {
+            var loop = new Label();
+            var out  = new Label();
+            code.mark(loop).load(POSITION).load(end).jump(IF_ICMPGE, out);
+            emitReadChar();
+            emitCharTest(node, out);
+            code.increment(POSITION, 1).jump(GOTO, loop);
+            code.mark(out);
+        }
+        if (lowerBound > 0) {
+            code.load(POSITION).load(start).op(ISUB).constant(lowerBound).jump(IF_ICMPLT, fail);
+        }
+    }
+    
+}
@@ -1,13 +1,11 @@
 package net.nawaman.regparser;
 
 import static net.nawaman.regparser.result.ParseResult.newResult;
-import static net.nawaman.regparser.result.entry.ParseResultEntry.newEntry;
 
 import net.nawaman.regparser.checkers.CheckerAlternative;
 import net.nawaman.regparser.checkers.CheckerFixeds;
 import net.nawaman.regparser.result.ParseResult;
 import net.nawaman.regparser.result.TemporaryParseResult;
-import net.nawaman.regparser.result.entry.ParseResultEntry;
 
 class RegParserEachSolver {
     
@@ -19,13 +17,45 @@ class RegParserEachSolver {
             int                index,
             ParseResult        parseResult,
             ParserTypeProvider typeProvider,
+            ParseContext       context,
             int                tabCount) {
         var entry   = entries[index];
         var name    = entry.name();
         var typeRef = entry.typeRef();
         var type    = entry.type();
         var checker = entry.checker();
-        var result  = parseEach(entries, text, offset, index, name, type, typeRef, checker, parseResult, typeProvider, tabCount);
+        
+        if (context.shouldMemoize(entry, typeProvider))
+            return parseMemoized(entries, text, offset, index, parseResult, typeProvider, context, tabCount);
+        
+        var result  = parseEach(entries, text, offset, index, name, type, typeRef, checker, parseResult, typeProvider, context, tabCount);
+        return result;
+    }
+    
+    /** Parse an entry at the index possessively or replay the outcome of the same entry parsed at the same offset. */
+    private static ParseResult parseMemoized(
+            RegParserEntry[]   entries,
+            CharSequence       text,
+            int                offset,
+            int                index,
+            ParseResult        parseResult,
+            ParserTypeProvider typeProvider,
+            ParseContext       context,
+            int                tabCount) {
+        var entry = entries[index];
+        var memo  = context.memoOf(entry, offset, typeProvider);
+        if (memo != null) {
+            if (memo.isFailed())
+                return null;
+            
+            parseResult.appendAll(memo.entries);
+            return parseResult;
+        }
+        
+        int entryCount = parseResult.rawEntryCount();
+        var result     = parseEach(entries, text, offset, index, entry.name(), entry.type(), entry.typeRef(), entry.checker(), parseResult, typeProvider, context, tabCount);
+        var appendeds  = (result != null) ? parseResult.rawEntriesFrom(entryCount) : null;
+        context.memoize(entry, offset, typeProvider, appendeds);
         return result;
     }
     
@@ -41,18 +71,21 @@ class RegParserEachSolver {
             Checker            checker,
             ParseResult        parseResult,
             ParserTypeProvider typeProvider,
+            ParseContext       context,
             int                tabCount) {
+        context.step(parseResult);
+        
         boolean isTyped = (type != null) || (typeRef != null);
         if (isTyped)
-            return parseType(entries, text, offset, index, name, type, typeRef, checker, parseResult, typeProvider, tabCount);
+            return parseType(entries, text, offset, index, name, type, typeRef, checker, parseResult, typeProvider, context, tabCount);
         
         boolean isRegParser = (checker instanceof RegParser);
         if (isRegParser)
-            return parseRegParser(entries, text, offset, index, name, type, typeRef, checker, parseResult, typeProvider, tabCount);
+            return parseRegParser(entries, text, offset, index, name, type, typeRef, checker, parseResult, typeProvider, context, tabCount);
         
         boolean isAlternative = (checker instanceof CheckerAlternative);
         if (isAlternative)
-            return parseAlternative(entries, text, offset, index, name, type, typeRef, checker, parseResult, typeProvider, tabCount);
+            return parseAlternative(entries, text, offset, index, name, type, typeRef, checker, parseResult, typeProvider, context, tabCount);
         
         boolean isCheckerFixed = (checker instanceof CheckerFixeds);
         if (isCheckerFixed)
@@ -72,6 +105,7 @@ class RegParserEachSolver {
             Checker            checker,
             ParseResult        parseResult,
             ParserTypeProvider typeProvider,
+            ParseContext       context,
             int                tabCount) {
         // find the longest match
         
@@ -84,11 +118,11 @@ class RegParserEachSolver {
         
         var alternatives = (CheckerAlternative)checker;
         alternatives
-        .forEachInReverse(alternative -> {
+        .forEachInReverse(text, offset, alternative -> {
             var tryResult  = isAsNode
                            ? newResult(offset, parseResult)
                            : newResult(parseResult);
-            var eachResult = parseEach(entries, text, offset, index, null, null, null, alternative, tryResult, typeProvider, tabCount);
+            var eachResult = parseEach(entries, text, offset, index, null, null, null, alternative, tryResult, typeProvider, context, tabCount);
             if (eachResult == null)
                 return;
             
@@ -107,7 +141,7 @@ class RegParserEachSolver {
             
             var tryResult      = isAsNode ? newResult(offset, parseResult) : newResult(parseResult);
             var defaultChecker = alternatives.defaultChecker();
-            var eachResult     = parseEach(entries, text, offset, index, null, null, null, defaultChecker, tryResult, typeProvider, tabCount);
+            var eachResult     = parseEach(entries, text, offset, index, null, null, null, defaultChecker, tryResult, typeProvider, context, tabCount);
             if (eachResult == null)
                 return null;
             
@@ -117,14 +151,12 @@ class RegParserEachSolver {
         if (isAsNode) {
             var parserEntry = entries[index];
             int endPosition = maxResult.endPosition();
-            var resultEntry = newEntry(endPosition, parserEntry, maxResult);
-            parseResult.append(resultEntry);
+            parseResult.append(endPosition, parserEntry, maxResult);
             
         } else if (isTyped || isNamed) {
             var parserEntry = entries[index];
             int endPosition = maxResult.endPosition();
-            var resultEntry = newEntry(endPosition, parserEntry);
-            parseResult.append(resultEntry);
+            parseResult.append(endPosition, parserEntry, null);
             
         } else {
             parseResult.mergeWith((TemporaryParseResult) maxResult);
@@ -132,7 +164,7 @@ class RegParserEachSolver {
         return parseResult;
     }
     
-    private static ParseResult parserChecker(
+    static ParseResult parserChecker(
             RegParserEntry[]   entries,
             CharSequence       text,
             int                offset,
@@ -156,11 +188,8 @@ class RegParserEachSolver {
             return null;
         }
         
-        var resultEntry
-                = isNamed
-                ? newEntry(offset + foundLength, entries[index])
-                : newEntry(offset + foundLength);
-        parseResult.append(resultEntry);
+        var parserEntry = isNamed ? entries[index] : null;
+        parseResult.append(offset + foundLength, parserEntry, null);
         
         return parseResult;
     }
@@ -176,6 +205,7 @@ class RegParserEachSolver {
             Checker            checker,
             ParseResult        parseResult,
             ParserTypeProvider typeProvider,
+            ParseContext       context,
             int indentation) {
         // parse it and record within the current result
         
@@ -185,31 +215,28 @@ class RegParserEachSolver {
         
         if (isNamed) {
             var tryResult = newResult(offset, parseResult);
-            var thisResult = ((RegParser) checker).parse(text, offset, 0, 0, tryResult, typeProvider, null, null, indentation + 1);
+            var thisResult = ((RegParser) checker).parse(text, offset, 0, 0, tryResult, typeProvider, null, null, context, indentation + 1);
             if (thisResult == null)
                 return null;
             
             // Merge the result
             int endPosition = tryResult.endPosition();
             var parserEntry = entries[index];
-            var resultEntry = (ParseResultEntry)null;
             if (isAsNode) {
-                resultEntry = newEntry(endPosition, parserEntry, tryResult);
+                parseResult.append(endPosition, parserEntry, tryResult);
                 
             } else if (isTyped || isNamed) {
-                resultEntry = newEntry(endPosition, parserEntry);
+                parseResult.append(endPosition, parserEntry, null);
                 
             } else {
-                resultEntry = newEntry(endPosition);
+                parseResult.append(endPosition, null, null);
             }
-            
-            parseResult.append(resultEntry);
             return parseResult;
             
         }
         
         int entryCount = parseResult.rawEntryCount();
-        var thisResult = ((RegParser)checker).parse(text, offset, 0, 0, parseResult, typeProvider, null, null, indentation);
+        var thisResult = ((RegParser)checker).parse(text, offset, 0, 0, parseResult, typeProvider, null, null, context, indentation);
         if (thisResult == null) {
             // Recover what may have been added in the fail attempt
             parseResult.reset(entryCount);
@@ -230,6 +257,7 @@ class RegParserEachSolver {
             Checker            checker,
             ParseResult        parseResult,
             ParserTypeProvider typeProvider,
+            ParseContext       context,
             int                tabCount) {
         // RegParser with a type or a type ref
         // parse it then validate and record separately from the current result
@@ -238,26 +266,19 @@ class RegParserEachSolver {
         boolean isNamed  = (name != null);
         boolean isAsNode = ((name == null) && isTyped) || ((name != null) && !name.startsWith("$"));
         
-        var parameter = (String)null;
+        var parameter   = (String)null;
+        var typeChecker = (Checker)null;
         
         if (typeRef != null) {
-            parameter = typeRef.parameter();
-            // Get type from the ref
-            if (typeProvider != null) {
-                // Get from the given provider
-                type = typeProvider.type(typeRef.name());
-            }
-            if (type == null) {
-                // Get from the default
-                type = ParserTypeProvider.Simple.defaultProvider().type(typeRef.name());
-                if (type == null)
-                    throw new ParsingException("RegParser type named '" + typeRef.name() + "' is not found.");
-            }
+            var typeLink = TypeLink.linkOf(entries[index], typeRef, typeProvider);
+            parameter    = typeRef.parameter();
+            type         = (typeLink != null) ? typeLink.type()    : typeOf(typeRef, typeProvider);
+            typeChecker  = (typeLink != null) ? typeLink.checker() : null;
         }
         
         // Extract a type
         if (type != null) {
-            checker = type.checker(parseResult, parameter, typeProvider);
+            checker = (typeChecker != null) ? typeChecker : type.checker(parseResult, parameter, typeProvider);
             if (checker == null)
                 throw new ParsingException("RegParser type named '" + typeRef + "' has no checker.");
         }
@@ -267,12 +288,46 @@ class RegParserEachSolver {
             isAsNode = false;
         }
         
-        var tryResult = parseCheckerInType(entries, text, offset, index, type, checker, parseResult, typeProvider, tabCount, isAsNode, parameter);
+        var tryResult = parseCheckerInType(entries, text, offset, index, type, checker, parseResult, typeProvider, context, tabCount, isAsNode, parameter);
         
         if (tryResult == null)
             return null;
         
-        var thisResult  = tryResult;
+        return appendTypeResult(entries, index, name, type, typeRef, parameter, isAsNode, tryResult, parseResult, typeProvider);
+    }
+    
+    /** Get the type of the type ref from the provider or the default provider. */
+    static ParserType typeOf(ParserTypeRef typeRef, ParserTypeProvider typeProvider) {
+        var type = (ParserType)null;
+        if (typeProvider != null) {
+            // Get from the given provider
+            type = typeProvider.type(typeRef.name());
+        }
+        if (type == null) {
+            // Get from the default
+            type = ParserTypeProvider.Simple.defaultProvider().type(typeRef.name());
+            if (type == null)
+                throw new ParsingException("RegParser type named '" + typeRef.name() + "' is not found.");
+        }
+        return type;
+    }
+    
+    /** Validate the result of the type (if self-contained) then append it. @return the result or null. */
+    static ParseResult appendTypeResult(
+            RegParserEntry[]   entries,
+            int                index,
+            String             name,
+            ParserType         type,
+            ParserTypeRef      typeRef,
+            String             parameter,
+            boolean            isAsNode,
+            ParseResult        tryResult,
+            ParseResult        parseResult,
+            ParserTypeProvider typeProvider) {
+        boolean isTyped = (type != null) || (typeRef != null);
+        boolean isNamed = (name != null);
+        
+        var thisResult = tryResult;
         
         if ((type != null) && type.hasValidation() && type.isSelfContain()) {
             var duplicatedResult = thisResult.duplicate();
@@ -284,10 +339,9 @@ class RegParserEachSolver {
         
         // Append the result
         int endPosition = tryResult.endPosition();
-        var newEntry = isAsNode             ? newEntry(endPosition, entries[index], thisResult)
-                     : (isTyped || isNamed) ? newEntry(endPosition, entries[index])
-                     :                        newEntry(endPosition);
-        parseResult.append(newEntry);
+        var parserEntry = (isAsNode || isTyped || isNamed) ? entries[index] : null;
+        var subResult   = isAsNode                         ? thisResult     : null;
+        parseResult.append(endPosition, parserEntry, subResult);
         return parseResult;
     }
     
@@ -300,6 +354,7 @@ class RegParserEachSolver {
             Checker            checker,
             ParseResult        parseResult,
             ParserTypeProvider typeProvider,
+            ParseContext       context,
             int                indentation,
             boolean            isAsNode,
             String             parameter) {
@@ -308,7 +363,7 @@ class RegParserEachSolver {
             var tryResult    = (ParseResult)newResult(offset, parseResult);
             var tryType      = ((type != null) && type.isSelfContain()) ? null : type;
             var tryParameter = ((type != null) && type.isSelfContain()) ? null : parameter;
-            var eachResult   = ((RegParser) checker).parse(text, offset, 0, 0, tryResult, typeProvider, tryType, tryParameter, indentation + 1);
+            var eachResult   = ((RegParser) checker).parse(text, offset, 0, 0, tryResult, typeProvider, tryType, tryParameter, context, indentation + 1);
             
             if (eachResult == null)
                 return null;
@@ -324,11 +379,11 @@ class RegParserEachSolver {
             var alternatives = (CheckerAlternative)checker;
             var asNode = isAsNode;
             alternatives
-            .forEachInReverse(alternative -> {
+            .forEachInReverse(text, offset, alternative -> {
                 var tryResult = asNode
                               ? newResult(offset, parseResult)
                               : newResult(parseResult);
-                var eachResult = parseEach(entries, text, offset, index, null, null, null, alternative, tryResult, typeProvider, indentation + 1);
+                var eachResult = parseEach(entries, text, offset, index, null, null, null, alternative, tryResult, typeProvider, context, indentation + 1);
                 if (eachResult == null)
                     return;
                 
@@ -346,7 +401,7 @@ class RegParserEachSolver {
                               ? newResult(offset, parseResult)
                               : newResult(parseResult);
                 var defaultChecker = alternatives.defaultChecker();
-                var eachResult     = parseEach(entries, text, offset, index, null, null, null, defaultChecker, tryResult, typeProvider, indentation + 1);
+                var eachResult     = parseEach(entries, text, offset, index, null, null, null, defaultChecker, tryResult, typeProvider, context, indentation + 1);
                 if (eachResult != null) {
                     maxResult = tryResult;
                 }
@@ -355,6 +410,18 @@ class RegParserEachSolver {
             return maxResult;
         }
         
+        return parseCheckerOnlyInType(entries, text, offset, index, checker, parseResult, typeProvider);
+    }
+    
+    /** Parse the fixed checker or the plain checker of a type. @return the result of the type or null. */
+    static ParseResult parseCheckerOnlyInType(
+            RegParserEntry[]   entries,
+            CharSequence       text,
+            int                offset,
+            int                index,
+            Checker            checker,
+            ParseResult        parseResult,
+            ParserTypeProvider typeProvider) {
         if (checker instanceof CheckerFixeds) {
             var fixedChecker = ((CheckerFixeds) checker);
             // Check if there enough space for it
@@ -367,7 +434,7 @@ class RegParserEachSolver {
                 var entry  = fixedChecker.entry(i);
                 int length = entry.length();
                 endPosition = (length != -1) ? endPosition + length : text.length();
-                thisResult.append(newEntry(endPosition, entry.entry()));
+                thisResult.append(endPosition, entry.entry(), null);
             }
             return thisResult;
         }
@@ -383,14 +450,12 @@ class RegParserEachSolver {
         
         int endPosition = offset + length;
         var entry       = entries[index];
-        var resultEntry = newEntry(endPosition, entry);
-        
         var thisResult = newResult(offset, parseResult);
-        thisResult.append(resultEntry);
+        thisResult.append(endPosition, entry, null);
         return thisResult;
     }
     
-    private static ParseResult parseCheckerFixed(
+    static ParseResult parseCheckerFixed(
             CharSequence text,
             int          offset,
             Checker      checker,
@@ -410,8 +475,7 @@ class RegParserEachSolver {
             }
             
             var parserEntry = checkerFixeds.entry(i).entry();
-            var resultEntry = newEntry(endPosition, parserEntry);
-            parseResult.append(resultEntry);
+            parseResult.append(endPosition, parserEntry, null);
         }
         
         // Return the result
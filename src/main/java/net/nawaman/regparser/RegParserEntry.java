@@ -23,6 +23,7 @@ import static java.util.Objects.requireNonNull;
 import java.io.Serializable;
 import java.util.Objects;
 
+import net.nawaman.regparser.checkers.CharChecker;
 import net.nawaman.regparser.checkers.WordChecker;
 
 /**
@@ -269,6 +270,85 @@ abstract public class RegParserEntry implements AsRegParserEntry, Quantifiable<R
         return null;
     }
     
+    //-- Collapse ------------------------------------------------------------------------------------------------------
+    
+    // The checks of the name and the type name that the collapse of a parse result makes on each of its entries.
+    // They are done once for the entry on the first collapse -- the entry is immutable.
+    
+    private static final int FLAGS_KNOWN         = 1;
+    private static final int NO_NAME             = 2;
+    private static final int ARRAY               = 4;
+    private static final int FLATTENED           = 8;
+    private static final int FLATTENED_IF_SINGLE = 16;
+    
+    private transient int collapseFlags = 0;
+    
+    /** @return  {@code true} if the entry has no name, no type and no type reference. */
+    public final boolean hasNoName() {
+        return (collapseFlags() & NO_NAME) != 0;
+    }
+    
+    /** @return  {@code true} if the name, the type name or the type reference name ends with '[]'. */
+    public final boolean isArray() {
+        return (collapseFlags() & ARRAY) != 0;
+    }
+    
+    /** @return  {@code true} if the name or the type name contains '*' -- the result entry is replaced with its sub. */
+    public final boolean isFlattened() {
+        return (collapseFlags() & FLATTENED) != 0;
+    }
+    
+    /** @return  {@code true} if the name or the type name contains '+' -- a single sub entry replaces the entry. */
+    public final boolean isFlattenedIfSingle() {
+        return (collapseFlags() & FLATTENED_IF_SINGLE) != 0;
+    }
+    
+    private int collapseFlags() {
+        int flags = collapseFlags;
+        if (flags != 0)
+            return flags;
+        
+        var name     = name();
+        var type     = type();
+        var typeRef  = typeRef();
+        var typeName = (typeRef != null) ? typeRef.name() : (type != null) ? type.name() : null;
+        
+        flags = FLAGS_KNOWN;
+        if ((name == null) && (type == null) && (typeRef == null)) {
+            flags |= NO_NAME;
+        }
+        if (((name    != null) && name          .endsWith("[]"))
+         || ((type    != null) && type   .name().endsWith("[]"))
+         || ((typeRef != null) && typeRef.name().endsWith("[]"))) {
+            flags |= ARRAY;
+        }
+        if (((name     != null) && name    .contains("*"))
+         || ((typeName != null) && typeName.contains("*"))) {
+            flags |= FLATTENED;
+        }
+        if (((name     != null) && name    .contains("+"))
+         || ((typeName != null) && typeName.contains("+"))) {
+            flags |= FLATTENED_IF_SINGLE;
+        }
+        collapseFlags = flags;
+        return flags;
+    }
+    
+    //-- Type link -----------------------------------------------------------------------------------------------------
+    
+    /** The type of the type reference as looked up from the last provider (see {@link TypeLink}). */
+    private transient volatile TypeLink typeLink = null;
+    
+    /** @return  the type link of this entry or {@code null} if it is not linked yet. */
+    final TypeLink typeLink() {
+        return typeLink;
+    }
+    
+    /** Keeps the type link of this entry. */
+    final void typeLink(TypeLink typeLink) {
+        this.typeLink = typeLink;
+    }
+    
     @Override
     public String toString() {
         var buffer     = new StringBuffer();
@@ -346,8 +426,8 @@ abstract public class RegParserEntry implements AsRegParserEntry, Quantifiable<R
         private final Checker checker;
         
         Direct(AsChecker checker) {
-            this.checker = (checker instanceof RegParser)
-                         ? ((RegParser)checker).optimize()
+            this.checker = (checker instanceof RegParser)   ? ((RegParser)checker).optimize()
+                         : (checker instanceof CharChecker) ? ((CharChecker)checker).optimize()
                          : checker.asChecker();
             Objects.requireNonNull(this.checker, "`checker` cannot be null.");
         }
@@ -576,7 +656,7 @@ abstract public class RegParserEntry implements AsRegParserEntry, Quantifiable<R
         
         private static final long serialVersionUID = 3456412356352456523L;
         
-        private String name;
+        private final String name;
         
         NamedTypeRef(String name, ParserTypeRef typeRef) {
             super(typeRef);
@@ -0,0 +1,1094 @@
+/*----------------------------------------------------------------------------------------------------------------------
+ * Copyright (C) 2008-2024 Nawapunth Manusitthipol.
+ *----------------------------------------------------------------------------------------------------------------------
+ * LICENSE:
+ * 
+ * This file is part of Nawa's RegParser.
+ * 
+ * The project is a free software; you can redistribute it and/or modify it under the SIMILAR terms of the GNU General
+ * Public License as published by the Free Software Foundation; either version 2 of the License, or any later version.
+ * You are only required to inform me about your modification and redistribution as or as part of commercial software
+ * package. You can inform me via nawa<at>nawaman<dot>net.
+ * 
+ * The project is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the 
+ * implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ * more details.
+ * ---------------------------------------------------------------------------------------------------------------------
+ */
+package net.nawaman.regparser;
+
+import static net.nawaman.regparser.RegParserSolver.ParseLoopResult.MatchedCompletely;
+import static net.nawaman.regparser.RegParserSolver.ParseLoopResult.MatchedEntry;
+import static net.nawaman.regparser.RegParserSolver.ParseLoopResult.MatchedOneTime;
+import static net.nawaman.regparser.RegParserSolver.ParseLoopResult.Unmatched;
+import static net.nawaman.regparser.result.ParseResult.newResult;
+
+import java.util.Arrays;
+import java.util.List;
+
+import net.nawaman.regparser.RegParserSolver.ParseLoopResult;
+import net.nawaman.regparser.checkers.CheckerAlternative;
+import net.nawaman.regparser.checkers.CheckerFixeds;
+import net.nawaman.regparser.result.ParseResult;
+import net.nawaman.regparser.result.TemporaryParseResult;
+
+/**
+ * Solver that parses the same way as {@link RegParserSolver} and {@link RegParserEachSolver} but without recursion.
+ * 
+ * Each method call of the recursive solvers -- a parse of entries, an entry, an alternative, a nested RegParser or a
+ *   type -- is a frame on an explicit stack.
+ * A frame keeps the local variables of the call and the state (the point to resume at) so a frame that needs the
+ *   outcome of another call pushes the frame of that call and returns to the loop.
+ * When the pushed frame completes, its outcome is kept as the returned value and the frame below it is resumed.
+ * Leaf checkers that do not need another call are checked in place.
+ * 
+ * The choice points (the alternatives and the repeats being backtracked) are the frames waiting on the stack so the
+ *   depth of the parse is only bounded by the heap -- not the thread stack.
+ * The stack array is reused by all the frames of a parse.
+ * 
+ * @author Nawapunth Manusitthipol (https://github.com/NawaMan)
+ */
+final class RegParserIterativeSolver {
+    
+    /** Starting the parse process. @return the result or null. */
+    static ParseResult startParse(
+            RegParserEntry[]   entries,
+            CharSequence       text,
+            int                offset,
+            int                index,
+            int                times,
+            ParseResult        parseResult,
+            ParserTypeProvider typeProvider,
+            ParserType         type,
+            String             parameter,
+            ParseContext       context,
+            int                tabCount) {
+        
+        if (parseResult == null)
+            parseResult = newResult(offset, text);
+        
+        if (text == null)
+            return parseResult;
+        
+        var solver = new RegParserIterativeSolver(text, context);
+        var frame  = solver.new ParseFrame(entries, offset, index, times, parseResult, typeProvider, type, parameter, tabCount);
+        return solver.run(frame);
+    }
+    
+    private final CharSequence text;
+    private final int          textLength;
+    private final ParseContext context;
+    
+    private Frame[]     frames = new Frame[32];
+    private int         frameCount;
+    private ParseResult returned;
+    
+    private RegParserIterativeSolver(CharSequence text, ParseContext context) {
+        this.text       = text;
+        this.textLength = text.length();
+        this.context    = context;
+    }
+    
+    private ParseResult run(Frame frame) {
+        push(frame);
+        while (frameCount != 0) {
+            frames[frameCount - 1].step();
+        }
+        return returned;
+    }
+    
+    private void push(Frame frame) {
+        if (frameCount == frames.length) {
+            frames = Arrays.copyOf(frames, frameCount*2);
+        }
+        frames[frameCount++] = frame;
+    }
+    
+    /** Complete the top frame with the result. */
+    private void complete(ParseResult result) {
+        frames[--frameCount] = null;
+        returned = result;
+    }
+    
+    /**
+     * Parse the entry at the index possessively or replay the memoized outcome.
+     * 
+     * @return  {@code true} if a frame is pushed or {@code false} if the outcome is already the returned value.
+     */
+    private boolean parseEach(
+            RegParserEntry[]   entries,
+            int                offset,
+            int                index,
+            ParseResult        parseResult,
+            ParserTypeProvider typeProvider,
+            int                tabCount) {
+        var entry = entries[index];
+        if (context.shouldMemoize(entry, typeProvider)) {
+            var memo = context.memoOf(entry, offset, typeProvider);
+            if (memo == null) {
+                push(new MemoFrame(entries, offset, index, parseResult, typeProvider, tabCount));
+                return true;
+            }
+            
+            if (memo.isFailed()) {
+                returned = null;
+            } else {
+                parseResult.appendAll(memo.entries);
+                returned = parseResult;
+            }
+            return false;
+        }
+        
+        return parseEach(entries, offset, index, entry.name(), entry.type(), entry.typeRef(), entry.checker(), parseResult, typeProvider, tabCount);
+    }
+    
+    /**
+     * Parse an entry possessively.
+     * 
+     * @return  {@code true} if a frame is pushed or {@code false} if the outcome is already the returned value.
+     */
+    private boolean parseEach(
+            RegParserEntry[]   entries,
+            int                offset,
+            int                index,
+            String             name,
+            ParserType         type,
+            ParserTypeRef      typeRef,
+            Checker            checker,
+            ParseResult        parseResult,
+            ParserTypeProvider typeProvider,
+            int                tabCount) {
+        context.step(parseResult);
+        
+        boolean isTyped = (type != null) || (typeRef != null);
+        if (isTyped) {
+            push(new TypeFrame(entries, offset, index, name, type, typeRef, parseResult, typeProvider, tabCount));
+            return true;
+        }
+        
+        if (checker instanceof RegParser) {
+            push(new RegParserFrame(entries, offset, index, name, (RegParser)checker, parseResult, typeProvider, tabCount));
+            return true;
+        }
+        
+        if (checker instanceof CheckerAlternative) {
+            boolean isAsNode = (name != null) && !name.startsWith("$");
+            push(new AlternativeFrame(entries, offset, index, name, (CheckerAlternative)checker, false, isAsNode, parseResult, typeProvider, tabCount));
+            return true;
+        }
+        
+        returned = (checker instanceof CheckerFixeds)
+                 ? RegParserEachSolver.parseCheckerFixed(text, offset, checker, parseResult)
+                 : RegParserEachSolver.parserChecker(entries, text, offset, index, name, checker, parseResult, typeProvider);
+        return false;
+    }
+    
+    /** The frame to parse the entries of the nested RegParser with. */
+    private ParseFrame parseFrameOf(
+            RegParser          parser,
+            int                offset,
+            ParseResult        parseResult,
+            ParserTypeProvider typeProvider,
+            ParserType         type,
+            String             parameter,
+            int                tabCount) {
+        // The same provider as the one the RegParser (with a default type provider) parses with.
+        var parserEntries  = parser.entryArray();
+        var parserProvider = parser.typeProviderWith(typeProvider);
+        return new ParseFrame(parserEntries, offset, 0, 0, parseResult, parserProvider, type, parameter, tabCount);
+    }
+    
+    //== Frames ========================================================================================================
+    
+    /** A pending call. */
+    private abstract class Frame {
+        
+        /** The point to resume at. */
+        int state;
+        
+        /** Continue the call until it completes or pushes another frame. */
+        abstract void step();
+        
+    }
+    
+    /** The frame of `RegParserSolver.parse(...)` with its `parsePossessive`, `parseMaximum` and `parseMinimum`. */
+    private final class ParseFrame extends Frame {
+        
+        static final int LOOP                     =  0;
+        static final int APPLY                    =  1;
+        static final int FINISH                   =  2;
+        static final int POSSESSIVE_ONE           =  3;
+        static final int POSSESSIVE_ZERO          =  4;
+        static final int POSSESSIVE_MORE          =  5;
+        static final int POSSESSIVE_LOWER         =  6;
+        static final int MAXIMUM_ALTERNATIVE      =  7;
+        static final int MAXIMUM_ALTERNATIVE_EACH =  8;
+        static final int MAXIMUM_ALTERNATIVE_REST =  9;
+        static final int MAXIMUM_ALTERNATIVE_DONE = 10;
+        static final int MAXIMUM_DEFAULT          = 11;
+        static final int MAXIMUM_FIRST            = 12;
+        static final int MAXIMUM_SECOND           = 13;
+        static final int MAXIMUM_LOWER            = 14;
+        static final int MINIMUM_LAST             = 15;
+        static final int MINIMUM_MORE             = 16;
+        static final int MINIMUM_ALTERNATIVE      = 17;
+        static final int MINIMUM_ALTERNATIVE_EACH = 18;
+        static final int MINIMUM_ALTERNATIVE_REST = 19;
+        static final int MINIMUM_ALTERNATIVE_DONE = 20;
+        static final int MINIMUM_DEFAULT          = 21;
+        static final int MINIMUM_FIRST            = 22;
+        
+        private final RegParserEntry[]   entries;
+        private final ParseResult        parseResult;
+        private final ParserTypeProvider typeProvider;
+        private final ParserType         type;
+        private final String             parameter;
+        private final int                tabCount;
+        private final int                lastEntryIndex;
+        
+        private int             offset;
+        private int             index;
+        private int             times;
+        private Quantifier      quantifier;
+        private ParseLoopResult loopResult;
+        private int             savedIndex;
+        
+        // The alternatives being tried.
+        private CheckerAlternative   alternatives;
+        private Checker[]            checkers;
+        private int                  checkerIndex;
+        private TemporaryParseResult tryResult;
+        private int                  tryEndPosition;
+        private TemporaryParseResult bestResult;
+        private int                  bestLength;
+        
+        ParseFrame(
+                RegParserEntry[]   entries,
+                int                offset,
+                int                index,
+                int                times,
+                ParseResult        parseResult,
+                ParserTypeProvider typeProvider,
+                ParserType         type,
+                String             parameter,
+                int                tabCount) {
+            this.entries        = entries;
+            this.offset         = offset;
+            this.index          = index;
+            this.times          = times;
+            this.parseResult    = parseResult;
+            this.typeProvider   = typeProvider;
+            this.type           = type;
+            this.parameter      = parameter;
+            this.tabCount       = tabCount;
+            this.lastEntryIndex = entries.length - 1;
+        }
+        
+        @Override
+        void step() {
+            while (true) {
+                switch (state) {
+                    case LOOP: {
+                        context.step(parseResult);
+                        
+                        // Check if there is no more entry to check.
+                        if (index > lastEntryIndex) {
+                            state = FINISH;
+                            continue;
+                        }
+                        
+                        // Advance or stop
+                        offset = parseResult.endPosition();
+                        if (offset < 0) {
+                            complete(null);
+                            return;
+                        }
+                        
+                        // Found the end of the text but there is more parse entry,
+                        //   this only work if the rest of the entry are optional.
+                        if (offset >= textLength) {
+                            var skipToIndex = RegParserSolver.findSkipToIndex(entries, index, times, entries.length);
+                            
+                            // There are entry that cannot be skipped.
+                            if (skipToIndex == null) {
+                                complete(null);
+                                return;
+                            }
+                            
+                            // There are more to parse but they all optional
+                            if (skipToIndex == -1) {
+                                state = FINISH;
+                                continue;
+                            }
+                            
+                            index = skipToIndex;
+                            times = 0;
+                        }
+                        
+                        quantifier = entries[index].quantifier();
+                        if (quantifier.isPossessive()) {
+                            if (startPossessive())
+                                return;
+                        } else if (quantifier.isMaximum()) {
+                            if (startMaximum())
+                                return;
+                        } else if (quantifier.isMinimum()) {
+                            if (startMinimum())
+                                return;
+                        } else {
+                            loopResult = null;
+                            state      = APPLY;
+                        }
+                        continue;
+                    }
+                    case APPLY: {
+                        if (loopResult == MatchedEntry) {
+                            index++;
+                            times = 0;
+                            state = LOOP;
+                        } else if (loopResult == MatchedOneTime) {
+                            times++;
+                            state = LOOP;
+                        } else if (loopResult == MatchedCompletely) {
+                            state = FINISH;
+                        } else {
+                            // ParseLoopResult.Unmatched or unrecognized result.
+                            complete(null);
+                            return;
+                        }
+                        continue;
+                    }
+                    case FINISH: {
+                        // Validate the value here
+                        var isValid = RegParserSolver.isValid(type, parameter, parseResult, typeProvider);
+                        complete(isValid ? parseResult : null);
+                        return;
+                    }
+                    
+                    //-- Possessive --
+                    
+                    case POSSESSIVE_ONE: {
+                        if (returned == null) {
+                            // Recover what may have been added in the fail attempt
+                            parseResult.reset(savedIndex);
+                            loopResult = Unmatched;
+                        } else {
+                            loopResult = MatchedEntry;
+                        }
+                        state = APPLY;
+                        continue;
+                    }
+                    case POSSESSIVE_ZERO: {
+                        if (returned != null) {
+                            // Recover what may have been added in the fail attempt
+                            parseResult.reset(savedIndex);
+                            loopResult = Unmatched;
+                            state      = APPLY;
+                            continue;
+                        }
+                        
+                        // Append an empty entry when found zero (if named or typed)
+                        var entry = entries[index];
+                        if ((entry.name()    != null)
+                         || (entry.type()    != null)
+                         || (entry.typeRef() != null)) {
+                            parseResult.append(offset, entry, null);
+                        }
+                        loopResult = MatchedEntry;
+                        state      = APPLY;
+                        continue;
+                    }
+                    case POSSESSIVE_MORE: {
+                        if (returned != null) {
+                            // Only the one that advances the parsing
+                            int currEntryCount = parseResult.rawEntryCount();
+                            if ((savedIndex != currEntryCount) && (offset != parseResult.endPosition())) {
+                                loopResult = MatchedOneTime;
+                                state      = APPLY;
+                                continue;
+                            }
+                        }
+                        
+                        // Recover what may have been added in the fail attempt
+                        parseResult.reset(savedIndex);
+                        state = POSSESSIVE_LOWER;
+                        continue;
+                    }
+                    case POSSESSIVE_LOWER: {
+                        // Check if it fail to reach the minimum, return as not found
+                        if (times < quantifier.lowerBound()) {
+                            // Recover what may have been added in the fail attempt
+                            parseResult.reset(savedIndex);
+                            loopResult = Unmatched;
+                        } else {
+                            loopResult = MatchedEntry;
+                        }
+                        state = APPLY;
+                        continue;
+                    }
+                    
+                    //-- Maximum --
+                    
+                    case MAXIMUM_ALTERNATIVE: {
+                        if (--checkerIndex < 0) {
+                            state = MAXIMUM_ALTERNATIVE_DONE;
+                            continue;
+                        }
+                        
+                        // Try the first part
+                        tryResult = newResult(parseResult);
+                        state     = MAXIMUM_ALTERNATIVE_EACH;
+                        if (parseEach(entries, offset, index, null, null, null, checkers[checkerIndex], tryResult, typeProvider, tabCount))
+                            return;
+                        continue;
+                    }
+                    case MAXIMUM_ALTERNATIVE_EACH: {
+                        if (returned == null) {
+                            state = MAXIMUM_ALTERNATIVE;
+                            continue;
+                        }
+                        
+                        // Match -- try the later part, if not match, continue other alternatives
+                        tryEndPosition = tryResult.endPosition();
+                        state          = MAXIMUM_ALTERNATIVE_REST;
+                        push(new ParseFrame(entries, tryResult.endPosition(), index, times + 1, tryResult, typeProvider, type, parameter, tabCount));
+                        return;
+                    }
+                    case MAXIMUM_ALTERNATIVE_REST: {
+                        state = MAXIMUM_ALTERNATIVE;
+                        
+                        // Match, so record as max -- find the longer length
+                        if ((returned == null) || (bestLength >= tryEndPosition))
+                            continue;
+                        
+                        bestResult = tryResult;
+                        bestLength = tryEndPosition;
+                        
+                        if ((bestLength + offset) >= textLength) {
+                            state = MAXIMUM_ALTERNATIVE_DONE;
+                        }
+                        continue;
+                    }
+                    case MAXIMUM_ALTERNATIVE_DONE: {
+                        if (bestResult != null) {
+                            // Merge the result if found.
+                            parseResult.mergeWith(bestResult);
+                            loopResult = MatchedCompletely;
+                            state      = APPLY;
+                            continue;
+                        }
+                        
+                        if (!alternatives.hasDefault()) {
+                            state = MAXIMUM_LOWER;
+                            continue;
+                        }
+                        
+                        savedIndex = parseResult.rawEntryCount();
+                        state      = MAXIMUM_DEFAULT;
+                        if (parseEach(entries, offset, index, null, null, null, alternatives.defaultChecker(), parseResult, typeProvider, tabCount))
+                            return;
+                        continue;
+                    }
+                    case MAXIMUM_DEFAULT:
+                    case MAXIMUM_SECOND: {
+                        if (returned != null) {
+                            // Found the match.
+                            loopResult = MatchedCompletely;
+                            state      = APPLY;
+                            continue;
+                        }
+                        
+                        // Recover what may have been added in the fail attempt
+                        parseResult.reset(savedIndex);
+                        state = MAXIMUM_LOWER;
+                        continue;
+                    }
+                    case MAXIMUM_FIRST: {
+                        if (returned == null) {
+                            // Recover what may have been added in the fail attempt
+                            parseResult.reset(savedIndex);
+                            state = MAXIMUM_LOWER;
+                            continue;
+                        }
+                        
+                        // Try the first part again. If match, return
+                        state = MAXIMUM_SECOND;
+                        push(new ParseFrame(entries, parseResult.endPosition(), index, times + 1, parseResult, typeProvider, type, parameter, tabCount));
+                        return;
+                    }
+                    case MAXIMUM_LOWER: {
+                        // Check if it fail to reach the minimum, return as not found
+                        loopResult = (times >= quantifier.lowerBound()) ? MatchedEntry : Unmatched;
+                        state      = APPLY;
+                        continue;
+                    }
+                    
+                    //-- Minimum --
+                    
+                    case MINIMUM_LAST: {
+                        if (returned != null) {
+                            loopResult = MatchedCompletely;
+                            state      = APPLY;
+                            continue;
+                        }
+                        
+                        // Recover what may have been added in the fail attempt
+                        parseResult.reset(savedIndex);
+                        state = MINIMUM_MORE;
+                        continue;
+                    }
+                    case MINIMUM_MORE: {
+                        if (continueMinimum())
+                            return;
+                        continue;
+                    }
+                    case MINIMUM_ALTERNATIVE: {
+                        if (--checkerIndex < 0) {
+                            state = MINIMUM_ALTERNATIVE_DONE;
+                            continue;
+                        }
+                        
+                        // Try the first part
+                        tryResult = newResult(parseResult);
+                        state     = MINIMUM_ALTERNATIVE_EACH;
+                        if (parseEach(entries, offset, index, null, null, null, checkers[checkerIndex], tryResult, typeProvider, tabCount))
+                            return;
+                        continue;
+                    }
+                    case MINIMUM_ALTERNATIVE_EACH: {
+                        if (returned == null) {
+                            state = MINIMUM_ALTERNATIVE;
+                            continue;
+                        }
+                        
+                        // Match -- try the later part, if not match, continue other alternatives
+                        state = MINIMUM_ALTERNATIVE_REST;
+                        push(new ParseFrame(entries, tryResult.endPosition(), index, times + 1, tryResult, typeProvider, type, parameter, tabCount));
+                        return;
+                    }
+                    case MINIMUM_ALTERNATIVE_REST: {
+                        state = MINIMUM_ALTERNATIVE;
+                        
+                        // Match, so record as min -- find the shorter length
+                        int tryEndPosition = tryResult.endPosition();
+                        if ((returned == null) || (bestLength <= tryEndPosition))
+                            continue;
+                        
+                        bestResult = tryResult;
+                        bestLength = tryEndPosition;
+                        
+                        if ((bestLength + offset) >= offset) {
+                            state = MINIMUM_ALTERNATIVE_DONE;
+                        }
+                        continue;
+                    }
+                    case MINIMUM_ALTERNATIVE_DONE: {
+                        if (bestResult != null) {
+                            // Merge the best result if found.
+                            parseResult.mergeWith(bestResult);
+                            loopResult = MatchedCompletely;
+                            state      = APPLY;
+                            continue;
+                        }
+                        
+                        if (!alternatives.hasDefault()) {
+                            loopResult = Unmatched;
+                            state      = APPLY;
+                            continue;
+                        }
+                        
+                        savedIndex = parseResult.rawEntryCount();
+                        state      = MINIMUM_DEFAULT;
+                        if (parseEach(entries, offset, index, null, null, null, alternatives.defaultChecker(), parseResult, typeProvider, tabCount))
+                            return;
+                        continue;
+                    }
+                    case MINIMUM_DEFAULT: {
+                        if (returned != null) {
+                            // Found the match.
+                            loopResult = MatchedCompletely;
+                        } else {
+                            // Recover what may have been added in the fail attempt
+                            parseResult.reset(savedIndex);
+                            loopResult = Unmatched;
+                        }
+                        state = APPLY;
+                        continue;
+                    }
+                    case MINIMUM_FIRST: {
+                        if (returned != null) {
+                            loopResult = MatchedOneTime;
+                        } else {
+                            // Recover what may have been added in the fail attempt
+                            parseResult.reset(savedIndex);
+                            loopResult = Unmatched;
+                        }
+                        state = APPLY;
+                        continue;
+                    }
+                    default:
+                        throw new IllegalStateException("Unknown state: " + state);
+                }
+            }
+        }
+        
+        /** Start `parsePossessive`. @return {@code true} if a frame is pushed. */
+        private boolean startPossessive() {
+            // NOTE: If Possessive, Try to match first until not match or limit then match
+            // the later (the later must match)
+            
+            if (quantifier.isOne_Possessive()) { // Match one
+                savedIndex = parseResult.rawEntryCount();
+                state      = POSSESSIVE_ONE;
+                return parseEach(entries, offset, index, parseResult, typeProvider, tabCount);
+            }
+            
+            if (quantifier.isZero()) { // Match Zero
+                savedIndex = parseResult.rawEntryCount();
+                state      = POSSESSIVE_ZERO;
+                return parseEach(entries, offset, index, parseResult, typeProvider, tabCount);
+            }
+            
+            // Is it a run of any chars or of a char class -- no need to try one by one
+            var runResult = RegParserSolver.parseRun(entries, text, offset, index, times, parseResult, textLength, quantifier);
+            if (runResult != null) {
+                loopResult = runResult;
+                state      = APPLY;
+                return false;
+            }
+            
+            savedIndex = parseResult.rawEntryCount();
+            
+            // Check if it reaches the maximum
+            if ((quantifier.hasNoUpperBound()) || (times < quantifier.upperBound())) { // Not yet
+                state = POSSESSIVE_MORE;
+                return parseEach(entries, offset, index, parseResult, typeProvider, tabCount);
+            }
+            
+            state = POSSESSIVE_LOWER;
+            return false;
+        }
+        
+        /** Start `parseMaximum`. @return {@code true} if a frame is pushed. */
+        private boolean startMaximum() {
+            // NOTE: If Maximum, Try to match the first then the later and the last, pick
+            // the longest match
+            
+            // Check if it reaches the maximum
+            if (!quantifier.hasNoUpperBound() && (times >= quantifier.upperBound())) {
+                state = MAXIMUM_LOWER;
+                return false;
+            }
+            
+            var entry = entries[index];
+            if (isAlternative(entry)) {
+                startAlternatives(entry, Integer.MIN_VALUE);
+                state = MAXIMUM_ALTERNATIVE;
+                return false;
+            }
+            
+            // Try the first part
+            savedIndex = parseResult.rawEntryCount();
+            state      = MAXIMUM_FIRST;
+            return parseEach(entries, offset, index, parseResult, typeProvider, tabCount);
+        }
+        
+        /** Start `parseMinimum`. @return {@code true} if a frame is pushed. */
+        private boolean startMinimum() {
+            // NOTE: If Minimum, Check first match until reaching the lower bound, the try
+            // the full length until match.
+            
+            // Check if it has reach the minimum
+            if (times >= quantifier.lowerBound()) {
+                // Try the last part. If match, return
+                savedIndex = parseResult.rawEntryCount();
+                state      = MINIMUM_LAST;
+                push(new ParseFrame(entries, offset, index + 1, 0, parseResult, typeProvider, type, parameter, tabCount));
+                return true;
+            }
+            return continueMinimum();
+        }
+        
+        /** Continue `parseMinimum` after the last part is not matched. @return {@code true} if a frame is pushed. */
+        private boolean continueMinimum() {
+            // Check it reach the maximum
+            if ((quantifier.hasUpperBound()) && (times >= quantifier.upperBound())) {
+                loopResult = Unmatched;
+                state      = APPLY;
+                return false;
+            }
+            
+            var entry = entries[index];
+            if (isAlternative(entry)) {
+                startAlternatives(entry, Integer.MAX_VALUE);
+                state = MINIMUM_ALTERNATIVE;
+                return false;
+            }
+            
+            // Try the first part
+            savedIndex = parseResult.rawEntryCount();
+            state      = MINIMUM_FIRST;
+            return parseEach(entries, offset, index, parseResult, typeProvider, tabCount);
+        }
+        
+        private boolean isAlternative(RegParserEntry entry) {
+            return (entry.type()    == null)
+                && (entry.typeRef() == null)
+                && (entry.checker() instanceof CheckerAlternative);
+        }
+        
+        private void startAlternatives(RegParserEntry entry, int initialLength) {
+            alternatives = (CheckerAlternative)entry.checker();
+            checkers     = alternatives.checkers().toArray(Checker[]::new);
+            checkerIndex = checkers.length;
+            bestResult   = null;
+            bestLength   = initialLength;
+        }
+        
+    }
+    
+    /** The frame of `RegParserEachSolver.parseMemoized(...)`. */
+    private final class MemoFrame extends Frame {
+        
+        private final RegParserEntry[]   entries;
+        private final int                offset;
+        private final int                index;
+        private final ParseResult        parseResult;
+        private final ParserTypeProvider typeProvider;
+        private final int                tabCount;
+        private final int                entryCount;
+        
+        MemoFrame(
+                RegParserEntry[]   entries,
+                int                offset,
+                int                index,
+                ParseResult        parseResult,
+                ParserTypeProvider typeProvider,
+                int                tabCount) {
+            this.entries      = entries;
+            this.offset       = offset;
+            this.index        = index;
+            this.parseResult  = parseResult;
+            this.typeProvider = typeProvider;
+            this.tabCount     = tabCount;
+            this.entryCount   = parseResult.rawEntryCount();
+        }
+        
+        @Override
+        void step() {
+            var entry = entries[index];
+            if (state == 0) {
+                state = 1;
+                if (parseEach(entries, offset, index, entry.name(), entry.type(), entry.typeRef(), entry.checker(), parseResult, typeProvider, tabCount))
+                    return;
+            }
+            
+            var result    = returned;
+            var appendeds = (result != null) ? parseResult.rawEntriesFrom(entryCount) : null;
+            context.memoize(entry, offset, typeProvider, appendeds);
+            complete(result);
+        }
+        
+    }
+    
+    /** The frame of `RegParserEachSolver.parseRegParser(...)`. */
+    private final class RegParserFrame extends Frame {
+        
+        private final RegParserEntry[]   entries;
+        private final int                offset;
+        private final int                index;
+        private final String             name;
+        private final RegParser          parser;
+        private final ParseResult        parseResult;
+        private final ParserTypeProvider typeProvider;
+        private final int                tabCount;
+        
+        private int         entryCount;
+        private ParseResult tryResult;
+        
+        RegParserFrame(
+                RegParserEntry[]   entries,
+                int                offset,
+                int                index,
+                String             name,
+                RegParser          parser,
+                ParseResult        parseResult,
+                ParserTypeProvider typeProvider,
+                int                tabCount) {
+            this.entries      = entries;
+            this.offset       = offset;
+            this.index        = index;
+            this.name         = name;
+            this.parser       = parser;
+            this.parseResult  = parseResult;
+            this.typeProvider = typeProvider;
+            this.tabCount     = tabCount;
+        }
+        
+        @Override
+        void step() {
+            boolean isNamed = (name != null);
+            if (state == 0) {
+                state = 1;
+                if (isNamed) {
+                    tryResult = newResult(offset, parseResult);
+                    push(parseFrameOf(parser, offset, tryResult, typeProvider, null, null, tabCount + 1));
+                } else {
+                    entryCount = parseResult.rawEntryCount();
+                    push(parseFrameOf(parser, offset, parseResult, typeProvider, null, null, tabCount));
+                }
+                return;
+            }
+            
+            if (returned == null) {
+                if (!isNamed) {
+                    // Recover what may have been added in the fail attempt
+                    parseResult.reset(entryCount);
+                }
+                complete(null);
+                return;
+            }
+            
+            if (isNamed) {
+                // Merge the result
+                int endPosition = tryResult.endPosition();
+                var parserEntry = entries[index];
+                var subResult = name.startsWith("$") ? null : tryResult;
+                parseResult.append(endPosition, parserEntry, subResult);
+            }
+            complete(parseResult);
+        }
+        
+    }
+    
+    /** The frame of `RegParserEachSolver.parseType(...)` with its `parseCheckerInType(...)`. */
+    private final class TypeFrame extends Frame {
+        
+        private final RegParserEntry[]   entries;
+        private final int                offset;
+        private final int                index;
+        private final String             name;
+        private final ParserTypeRef      typeRef;
+        private final ParseResult        parseResult;
+        private final ParserTypeProvider typeProvider;
+        private final int                tabCount;
+        
+        private ParserType type;
+        private String     parameter;
+        private boolean    isAsNode;
+        
+        TypeFrame(
+                RegParserEntry[]   entries,
+                int                offset,
+                int                index,
+                String             name,
+                ParserType         type,
+                ParserTypeRef      typeRef,
+                ParseResult        parseResult,
+                ParserTypeProvider typeProvider,
+                int                tabCount) {
+            this.entries      = entries;
+            this.offset       = offset;
+            this.index        = index;
+            this.name         = name;
+            this.type         = type;
+            this.typeRef      = typeRef;
+            this.parseResult  = parseResult;
+            this.typeProvider = typeProvider;
+            this.tabCount     = tabCount;
+        }
+        
+        @Override
+        void step() {
+            if (state == 0) {
+                state = 1;
+                if (start())
+                    return;
+            }
+            
+            var tryResult = returned;
+            if (tryResult == null) {
+                complete(null);
+                return;
+            }
+            
+            var result = RegParserEachSolver.appendTypeResult(entries, index, name, type, typeRef, parameter, isAsNode, tryResult, parseResult, typeProvider);
+            complete(result);
+        }
+        
+        /** Parse the checker of the type. @return {@code true} if a frame is pushed. */
+        private boolean start() {
+            isAsNode = (name == null) || !name.startsWith("$");
+            
+            var typeChecker = (Checker)null;
+            if (typeRef != null) {
+                var typeLink = TypeLink.linkOf(entries[index], typeRef, typeProvider);
+                parameter    = typeRef.parameter();
+                type         = (typeLink != null) ? typeLink.type()    : RegParserEachSolver.typeOf(typeRef, typeProvider);
+                typeChecker  = (typeLink != null) ? typeLink.checker() : null;
+            }
+            
+            // Extract a type
+            var checker = (typeChecker != null) ? typeChecker : type.checker(parseResult, parameter, typeProvider);
+            if (checker == null)
+                throw new ParsingException("RegParser type named '" + typeRef + "' has no checker.");
+            
+            // If type is a text, FP is not a node
+            if (type.isText()) {
+                isAsNode = false;
+            }
+            
+            if (checker instanceof RegParser) {
+                // The type contain a RegParser
+                var tryResult    = newResult(offset, parseResult);
+                var tryType      = type.isSelfContain() ? null : type;
+                var tryParameter = type.isSelfContain() ? null : parameter;
+                push(parseFrameOf((RegParser)checker, offset, tryResult, typeProvider, tryType, tryParameter, tabCount + 1));
+                return true;
+            }
+            
+            if (checker instanceof CheckerAlternative) {
+                // The type contain a alternative checker
+                push(new AlternativeFrame(entries, offset, index, null, (CheckerAlternative)checker, true, isAsNode, parseResult, typeProvider, tabCount + 1));
+                return true;
+            }
+            
+            returned = RegParserEachSolver.parseCheckerOnlyInType(entries, text, offset, index, checker, parseResult, typeProvider);
+            return false;
+        }
+        
+    }
+    
+    /**
+     * The frame of `RegParserEachSolver.parseAlternative(...)` or the alternative part of
+     *   `RegParserEachSolver.parseCheckerInType(...)` (which returns the longest result as is).
+     */
+    private final class AlternativeFrame extends Frame {
+        
+        static final int NEXT    = 1;
+        static final int EACH    = 2;
+        static final int DEFAULT = 3;
+        
+        private final RegParserEntry[]   entries;
+        private final int                offset;
+        private final int                index;
+        private final String             name;
+        private final CheckerAlternative alternatives;
+        private final boolean            isInType;
+        private final boolean            isAsNode;
+        private final ParseResult        parseResult;
+        private final ParserTypeProvider typeProvider;
+        private final int                tabCount;
+        
+        private List<Checker> candidates;
+        private int           candidateIndex;
+        private ParseResult   tryResult;
+        private ParseResult   maxResult;
+        private int           maxEnd = Integer.MIN_VALUE;
+        
+        AlternativeFrame(
+                RegParserEntry[]   entries,
+                int                offset,
+                int                index,
+                String             name,
+                CheckerAlternative alternatives,
+                boolean            isInType,
+                boolean            isAsNode,
+                ParseResult        parseResult,
+                ParserTypeProvider typeProvider,
+                int                tabCount) {
+            this.entries      = entries;
+            this.offset       = offset;
+            this.index        = index;
+            this.name         = name;
+            this.alternatives = alternatives;
+            this.isInType     = isInType;
+            this.isAsNode     = isAsNode;
+            this.parseResult  = parseResult;
+            this.typeProvider = typeProvider;
+            this.tabCount     = tabCount;
+        }
+        
+        @Override
+        void step() {
+            while (true) {
+                switch (state) {
+                    case 0: {
+                        candidates     = alternatives.candidatesAt(text, offset);
+                        candidateIndex = candidates.size();
+                        state          = NEXT;
+                        continue;
+                    }
+                    case NEXT: {
+                        if (--candidateIndex < 0) {
+                            if (maxResult != null) {
+                                finish();
+                                return;
+                            }
+                            if (!alternatives.hasDefault()) {
+                                complete(null);
+                                return;
+                            }
+                            
+                            tryResult = newTryResult();
+                            state     = DEFAULT;
+                            if (parseEach(entries, offset, index, null, null, null, alternatives.defaultChecker(), tryResult, typeProvider, tabCount))
+                                return;
+                            continue;
+                        }
+                        
+                        tryResult = newTryResult();
+                        state     = EACH;
+                        if (parseEach(entries, offset, index, null, null, null, candidates.get(candidateIndex), tryResult, typeProvider, tabCount))
+                            return;
+                        continue;
+                    }
+                    case EACH: {
+                        // Find the longest length
+                        if ((returned != null) && (maxEnd < tryResult.endPosition())) {
+                            maxResult = tryResult;
+                            maxEnd    = tryResult.endPosition();
+                        }
+                        state = NEXT;
+                        continue;
+                    }
+                    case DEFAULT: {
+                        if (returned == null) {
+                            complete(null);
+                            return;
+                        }
+                        maxResult = tryResult;
+                        finish();
+                        return;
+                    }
+                    default:
+                        throw new IllegalStateException("Unknown state: " + state);
+                }
+            }
+        }
+        
+        private ParseResult newTryResult() {
+            return isAsNode ? newResult(offset, parseResult) : newResult(parseResult);
+        }
+        
+        private void finish() {
+            if (isInType) {
+                complete(maxResult);
+                return;
+            }
+            
+            if (isAsNode) {
+                parseResult.append(maxResult.endPosition(), entries[index], maxResult);
+                
+            } else if (name != null) {
+                parseResult.append(maxResult.endPosition(), entries[index], null);
+                
+            } else {
+                parseResult.mergeWith((TemporaryParseResult) maxResult);
+            }
+            complete(parseResult);
+        }
+        
+    }
+    
+}
@@ -0,0 +1,179 @@
+/*----------------------------------------------------------------------------------------------------------------------
+ * Copyright (C) 2008-2024 Nawapunth Manusitthipol.
+ *----------------------------------------------------------------------------------------------------------------------
+ * LICENSE:
+ * 
+ * This file is part of Nawa's RegParser.
+ * 
+ * The project is a free software; you can redistribute it and/or modify it under the SIMILAR terms of the GNU General
+ * Public License as published by the Free Software Foundation; either version 2 of the License, or any later version.
+ * You are only required to inform me about your modification and redistribution as or as part of commercial software
+ * package. You can inform me via nawa<at>nawaman<dot>net.
+ * 
+ * The project is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the 
+ * implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ * more details.
+ * ---------------------------------------------------------------------------------------------------------------------
+ */
+package net.nawaman.regparser;
+
+import java.util.stream.Stream;
+
+import net.nawaman.regparser.result.LongParseResult;
+
+/**
+ * Searches and parses a mapped text of any length with a parser.
+ * 
+ * The text is read a window at a time and each match is parsed over a window from where it starts so its positions are
+ *   ints relative to the window -- the long positions of the result are the offset of the window plus them.
+ * 
+ * For example:
+ *     var text = MappedText.open(path);
+ *     RegParserMapped.findAll(parser, text).forEach(match -> handle(match));
+ * 
+ * @author Nawapunth Manusitthipol (https://github.com/NawaMan)
+ */
+public final class RegParserMapped {
+    
+    private RegParserMapped() {
+    }
+    
+    /**
+     * Returns the matches of the parser in the mapped text.
+     * 
+     * @param  parser  the parser.
+     * @param  text    the text.
+     * @return         the lazy stream of the matches.
+     * @see    #findAll(RegParser, MappedText, ParserTypeProvider)
+     */
+    public static Stream<LongParseResult> findAll(RegParser parser, MappedText text) {
+        return findAll(parser, text, null);
+    }
+    
+    /**
+     * Returns the matches of the parser in the mapped text using the type provider.
+     * 
+     * The candidate offsets are searched for (see {@link RegParser#find(CharSequence, int, ParserTypeProvider)}) a
+     *   window at a time and each candidate is parsed with
+     *   {@link #parseAt(RegParser, MappedText, long, ParserTypeProvider)} so a match is not cut by the end of a window.
+     * The matches follow one another as {@link RegParser#findAll(CharSequence, ParserTypeProvider)} does.
+     * The text may be of any length but, as with {@link #parseAt(RegParser, MappedText, long, ParserTypeProvider)}, a
+     *   single match cannot be longer than {@code Integer.MAX_VALUE - 1} chars.
+     * 
+     * @param  parser        the parser.
+     * @param  text          the text.
+     * @param  typeProvider  the type provider.
+     * @return               the lazy stream of the matches.
+     * @throws ParsingException  if a match is longer than the longest window.
+     */
+    public static Stream<LongParseResult> findAll(RegParser parser, MappedText text, ParserTypeProvider typeProvider) {
+        if (text == null)
+            return Stream.empty();
+        
+        // The offsets of the matches are in the file -- the search goes on from the ones in the text.
+        return RegParserMatches.streamOf(
+                offset -> findMapped(parser, text, offset, typeProvider),
+                result -> result.startPosition() - text.offset(),
+                result -> result.endPosition()   - text.offset());
+    }
+    
+    private static LongParseResult findMapped(
+                    RegParser          parser,
+                    MappedText         text,
+                    long               offset,
+                    ParserTypeProvider typeProvider) {
+        var  scanner = parser.scanner();
+        long length  = text.longLength();
+        // A literal that is cut by the end of a window is found in the next one.
+        int  overlap      = Math.max(0, scanner.prefixLength() - 1);
+        long windowLength = Math.max(text.windowLength(), 2L*scanner.prefixLength());
+        while (offset <= length) {
+            long windowEnd = Math.min(length, offset + windowLength);
+            var  window    = text.window(offset, windowEnd);
+            int  candidate = scanner.nextCandidate(window, 0);
+            while (candidate != -1) {
+                // The end of the window is the start of the next one.
+                if ((candidate == window.longLength()) && (windowEnd != length))
+                    break;
+                
+                var result = parseAt(parser, text, offset + candidate, typeProvider);
+                if (result != null)
+                    return result;
+                
+                candidate = scanner.nextCandidate(window, candidate + 1);
+            }
+            if (windowEnd == length)
+                return null;
+            
+            offset = Math.max(offset + 1, windowEnd - overlap);
+        }
+        return null;
+    }
+    
+    /**
+     * Returns the match of the parser in the mapped text from the offset.
+     * 
+     * @param  parser  the parser.
+     * @param  text    the text.
+     * @param  offset  the offset.
+     * @return         the match or null if the text does not start with a match from the offset.
+     * @see    #parseAt(RegParser, MappedText, long, ParserTypeProvider)
+     */
+    public static LongParseResult parseAt(RegParser parser, MappedText text, long offset) {
+        return parseAt(parser, text, offset, null);
+    }
+    
+    /**
+     * Returns the match of the parser in the mapped text from the offset using the type provider.
+     * 
+     * The text is parsed over a window from the offset whose end is not known to the parse.
+     * The parse that reads past the window is parsed again over a window twice as long -- up to
+     *   {@code Integer.MAX_VALUE - 1} chars.
+     * 
+     * Only the offset is a long: the match is parsed over the window as a CharSequence so its positions are ints
+     *   relative to the window and the long positions of the result are the offset of the window plus them.
+     * A single match (with the text its parse reads) therefore cannot be longer than {@code Integer.MAX_VALUE - 1}
+     *   chars.
+     * 
+     * @param  parser        the parser.
+     * @param  text          the text.
+     * @param  offset        the offset.
+     * @param  typeProvider  the type provider.
+     * @return               the match or null if the text does not start with a match from the offset.
+     * @throws ParsingException  if the match is longer than the longest window.
+     */
+    public static LongParseResult parseAt(
+                    RegParser          parser,
+                    MappedText         text,
+                    long               offset,
+                    ParserTypeProvider typeProvider) {
+        if ((text == null) || (offset < 0) || (offset > text.longLength()))
+            return null;
+        
+        long windowLength = text.windowLength();
+        while (true) {
+            var window = text.openWindow(offset, Math.min(text.longLength(), offset + windowLength));
+            try {
+                var parseResult = parser.parse(window, 0, typeProvider);
+                if (parseResult == null)
+                    return null;
+                
+                // The parse that runs to the end it does not know yet (like .* does) needs a longer window too.
+                if (!window.isOpenEnded() || (parseResult.endPosition() <= window.longLength()))
+                    return new LongParseResult(text.offset() + offset, parseResult);
+                
+            } catch (NeedMoreText needMore) {
+                // Try again with a longer window.
+            } finally {
+                // The window is done with -- as a text of its own, its end is known.
+                window.close();
+            }
+            
+            if (windowLength >= MappedText.MAX_WINDOW_LENGTH)
+                throw new ParsingException("The match at " + offset + " is longer than " + windowLength + " chars.");
+            
+            windowLength = Math.min(MappedText.MAX_WINDOW_LENGTH, windowLength*2);
+        }
+    }
+    
+}
@@ -0,0 +1,99 @@
+/*----------------------------------------------------------------------------------------------------------------------
+ * Copyright (C) 2008-2024 Nawapunth Manusitthipol.
+ *----------------------------------------------------------------------------------------------------------------------
+ * LICENSE:
+ * 
+ * This file is part of Nawa's RegParser.
+ * 
+ * The project is a free software; you can redistribute it and/or modify it under the SIMILAR terms of the GNU General
+ * Public License as published by the Free Software Foundation; either version 2 of the License, or any later version.
+ * You are only required to inform me about your modification and redistribution as or as part of commercial software
+ * package. You can inform me via nawa<at>nawaman<dot>net.
+ * 
+ * The project is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the 
+ * implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ * more details.
+ * ---------------------------------------------------------------------------------------------------------------------
+ */
+package net.nawaman.regparser;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.LongFunction;
+import java.util.function.ToLongFunction;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * The matches of a parser found one after another -- for {@link RegParser#findAll(CharSequence, ParserTypeProvider)}
+ *   and {@link RegParserMapped#findAll(RegParser, MappedText, ParserTypeProvider)}.
+ * 
+ * A match is only searched for when the stream asks if there is one more so the stream that is not consumed (or the
+ *   one that stops at its first match) searches no further than it is read.
+ * The next match is searched from the end of the previous one or, after an empty match, from the next offset.
+ * 
+ * @param <RESULT>  the type of the matches.
+ * 
+ * @author Nawapunth Manusitthipol (https://github.com/NawaMan)
+ */
+final class RegParserMatches<RESULT> implements Iterator<RESULT> {
+    
+    /**
+     * Returns the lazy stream of the matches.
+     * 
+     * @param  finder   the finder of the first match from an offset -- null if there is none.
+     * @param  startOf  the offset of the start of a match.
+     * @param  endOf    the offset of the end of a match.
+     * @return          the stream.
+     */
+    static <RESULT> Stream<RESULT> streamOf(
+                    LongFunction<RESULT>   finder,
+                    ToLongFunction<RESULT> startOf,
+                    ToLongFunction<RESULT> endOf) {
+        var iterator    = new RegParserMatches<>(finder, startOf, endOf);
+        var spliterator = Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED | Spliterator.NONNULL);
+        return StreamSupport.stream(spliterator, false);
+    }
+    
+    private final LongFunction<RESULT>   finder;
+    private final ToLongFunction<RESULT> startOf;
+    private final ToLongFunction<RESULT> endOf;
+    
+    private long    offset = 0;
+    private RESULT  next   = null;
+    private boolean isDone = false;
+    
+    private RegParserMatches(LongFunction<RESULT> finder, ToLongFunction<RESULT> startOf, ToLongFunction<RESULT> endOf) {
+        this.finder  = finder;
+        this.startOf = startOf;
+        this.endOf   = endOf;
+    }
+    
+    @Override
+    public boolean hasNext() {
+        if ((next == null) && !isDone) {
+            next = finder.apply(offset);
+            if (next == null) {
+                isDone = true;
+            } else {
+                long start = startOf.applyAsLong(next);
+                long end   = endOf.applyAsLong(next);
+                offset = (end == start) ? (end + 1) : end;
+            }
+        }
+        return (next != null);
+    }
+    
+    @Override
+    public RESULT next() {
+        if (!hasNext())
+            throw new NoSuchElementException();
+        
+        var current = next;
+        next = null;
+        return current;
+    }
+    
+}
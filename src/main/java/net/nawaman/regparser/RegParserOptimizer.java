@@ -4,52 +4,92 @@ import static net.nawaman.regparser.RegParserEntry.newParserEntry;
 
 import java.util.concurrent.atomic.AtomicBoolean;
 
+import net.nawaman.regparser.checkers.CharChecker;
+import net.nawaman.regparser.checkers.CheckerAlternative;
+import net.nawaman.regparser.checkers.WordChecker;
+import net.nawaman.regparser.checkers.WordSetChecker;
+
 class RegParserOptimizer {
     
     static Checker optimize(RegParser regParser) {
-        RegParserEntry[] entries = regParser.entries().toArray(RegParserEntry[]::new);
-        var newEntries = new RegParserEntry[entries.length];
         var isChanged  = new AtomicBoolean(false);
-        
-        regParser
-        .entries()
-        .map(entry -> optimizeEntry(isChanged, entry))
-        .toArray(RegParserEntry[]::new);
+        var newEntries = regParser
+                       .entries()
+                       .map(entry -> optimizeEntry(isChanged, entry))
+                       .toArray(RegParserEntry[]::new);
         
         if (!isChanged.get())
             return regParser;
         
         if (regParser instanceof RegParserWithDefaultTypeProvider) {
             var typeProvider = ((RegParserWithDefaultTypeProvider)regParser).getDefaultTypeProvider();
-            return new RegParserWithDefaultTypeProvider(true, entries, typeProvider);
+            return new RegParserWithDefaultTypeProvider(true, newEntries, typeProvider);
         }
         
-        return new RegParser(true, (RegParserEntry[]) newEntries);
+        return new RegParser(true, newEntries);
     }
     
     private static RegParserEntry optimizeEntry(AtomicBoolean isChanged, RegParserEntry entry) {
-        var name       = entry.name();
-        var typeRef    = entry.typeRef();
-        var quantifier = entry.quantifier();
+        var typeRef = entry.typeRef();
         if (typeRef != null)
-            return newParserEntry(name, typeRef, quantifier);
+            return entry;
         
         var type = entry.type();
         if (type != null)
-            return newParserEntry(name, type, quantifier);
+            return entry;
+        
+        if (entry.secondStage() != null)
+            return entry;
         
         var checker = entry.checker();
         if (checker == null)
             throw new NullPointerException("`checker` is null.");
-
-        if (!(checker instanceof RegParser))
-            return newParserEntry(name, checker, quantifier);
         
-        var newParser = ((RegParser) checker).optimize();
-        if (newParser == checker)
-            return newParserEntry(name, checker, quantifier);
+        var wordSet = wordSetOf(entry);
+        if (wordSet != null) {
+            isChanged.set(true);
+            return newParserEntry(entry.name(), wordSet, entry.quantifier());
+        }
+        
+        if (!(checker instanceof RegParser)
+         && !(checker instanceof CharChecker))
+            return entry;
+        
+        var newChecker = checker.optimize();
+        if (newChecker == checker)
+            return entry;
         
         isChanged.set(true);
-        return RegParserEntry.newParserEntry(name, newParser, quantifier);
+        return newParserEntry(entry.name(), newChecker, entry.quantifier());
+    }
+    
+    /**
+     * Returns the word set checker of the entry of an alternative of words or null if the entry cannot be one.
+     * 
+     * The solver takes the longest of the alternatives as does the word set checker -- but only when the alternative
+     *   is repeated possessively (the other quantifiers retry each alternative) and it does not make a node.
+     */
+    private static WordSetChecker wordSetOf(RegParserEntry entry) {
+        var name = entry.name();
+        if (!(entry.checker() instanceof CheckerAlternative)
+         || !entry.quantifier().isPossessive()
+         || ((name != null) && !name.startsWith("$")))
+            return null;
+        
+        var alternative = (CheckerAlternative)entry.checker();
+        if (alternative.hasDefault())
+            return null;
+        
+        var checkers = alternative.checkers().toArray(Checker[]::new);
+        var words    = new String[checkers.length];
+        for (int i = 0; i < checkers.length; i++) {
+            if (!(checkers[i] instanceof WordChecker))
+                return null;
+            
+            words[i] = ((WordChecker)checkers[i]).word();
+            if (words[i].isEmpty())
+                return null;
+        }
+        return (words.length > 1) ? new WordSetChecker(words) : null;
     }
 }
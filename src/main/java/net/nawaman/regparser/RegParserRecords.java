@@ -0,0 +1,286 @@
+/*----------------------------------------------------------------------------------------------------------------------
+ * Copyright (C) 2008-2024 Nawapunth Manusitthipol.
+ *----------------------------------------------------------------------------------------------------------------------
+ * LICENSE:
+ * 
+ * This file is part of Nawa's RegParser.
+ * 
+ * The project is a free software; you can redistribute it and/or modify it under the SIMILAR terms of the GNU General
+ * Public License as published by the Free Software Foundation; either version 2 of the License, or any later version.
+ * You are only required to inform me about your modification and redistribution as or as part of commercial software
+ * package. You can inform me via nawa<at>nawaman<dot>net.
+ * 
+ * The project is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the 
+ * implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ * more details.
+ * ---------------------------------------------------------------------------------------------------------------------
+ */
+package net.nawaman.regparser;
+
+import static java.util.Objects.requireNonNull;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import net.nawaman.regparser.result.ParseResult;
+
+/**
+ * Parses the records of a text in parallel.
+ * 
+ * The text is split into the records by the splitter and each record is matched as its own text (its positions start
+ *   from 0) -- the element of a record that does not match is null.
+ * 
+ * The text is cut into chunks of about the same length and each chunk is moved to start where a record starts.
+ * The chunks are parsed on the common {@link ForkJoinPool} as the tasks of a parallel stream and their results are
+ *   joined in the order of the chunks.
+ * A chunk finds its own start and end from its raw positions with the splitter so the chunks need no coordination.
+ * Each task reads the text through its own windows (for a mapped text, with their own cursors over the decoded pages).
+ * 
+ * @author Nawapunth Manusitthipol (https://github.com/NawaMan)
+ */
+public final class RegParserRecords {
+    
+    /** The shortest chunk -- so a short text is not split into tasks that cost more than their parse. */
+    static final int MIN_CHUNK_LENGTH = 1 << 16;
+    
+    /** The longest chunk. */
+    static final int MAX_CHUNK_LENGTH = 1 << 26;
+    
+    /** The number of the chunks per worker -- so a worker with short records can take more chunks. */
+    private static final int CHUNKS_PER_WORKER = 4;
+    
+    /** The length of the text first searched for the start of a record from a raw position of a chunk. */
+    private static final int SEARCH_LENGTH = 1 << 12;
+    
+    /** The windows of a text -- each task gets its own. */
+    @FunctionalInterface
+    static interface Windows {
+        CharSequence window(long from, long to);
+    }
+    
+    private RegParserRecords() {
+    }
+    
+    /** @return  the length of the chunks of a text for the parallelism of the common pool. */
+    static int chunkLengthOf(long textLength) {
+        long workers = Math.max(1, ForkJoinPool.getCommonPoolParallelism());
+        long length  = textLength / (workers*CHUNKS_PER_WORKER);
+        return (int)Math.max(MIN_CHUNK_LENGTH, Math.min(MAX_CHUNK_LENGTH, length));
+    }
+    
+    /**
+     * Returns the matches of the records of the text.
+     * 
+     * @param  parser    the parser.
+     * @param  text      the text.
+     * @param  splitter  the splitter of the records.
+     * @return           the stream of the matches of the records in their order.
+     * @see    #parseRecords(RegParser, CharSequence, RecordSplitter, ParserTypeProvider)
+     */
+    public static Stream<ParseResult> parseRecords(RegParser parser, CharSequence text, RecordSplitter splitter) {
+        return parseRecords(parser, text, splitter, null);
+    }
+    
+    /**
+     * Returns the matches of the records of the text using the type provider.
+     * 
+     * The records are parsed in chunks on the common {@link ForkJoinPool} so the stream is parallel -- collect it or
+     *   use {@link Stream#forEachOrdered} to see the matches in the order of the records.
+     * The text must not be changed until the stream is consumed.
+     * 
+     * @param  parser        the parser.
+     * @param  text          the text.
+     * @param  splitter      the splitter of the records.
+     * @param  typeProvider  the type provider.
+     * @return               the stream of the matches of the records in their order.
+     */
+    public static Stream<ParseResult> parseRecords(
+                    RegParser          parser,
+                    CharSequence       text,
+                    RecordSplitter     splitter,
+                    ParserTypeProvider typeProvider) {
+        if (text == null)
+            return Stream.empty();
+        
+        return parse(parser, text, requireNonNull(splitter), typeProvider, chunkLengthOf(text.length()));
+    }
+    
+    /**
+     * Returns the matches of the records of the mapped text.
+     * 
+     * @param  parser    the parser.
+     * @param  text      the text.
+     * @param  splitter  the splitter of the records.
+     * @return           the stream of the matches of the records in their order.
+     * @see    #parseRecords(RegParser, MappedText, RecordSplitter, ParserTypeProvider)
+     */
+    public static Stream<ParseResult> parseRecords(RegParser parser, MappedText text, RecordSplitter splitter) {
+        return parseRecords(parser, text, splitter, null);
+    }
+    
+    /**
+     * Returns the matches of the records of the mapped text using the type provider.
+     * 
+     * The records are parsed as {@link #parseRecords(RegParser, CharSequence, RecordSplitter, ParserTypeProvider)}
+     *   does but the text may be of any length and each chunk is read with its own decoded pages.
+     * 
+     * @param  parser        the parser.
+     * @param  text          the text.
+     * @param  splitter      the splitter of the records.
+     * @param  typeProvider  the type provider.
+     * @return               the stream of the matches of the records in their order.
+     */
+    public static Stream<ParseResult> parseRecords(
+                    RegParser          parser,
+                    MappedText         text,
+                    RecordSplitter     splitter,
+                    ParserTypeProvider typeProvider) {
+        if (text == null)
+            return Stream.empty();
+        
+        return parse(parser, text, requireNonNull(splitter), typeProvider, chunkLengthOf(text.longLength()));
+    }
+    
+    /**
+     * Returns the matches of the records of the UTF-8 file.
+     * 
+     * @param  parser    the parser.
+     * @param  path      the path of the file.
+     * @param  splitter  the splitter of the records.
+     * @return           the stream of the matches of the records in their order.
+     * @throws IOException  if the file cannot be mapped.
+     * @see    #parseRecords(RegParser, MappedText, RecordSplitter, ParserTypeProvider)
+     */
+    public static Stream<ParseResult> parseRecords(RegParser parser, Path path, RecordSplitter splitter)
+                    throws IOException {
+        return parseRecords(parser, MappedText.open(path), splitter, null);
+    }
+    
+    static Stream<ParseResult> parse(
+                    RegParser          parser,
+                    CharSequence       text,
+                    RecordSplitter     splitter,
+                    ParserTypeProvider typeProvider,
+                    int                chunkLength) {
+        Windows windows = (from, to) -> new TextWindow(text, (int)from, (int)to);
+        return parse(parser, text.length(), () -> windows, splitter, typeProvider, chunkLength);
+    }
+    
+    static Stream<ParseResult> parse(
+                    RegParser          parser,
+                    MappedText         text,
+                    RecordSplitter     splitter,
+                    ParserTypeProvider typeProvider,
+                    int                chunkLength) {
+        return parse(parser, text.longLength(), () -> text::window, splitter, typeProvider, chunkLength);
+    }
+    
+    private static Stream<ParseResult> parse(
+                    RegParser          parser,
+                    long               length,
+                    Supplier<Windows>  windowsSupplier,
+                    RecordSplitter     splitter,
+                    ParserTypeProvider typeProvider,
+                    int                chunkLength) {
+        long chunkCount = Math.max(1, (length + chunkLength - 1) / chunkLength);
+        if (chunkCount > Integer.MAX_VALUE)
+            throw new IllegalArgumentException("Too many chunks: " + chunkCount);
+        
+        return IntStream.range(0, (int)chunkCount)
+                .parallel()
+                .mapToObj(chunk -> {
+                    var  windows = windowsSupplier.get();
+                    long start   = (chunk == 0) ? 0 : recordStartAfter(windows, splitter, length, (long)chunk*chunkLength);
+                    long end     = recordStartAfter(windows, splitter, length, (long)(chunk + 1)*chunkLength);
+                    return parseChunk(parser, windows, splitter, typeProvider, start, end);
+                })
+                .flatMap(List::stream);
+    }
+    
+    /** @return  the start of the first record that starts after the position. */
+    private static long recordStartAfter(Windows windows, RecordSplitter splitter, long length, long position) {
+        if (position >= length)
+            return length;
+        
+        long span = SEARCH_LENGTH;
+        while (true) {
+            long to     = Math.min(length, position + span);
+            var  window = windows.window(position, to);
+            int  end    = splitter.recordEnd(window, 0);
+            if (end < window.length())
+                return position + splitter.nextStart(window, end);
+            
+            if (to == length)
+                return length;
+            
+            if (span >= MappedText.MAX_WINDOW_LENGTH)
+                throw new ParsingException("The record at " + position + " is longer than " + span + " chars.");
+            
+            span = Math.min(MappedText.MAX_WINDOW_LENGTH, span*2);
+        }
+    }
+    
+    private static List<ParseResult> parseChunk(
+                    RegParser          parser,
+                    Windows            windows,
+                    RecordSplitter     splitter,
+                    ParserTypeProvider typeProvider,
+                    long               start,
+                    long               end) {
+        var results = new ArrayList<ParseResult>();
+        if (start >= end)
+            return results;
+        
+        var window = windows.window(start, end);
+        int length = window.length();
+        int offset = 0;
+        while (offset < length) {
+            int recordEnd = splitter.recordEnd(window, offset);
+            var record    = window.subSequence(offset, recordEnd);
+            results.add(parser.match(record, typeProvider));
+            offset = (recordEnd < length) ? splitter.nextStart(window, recordEnd) : length;
+        }
+        return results;
+    }
+    
+    /** A part of a text without a copy. */
+    private static final class TextWindow implements CharSequence {
+        
+        private final CharSequence text;
+        private final int          start;
+        private final int          end;
+        
+        TextWindow(CharSequence text, int start, int end) {
+            this.text  = text;
+            this.start = start;
+            this.end   = end;
+        }
+        
+        @Override
+        public int length() {
+            return end - start;
+        }
+        
+        @Override
+        public char charAt(int index) {
+            return text.charAt(start + index);
+        }
+        
+        @Override
+        public CharSequence subSequence(int startIndex, int endIndex) {
+            return text.subSequence(start + startIndex, start + endIndex);
+        }
+        
+        @Override
+        public String toString() {
+            return text.subSequence(start, end).toString();
+        }
+    }
+    
+}
@@ -0,0 +1,183 @@
+/*----------------------------------------------------------------------------------------------------------------------
+ * Copyright (C) 2008-2024 Nawapunth Manusitthipol.
+ *----------------------------------------------------------------------------------------------------------------------
+ * LICENSE:
+ * 
+ * This file is part of Nawa's RegParser.
+ * 
+ * The project is a free software; you can redistribute it and/or modify it under the SIMILAR terms of the GNU General
+ * Public License as published by the Free Software Foundation; either version 2 of the License, or any later version.
+ * You are only required to inform me about your modification and redistribution as or as part of commercial software
+ * package. You can inform me via nawa<at>nawaman<dot>net.
+ * 
+ * The project is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the 
+ * implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ * more details.
+ * ---------------------------------------------------------------------------------------------------------------------
+ */
+package net.nawaman.regparser;
+
+import java.util.Arrays;
+
+import net.nawaman.regparser.checkers.CharChecker;
+import net.nawaman.regparser.checkers.CharSingle;
+import net.nawaman.regparser.checkers.FirstCharDispatch;
+import net.nawaman.regparser.checkers.WordChecker;
+
+/**
+ * Prefilter that finds the offsets where a match of a parser may start.
+ * 
+ * The literal that every match must start with is searched with {@link String#indexOf(String, int)} or the
+ *   Boyer-Moore-Horspool search for other texts.
+ * Without the literal, the chars that every match must start with (see {@link FirstCharDispatch}) are scanned for.
+ * Without either (like the parser starting with a type or the one that may match empty), every offset is a candidate.
+ * The candidates are only the offsets that are not ruled out so the solver is still run to confirm the match.
+ * 
+ * @author Nawapunth Manusitthipol (https://github.com/NawaMan)
+ */
+final class RegParserScanner {
+    
+    /** The scanner where every offset (the end of the text included) is a candidate. */
+    static final RegParserScanner AnyOffset = new RegParserScanner(null, null);
+    
+    /** The size of the shift table -- the chars are bucketed by their low bits. */
+    private static final int SHIFT_TABLE_SIZE = 256;
+    
+    /**
+     * Returns the scanner of the parser.
+     * 
+     * @param  parser  the parser.
+     * @return         the scanner.
+     */
+    static RegParserScanner of(RegParser parser) {
+        var literal = new StringBuilder();
+        appendLiteralPrefix(parser.entryArray(), literal);
+        if (literal.length() > 1)
+            return new RegParserScanner(literal.toString(), null);
+        
+        var firstChars = FirstCharDispatch.firstCharsOf(parser);
+        if (firstChars != null)
+            return new RegParserScanner(null, firstChars);
+        
+        return AnyOffset;
+    }
+    
+    /**
+     * Appends the literal that the entries must start with.
+     * 
+     * @return {@code true} if all the entries are a part of the literal.
+     */
+    private static boolean appendLiteralPrefix(RegParserEntry[] entries, StringBuilder literal) {
+        for (var entry : entries) {
+            var quantifier = entry.quantifier();
+            if ((entry.type()    != null)
+             || (entry.typeRef() != null)
+             || ((quantifier != null) && !quantifier.isOne()))
+                return false;
+            
+            var checker = entry.checker();
+            if (checker instanceof CharSingle) {
+                literal.append(((CharSingle)checker).ch);
+            } else if (checker instanceof WordChecker) {
+                literal.append(((WordChecker)checker).word());
+            } else if (checker instanceof RegParser) {
+                if (!appendLiteralPrefix(((RegParser)checker).entryArray(), literal))
+                    return false;
+            } else {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    private final String      literal;
+    private final int[]       shifts;
+    private final CharChecker firstChars;
+    
+    private RegParserScanner(String literal, CharChecker firstChars) {
+        this.literal    = literal;
+        this.shifts     = (literal != null) ? shiftsOf(literal) : null;
+        this.firstChars = firstChars;
+    }
+    
+    private static int[] shiftsOf(String literal) {
+        int last   = literal.length() - 1;
+        var shifts = new int[SHIFT_TABLE_SIZE];
+        Arrays.fill(shifts, literal.length());
+        // The later chars overwrite with the smaller shift so a bucket shared by many chars shifts by the safest one.
+        for (int i = 0; i < last; i++) {
+            shifts[literal.charAt(i) % SHIFT_TABLE_SIZE] = last - i;
+        }
+        return shifts;
+    }
+    
+    /** @return  the number of the chars a candidate is found by -- none if every offset is a candidate. */
+    int prefixLength() {
+        return (literal    != null) ? literal.length()
+             : (firstChars != null) ? 1
+             : 0;
+    }
+    
+    /**
+     * Returns the first offset from the given offset on where a match may start.
+     * 
+     * @param  text    the text.
+     * @param  offset  the offset to start from.
+     * @return         the candidate offset or -1 if there is none.
+     */
+    int nextCandidate(CharSequence text, int offset) {
+        int textLength = text.length();
+        if (offset > textLength)
+            return -1;
+        
+        if (literal != null)
+            return indexOfLiteral(text, offset, textLength);
+        
+        if (firstChars != null)
+            return indexOfFirstChar(text, offset, textLength);
+        
+        return offset;
+    }
+    
+    private int indexOfLiteral(CharSequence text, int offset, int textLength) {
+        if (text instanceof String)
+            return ((String)text).indexOf(literal, offset);
+        
+        int  last     = literal.length() - 1;
+        char lastChar = literal.charAt(last);
+        for (int i = offset; i + last < textLength;) {
+            char ch = text.charAt(i + last);
+            if (ch == lastChar) {
+                int j = last - 1;
+                while ((j >= 0) && (text.charAt(i + j) == literal.charAt(j))) {
+                    j--;
+                }
+                if (j < 0)
+                    return i;
+            }
+            i += shifts[ch % SHIFT_TABLE_SIZE];
+        }
+        return -1;
+    }
+    
+    private int indexOfFirstChar(CharSequence text, int offset, int textLength) {
+        if ((firstChars instanceof CharSingle) && (text instanceof String))
+            return ((String)text).indexOf(((CharSingle)firstChars).ch, offset);
+        
+        for (int i = offset; i < textLength; i++) {
+            if (firstChars.inSet(text.charAt(i)))
+                return i;
+        }
+        return -1;
+    }
+    
+    @Override
+    public String toString() {
+        if (literal != null)
+            return "RegParserScanner[literal=" + literal + "]";
+        if (firstChars != null)
+            return "RegParserScanner[firstChars=" + firstChars + "]";
+        return "RegParserScanner[any]";
+    }
+    
+}
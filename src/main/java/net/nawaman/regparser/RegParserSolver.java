@@ -9,17 +9,16 @@ import static net.nawaman.regparser.RegParserSolver.ParseLoopResult.MatchedEntry
 import static net.nawaman.regparser.RegParserSolver.ParseLoopResult.MatchedOneTime;
 import static net.nawaman.regparser.RegParserSolver.ParseLoopResult.Unmatched;
 import static net.nawaman.regparser.result.ParseResult.newResult;
-import static net.nawaman.regparser.result.entry.ParseResultEntry.newEntry;
 import static net.nawaman.regparser.utils.Util.escapeText;
 
 import java.util.HashMap;
 import java.util.Map;
 
+import net.nawaman.regparser.checkers.CharChecker;
 import net.nawaman.regparser.checkers.CheckerAlternative;
 import net.nawaman.regparser.result.ParseResult;
 import net.nawaman.regparser.result.ParseResultNode;
 import net.nawaman.regparser.result.TemporaryParseResult;
-import net.nawaman.regparser.result.entry.ParseResultEntry;
 
 class RegParserSolver {
     
@@ -41,6 +40,7 @@ class RegParserSolver {
             ParserTypeProvider typeProvider,
             ParserType         type,
             String             parameter,
+            ParseContext       context,
             int                tabCount) {
         
         if (parseResult == null)
@@ -49,7 +49,7 @@ class RegParserSolver {
         if (text == null)
             return parseResult;
         
-        return parse(entries, text, offset, index, times, parseResult, typeProvider, type, parameter, tabCount);
+        return parse(entries, text, offset, index, times, parseResult, typeProvider, type, parameter, context, tabCount);
     }
     
     /** Perform the parse. @return the result or null. */
@@ -63,6 +63,7 @@ class RegParserSolver {
             ParserTypeProvider typeProvider,
             ParserType         type,
             String             parameter,
+            ParseContext       context,
             int                tabCount) {
         int entryCount     = entries.length;
         int lastEntryIndex = entryCount - 1;
@@ -70,6 +71,7 @@ class RegParserSolver {
         var indentation    = isDebugMode ? indentation(tabCount) : "";
         
         MainLoop: while (true) {
+            context.step(parseResult);
             
             // Check if there is no more entry to check.
             if (index > lastEntryIndex)
@@ -105,11 +107,11 @@ class RegParserSolver {
             var quantifier = entries[index].quantifier();
             var loopResult = (ParseLoopResult)null;
             if (quantifier.isPossessive()) {
-                loopResult = parsePossessive(entries, text, offset, index, times, parseResult, typeProvider, tabCount, textLength, quantifier);
+                loopResult = parsePossessive(entries, text, offset, index, times, parseResult, typeProvider, context, tabCount, textLength, quantifier);
             } else if (quantifier.isMaximum()) {
-                loopResult = parseMaximum(entries, text, offset, index, times, parseResult, typeProvider, type, parameter, tabCount, textLength, quantifier);
+                loopResult = parseMaximum(entries, text, offset, index, times, parseResult, typeProvider, type, parameter, context, tabCount, textLength, quantifier);
             } else if (quantifier.isMinimum()) {
-                loopResult = parseMinimum(entries, text, offset, index, times, parseResult, typeProvider, type, parameter, tabCount, quantifier);
+                loopResult = parseMinimum(entries, text, offset, index, times, parseResult, typeProvider, type, parameter, context, tabCount, quantifier);
             }
             
             if (loopResult == ParseLoopResult.MatchedEntry) {
@@ -128,17 +130,8 @@ class RegParserSolver {
         }
         
         // Validate the value here
-        if ((type != null) && type.hasValidation() && !type.isSelfContain()) {
-            var duplicateParseResult = parseResult.duplicate();
-            duplicateParseResult.collapse(typeProvider);
-            
-            var host = (duplicateParseResult instanceof ParseResultNode)
-                     ? ((ParseResultNode) duplicateParseResult).parent()
-                     : null;
-            var isValidated = type.validate(host, duplicateParseResult, parameter, typeProvider);
-            if (!isValidated)
-                return null;
-        }
+        if (!isValid(type, parameter, parseResult, typeProvider))
+            return null;
         
         if (isDebugMode) {
             debugParseFinish(parseResult, tabCount, indentation);
@@ -147,8 +140,22 @@ class RegParserSolver {
         return parseResult;
     }
     
+    /** Validate the result of the type that is not self-contained. @return {@code true} if it is valid. */
+    static boolean isValid(ParserType type, String parameter, ParseResult parseResult, ParserTypeProvider typeProvider) {
+        if ((type == null) || !type.hasValidation() || type.isSelfContain())
+            return true;
+        
+        var duplicateParseResult = parseResult.duplicate();
+        duplicateParseResult.collapse(typeProvider);
+        
+        var host = (duplicateParseResult instanceof ParseResultNode)
+                 ? ((ParseResultNode) duplicateParseResult).parent()
+                 : null;
+        return type.validate(host, duplicateParseResult, parameter, typeProvider);
+    }
+    
     /** Some cases allow use to short cut to some point in the index. */
-    private static Integer findSkipToIndex(RegParserEntry[] entries, int index, int times, int entryCount) {
+    static Integer findSkipToIndex(RegParserEntry[] entries, int index, int times, int entryCount) {
         var entry      = entries[index];
         var quantifier = entry.quantifier();
         // If the current multiple matchings end prematurely
@@ -171,7 +178,7 @@ class RegParserSolver {
         return -1;
     }
     
-    private static boolean isSimpleChecker(RegParserEntry entry) {
+    static boolean isSimpleChecker(RegParserEntry entry) {
         var checker = entry.checker();
         return !(checker instanceof RegParser)
             && !(checker instanceof CheckerAlternative)
@@ -186,6 +193,7 @@ class RegParserSolver {
             int                times,
             ParseResult        parseResult,
             ParserTypeProvider typeProvider,
+            ParseContext       context,
             int                tabCount,
             int                textLength,
             Quantifier         quantifier) {
@@ -195,7 +203,7 @@ class RegParserSolver {
         
         if (quantifier.isOne_Possessive()) { // Match one
             int currentEntryIndex = parseResult.rawEntryCount();
-            var eachResult        = parseEach(entries, text, offset, index, parseResult, typeProvider, tabCount);
+            var eachResult        = parseEach(entries, text, offset, index, parseResult, typeProvider, context, tabCount);
             if (eachResult == null) {
                 // Recover what may have been added in the fail attempt
                 parseResult.reset(currentEntryIndex);
@@ -208,7 +216,7 @@ class RegParserSolver {
         
         if (quantifier.isZero()) { // Match Zero
             int currentEntryIndex = parseResult.rawEntryCount();
-            var eachResult        = parseEach(entries, text, offset, index, parseResult, typeProvider, tabCount);
+            var eachResult        = parseEach(entries, text, offset, index, parseResult, typeProvider, context, tabCount);
             if (eachResult != null) {
                 // Recover what may have been added in the fail attempt
                 parseResult.reset(currentEntryIndex);
@@ -220,7 +228,7 @@ class RegParserSolver {
             if ((entry.name()    != null)
              || (entry.type()    != null)
              || (entry.typeRef() != null)) {
-                parseResult.append(ParseResultEntry.newEntry(offset, entries[index]));
+                parseResult.append(offset, entries[index], null);
             }
             
             // To the next entry, so change the entry index and restart the repeat
@@ -228,30 +236,10 @@ class RegParserSolver {
             
         }
         
-        // Is it any
-        var entry = entries[index];
-        if (entry.checker() == PredefinedCharClasses.Any) {
-            if ((entry.name()    == null)
-             && (entry.type()    == null)
-             && (entry.typeRef() == null)) {
-                // Is this limited - Match till the limit
-                int lowerBound = entry.quantifier().lowerBound();
-                if (offset + lowerBound <= textLength) { // There is enough space for the minimum (the lower bound)
-                    int     upperBound    = entry.quantifier().upperBound();
-                    boolean hasUpperBound = upperBound != -1;
-                    boolean enoughSpace   = hasUpperBound && (offset + upperBound <= textLength);
-                    int     entryLength   = enoughSpace ? (offset + upperBound) : textLength;
-                    var     resultEntry   = newEntry(entryLength);
-                    parseResult.append(resultEntry);
-                    
-                    // To the next entry, so change the entry index and restart the repeat
-                    return MatchedEntry;
-                }
-                
-                // Need more, return as not match
-                return Unmatched;
-            }
-        }
+        // Is it a run of any chars or of a char class -- no need to try one by one
+        var runResult = parseRun(entries, text, offset, index, times, parseResult, textLength, quantifier);
+        if (runResult != null)
+            return runResult;
         
         int savedIndex = parseResult.rawEntryCount();
         
@@ -259,7 +247,7 @@ class RegParserSolver {
         if ((quantifier.hasNoUpperBound()) || (times < quantifier.upperBound())) { // Not yet
             int prevEntryIndex = parseResult.rawEntryCount();
             // Try the first part
-            if (parseEach(entries, text, offset, index, parseResult, typeProvider, tabCount) != null) { // Match
+            if (parseEach(entries, text, offset, index, parseResult, typeProvider, context, tabCount) != null) { // Match
                 // Only the one that advances the parsing
                 int currEntryCount = parseResult.rawEntryCount();
                 if ((prevEntryIndex != currEntryCount) && (offset != parseResult.endPosition())) {
@@ -282,6 +270,75 @@ class RegParserSolver {
         return MatchedEntry;
     }
     
+    /**
+     * Parse a possessive run of any chars or of a char class all at once.
+     * 
+     * @return  the loop result or {@code null} if the entry is not a run.
+     */
+    static ParseLoopResult parseRun(
+            RegParserEntry[] entries,
+            CharSequence     text,
+            int              offset,
+            int              index,
+            int              times,
+            ParseResult      parseResult,
+            int              textLength,
+            Quantifier       quantifier) {
+        // Is it any
+        var entry = entries[index];
+        if (entry.checker() == PredefinedCharClasses.Any) {
+            if ((entry.name()    == null)
+             && (entry.type()    == null)
+             && (entry.typeRef() == null)) {
+                // Is this limited - Match till the limit
+                int lowerBound = entry.quantifier().lowerBound();
+                if (offset + lowerBound <= textLength) { // There is enough space for the minimum (the lower bound)
+                    int     upperBound    = entry.quantifier().upperBound();
+                    boolean hasUpperBound = upperBound != -1;
+                    boolean enoughSpace   = hasUpperBound && (offset + upperBound <= textLength);
+                    int     entryLength   = enoughSpace ? (offset + upperBound) : textLength;
+                    parseResult.append(entryLength, null, null);
+                    
+                    // To the next entry, so change the entry index and restart the repeat
+                    return MatchedEntry;
+                }
+                
+                // Need more, return as not match
+                return Unmatched;
+            }
+        }
+        
+        // Is it a run of chars -- scan it all at once
+        if ((entry.checker()     instanceof CharChecker)
+         && (entry.name()        == null)
+         && (entry.type()        == null)
+         && (entry.typeRef()     == null)
+         && (entry.secondStage() == null)) {
+            var charChecker = (CharChecker)entry.checker();
+            int endPosition = quantifier.hasNoUpperBound()
+                            ? textLength
+                            : (int)Math.min(textLength, (long)offset + quantifier.upperBound() - times);
+            int position    = offset;
+            while ((position < endPosition) && charChecker.inSet(text.charAt(position))) {
+                position++;
+            }
+            
+            // Check if it fail to reach the minimum, return as not found
+            if ((times + position - offset) < quantifier.lowerBound())
+                return Unmatched;
+            
+            // Collapse the run into one entry
+            if (position != offset) {
+                parseResult.append(position, null, null);
+            }
+            
+            // To the next entry, so change the entry index and restart the repeat
+            return MatchedEntry;
+        }
+        
+        return null;
+    }
+    
     private static ParseLoopResult parseMaximum(
             RegParserEntry[]   entries,
             CharSequence       text,
@@ -292,6 +349,7 @@ class RegParserSolver {
             ParserTypeProvider typeProvider,
             ParserType         type,
             String             parameter,
+            ParseContext       context,
             int                tabCount,
             int                textLength,
             Quantifier         quantifier) {
@@ -322,12 +380,12 @@ class RegParserSolver {
                     var checker = checkers[c];
                     // Try the first part
                     var tryResult = newResult(parseResult);
-                    var eachResult = parseEach(entries, text, offset, index, null, null, null, checker, tryResult, typeProvider, tabCount);
+                    var eachResult = parseEach(entries, text, offset, index, null, null, null, checker, tryResult, typeProvider, context, tabCount);
                     if (eachResult != null) {
                         // Match
                         // Try the later part, if not match, continue other alternatives
                         int tryEndPosition = tryResult.endPosition();
-                        var laterResult = parse(entries, text, tryEndPosition, index, times + 1, tryResult, typeProvider, type, parameter, tabCount);
+                        var laterResult = parse(entries, text, tryEndPosition, index, times + 1, tryResult, typeProvider, type, parameter, context, tabCount);
                         if (laterResult == null)
                             continue;
                             
@@ -353,7 +411,7 @@ class RegParserSolver {
                 if (alternativeCheckers.hasDefault()) {
                     int savedIndex = parseResult.rawEntryCount();
                     var defaultChecker = alternativeCheckers.defaultChecker();
-                    var defaultResult = parseEach(entries, text, offset, index, null, null, null, defaultChecker, parseResult, typeProvider, tabCount);
+                    var defaultResult = parseEach(entries, text, offset, index, null, null, null, defaultChecker, parseResult, typeProvider, context, tabCount);
                     if (defaultResult != null) {
                         // Found the match.
                         return MatchedCompletely;
@@ -366,10 +424,10 @@ class RegParserSolver {
             } else {
                 int savedIndex = parseResult.rawEntryCount();
                 // Try the first part
-                var firstResult = parseEach(entries, text, offset, index, parseResult, typeProvider, tabCount);
+                var firstResult = parseEach(entries, text, offset, index, parseResult, typeProvider, context, tabCount);
                 if (firstResult != null) {
                     // Try the first part again. If match, return
-                    var secondResult = parse(entries, text, parseResult.endPosition(), index, times + 1, parseResult, typeProvider, type, parameter, tabCount);
+                    var secondResult = parse(entries, text, parseResult.endPosition(), index, times + 1, parseResult, typeProvider, type, parameter, context, tabCount);
                     if (secondResult != null) {
                         // Found the match.
                         return MatchedCompletely;
@@ -396,6 +454,7 @@ class RegParserSolver {
             ParserTypeProvider typeProvider,
             ParserType         type,
             String             parameter,
+            ParseContext       context,
             int                tabCount,
             Quantifier         quantifier) {
         // NOTE: If Minimum, Check first match until reaching the lower bound, the try
@@ -406,7 +465,7 @@ class RegParserSolver {
             // Try the last part
             int savedIndex = parseResult.rawEntryCount();
             // Parse the last part. If match, return
-            var lastResult = parse(entries, text, offset, index + 1, 0, parseResult, typeProvider, type, parameter, tabCount);
+            var lastResult = parse(entries, text, offset, index + 1, 0, parseResult, typeProvider, type, parameter, context, tabCount);
             if (lastResult != null)
                 return MatchedCompletely;
             
@@ -442,11 +501,11 @@ class RegParserSolver {
                 // Try the first part
                 var newResult = newResult(parseResult);
                 var checker = checkers[c];
-                var tryResult = parseEach(entries, text, offset, index, null, null, null, checker, newResult, typeProvider, tabCount);
+                var tryResult = parseEach(entries, text, offset, index, null, null, null, checker, newResult, typeProvider, context, tabCount);
                 if (tryResult != null) {
                     // Match
                     // Try the later part, if not match, continue other alternatives
-                    var nextResult = parse(entries, text, newResult.endPosition(), index, times + 1, newResult, typeProvider, type, parameter, tabCount);
+                    var nextResult = parse(entries, text, newResult.endPosition(), index, times + 1, newResult, typeProvider, type, parameter, context, tabCount);
                     if (nextResult == null)
                         continue;
                         
@@ -472,7 +531,7 @@ class RegParserSolver {
             if (alternatives.hasDefault()) {
                 int savedIndex     = parseResult.rawEntryCount();
                 var defaultChecker = alternatives.defaultChecker();
-                var defaultResult  = parseEach(entries, text, offset, index, null, null, null, defaultChecker, parseResult, typeProvider, tabCount);
+                var defaultResult  = parseEach(entries, text, offset, index, null, null, null, defaultChecker, parseResult, typeProvider, context, tabCount);
                 if (defaultResult != null) {
                     // Found the match.
                     return MatchedCompletely;
@@ -486,7 +545,7 @@ class RegParserSolver {
         }
         int savedIndex = parseResult.rawEntryCount();
         // Try the first part
-        var firstResult = parseEach(entries, text, offset, index, parseResult, typeProvider, tabCount);
+        var firstResult = parseEach(entries, text, offset, index, parseResult, typeProvider, context, tabCount);
         if (firstResult != null)
             return MatchedOneTime;
         
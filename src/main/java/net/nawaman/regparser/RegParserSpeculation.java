@@ -0,0 +1,308 @@
+/*----------------------------------------------------------------------------------------------------------------------
+ * Copyright (C) 2008-2024 Nawapunth Manusitthipol.
+ *----------------------------------------------------------------------------------------------------------------------
+ * LICENSE:
+ * 
+ * This file is part of Nawa's RegParser.
+ * 
+ * The project is a free software; you can redistribute it and/or modify it under the SIMILAR terms of the GNU General
+ * Public License as published by the Free Software Foundation; either version 2 of the License, or any later version.
+ * You are only required to inform me about your modification and redistribution as or as part of commercial software
+ * package. You can inform me via nawa<at>nawaman<dot>net.
+ * 
+ * The project is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the 
+ * implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ * more details.
+ * ---------------------------------------------------------------------------------------------------------------------
+ */
+package net.nawaman.regparser;
+
+import static java.util.Objects.requireNonNull;
+import static net.nawaman.regparser.result.ParseResult.newResult;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import net.nawaman.regparser.result.ParseResult;
+import net.nawaman.regparser.result.entry.ParseResultEntry;
+
+/**
+ * Parses a large text as the repeat of an item in parallel by speculating where the items start.
+ * 
+ * The parser must start with a possessive repeat with no upper bound (like {@code (statement)*}) that is the top-level
+ *   loop of the parse.
+ * The text is cut into chunks and each chunk guesses that an item starts at the end of the first match of the sync
+ *   parser (like {@code ;}) from its raw start.
+ * The chunks parse the items from their guesses to the guess of the next chunk in parallel.
+ * The chunks are then stitched in order: a chunk whose items include the one that starts where the previous chunk
+ *   ended is taken from that item on; otherwise the items are parsed one by one from there until they meet an item of
+ *   the chunk again.
+ * So only the chunks whose guesses are wrong are parsed again -- and only up to where the parse meets their items.
+ * 
+ * An item is parsed the same wherever the parse starts as long as it does not refer back to the earlier items (like
+ *   with a back reference).
+ * The entries of the items are put together into one result and collapsed once so the result is the same as the one
+ *   of {@link RegParser#parse(CharSequence, ParserTypeProvider)}.
+ * 
+ * @author Nawapunth Manusitthipol (https://github.com/NawaMan)
+ */
+public final class RegParserSpeculation {
+    
+    /** The items parsed by a chunk from its guess. */
+    private static final class Chunk {
+        
+        private final int[]                 starts;
+        private final List<ParseResultEntry> entries;
+        private final int[]                 entryStarts;
+        private final int                   stop;
+        private final int                   end;
+        private final boolean               isFailed;
+        
+        Chunk(int[] starts, List<ParseResultEntry> entries, int[] entryStarts, int stop, int end, boolean isFailed) {
+            this.starts      = starts;
+            this.entries     = entries;
+            this.entryStarts = entryStarts;
+            this.stop        = stop;
+            this.end         = end;
+            this.isFailed    = isFailed;
+        }
+        
+        /** @return  the index of the item that starts at the position or -1 if no item does. */
+        int itemAt(int position) {
+            int index = Arrays.binarySearch(starts, position);
+            return (index >= 0) ? index : -1;
+        }
+    }
+    
+    /** Thrown when an item matches empty -- the parse is left to the solver as the repeat stops differently. */
+    private static final class EmptyItem extends RuntimeException {
+        private static final long serialVersionUID = 7390215843716245021L;
+        static final EmptyItem instance = new EmptyItem();
+        private EmptyItem() {
+            super("Empty item.", null, false, false);
+        }
+    }
+    
+    private final RegParser          parser;
+    private final RegParser          itemParser;
+    private final RegParser          restParser;
+    private final int                lowerBound;
+    private final RegParser          syncParser;
+    private final ParserTypeProvider typeProvider;
+    private final int                chunkLength;
+    
+    private int reparsedCount = 0;
+    
+    private RegParserSpeculation(
+                    RegParser          parser,
+                    RegParser          itemParser,
+                    RegParser          restParser,
+                    int                lowerBound,
+                    RegParser          syncParser,
+                    ParserTypeProvider typeProvider,
+                    int                chunkLength) {
+        this.parser       = parser;
+        this.itemParser   = itemParser;
+        this.restParser   = restParser;
+        this.lowerBound   = lowerBound;
+        this.syncParser   = syncParser;
+        this.typeProvider = typeProvider;
+        this.chunkLength  = chunkLength;
+    }
+    
+    /**
+     * Returns the match of the text parsed in parallel chunks.
+     * 
+     * @param  parser      the parser.
+     * @param  text        the text.
+     * @param  syncParser  the parser whose matches end where an item is likely to start.
+     * @return             the match or null if the text does not start with a match.
+     * @see    #parseParallel(RegParser, CharSequence, RegParser, ParserTypeProvider)
+     */
+    public static ParseResult parseParallel(RegParser parser, CharSequence text, RegParser syncParser) {
+        return parseParallel(parser, text, syncParser, null);
+    }
+    
+    /**
+     * Returns the match of the text parsed in parallel chunks using the type provider.
+     * 
+     * The parser must start with a possessive repeat with no upper bound (like {@code (#Statement:!Statement!)*}) --
+     *   the items of the repeat are parsed in parallel.
+     * The syncParser marks where the items are likely to start (like {@code ;} does for the statements): each chunk
+     *   guesses that an item starts at the end of the first sync match from where it starts.
+     * The chunks are stitched in order and the chunks whose guesses turn out wrong are parsed again from where the
+     *   previous chunk ended -- so a sync match that is not the end of an item (like a {@code ;} in a string) only costs
+     *   the parse of the items of its chunk.
+     * The result is the same as {@link RegParser#parse(CharSequence, ParserTypeProvider)} as long as an item does not
+     *   refer back to the earlier items (like with a back reference).
+     * The parser that does not start with such a repeat is parsed as
+     *   {@link RegParser#parse(CharSequence, ParserTypeProvider)}.
+     * 
+     * @param  parser        the parser.
+     * @param  text          the text.
+     * @param  syncParser    the parser whose matches end where an item is likely to start.
+     * @param  typeProvider  the type provider.
+     * @return               the match or null if the text does not start with a match.
+     */
+    public static ParseResult parseParallel(
+                    RegParser          parser,
+                    CharSequence       text,
+                    RegParser          syncParser,
+                    ParserTypeProvider typeProvider) {
+        if (text == null)
+            return null;
+        
+        int chunkLength = RegParserRecords.chunkLengthOf(text.length());
+        var speculation = of(parser, requireNonNull(syncParser), typeProvider, chunkLength);
+        return (speculation != null)
+                ? speculation.parse(text)
+                : parser.parse(text, typeProvider);
+    }
+    
+    /**
+     * Returns the speculation of the parser or null if the parser does not start with a possessive repeat with no
+     *   upper bound.
+     */
+    static RegParserSpeculation of(RegParser parser, RegParser syncParser, ParserTypeProvider typeProvider, int chunkLength) {
+        var entries = parser.entryArray();
+        if (entries.length == 0)
+            return null;
+        
+        var first      = entries[0];
+        var quantifier = first.quantifier();
+        if ((quantifier == null)
+         || !quantifier.isPossessive()
+         || quantifier.hasUpperBound()
+         || (first.secondStage() != null))
+            return null;
+        
+        var itemParser = new RegParser(new RegParserEntry[] { first.quantifier(Quantifier.One) });
+        var restParser = (entries.length == 1) ? null : new RegParser(Arrays.copyOfRange(entries, 1, entries.length));
+        return new RegParserSpeculation(parser, itemParser, restParser, quantifier.lowerBound(), syncParser, typeProvider, chunkLength);
+    }
+    
+    /** @return  the number of the items parsed again as the guesses of their chunks were wrong. */
+    int reparsedCount() {
+        return reparsedCount;
+    }
+    
+    ParseResult parse(CharSequence text) {
+        int length     = text.length();
+        int chunkCount = Math.max(1, (int)(((long)length + chunkLength - 1) / chunkLength));
+        var chunks     = IntStream.range(0, chunkCount)
+                       .parallel()
+                       .mapToObj(index -> speculate(text, index, chunkCount))
+                       .toArray(Chunk[]::new);
+        try {
+            return stitch(text, chunks);
+        } catch (EmptyItem emptyItem) {
+            return parser.parse(text, typeProvider);
+        }
+    }
+    
+    /** @return  the guess of where an item starts in the chunk -- the end of the text if there is no guess. */
+    private int guessOf(CharSequence text, int index, int chunkCount) {
+        if (index == 0)
+            return 0;
+        if (index >= chunkCount)
+            return text.length();
+        
+        var sync = syncParser.find(text, index*chunkLength, typeProvider);
+        return (sync != null) ? sync.endPosition() : text.length();
+    }
+    
+    private Chunk speculate(CharSequence text, int index, int chunkCount) {
+        int start       = guessOf(text, index,     chunkCount);
+        int stop        = guessOf(text, index + 1, chunkCount);
+        var starts      = new ArrayList<Integer>();
+        var entries     = new ArrayList<ParseResultEntry>();
+        var entryStarts = new ArrayList<Integer>();
+        int position    = start;
+        boolean isFailed = false;
+        try {
+            while (position < stop) {
+                var item = parseItem(text, position);
+                if (item == null) {
+                    isFailed = true;
+                    break;
+                }
+                starts.add(position);
+                entryStarts.add(entries.size());
+                entries.addAll(item.rawEntriesFrom(0));
+                position = item.endPosition();
+            }
+        } catch (EmptyItem emptyItem) {
+            // The guess is likely wrong -- the stitch parses the item again if it is needed.
+            isFailed = true;
+        }
+        var startArray      = starts.stream().mapToInt(Integer::intValue).toArray();
+        var entryStartArray = entryStarts.stream().mapToInt(Integer::intValue).toArray();
+        return new Chunk(startArray, entries, entryStartArray, stop, position, isFailed);
+    }
+    
+    private ParseResult parseItem(CharSequence text, int position) {
+        var item = itemParser.parse(text, position, 0, 0, null, typeProvider, null, null, ParseContext.Default, 0);
+        if ((item != null) && (item.endPosition() == position))
+            throw EmptyItem.instance;
+        
+        return item;
+    }
+    
+    private ParseResult stitch(CharSequence text, Chunk[] chunks) {
+        var     entries   = new ArrayList<ParseResultEntry>();
+        int     itemCount = 0;
+        int     position  = 0;
+        boolean isDone    = false;
+        for (var chunk : chunks) {
+            while (!isDone && (position < chunk.stop)) {
+                int index = chunk.itemAt(position);
+                if (index != -1) {
+                    entries.addAll(chunk.entries.subList(chunk.entryStarts[index], chunk.entries.size()));
+                    itemCount += chunk.starts.length - index;
+                    position   = chunk.end;
+                    isDone     = chunk.isFailed;
+                    break;
+                }
+                
+                reparsedCount++;
+                var item = parseItem(text, position);
+                if (item == null) {
+                    isDone = true;
+                    break;
+                }
+                entries.addAll(item.rawEntriesFrom(0));
+                itemCount++;
+                position = item.endPosition();
+            }
+            if (isDone)
+                break;
+        }
+        if (itemCount < lowerBound)
+            return null;
+        
+        if (restParser != null) {
+            var rest = restParser.parse(text, position, 0, 0, null, typeProvider, null, null, ParseContext.Default, 0);
+            if (rest == null)
+                return null;
+            
+            entries.addAll(rest.rawEntriesFrom(0));
+            position = rest.endPosition();
+        }
+        
+        var parseResult = newResult(0, text);
+        if (parser.automaton() != null) {
+            // A plain parser gives one entry for the whole match.
+            if (position == 0)
+                return parser.parse(text, typeProvider);
+            
+            parseResult.append(position, null, null);
+        } else {
+            parseResult.appendAll(entries);
+        }
+        parseResult.collapse(typeProvider);
+        return parseResult;
+    }
+    
+}
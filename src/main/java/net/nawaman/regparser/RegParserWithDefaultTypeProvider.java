@@ -43,7 +43,9 @@ public class RegParserWithDefaultTypeProvider extends RegParser {
         return regParser;
     }
     
-    private ParserTypeProvider typeProvider = null;
+    private final ParserTypeProvider typeProvider;
+    
+    private transient volatile TypeProviderPair typeProviderPair = null;
     
     RegParserWithDefaultTypeProvider(RegParserEntry[] entries, ParserTypeProvider typeProvider) {
         super(entries);
@@ -60,6 +62,13 @@ public class RegParserWithDefaultTypeProvider extends RegParser {
         return this.typeProvider;
     }
     
+    @Override
+    ParserTypeProvider typeProviderWith(ParserTypeProvider typeProvider) {
+        var pair = TypeProviderPair.of(typeProviderPair, typeProvider, this.typeProvider);
+        typeProviderPair = pair;
+        return pair.provider();
+    }
+    
     // Parse
     
     @Override
@@ -73,9 +82,10 @@ public class RegParserWithDefaultTypeProvider extends RegParser {
             ParserTypeProvider typeProvider,
             ParserType         parserType,
             String             parameter,
+            ParseContext       context,
             int                tabs) {
-        var combinedTypeProvider = ParserTypeProvider.Library.either(typeProvider, this.typeProvider);
-        return super.parse(text, offset, index, times, parseResult, combinedTypeProvider, parserType, parameter, tabs);
+        var combinedTypeProvider = typeProviderWith(typeProvider);
+        return super.parse(text, offset, index, times, parseResult, combinedTypeProvider, parserType, parameter, context, tabs);
     }
     
 }
\ No newline at end of file
@@ -0,0 +1,161 @@
+/*----------------------------------------------------------------------------------------------------------------------
+ * Copyright (C) 2008-2024 Nawapunth Manusitthipol.
+ *----------------------------------------------------------------------------------------------------------------------
+ * LICENSE:
+ * 
+ * This file is part of Nawa's RegParser.
+ * 
+ * The project is a free software; you can redistribute it and/or modify it under the SIMILAR terms of the GNU General
+ * Public License as published by the Free Software Foundation; either version 2 of the License, or any later version.
+ * You are only required to inform me about your modification and redistribution as or as part of commercial software
+ * package. You can inform me via nawa<at>nawaman<dot>net.
+ * 
+ * The project is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the 
+ * implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ * more details.
+ * ---------------------------------------------------------------------------------------------------------------------
+ */
+package net.nawaman.regparser;
+
+import static net.nawaman.regparser.ParserTypeProvider.NO_VERSION;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import net.nawaman.regparser.checkers.CheckerAlternative;
+
+/**
+ * The type of a type reference entry looked up from a provider -- kept by the entry until the provider changes.
+ * 
+ * The link is stamped with the provider and the versions of the provider and of the default provider (the type is
+ *   looked up from the default provider when the provider does not have it).
+ * The type is looked up again when the entry is parsed with another provider or when a version has changed.
+ * The parser and the type with a default provider give the same provider to the parses with the same provider
+ *   (see {@link TypeProviderPair}) so the links are kept across the parses.
+ * The checker of a type without validation is kept as well if the type declares it does not depend on the host result
+ *   (see {@link ParserType#hasFixedChecker()}).
+ * 
+ * @author Nawapunth Manusitthipol (https://github.com/NawaMan)
+ */
+final class TypeLink {
+    
+    /**
+     * Returns the link of the type reference of the entry -- looking the type up if the entry has no valid link.
+     * 
+     * @param  entry         the entry with the type reference (may be {@code null}).
+     * @param  typeRef       the type reference.
+     * @param  typeProvider  the type provider of the parse.
+     * @return               the link of the type or {@code null} if the type cannot be kept by the entry.
+     */
+    static TypeLink linkOf(RegParserEntry entry, ParserTypeRef typeRef, ParserTypeProvider typeProvider) {
+        long version        = (typeProvider != null) ? typeProvider.version() : 0;
+        long defaultVersion = ParserTypeProvider.Simple.defaultProvider().version();
+        boolean isLinkable  = (entry != null)
+                           && (entry.typeRef() == typeRef)
+                           && (version         != NO_VERSION)
+                           && (defaultVersion  != NO_VERSION);
+        if (!isLinkable)
+            return null;
+        
+        var link = entry.typeLink();
+        if ((link != null)
+         && (link.typeProvider   == typeProvider)
+         && (link.version        == version)
+         && (link.defaultVersion == defaultVersion))
+            return link;
+        
+        var type    = RegParserEachSolver.typeOf(typeRef, typeProvider);
+        var checker = fixedCheckerOf(type, typeRef.parameter(), typeProvider);
+        link = new TypeLink(typeProvider, version, defaultVersion, type, checker);
+        entry.typeLink(link);
+        return link;
+    }
+    
+    /**
+     * Links the type references of the parser, of the parsers nested in it and of the types it refers to.
+     * 
+     * @param  parser        the parser.
+     * @param  typeProvider  the type provider the parser will be parsed with.
+     */
+    static void link(RegParser parser, ParserTypeProvider typeProvider) {
+        link((Checker)parser, typeProvider, new IdentityHashMap<>());
+    }
+    
+    private static void link(Checker checker, ParserTypeProvider typeProvider, Map<Object, Object> visiteds) {
+        if ((checker == null)
+         || (visiteds.put(checker, checker) != null))
+            return;
+        
+        if (checker instanceof RegParser) {
+            // The nested parser is parsed with its own default provider as well -- see RegParserWithDefaultTypeProvider.
+            var regParser      = (RegParser)checker;
+            var parserProvider = regParser.typeProviderWith(typeProvider);
+            for (var entry : regParser.entryArray()) {
+                link(entry, parserProvider, visiteds);
+            }
+        } else if (checker instanceof CheckerAlternative) {
+            var alternative = (CheckerAlternative)checker;
+            alternative.checkers().forEach(each -> link(each, typeProvider, visiteds));
+            link(alternative.defaultChecker(), typeProvider, visiteds);
+        }
+    }
+    
+    private static void link(RegParserEntry entry, ParserTypeProvider typeProvider, Map<Object, Object> visiteds) {
+        if (entry == null)
+            return;
+        
+        var typeRef = entry.typeRef();
+        var type    = entry.type();
+        if (typeRef != null) {
+            var typeLink = linkOf(entry, typeRef, typeProvider);
+            var refType  = (typeLink != null) ? typeLink.type() : RegParserEachSolver.typeOf(typeRef, typeProvider);
+            link(fixedCheckerOf(refType, typeRef.parameter(), typeProvider), typeProvider, visiteds);
+        } else if (type != null) {
+            link(fixedCheckerOf(type, null, typeProvider), typeProvider, visiteds);
+        }
+        
+        link(entry.checker(),     typeProvider, visiteds);
+        link(entry.secondStage(), typeProvider, visiteds);
+    }
+    
+    /** @return  the checker of the type if it can be kept -- the type has no validation and its checker is fixed. */
+    private static Checker fixedCheckerOf(ParserType type, String parameter, ParserTypeProvider typeProvider) {
+        if (type.hasValidation()
+         || !type.hasFixedChecker())
+            return null;
+        
+        return type.checker(null, parameter, typeProvider);
+    }
+    
+    //== Instance ======================================================================================================
+    
+    private final ParserTypeProvider typeProvider;
+    private final long               version;
+    private final long               defaultVersion;
+    private final ParserType         type;
+    private final Checker            checker;
+    
+    private TypeLink(
+            ParserTypeProvider typeProvider,
+            long               version,
+            long               defaultVersion,
+            ParserType         type,
+            Checker            checker) {
+        this.typeProvider   = typeProvider;
+        this.version        = version;
+        this.defaultVersion = defaultVersion;
+        this.type           = type;
+        this.checker        = checker;
+    }
+    
+    /** @return  the type. */
+    ParserType type() {
+        return type;
+    }
+    
+    /** @return  the checker of the type or {@code null} if it must be asked from the type on each parse. */
+    Checker checker() {
+        return checker;
+    }
+    
+}
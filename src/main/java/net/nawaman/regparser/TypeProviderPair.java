@@ -0,0 +1,64 @@
+/*----------------------------------------------------------------------------------------------------------------------
+ * Copyright (C) 2008-2024 Nawapunth Manusitthipol.
+ *----------------------------------------------------------------------------------------------------------------------
+ * LICENSE:
+ * 
+ * This file is part of Nawa's RegParser.
+ * 
+ * The project is a free software; you can redistribute it and/or modify it under the SIMILAR terms of the GNU General
+ * Public License as published by the Free Software Foundation; either version 2 of the License, or any later version.
+ * You are only required to inform me about your modification and redistribution as or as part of commercial software
+ * package. You can inform me via nawa<at>nawaman<dot>net.
+ * 
+ * The project is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the 
+ * implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ * more details.
+ * ---------------------------------------------------------------------------------------------------------------------
+ */
+package net.nawaman.regparser;
+
+/**
+ * The provider a parser or a type parses with -- the provider given to the parse with its default provider.
+ * 
+ * The parser (or the type) keeps the last of these so the parses with the same provider are given the same library
+ *   instead of a new one each time -- the type links of the entries are kept by the provider they are looked up from
+ *   (see {@link TypeLink}).
+ * 
+ * @author Nawapunth Manusitthipol (https://github.com/NawaMan)
+ */
+final class TypeProviderPair {
+    
+    /**
+     * Returns the pair of the providers -- the given pair if it is of the same providers.
+     * 
+     * @param  pair             the pair kept so far (may be {@code null}).
+     * @param  typeProvider     the type provider given to the parse.
+     * @param  defaultProvider  the default type provider of the parser or the type.
+     * @return                  the pair of the providers.
+     */
+    static TypeProviderPair of(TypeProviderPair pair, ParserTypeProvider typeProvider, ParserTypeProvider defaultProvider) {
+        if ((pair != null)
+         && (pair.typeProvider    == typeProvider)
+         && (pair.defaultProvider == defaultProvider))
+            return pair;
+        
+        var provider = ParserTypeProvider.Library.either(typeProvider, defaultProvider);
+        return new TypeProviderPair(typeProvider, defaultProvider, provider);
+    }
+    
+    private final ParserTypeProvider typeProvider;
+    private final ParserTypeProvider defaultProvider;
+    private final ParserTypeProvider provider;
+    
+    private TypeProviderPair(ParserTypeProvider typeProvider, ParserTypeProvider defaultProvider, ParserTypeProvider provider) {
+        this.typeProvider    = typeProvider;
+        this.defaultProvider = defaultProvider;
+        this.provider        = provider;
+    }
+    
+    /** @return  the provider to parse with -- the one of both providers. */
+    ParserTypeProvider provider() {
+        return provider;
+    }
+    
+}
@@ -59,4 +59,14 @@ abstract public class CharChecker implements Checker {
     public Checker optimize() {
         return this;
     }
+    
+    /**
+     * Returns the chars of this checker as sorted non-overlapping inclusive ranges ({@code [start0, end0, start1, ...]})
+     *   or {@code null} if the chars cannot be enumerated.
+     * 
+     * The ranges are used to build the lookup table of the checker (see {@link CharTable}).
+     **/
+    int[] charRanges() {
+        return null;
+    }
 }
@@ -18,6 +18,7 @@
 
 package net.nawaman.regparser.checkers;
 
+import java.util.Arrays;
 import java.util.regex.Pattern;
 
 import net.nawaman.regparser.Checker;
@@ -27,6 +28,8 @@ import net.nawaman.regparser.result.ParseResult;
 /**
  * Checker that is associated with Java Pattern Character set.
  * 
+ * The Java character class is resolved into a char table on the first use so checking a char does not run the regex.
+ * 
  * @author Nawapunth Manusitthipol (https://github.com/NawaMan)
  */
 public final class CharClass extends CharChecker {
@@ -36,8 +39,10 @@ public final class CharClass extends CharChecker {
     private final String className;
     private final String javaCharClass;
     
-    private Pattern patternSingle   = null;
-    private Pattern patternMultiple = null;
+    private Pattern patternSingle = null;
+    
+    private transient volatile int[]       ranges = null;
+    private transient volatile CharChecker table  = null;
     
     public CharClass(String javaCharClass, String className) {
         this.javaCharClass = javaCharClass;
@@ -51,18 +56,46 @@ public final class CharClass extends CharChecker {
         return patternSingle;
     }
     
-    private Pattern getJavaCharacterClassPatternMultiple() {
-        if (patternMultiple == null) {
-            patternMultiple = Pattern.compile(javaCharClass + "+", Pattern.DOTALL);
+    private CharChecker table() {
+        var table = this.table;
+        if (table == null) {
+            table      = CharTable.of(this);
+            this.table = table;
+        }
+        return table;
+    }
+    
+    @Override
+    int[] charRanges() {
+        var ranges = this.ranges;
+        if (ranges == null) {
+            // Run the pattern against every char once -- reusing the matcher.
+            var matcher = getJavaCharacterClassPatternSingle().matcher("");
+            var buffer  = new int[64];
+            int size    = 0;
+            int start   = -1;
+            for (int c = 0; c <= (Character.MAX_VALUE + 1); c++) {
+                boolean isInSet = (c <= Character.MAX_VALUE) && matcher.reset(String.valueOf((char)c)).find();
+                if (isInSet && (start == -1)) {
+                    start = c;
+                } else if (!isInSet && (start != -1)) {
+                    if ((size + 2) > buffer.length) {
+                        buffer = Arrays.copyOf(buffer, buffer.length*2);
+                    }
+                    buffer[size++] = start;
+                    buffer[size++] = c - 1;
+                    start = -1;
+                }
+            }
+            ranges      = Arrays.copyOf(buffer, size);
+            this.ranges = ranges;
         }
-        return patternMultiple;
+        return ranges;
     }
     
     @Override
     public boolean inSet(char c) {
-        var pattern = getJavaCharacterClassPatternSingle();
-        var matcher = pattern.matcher(new StringBuffer().append(c));
-        return matcher.find();
+        return table().inSet(c);
     }
     
     @Override
@@ -70,14 +103,7 @@ public final class CharClass extends CharChecker {
         if (offset >= text.length())
             return -1;
         
-        var  pattern = getJavaCharacterClassPatternMultiple();
-        char ch      = text.charAt(offset);
-        var  matcher = pattern.matcher(new StringBuffer().append(ch));
-        if (!matcher.find()
-         || (matcher.start() != 0))
-            return -1;
-        
-        return (matcher.end() < 0) ? -1 : matcher.end();
+        return table().inSet(text.charAt(offset)) ? 1 : -1;
     }
     
     @Override
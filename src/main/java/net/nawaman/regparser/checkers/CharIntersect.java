@@ -46,7 +46,7 @@ public final class CharIntersect extends CharChecker {
         int     checkerCount    = charCheckers.length;
         boolean isDeterministic = true;
         for (int i = 0; i < checkerCount; i++) {
-            var charChecker = charCheckers[i];
+            var charChecker = CharTable.sourceOf(charCheckers[i], CharIntersect.class);
             if (charChecker == null)
                 continue;
             
@@ -60,8 +60,7 @@ public final class CharIntersect extends CharChecker {
                     checkers.add(checker);
                 }
             } else {
-                var checker = charCheckers[i];
-                checkers.add(checker);
+                checkers.add(charChecker);
             }
         }
         // Generate the array
@@ -82,6 +81,19 @@ public final class CharIntersect extends CharChecker {
         return true;
     }
     
+    @Override
+    int[] charRanges() {
+        var ranges = CharTable.AllRanges;
+        for (var charChecker : charCheckers) {
+            var checkerRanges = charChecker.charRanges();
+            if (checkerRanges == null)
+                return null;
+            
+            ranges = CharTable.intersect(ranges, checkerRanges);
+        }
+        return ranges;
+    }
+    
     @Override
     public final Boolean isDeterministic() {
         return isDeterministic;
@@ -133,9 +145,9 @@ public final class CharIntersect extends CharChecker {
     @Override
     public Checker optimize() {
         if (charCheckers.length == 1) {
-            return charCheckers[0];
+            return charCheckers[0].optimize();
         }
-        return this;
+        return CharTable.of(this);
     }
     
 }
@@ -36,6 +36,7 @@ public final class CharNot extends CharChecker {
     /** Construct a character range */
     public CharNot(CharChecker charChecker) {
         requireNonNull(charChecker);
+        charChecker = CharTable.sourceOf(charChecker, CharNot.class);
         this.charChecker = (charChecker instanceof CharNot)
                          ? ((CharNot)charChecker).charChecker
                          : charChecker;
@@ -47,6 +48,12 @@ public final class CharNot extends CharChecker {
         return !charChecker.inSet(c);
     }
     
+    @Override
+    int[] charRanges() {
+        var ranges = charChecker.charRanges();
+        return (ranges != null) ? CharTable.complement(ranges) : null;
+    }
+    
     @Override
     public final Boolean isDeterministic() {
         return true;
@@ -79,7 +86,7 @@ public final class CharNot extends CharChecker {
         if (charChecker instanceof CharNot)
             return ((CharNot)charChecker).charChecker;
         
-        return this;
+        return CharTable.of(this);
     }
     
 }
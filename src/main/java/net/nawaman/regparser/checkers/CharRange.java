@@ -44,6 +44,11 @@ public final class CharRange extends CharChecker {
             && (c <= endChar);
     }
     
+    @Override
+    int[] charRanges() {
+        return new int[] { startChar, endChar };
+    }
+    
     @Override
     public final Boolean isDeterministic() {
         return true;
@@ -22,6 +22,8 @@ import static net.nawaman.regparser.EscapeHelpers.escapeOfRegParser;
 
 import java.util.HashSet;
 
+import net.nawaman.regparser.Checker;
+
 /**
  * Checker form a set of character (represented by a string)
  *
@@ -45,11 +47,27 @@ public final class CharSet extends CharChecker {
         return (set.indexOf(c) != -1);
     }
     
+    @Override
+    int[] charRanges() {
+        var ranges = new int[set.length()*2];
+        for (int i = 0; i < set.length(); i++) {
+            ranges[i*2]     = set.charAt(i);
+            ranges[i*2 + 1] = set.charAt(i);
+        }
+        return CharTable.normalize(ranges);
+    }
+    
     @Override
     public final Boolean isDeterministic() {
         return true;
     }
     
+    /** Return the optimized version of this Checker */
+    @Override
+    public Checker optimize() {
+        return CharTable.of(this);
+    }
+    
     @Override
     public String toString() {
         var escapeOfRegParser = escapeOfRegParser(this.set);
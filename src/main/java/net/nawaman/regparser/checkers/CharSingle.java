@@ -48,6 +48,11 @@ public final class CharSingle extends CharChecker {
         return (c == this.ch);
     }
     
+    @Override
+    int[] charRanges() {
+        return new int[] { ch, ch };
+    }
+    
     @Override
     public final Boolean isDeterministic() {
         return true;
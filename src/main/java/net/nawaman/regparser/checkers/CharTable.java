@@ -0,0 +1,267 @@
+/*----------------------------------------------------------------------------------------------------------------------
+ * Copyright (C) 2008-2024 Nawapunth Manusitthipol.
+ *----------------------------------------------------------------------------------------------------------------------
+ * LICENSE:
+ * 
+ * This file is part of Nawa's RegParser.
+ * 
+ * The project is a free software; you can redistribute it and/or modify it under the SIMILAR terms of the GNU General
+ * Public License as published by the Free Software Foundation; either version 2 of the License, or any later version.
+ * You are only required to inform me about your modification and redistribution as or as part of commercial software
+ * package. You can inform me via nawa<at>nawaman<dot>net.
+ * 
+ * The project is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the 
+ * implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ * more details.
+ * ---------------------------------------------------------------------------------------------------------------------
+ */
+package net.nawaman.regparser.checkers;
+
+import java.util.Arrays;
+
+import net.nawaman.regparser.Checker;
+import net.nawaman.regparser.ParserTypeProvider;
+import net.nawaman.regparser.result.ParseResult;
+
+/**
+ * Char checker that looks up a precomputed table of the chars of another char checker.
+ * 
+ * The ASCII chars are looked up from a 128-bit bitmap and the rest are binary searched from a sorted range array.
+ * The table is only the faster form of the source checker so it shows as the source and equals the tables of an
+ *   equal source.
+ * 
+ * @author Nawapunth Manusitthipol (https://github.com/NawaMan)
+ */
+public final class CharTable extends CharChecker {
+    
+    private static final long serialVersionUID = 3546813546813546813L;
+    
+    /** The range of all the chars. */
+    static final int[] AllRanges = new int[] { 0, Character.MAX_VALUE };
+    
+    /** The range of no char. */
+    static final int[] NoRanges = new int[0];
+    
+    /**
+     * Returns the table of the chars in the given checker or the checker itself if its chars cannot be enumerated.
+     * 
+     * @param  source  the char checker.
+     * @return         the table or the source.
+     */
+    public static CharChecker of(CharChecker source) {
+        if ((source == null)
+         || (source instanceof CharTable))
+            return source;
+        
+        var ranges = source.charRanges();
+        if (ranges == null)
+            return source;
+        
+        return new CharTable(source, ranges);
+    }
+    
+    /**
+     * Returns the source of the given checker if it is a table of the given kind of checker.
+     * 
+     * This allows the composite checkers to combine with the tables of the same kind as they do with the source.
+     **/
+    static CharChecker sourceOf(CharChecker checker, Class<? extends CharChecker> kind) {
+        if ((checker instanceof CharTable)
+         && kind.isInstance(((CharTable)checker).source))
+            return ((CharTable)checker).source;
+        
+        return checker;
+    }
+    
+    private final CharChecker source;
+    private final long        asciiLow;
+    private final long        asciiHigh;
+    private final char[]      ranges;
+    
+    private CharTable(CharChecker source, int[] ranges) {
+        this.source = source;
+        
+        long low  = 0L;
+        long high = 0L;
+        for (int i = 0; i < ranges.length; i += 2) {
+            int end = Math.min(ranges[i + 1], 127);
+            for (int c = ranges[i]; c <= end; c++) {
+                if (c < 64) {
+                    low  |= (1L << c);
+                } else {
+                    high |= (1L << (c - 64));
+                }
+            }
+        }
+        this.asciiLow  = low;
+        this.asciiHigh = high;
+        
+        this.ranges = new char[ranges.length];
+        for (int i = 0; i < ranges.length; i++) {
+            this.ranges[i] = (char)ranges[i];
+        }
+    }
+    
+    /** @return  the checker this table is made from. */
+    public CharChecker source() {
+        return source;
+    }
+    
+    /** @return  the sorted non-overlapping inclusive ranges of the chars as pairs of [start, end]. */
+    public int[] ranges() {
+        var charRanges = new int[ranges.length];
+        for (int i = 0; i < ranges.length; i++) {
+            charRanges[i] = ranges[i];
+        }
+        return charRanges;
+    }
+    
+    @Override
+    public boolean inSet(char c) {
+        if (c < 64)
+            return ((asciiLow >>> c) & 1L) != 0;
+        if (c < 128)
+            return ((asciiHigh >>> (c - 64)) & 1L) != 0;
+        
+        // Find the last range that starts at or before c.
+        int low  = 0;
+        int high = (ranges.length >>> 1) - 1;
+        while (low <= high) {
+            int mid   = (low + high) >>> 1;
+            int start = ranges[mid << 1];
+            if (start > c) {
+                high = mid - 1;
+            } else if (ranges[(mid << 1) + 1] < c) {
+                low = mid + 1;
+            } else {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    @Override
+    public int startLengthOf(CharSequence text, int offset, ParserTypeProvider typeProvider, ParseResult parseResult) {
+        if ((offset < 0)
+         || (offset >= text.length()))
+            return -1;
+        
+        return inSet(text.charAt(offset)) ? 1 : -1;
+    }
+    
+    @Override
+    int[] charRanges() {
+        return ranges();
+    }
+    
+    @Override
+    public final Boolean isDeterministic() {
+        return true;
+    }
+    
+    @Override
+    public Checker optimize() {
+        return this;
+    }
+    
+    @Override
+    public String toString() {
+        return source.toString();
+    }
+    
+    @Override
+    public boolean equals(Object O) {
+        if (O == this)
+            return true;
+        
+        // Only another table -- a table equal to its source would not be equal the other way around.
+        if (!(O instanceof CharTable))
+            return false;
+        
+        return source.equals(((CharTable)O).source);
+    }
+    
+    @Override
+    public int hashCode() {
+        return source.hashCode();
+    }
+    
+    //== Range algebra =================================================================================================
+    // The ranges are sorted non-overlapping inclusive pairs of [start, end].
+    
+    /** Sorts and merges the ranges. */
+    static int[] normalize(int[] ranges) {
+        int count = ranges.length >>> 1;
+        if (count == 0)
+            return NoRanges;
+        
+        var pairs = new long[count];
+        for (int i = 0; i < count; i++) {
+            pairs[i] = ((long)ranges[i << 1] << 32) | ranges[(i << 1) + 1];
+        }
+        Arrays.sort(pairs);
+        
+        var merged = new int[ranges.length];
+        int size   = 0;
+        for (var pair : pairs) {
+            int start = (int)(pair >>> 32);
+            int end   = (int)pair;
+            if ((size != 0) && (start <= merged[size - 1] + 1)) {
+                merged[size - 1] = Math.max(merged[size - 1], end);
+            } else {
+                merged[size++] = start;
+                merged[size++] = end;
+            }
+        }
+        return Arrays.copyOf(merged, size);
+    }
+    
+    /** Returns the union of the two normalized ranges. */
+    static int[] union(int[] first, int[] second) {
+        var ranges = Arrays.copyOf(first, first.length + second.length);
+        System.arraycopy(second, 0, ranges, first.length, second.length);
+        return normalize(ranges);
+    }
+    
+    /** Returns the intersection of the two normalized ranges. */
+    static int[] intersect(int[] first, int[] second) {
+        var ranges = new int[first.length + second.length];
+        int size   = 0;
+        int i      = 0;
+        int j      = 0;
+        while ((i < first.length) && (j < second.length)) {
+            int start = Math.max(first[i],     second[j]);
+            int end   = Math.min(first[i + 1], second[j + 1]);
+            if (start <= end) {
+                ranges[size++] = start;
+                ranges[size++] = end;
+            }
+            if (first[i + 1] < second[j + 1]) {
+                i += 2;
+            } else {
+                j += 2;
+            }
+        }
+        return Arrays.copyOf(ranges, size);
+    }
+    
+    /** Returns the complement of the normalized ranges. */
+    static int[] complement(int[] ranges) {
+        var complement = new int[ranges.length + 2];
+        int size       = 0;
+        int next       = 0;
+        for (int i = 0; i < ranges.length; i += 2) {
+            if (ranges[i] > next) {
+                complement[size++] = next;
+                complement[size++] = ranges[i] - 1;
+            }
+            next = ranges[i + 1] + 1;
+        }
+        if (next <= Character.MAX_VALUE) {
+            complement[size++] = next;
+            complement[size++] = Character.MAX_VALUE;
+        }
+        return Arrays.copyOf(complement, size);
+    }
+    
+}
@@ -44,7 +44,7 @@ public final class CharUnion extends CharChecker {
         var     list            = new ArrayList<CharChecker>();
         boolean isDeterministic = true;
         for (int i = 0; i < charCheckers.length; i++) {
-            var charChecker = charCheckers[i];
+            var charChecker = CharTable.sourceOf(charCheckers[i], CharUnion.class);
             if (charChecker == null)
                 continue;
             
@@ -56,7 +56,7 @@ public final class CharUnion extends CharChecker {
                     list.add(charUnion.charCheckers[c]);
                 }
             } else {
-                list.add(charCheckers[i]);
+                list.add(charChecker);
             }
         }
         // Generate the array
@@ -79,6 +79,19 @@ public final class CharUnion extends CharChecker {
         return false;
     }
     
+    @Override
+    int[] charRanges() {
+        var ranges = CharTable.NoRanges;
+        for (var charChecker : charCheckers) {
+            var checkerRanges = charChecker.charRanges();
+            if (checkerRanges == null)
+                return null;
+            
+            ranges = CharTable.union(ranges, checkerRanges);
+        }
+        return ranges;
+    }
+    
     @Override
     public final Boolean isDeterministic() {
         return isDeterministic;
@@ -128,8 +141,8 @@ public final class CharUnion extends CharChecker {
     @Override
     public Checker optimize() {
         if (charCheckers.length == 1)
-            return charCheckers[0];
+            return charCheckers[0].optimize();
         
-        return this;
+        return CharTable.of(this);
     }
 }
@@ -20,6 +20,7 @@ package net.nawaman.regparser.checkers;
 
 import static java.util.Objects.hash;
 
+import java.util.AbstractList;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
@@ -114,6 +115,9 @@ public class CheckerAlternative implements Checker {
     private final Checker[] checkers;
     private final boolean   isDeterministic;
     
+    /** The dispatch of the alternatives by their first chars -- built on the first use. */
+    private transient volatile FirstCharDispatch dispatch;
+    
     /** Constructs a char set */
     public CheckerAlternative(AsChecker... checkers) {
         this(false, checkers);
@@ -147,8 +151,9 @@ public class CheckerAlternative implements Checker {
         this.checkers = new Checker[list.size()];
         for (int i = 0; i < list.size(); i++) {
             var checker = list.get(i);
-            if (checker instanceof RegParser) {
-                checker = ((RegParser)checker).optimize();
+            if ((checker instanceof RegParser)
+             || (checker instanceof CharChecker)) {
+                checker = checker.optimize();
             }
             this.checkers[i] = checker;
         }
@@ -169,8 +174,9 @@ public class CheckerAlternative implements Checker {
     
     @Override
     public int startLengthOf(CharSequence text, int offset, ParserTypeProvider typeProvider, ParseResult parseResult) {
-        for (int i = checkers.length; --i >= 0;) {
-            var checker = checkers[i];
+        var candidates = dispatch().candidatesAt(text, offset);
+        for (int i = candidates.length; --i >= 0;) {
+            var checker = checkers[candidates[i]];
             int index   = checker.startLengthOf(text, offset, typeProvider, parseResult);
             if (index != -1)
                 return index;
@@ -199,6 +205,54 @@ public class CheckerAlternative implements Checker {
         }
     }
     
+    /**
+     * Performs the action on the alternatives that may match the text at the offset in reverse order.
+     * 
+     * The alternatives that cannot start with the char at the offset are skipped (see {@link FirstCharDispatch}).
+     * 
+     * @param  text    the text.
+     * @param  offset  the offset.
+     * @param  action  the action.
+     */
+    public void forEachInReverse(CharSequence text, int offset, Consumer<Checker> action) {
+        var candidates = dispatch().candidatesAt(text, offset);
+        for (int i = candidates.length; --i >= 0;) {
+            action.accept(checkers[candidates[i]]);
+        }
+    }
+    
+    /**
+     * Returns the alternatives that may match the text at the offset in their order.
+     * 
+     * The alternatives that cannot start with the char at the offset are left out (see {@link FirstCharDispatch}).
+     * 
+     * @param  text    the text.
+     * @param  offset  the offset.
+     * @return         the candidate alternatives.
+     */
+    public List<Checker> candidatesAt(CharSequence text, int offset) {
+        var candidates = dispatch().candidatesAt(text, offset);
+        return new AbstractList<Checker>() {
+            @Override
+            public Checker get(int index) {
+                return checkers[candidates[index]];
+            }
+            @Override
+            public int size() {
+                return candidates.length;
+            }
+        };
+    }
+    
+    private FirstCharDispatch dispatch() {
+        var dispatch = this.dispatch;
+        if (dispatch == null) {
+            dispatch      = FirstCharDispatch.of(checkers);
+            this.dispatch = dispatch;
+        }
+        return dispatch;
+    }
+    
     @Override
     public final Boolean isDeterministic() {
         return isDeterministic;
@@ -18,8 +18,8 @@
 
 package net.nawaman.regparser.checkers;
 
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import net.nawaman.regparser.Checker;
 import net.nawaman.regparser.ParserTypeProvider;
@@ -34,7 +34,7 @@ public final class CheckerAny implements Checker {
     
     private static final long serialVersionUID = 1468541215412541527L;
     
-    static Map<Integer, CheckerAny> checkerAnys = new HashMap<Integer, CheckerAny>();
+    static Map<Integer, CheckerAny> checkerAnys = new ConcurrentHashMap<Integer, CheckerAny>();
     
     private final int length;
     
@@ -44,11 +44,9 @@ public final class CheckerAny implements Checker {
             length = -1;
         }
         var checkerAny = checkerAnys.get(length);
-        if (checkerAny == null) {
-            checkerAny = new CheckerAny(length);
-            checkerAnys.put(length, checkerAny);
-        }
-        return checkerAny;
+        return (checkerAny != null)
+                ? checkerAny
+                : checkerAnys.computeIfAbsent(length, CheckerAny::new);
     }
     
     CheckerAny(int length) {
@@ -0,0 +1,187 @@
+/*----------------------------------------------------------------------------------------------------------------------
+ * Copyright (C) 2008-2024 Nawapunth Manusitthipol.
+ *----------------------------------------------------------------------------------------------------------------------
+ * LICENSE:
+ * 
+ * This file is part of Nawa's RegParser.
+ * 
+ * The project is a free software; you can redistribute it and/or modify it under the SIMILAR terms of the GNU General
+ * Public License as published by the Free Software Foundation; either version 2 of the License, or any later version.
+ * You are only required to inform me about your modification and redistribution as or as part of commercial software
+ * package. You can inform me via nawa<at>nawaman<dot>net.
+ * 
+ * The project is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the 
+ * implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ * more details.
+ * ---------------------------------------------------------------------------------------------------------------------
+ */
+package net.nawaman.regparser.checkers;
+
+import static java.util.stream.Collectors.toCollection;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.function.Predicate;
+
+import net.nawaman.regparser.Checker;
+import net.nawaman.regparser.RegParser;
+import net.nawaman.regparser.RegParserEntry;
+
+/**
+ * Dispatch of the alternatives by the char they start with.
+ * 
+ * The chars an alternative may start with are found from its char checkers, words, word sets, alternatives and the first
+ *   entries of its parsers.
+ * The alternative whose first chars cannot be found (like the typed one or the one that may match empty) is always a
+ *   candidate.
+ * The other alternatives cannot match where the text does not start with one of their first chars (nor at the end of
+ *   the text) so they are not tried there.
+ * 
+ * @author Nawapunth Manusitthipol (https://github.com/NawaMan)
+ */
+public final class FirstCharDispatch {
+    
+    private static final int ASCII_COUNT = 128;
+    
+    /**
+     * Returns the chars that the match of the checker must start with.
+     * 
+     * @param  checker  the checker.
+     * @return          the first chars or null if they cannot be found (or the checker may match empty).
+     */
+    public static CharChecker firstCharsOf(Checker checker) {
+        if (checker instanceof CharChecker)
+            return (CharChecker)checker;
+        
+        if (checker instanceof WordChecker) {
+            var word = ((WordChecker)checker).word();
+            return word.isEmpty() ? null : new CharSingle(word.charAt(0));
+        }
+        
+        if (checker instanceof WordSetChecker) {
+            // The case-folded chars cannot be listed.
+            var wordSet = (WordSetChecker)checker;
+            return wordSet.isCaseSensitive()
+                    ? unionOf(wordSet.words().map(word -> (CharChecker)new CharSingle(word.charAt(0))).collect(toCollection(ArrayList::new)))
+                    : null;
+        }
+        
+        if (checker instanceof CheckerAlternative) {
+            var alternative = (CheckerAlternative)checker;
+            var firstChars  = new ArrayList<CharChecker>();
+            for (var each : alternative.checkers().toArray(Checker[]::new)) {
+                var eachFirstChars = firstCharsOf(each);
+                if (eachFirstChars == null)
+                    return null;
+                
+                firstChars.add(eachFirstChars);
+            }
+            if (alternative.hasDefault()) {
+                var defaultFirstChars = firstCharsOf(alternative.defaultChecker());
+                if (defaultFirstChars == null)
+                    return null;
+                
+                firstChars.add(defaultFirstChars);
+            }
+            return unionOf(firstChars);
+        }
+        
+        if (checker instanceof RegParser) {
+            // The optional entries up to the first required one may all start the match.
+            var firstChars = new ArrayList<CharChecker>();
+            for (var entry : ((RegParser)checker).entries().toArray(RegParserEntry[]::new)) {
+                if ((entry.type()    != null)
+                 || (entry.typeRef() != null)
+                 || (entry.checker() == null))
+                    return null;
+                
+                var entryFirstChars = firstCharsOf(entry.checker());
+                if (entryFirstChars == null)
+                    return null;
+                
+                firstChars.add(entryFirstChars);
+                if (entry.quantifier().lowerBound() > 0)
+                    return unionOf(firstChars);
+            }
+            return null;
+        }
+        return null;
+    }
+    
+    private static CharChecker unionOf(ArrayList<CharChecker> charCheckers) {
+        if (charCheckers.isEmpty())
+            return null;
+        
+        return (charCheckers.size() == 1)
+                ? charCheckers.get(0)
+                : CharTable.of(new CharUnion(charCheckers.toArray(CharChecker[]::new)));
+    }
+    
+    /**
+     * Returns the dispatch of the alternatives.
+     * 
+     * @param  alternatives  the alternatives.
+     * @return               the dispatch.
+     */
+    static FirstCharDispatch of(Checker[] alternatives) {
+        var firstChars = new CharChecker[alternatives.length];
+        for (int i = 0; i < alternatives.length; i++) {
+            firstChars[i] = firstCharsOf(alternatives[i]);
+        }
+        return new FirstCharDispatch(firstChars);
+    }
+    
+    private final CharChecker[] firstChars;
+    private final int[]         all;
+    private final int[]         atEnd;
+    private final int[][]       asciiCandidates;
+    
+    private FirstCharDispatch(CharChecker[] firstChars) {
+        this.firstChars = firstChars;
+        
+        all = new int[firstChars.length];
+        for (int i = 0; i < firstChars.length; i++) {
+            all[i] = i;
+        }
+        atEnd = candidates(c -> false);
+        
+        asciiCandidates = new int[ASCII_COUNT][];
+        for (int c = 0; c < ASCII_COUNT; c++) {
+            char ch = (char)c;
+            asciiCandidates[c] = candidates(charChecker -> charChecker.inSet(ch));
+        }
+    }
+    
+    private int[] candidates(Predicate<CharChecker> isCandidate) {
+        var candidates = new int[firstChars.length];
+        int count      = 0;
+        for (int i = 0; i < firstChars.length; i++) {
+            var charChecker = firstChars[i];
+            if ((charChecker == null) || isCandidate.test(charChecker)) {
+                candidates[count++] = i;
+            }
+        }
+        return (count == all.length) ? all : Arrays.copyOf(candidates, count);
+    }
+    
+    /**
+     * Returns the indexes (in order) of the alternatives that may match the text at the offset.
+     * 
+     * @param  text    the text.
+     * @param  offset  the offset.
+     * @return         the indexes of the alternatives.
+     */
+    int[] candidatesAt(CharSequence text, int offset) {
+        if ((text == null) || (offset < 0) || (offset > text.length()))
+            return all;
+        
+        if (offset == text.length())
+            return atEnd;
+        
+        char c = text.charAt(offset);
+        return (c < ASCII_COUNT)
+                ? asciiCandidates[c]
+                : candidates(charChecker -> charChecker.inSet(c));
+    }
+    
+}
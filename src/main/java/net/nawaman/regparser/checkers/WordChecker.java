@@ -49,6 +49,11 @@ public final class WordChecker implements Checker {
             throw new IllegalArgumentException();
     }
     
+    /** @return  the word to check. */
+    public String word() {
+        return word;
+    }
+    
     public int startLengthOf(CharSequence text, int offset, ParserTypeProvider typeProvider) {
         return startLengthOf(text, offset, typeProvider, null);
     }
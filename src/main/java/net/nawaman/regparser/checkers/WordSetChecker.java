@@ -0,0 +1,252 @@
+/*----------------------------------------------------------------------------------------------------------------------
+ * Copyright (C) 2008-2024 Nawapunth Manusitthipol.
+ *----------------------------------------------------------------------------------------------------------------------
+ * LICENSE:
+ * 
+ * This file is part of Nawa's RegParser.
+ * 
+ * The project is a free software; you can redistribute it and/or modify it under the SIMILAR terms of the GNU General
+ * Public License as published by the Free Software Foundation; either version 2 of the License, or any later version.
+ * You are only required to inform me about your modification and redistribution as or as part of commercial software
+ * package. You can inform me via nawa<at>nawaman<dot>net.
+ * 
+ * The project is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the 
+ * implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ * more details.
+ * ---------------------------------------------------------------------------------------------------------------------
+ */
+package net.nawaman.regparser.checkers;
+
+import static java.util.Objects.requireNonNull;
+import static net.nawaman.regparser.EscapeHelpers.escapeOfRegParser;
+import static net.nawaman.regparser.utils.Util.escapeText;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.stream.Stream;
+
+import net.nawaman.regparser.Checker;
+import net.nawaman.regparser.ParserTypeProvider;
+import net.nawaman.regparser.result.ParseResult;
+
+/**
+ * Checker for checking the longest of a set of words.
+ * 
+ * The words are kept in a char trie whose children are sorted by their char so the longest word is found in a single
+ *   pass over the text -- no matter how many words there are.
+ * The children of the root are also looked up from an ASCII table as most words start with an ASCII char.
+ * 
+ * The case-insensitive checker compares the chars by their case-folded form (their lower case of their upper case).
+ * 
+ * @author Nawapunth Manusitthipol (https://github.com/NawaMan)
+ */
+public final class WordSetChecker implements Checker {
+    
+    private static final long serialVersionUID = 7260394015728361483L;
+    
+    private static final int ASCII_COUNT = 128;
+    
+    private final String[]  words;
+    private final boolean   isCaseSensitive;
+    private final String[]  foldedWords;
+    
+    // The trie: the children of the node `n` are at `childStarts[n]` (inclusive) to `childStarts[n + 1]` (exclusive)
+    //   of `labels` and `targets` -- sorted by their labels.
+    private final int[]     childStarts;
+    private final char[]    labels;
+    private final int[]     targets;
+    private final boolean[] isTerminals;
+    private final int[]     asciiRoots;
+    
+    /**
+     * Constructs a case-sensitive word set checker.
+     * 
+     * @param  words  the words.
+     */
+    public WordSetChecker(String ... words) {
+        this(true, words);
+    }
+    
+    /**
+     * Constructs a word set checker.
+     * 
+     * @param  isCaseSensitive  {@code true} if the words are compared case-sensitively.
+     * @param  words            the words.
+     */
+    public WordSetChecker(boolean isCaseSensitive, String ... words) {
+        requireNonNull(words);
+        if (words.length == 0)
+            throw new IllegalArgumentException("No word.");
+        
+        for (var word : words) {
+            requireNonNull(word);
+            if (word.length() == 0)
+                throw new IllegalArgumentException("Empty word.");
+        }
+        
+        this.words           = words.clone();
+        this.isCaseSensitive = isCaseSensitive;
+        this.foldedWords     = Stream.of(words)
+                             .map(word -> fold(isCaseSensitive, word))
+                             .distinct()
+                             .sorted()
+                             .toArray(String[]::new);
+        
+        // Build the trie breadth first so the children of each node are next to each other.
+        // Each pending node is the range of the sorted words sharing the prefix of the length of its depth.
+        var pendings       = new ArrayList<int[]>();
+        var childStartList = new ArrayList<Integer>();
+        var labelBuffer    = new StringBuilder();
+        var targetList     = new ArrayList<Integer>();
+        var terminalList   = new ArrayList<Boolean>();
+        pendings.add(new int[] { 0, foldedWords.length, 0 });
+        for (int node = 0; node < pendings.size(); node++) {
+            var pending = pendings.get(node);
+            int from    = pending[0];
+            int to      = pending[1];
+            int depth   = pending[2];
+            
+            // The word that ends here is sorted before the longer ones.
+            boolean isTerminal = (foldedWords[from].length() == depth);
+            if (isTerminal) {
+                from++;
+            }
+            terminalList.add(isTerminal);
+            childStartList.add(labelBuffer.length());
+            while (from < to) {
+                char label = foldedWords[from].charAt(depth);
+                int  end   = from;
+                while ((end < to) && (foldedWords[end].charAt(depth) == label)) {
+                    end++;
+                }
+                labelBuffer.append(label);
+                targetList.add(pendings.size());
+                pendings.add(new int[] { from, end, depth + 1 });
+                from = end;
+            }
+        }
+        childStartList.add(labelBuffer.length());
+        
+        this.childStarts = childStartList.stream().mapToInt(Integer::intValue).toArray();
+        this.labels      = labelBuffer.toString().toCharArray();
+        this.targets     = targetList.stream().mapToInt(Integer::intValue).toArray();
+        this.isTerminals = new boolean[terminalList.size()];
+        for (int i = 0; i < isTerminals.length; i++) {
+            isTerminals[i] = terminalList.get(i);
+        }
+        
+        this.asciiRoots = new int[ASCII_COUNT];
+        for (int c = 0; c < ASCII_COUNT; c++) {
+            asciiRoots[c] = searchChildOf(0, (char)c);
+        }
+    }
+    
+    private static char fold(boolean isCaseSensitive, char c) {
+        return isCaseSensitive ? c : Character.toLowerCase(Character.toUpperCase(c));
+    }
+    
+    private static String fold(boolean isCaseSensitive, String word) {
+        if (isCaseSensitive)
+            return word;
+        
+        var chars = word.toCharArray();
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = fold(false, chars[i]);
+        }
+        return new String(chars);
+    }
+    
+    private int searchChildOf(int node, char c) {
+        int from  = childStarts[node];
+        int to    = childStarts[node + 1];
+        int index = Arrays.binarySearch(labels, from, to, c);
+        return (index >= 0) ? targets[index] : -1;
+    }
+    
+    private int childOf(int node, char c) {
+        return ((node == 0) && (c < ASCII_COUNT))
+                ? asciiRoots[c]
+                : searchChildOf(node, c);
+    }
+    
+    /** @return  the words to check. */
+    public Stream<String> words() {
+        return Stream.of(words);
+    }
+    
+    /** @return  {@code true} if the words are compared case-sensitively. */
+    public boolean isCaseSensitive() {
+        return isCaseSensitive;
+    }
+    
+    public int startLengthOf(CharSequence text, int offset, ParserTypeProvider typeProvider) {
+        return startLengthOf(text, offset, typeProvider, null);
+    }
+    
+    @Override
+    public int startLengthOf(CharSequence text, int offset, ParserTypeProvider typeProvider, ParseResult parseResult) {
+        // Mirror `WordChecker` which never matches an empty text.
+        if ((text == null) || (text.length() == 0))
+            return -1;
+        
+        offset = (offset < 0) ? 0 : offset;
+        
+        int textLength = text.length();
+        int longest    = -1;
+        int node       = 0;
+        for (int i = offset; i < textLength; i++) {
+            node = childOf(node, fold(isCaseSensitive, text.charAt(i)));
+            if (node < 0)
+                break;
+            
+            if (isTerminals[node]) {
+                longest = i + 1 - offset;
+            }
+        }
+        return longest;
+    }
+    
+    @Override
+    public final Boolean isDeterministic() {
+        return true;
+    }
+    
+    @Override
+    public String toString() {
+        var buffer = new StringBuffer();
+        buffer.append("(");
+        for (int i = 0; i < words.length; i++) {
+            if (i != 0) {
+                buffer.append("|");
+            }
+            var word = words[i];
+            buffer.append(isCaseSensitive ? escapeOfRegParser(word) : ("!textCI(\"" + escapeText(word) + "\")!"));
+        }
+        buffer.append(")");
+        return buffer.toString();
+    }
+    
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(foldedWords) * 31 + Boolean.hashCode(isCaseSensitive);
+    }
+    
+    @Override
+    public boolean equals(Object O) {
+        if (O == this)
+            return true;
+        
+        if (!(O instanceof WordSetChecker))
+            return false;
+        
+        var that = (WordSetChecker)O;
+        return (isCaseSensitive == that.isCaseSensitive)
+            && Arrays.equals(foldedWords, that.foldedWords);
+    }
+    
+    @Override
+    public Checker optimize() {
+        return this;
+    }
+    
+}
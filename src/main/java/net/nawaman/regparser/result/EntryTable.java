@@ -0,0 +1,411 @@
+/*----------------------------------------------------------------------------------------------------------------------
+ * Copyright (C) 2008-2024 Nawapunth Manusitthipol.
+ *----------------------------------------------------------------------------------------------------------------------
+ * LICENSE:
+ * 
+ * This file is part of Nawa's RegParser.
+ * 
+ * The project is a free software; you can redistribute it and/or modify it under the SIMILAR terms of the GNU General
+ * Public License as published by the Free Software Foundation; either version 2 of the License, or any later version.
+ * You are only required to inform me about your modification and redistribution as or as part of commercial software
+ * package. You can inform me via nawa<at>nawaman<dot>net.
+ * 
+ * The project is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the 
+ * implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ * more details.
+ * ---------------------------------------------------------------------------------------------------------------------
+ */
+package net.nawaman.regparser.result;
+
+import static net.nawaman.regparser.result.entry.ParseResultEntry.newEntry;
+
+import java.io.Serializable;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.RandomAccess;
+import java.util.stream.Stream;
+
+import net.nawaman.regparser.RegParserEntry;
+import net.nawaman.regparser.result.entry.ParseResultEntry;
+
+/**
+ * The entries of a parse result kept in parallel arrays instead of an entry object each.
+ * 
+ * The end positions are kept in an int array while the parser entries and the sub results are kept in their arrays
+ *   only once an entry has one -- so a result of plain entries holds no object per entry.
+ * The table is a list of the entries so the entries are made as they are read (see {@link #get(int)}) -- the entries
+ *   read twice are equal but not the same object.
+ * The end position, the parser entry and the sub result of an entry can be read without making the entry.
+ * The indexes of the entries by their names are built on the first lookup by name (see {@link #lastIndexOfName(String)})
+ *   and kept along as the entries are appended or truncated -- other changes drop them to be built again when needed.
+ * 
+ * @author Nawapunth Manusitthipol (https://github.com/NawaMan)
+ */
+final class EntryTable extends AbstractList<ParseResultEntry> implements RandomAccess, Serializable {
+    
+    private static final long serialVersionUID = 6120773942650312877L;
+    
+    private static final int INITIAL_CAPACITY = 4;
+    
+    private int[]            endPositions  = null;
+    private RegParserEntry[] parserEntries = null;
+    private ParseResult[]    subResults    = null;
+    private int              size          = 0;
+    
+    private transient NameIndex nameIndex = null;
+    
+    EntryTable() {
+    }
+    
+    /** @return  the end position of the entry at the index. */
+    int endPositionAt(int index) {
+        checkIndex(index);
+        return endPositions[index];
+    }
+    
+    /** @return  the parser entry of the entry at the index or null if it has none. */
+    RegParserEntry parserEntryAt(int index) {
+        checkIndex(index);
+        return (parserEntries != null) ? parserEntries[index] : null;
+    }
+    
+    /** @return  the sub result of the entry at the index or null if it has none. */
+    ParseResult subResultAt(int index) {
+        checkIndex(index);
+        return (subResults != null) ? subResults[index] : null;
+    }
+    
+    /** Adds an entry at the end without making it. */
+    void add(int endPosition, RegParserEntry parserEntry, ParseResult subResult) {
+        ensureCapacity(size + 1);
+        set(size, endPosition, parserEntry, subResult);
+        if (nameIndex != null) {
+            nameIndex.add(size, parserEntry);
+        }
+        size++;
+        modCount++;
+    }
+    
+    /** Replaces the entry at the index without making it. */
+    void put(int index, int endPosition, RegParserEntry parserEntry, ParseResult subResult) {
+        checkIndex(index);
+        set(index, endPosition, parserEntry, subResult);
+        nameIndex = null;
+    }
+    
+    /** Removes the entry at the index without making it. */
+    void delete(int index) {
+        checkIndex(index);
+        shift(index + 1, index, size - index - 1);
+        nameIndex = null;
+        size--;
+        if (parserEntries != null) {
+            parserEntries[size] = null;
+        }
+        if (subResults != null) {
+            subResults[size] = null;
+        }
+        modCount++;
+    }
+    
+    /** Inserts the entries of the other table at the index without making them. */
+    void insertAll(int index, EntryTable other) {
+        if ((index < 0) || (index > size))
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        
+        int count = other.size;
+        if (count == 0)
+            return;
+        
+        ensureCapacity(size + count);
+        shift(index, index + count, size - index);
+        for (int i = 0; i < count; i++) {
+            set(index + i, other.endPositions[i], other.parserEntryAt(i), other.subResultAt(i));
+        }
+        size += count;
+        nameIndex = null;
+        modCount++;
+    }
+    
+    /** Removes the sub result of the entry at the index -- the entry keeps its end position and parser entry. */
+    void clearSubResultAt(int index) {
+        checkIndex(index);
+        if (subResults != null) {
+            subResults[index] = null;
+        }
+    }
+    
+    /** Removes the entries from the index to the end. */
+    void truncate(int index) {
+        if (index >= size)
+            return;
+        
+        int from = Math.max(0, index);
+        if ((nameIndex != null) && (parserEntries != null)) {
+            for (int i = size; --i >= from;) {
+                nameIndex.removeLast(parserEntries[i]);
+            }
+        }
+        if (parserEntries != null) {
+            Arrays.fill(parserEntries, from, size, null);
+        }
+        if (subResults != null) {
+            Arrays.fill(subResults, from, size, null);
+        }
+        size = from;
+        modCount++;
+    }
+    
+    /** @return  the index of the last entry with the name or -1 if there is none. */
+    int lastIndexOfName(String name) {
+        var indexes = nameIndex().indexesOf(name);
+        return (indexes != null)
+                ? indexes.values[indexes.count - 1]
+                : -1;
+    }
+    
+    /** @return  the indexes of the entries with the name in their order or null if there is none. */
+    int[] indexesOfName(String name) {
+        var indexes = nameIndex().indexesOf(name);
+        return (indexes != null)
+                ? Arrays.copyOf(indexes.values, indexes.count)
+                : null;
+    }
+    
+    /** @return  {@code true} if an entry has the name. */
+    boolean hasName(String name) {
+        return nameIndex().indexesOf(name) != null;
+    }
+    
+    /** @return  {@code true} if an entry has a name. */
+    boolean hasNames() {
+        if (nameIndex != null)
+            return nameIndex.namedCount != 0;
+        
+        // Checked without the index as a collapse asks this of every sub result.
+        for (int i = 0; (parserEntries != null) && (i < size); i++) {
+            var parserEntry = parserEntries[i];
+            if ((parserEntry != null) && (parserEntry.name() != null))
+                return true;
+        }
+        return false;
+    }
+    
+    /** @return  {@code true} if an entry has a type or a type reference. */
+    boolean hasTypes() {
+        if (nameIndex != null)
+            return nameIndex.typedCount != 0;
+        
+        for (int i = 0; (parserEntries != null) && (i < size); i++) {
+            var parserEntry = parserEntries[i];
+            if ((parserEntry != null) && ((parserEntry.type() != null) || (parserEntry.typeRef() != null)))
+                return true;
+        }
+        return false;
+    }
+    
+    /** @return  the names of the entries. */
+    Stream<String> names() {
+        return nameIndex().indexesByName.keySet().stream();
+    }
+    
+    private NameIndex nameIndex() {
+        if (nameIndex == null) {
+            var index = new NameIndex();
+            if (parserEntries != null) {
+                for (int i = 0; i < size; i++) {
+                    index.add(i, parserEntries[i]);
+                }
+            }
+            nameIndex = index;
+        }
+        return nameIndex;
+    }
+    
+    // List ------------------------------------------------------------------------------------------------------------
+    
+    @Override
+    public int size() {
+        return size;
+    }
+    
+    @Override
+    public ParseResultEntry get(int index) {
+        checkIndex(index);
+        var parserEntry = (parserEntries != null) ? parserEntries[index] : null;
+        var subResult   = (subResults    != null) ? subResults[index]    : null;
+        return newEntry(endPositions[index], parserEntry, subResult);
+    }
+    
+    @Override
+    public ParseResultEntry set(int index, ParseResultEntry entry) {
+        var previous = get(index);
+        set(index, entry.endPosition(), entry.parserEntry(), entry.subResult());
+        nameIndex = null;
+        return previous;
+    }
+    
+    @Override
+    public boolean add(ParseResultEntry entry) {
+        add(entry.endPosition(), entry.parserEntry(), entry.subResult());
+        return true;
+    }
+    
+    @Override
+    public void add(int index, ParseResultEntry entry) {
+        if ((index < 0) || (index > size))
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        
+        if (index == size) {
+            add(entry);
+            return;
+        }
+        
+        ensureCapacity(size + 1);
+        shift(index, index + 1, size - index);
+        size++;
+        set(index, entry.endPosition(), entry.parserEntry(), entry.subResult());
+        nameIndex = null;
+        modCount++;
+    }
+    
+    @Override
+    public ParseResultEntry remove(int index) {
+        var removed = get(index);
+        delete(index);
+        return removed;
+    }
+    
+    @Override
+    protected void removeRange(int fromIndex, int toIndex) {
+        nameIndex = null;
+        shift(toIndex, fromIndex, size - toIndex);
+        truncate(size - (toIndex - fromIndex));
+    }
+    
+    // Internal --------------------------------------------------------------------------------------------------------
+    
+    private void checkIndex(int index) {
+        if ((index < 0) || (index >= size))
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+    }
+    
+    private void set(int index, int endPosition, RegParserEntry parserEntry, ParseResult subResult) {
+        endPositions[index] = endPosition;
+        if ((parserEntry != null) && (parserEntries == null)) {
+            parserEntries = new RegParserEntry[endPositions.length];
+        }
+        if (parserEntries != null) {
+            parserEntries[index] = parserEntry;
+        }
+        if ((subResult != null) && (subResults == null)) {
+            subResults = new ParseResult[endPositions.length];
+        }
+        if (subResults != null) {
+            subResults[index] = subResult;
+        }
+    }
+    
+    private void shift(int from, int to, int length) {
+        if (length <= 0)
+            return;
+        
+        System.arraycopy(endPositions, from, endPositions, to, length);
+        if (parserEntries != null) {
+            System.arraycopy(parserEntries, from, parserEntries, to, length);
+        }
+        if (subResults != null) {
+            System.arraycopy(subResults, from, subResults, to, length);
+        }
+    }
+    
+    private void ensureCapacity(int capacity) {
+        if (endPositions == null) {
+            endPositions = new int[Math.max(INITIAL_CAPACITY, capacity)];
+            return;
+        }
+        if (capacity <= endPositions.length)
+            return;
+        
+        int newCapacity = Math.max(capacity, endPositions.length + (endPositions.length >> 1));
+        endPositions = Arrays.copyOf(endPositions, newCapacity);
+        if (parserEntries != null) {
+            parserEntries = Arrays.copyOf(parserEntries, newCapacity);
+        }
+        if (subResults != null) {
+            subResults = Arrays.copyOf(subResults, newCapacity);
+        }
+    }
+    
+    // Name index ------------------------------------------------------------------------------------------------------
+    
+    /** The indexes of the entries by their names with the counts of the named and the typed entries. */
+    private static final class NameIndex {
+        
+        private final HashMap<String, Indexes> indexesByName = new HashMap<>();
+        
+        private int namedCount = 0;
+        private int typedCount = 0;
+        
+        Indexes indexesOf(String name) {
+            return indexesByName.get(name);
+        }
+        
+        void add(int index, RegParserEntry parserEntry) {
+            if (parserEntry == null)
+                return;
+            
+            if ((parserEntry.type()    != null)
+             || (parserEntry.typeRef() != null)) {
+                typedCount++;
+            }
+            
+            var name = parserEntry.name();
+            if (name == null)
+                return;
+            
+            namedCount++;
+            indexesByName
+            .computeIfAbsent(name, __ -> new Indexes())
+            .add(index);
+        }
+        
+        /** Removes the last entry from the index. */
+        void removeLast(RegParserEntry parserEntry) {
+            if (parserEntry == null)
+                return;
+            
+            if ((parserEntry.type()    != null)
+             || (parserEntry.typeRef() != null)) {
+                typedCount--;
+            }
+            
+            var name = parserEntry.name();
+            if (name == null)
+                return;
+            
+            namedCount--;
+            var indexes = indexesByName.get(name);
+            indexes.count--;
+            if (indexes.count == 0) {
+                indexesByName.remove(name);
+            }
+        }
+    }
+    
+    /** The indexes of the entries with a name in their order. */
+    private static final class Indexes {
+        
+        private int[] values = new int[2];
+        private int   count  = 0;
+        
+        void add(int index) {
+            if (count == values.length) {
+                values = Arrays.copyOf(values, count*2);
+            }
+            values[count++] = index;
+        }
+    }
+    
+}
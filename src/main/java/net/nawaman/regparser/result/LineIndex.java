@@ -0,0 +1,142 @@
+/*----------------------------------------------------------------------------------------------------------------------
+ * Copyright (C) 2008-2024 Nawapunth Manusitthipol.
+ *----------------------------------------------------------------------------------------------------------------------
+ * LICENSE:
+ * 
+ * This file is part of Nawa's RegParser.
+ * 
+ * The project is a free software; you can redistribute it and/or modify it under the SIMILAR terms of the GNU General
+ * Public License as published by the Free Software Foundation; either version 2 of the License, or any later version.
+ * You are only required to inform me about your modification and redistribution as or as part of commercial software
+ * package. You can inform me via nawa<at>nawaman<dot>net.
+ * 
+ * The project is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the 
+ * implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ * more details.
+ * ---------------------------------------------------------------------------------------------------------------------
+ */
+package net.nawaman.regparser.result;
+
+import java.util.Arrays;
+
+/**
+ * The starts of the lines of a text -- for the coordinate and the location lookups of many offsets of the same text.
+ * 
+ * The index is built with a single pass over the text.
+ * A lookup is then a binary search over the line breaks -- O(log lines) instead of a scan of the text.
+ * The lookups give the same results as {@link Coordinate#coordinateOf(CharSequence, int)} and
+ *   {@link Location#locationOf(CharSequence, int, boolean)}.
+ * The text is assumed not to change after the index is built.
+ * 
+ * @author Nawapunth Manusitthipol (https://github.com/NawaMan)
+ */
+public final class LineIndex {
+    
+    private static final int[] NO_BREAKS = new int[0];
+    
+    /** @return  the line index of the text or {@code null} if the text is null. */
+    public static LineIndex of(CharSequence text) {
+        if (text == null)
+            return null;
+        
+        // The row breaks are as Coordinate -- '\n' or '\r' not followed by '\n' (but not the last char).
+        // The location lines are broken by '\n' only -- the same breaks unless there is a lone '\r'.
+        int   length       = text.length();
+        int   lastIndex    = length - 1;
+        int[] rowBreaks    = NO_BREAKS;
+        int[] newLines     = NO_BREAKS;
+        int   rowCount     = 0;
+        int   newLineCount = 0;
+        for (int i = 0; i < length; i++) {
+            char ch = text.charAt(i);
+            if (ch == '\n') {
+                if (newLineCount == newLines.length) {
+                    newLines = Arrays.copyOf(newLines, Math.max(16, newLineCount*2));
+                }
+                newLines[newLineCount++] = i;
+            } else if ((ch != '\r')
+                    || (i >= lastIndex)
+                    || (text.charAt(i + 1) == '\n')) {
+                continue;
+            }
+            
+            if (rowCount == rowBreaks.length) {
+                rowBreaks = Arrays.copyOf(rowBreaks, Math.max(16, rowCount*2));
+            }
+            rowBreaks[rowCount++] = i;
+        }
+        
+        rowBreaks = Arrays.copyOf(rowBreaks, rowCount);
+        newLines  = (newLineCount == rowCount) ? rowBreaks : Arrays.copyOf(newLines, newLineCount);
+        return new LineIndex(text, rowBreaks, newLines);
+    }
+    
+    //== Instance ======================================================================================================
+    
+    private final CharSequence text;
+    private final int[]        rowBreaks;
+    private final int[]        newLines;
+    
+    private LineIndex(CharSequence text, int[] rowBreaks, int[] newLines) {
+        this.text      = text;
+        this.rowBreaks = rowBreaks;
+        this.newLines  = newLines;
+    }
+    
+    /** @return  the text. */
+    public CharSequence text() {
+        return text;
+    }
+    
+    /** @return  the number of the rows of the text. */
+    public int rowCount() {
+        return rowBreaks.length + 1;
+    }
+    
+    /** @return  the coordinate of the offset (see {@link Coordinate#coordinateOf(CharSequence, int)}). */
+    public Coordinate coordinateOf(int offset) {
+        int length = text.length();
+        if (offset >= length) {
+            offset = length - 1;
+        }
+        if (offset <= 0) {
+            return Coordinate.START;
+        }
+        
+        // The row is the number of the breaks before the offset -- a break belongs to the row it ends.
+        int row      = countBefore(rowBreaks, offset);
+        int rowStart = (row == 0) ? 0 : (rowBreaks[row - 1] + 1);
+        return new Coordinate(offset - rowStart, row);
+    }
+    
+    /** @return  the location of the offset (see {@link Location#locationOf(CharSequence, int)}). */
+    public String locationOf(int offset) {
+        return Location.locationOf(text, offset, false, this);
+    }
+    
+    /** @return  the detail location of the offset (see {@link Location#detailLocationOf(CharSequence, int)}). */
+    public String detailLocationOf(int offset) {
+        return Location.locationOf(text, offset, true, this);
+    }
+    
+    /** @return  the index of the last '\n' at or before the offset or -1 if none. */
+    int lastNewLineAtOrBefore(int offset) {
+        if (offset < 0)
+            return -1;
+        
+        int count = countBefore(newLines, offset + 1);
+        return (count == 0) ? -1 : newLines[count - 1];
+    }
+    
+    /** @return  the index of the first '\n' at or after the offset or -1 if none. */
+    int firstNewLineAtOrAfter(int offset) {
+        int count = countBefore(newLines, Math.max(0, offset));
+        return (count == newLines.length) ? -1 : newLines[count];
+    }
+    
+    private static int countBefore(int[] positions, int offset) {
+        int index = Arrays.binarySearch(positions, offset);
+        return (index >= 0) ? index : -(index + 1);
+    }
+    
+}
@@ -42,23 +42,28 @@ public class Location {
     
     /** Returns the string representation of the source text at the offset */
     public static String locationOf(CharSequence sourceText, int offset, boolean fullDefail) {
+        return locationOf(sourceText, offset, fullDefail, null);
+    }
+    
+    /** Returns the string representation of the source text at the offset -- with the lines looked up in the index */
+    static String locationOf(CharSequence sourceText, int offset, boolean fullDefail, LineIndex lineIndex) {
         if (sourceText == null) {
             return null;
         }
         
         int length = sourceText.length();
         
-        StringBuffer buffer;
+        StringBuilder buffer;
         
         if (fullDefail) {
-            buffer = new StringBuffer();
+            buffer = new StringBuilder();
             
             char ch = ((offset < 0) || (offset >= length)) ? '✖' : sourceText.charAt(offset);
             buffer.append(ch);
             buffer.append(" : ");
             
             // Print (Row, Col)
-            var position = Coordinate.of(sourceText, offset);
+            var position = (lineIndex != null) ? lineIndex.coordinateOf(offset) : Coordinate.of(sourceText, offset);
             buffer.append("(").append(position.row()).append(",").append(position.col()).append(")\n");
             buffer.append("\n");
             
@@ -70,7 +75,7 @@ public class Location {
                 return null;
             }
             
-            buffer = new StringBuffer();
+            buffer = new StringBuilder();
         }
         
         boolean isShift = false;
@@ -80,8 +85,10 @@ public class Location {
             offset--;
         }
         
-        int thisLineBegin = lastIndexOf(sourceText, "\n", offset);
-        int thisLineEnd   = indexOf(sourceText, "\n", offset);
+        int thisLineBegin = lastNewLineOf(sourceText, offset, lineIndex);
+        int thisLineEnd   = (lineIndex != null)
+                          ? lineIndex.firstNewLineAtOrAfter(offset)
+                          : indexOf(sourceText, "\n", offset);
         if (thisLineEnd == -1) {
             thisLineEnd = length;
         }
@@ -91,7 +98,7 @@ public class Location {
         thisLineBegin++;
         
         if (thisLineBegin > 1) {
-            int PrevLineBegin = lastIndexOf(sourceText, "\n", thisLineBegin - 2);
+            int PrevLineBegin = lastNewLineOf(sourceText, thisLineBegin - 2, lineIndex);
             if (PrevLineBegin == -1) {
                 PrevLineBegin = 0;
             }
@@ -132,6 +139,12 @@ public class Location {
         return buffer.toString();
     }
     
+    private static int lastNewLineOf(CharSequence sourceText, int offset, LineIndex lineIndex) {
+        return (lineIndex != null)
+                ? lineIndex.lastNewLineAtOrBefore(offset)
+                : lastIndexOf(sourceText, "\n", offset);
+    }
+    
     //== Instance ======================================================================================================
     
     private final String     sourceText;
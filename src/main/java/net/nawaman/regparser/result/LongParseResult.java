@@ -0,0 +1,92 @@
+/*----------------------------------------------------------------------------------------------------------------------
+ * Copyright (C) 2008-2024 Nawapunth Manusitthipol.
+ *----------------------------------------------------------------------------------------------------------------------
+ * LICENSE:
+ * 
+ * This file is part of Nawa's RegParser.
+ * 
+ * The project is a free software; you can redistribute it and/or modify it under the SIMILAR terms of the GNU General
+ * Public License as published by the Free Software Foundation; either version 2 of the License, or any later version.
+ * You are only required to inform me about your modification and redistribution as or as part of commercial software
+ * package. You can inform me via nawa<at>nawaman<dot>net.
+ * 
+ * The project is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the 
+ * implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ * more details.
+ * ---------------------------------------------------------------------------------------------------------------------
+ */
+package net.nawaman.regparser.result;
+
+/**
+ * A parse result with the positions in a text longer than an int can index -- like a file of any size.
+ * 
+ * The result is parsed over a window of the text so its positions are relative to the window.
+ * The offset is where the window starts in the text so the long positions are the offset plus the positions.
+ * 
+ * @author Nawapunth Manusitthipol (https://github.com/NawaMan)
+ */
+public final class LongParseResult {
+    
+    private final long        offset;
+    private final ParseResult result;
+    
+    public LongParseResult(long offset, ParseResult result) {
+        this.offset = offset;
+        this.result = result;
+    }
+    
+    /** @return  the position in the text where the window of the result starts. */
+    public long offset() {
+        return offset;
+    }
+    
+    /** @return  the result with the positions relative to its window. */
+    public ParseResult result() {
+        return result;
+    }
+    
+    /** @return  the start position of the result in the text. */
+    public long startPosition() {
+        return offset + result.startPosition();
+    }
+    
+    /** @return  the end position of the result in the text. */
+    public long endPosition() {
+        return offset + result.endPosition();
+    }
+    
+    /** @return  the start position of the entry at the index in the text or -1 if there is no such entry. */
+    public long startPositionOf(int index) {
+        return positionOf(result.startPositionOf(index));
+    }
+    
+    /** @return  the end position of the entry at the index in the text or -1 if there is no such entry. */
+    public long endPositionOf(int index) {
+        return positionOf(result.endPositionOf(index));
+    }
+    
+    /** @return  the start position of the first entry with the name in the text or -1 if there is none. */
+    public long startPositionOf(String name) {
+        return positionOf(result.startPositionOf(name));
+    }
+    
+    private long positionOf(int position) {
+        return (position == -1) ? -1 : (offset + position);
+    }
+    
+    /** @return  the matched text. */
+    public String text() {
+        return result.text();
+    }
+    
+    /** @return  the text of the first entry with the name or null if there is none. */
+    public String textOf(String name) {
+        return result.textOf(name);
+    }
+    
+    @Override
+    public String toString() {
+        return "[" + startPosition() + ", " + endPosition() + ") " + text();
+    }
+    
+}
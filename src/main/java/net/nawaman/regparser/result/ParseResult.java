@@ -19,7 +19,6 @@ package net.nawaman.regparser.result;
 
 import static java.lang.String.format;
 import static java.util.stream.Collectors.toList;
-import static net.nawaman.regparser.result.entry.ParseResultEntry.newEntry;
 import static net.nawaman.regparser.utils.Util.dashes;
 import static net.nawaman.regparser.utils.Util.indents;
 import static net.nawaman.regparser.utils.Util.spaces;
@@ -27,22 +26,22 @@ import static net.nawaman.regparser.utils.Util.tabs;
 import static net.nawaman.regparser.utils.Util.textWidth;
 import static net.nawaman.regparser.utils.Util.zeros;
 
+import java.io.IOException;
+import java.io.ObjectOutputStream;
 import java.io.Serializable;
 import java.util.ArrayList;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Objects;
 import java.util.stream.Stream;
 
 import net.nawaman.regparser.CompilationContext;
+import net.nawaman.regparser.ParseOptions;
 import net.nawaman.regparser.ParserType;
 import net.nawaman.regparser.ParserTypeProvider;
 import net.nawaman.regparser.ParserTypeRef;
 import net.nawaman.regparser.RegParser;
 import net.nawaman.regparser.RegParserEntry;
 import net.nawaman.regparser.result.entry.ParseResultEntry;
-import net.nawaman.regparser.result.entry.ParseResultEntryWithParserEntryAndSubResult;
-import net.nawaman.regparser.result.entry.ParseResultEntryWithSubResult;
 import net.nawaman.regparser.types.ErrorParserType;
 import net.nawaman.regparser.utils.Util;
 
@@ -101,8 +100,20 @@ abstract public class ParseResult implements Serializable {
     
     //== Instance ==
     
-    private boolean                hasCollapsed = false;
-    private List<ParseResultEntry> entries;
+    private boolean    hasCollapsed = false;
+    private EntryTable entries;
+    
+    // The collapse deferred to the first access to the entries (see deferCollapse).
+    private transient volatile boolean            isCollapsePending         = false;
+    private transient          ParserTypeProvider collapseTypeProvider      = null;
+    private transient          boolean            isCollapseSecondStageLazy = false;
+    private transient          boolean            isCollapsing              = false;
+    
+    // The second stage parsed on the first access to the entries (see deferSecondStage).
+    private transient volatile RegParser          secondStage             = null;
+    private transient          ParserTypeProvider secondStageTypeProvider = null;
+    private transient          int                secondStageEndPosition  = -1;
+    private transient          boolean            isParsingSecondStage    = false;
     
     /** Constructor */
     ParseResult() {
@@ -111,9 +122,10 @@ abstract public class ParseResult implements Serializable {
     
     /** Constructor */
     ParseResult(List<ParseResultEntry> entries) {
-        this.entries = (entries == null)
-                     ? new ArrayList<>()
-                     : entries.stream().collect(toList());
+        this.entries = new EntryTable();
+        if (entries != null) {
+            this.entries.addAll(entries);
+        }
     }
     
     /** Duplicate this result - to be used when verifying */
@@ -161,6 +173,7 @@ abstract public class ParseResult implements Serializable {
     
     /** @return  the entries as a streams. */
     public final Stream<ParseResultEntry> entries() {
+        var entries = table();
         return (entries == null)
                 ? Stream.empty()
                 : entries.stream();
@@ -168,6 +181,7 @@ abstract public class ParseResult implements Serializable {
     
     /** @return  the entries as a list. */
     public final List<ParseResultEntry> entryList() {
+        var entries = table();
         var stream = (entries == null)
                    ? Stream.<ParseResultEntry>empty()
                    : entries.stream();
@@ -176,7 +190,7 @@ abstract public class ParseResult implements Serializable {
     
     /** Returns the number of the result entry - may be overridden by sub classes. */
     public int entryCount() {
-        return rawEntryCount();
+        return table().size();
     }
     
     /** Returns the entry list size -- Used internally and cannot be overridden. */
@@ -188,6 +202,7 @@ abstract public class ParseResult implements Serializable {
     
     /** Returns a result entry at the index. or null if the index of out of bound. */
     public ParseResultEntry entryAt(int index) {
+        var entries = table();
         if ((index < 0)
           || index >= entryCount())
             return null;
@@ -216,60 +231,45 @@ abstract public class ParseResult implements Serializable {
     
     /** Returns the last match */
     public final ParseResultEntry lastEntryOf(String name) {
-        int size = entries.size();
-        for (int i = size; --i >= 0;) {
-            var resultEntry = entries.get(i);
-            var parserEntry = resultEntry.parserEntry();
-            if (parserEntry != null) {
-                var entryName = parserEntry.name();
-                if (name.equals(entryName))
-                    return resultEntry;
-            }
-        }
-        return null;
+        var entries = table();
+        int index = entries.lastIndexOfName(name);
+        return (index != -1)
+                ? entries.get(index)
+                : null;
     }
     
     /** Returns the last group of continuous match */
     public final ParseResultEntry[] lastEntriesOf(String name) {
-        var entryList = new ArrayList<ParseResultEntry>();
-        int size = entries.size();
-        for (int i = size; --i >= 0;) {
-            var resultEntry = entries.get(i);
-            var parserEntry = resultEntry.parserEntry();
-            if ((parserEntry != null) && name.equals(parserEntry.name())) {
-                entryList.add(resultEntry);
-            } else if (entryList.size() > 0) {
-                break;
-            }
-        }
-        
-        if (entryList.size() == 0)
+        var entries = table();
+        var indexes = entries.indexesOfName(name);
+        if (indexes == null)
             return null;
         
-        var lastEntries = new ParseResultEntry[entryList.size()];
+        // The last group is the indexes that continue from the last one back.
+        int first = indexes.length - 1;
+        while ((first > 0) && (indexes[first - 1] == (indexes[first] - 1))) {
+            first--;
+        }
+        
+        var lastEntries = new ParseResultEntry[indexes.length - first];
         for (int i = lastEntries.length; --i >= 0;) {
-            lastEntries[i] = entryList.get(lastEntries.length - i - 1);
+            lastEntries[i] = entries.get(indexes[first + i]);
         }
         return lastEntries;
     }
     
     /** Returns the all the match */
     public final ParseResultEntry[] entriesOf(String name) {
-        var entryList = new ArrayList<ParseResultEntry>();
-        for (var resultEntry : entries) {
-            var parserEntry = resultEntry.parserEntry();
-            if (parserEntry != null) {
-                var entryName = parserEntry.name();
-                if (name.equals(entryName)) {
-                    entryList.add(resultEntry);
-                }
-            }
-        }
-        
-        if (entryList.size() == 0)
+        var entries = table();
+        var indexes = entries.indexesOfName(name);
+        if (indexes == null)
             return null;
         
-        return entryList.toArray(ParseResultEntry[]::new);
+        var namedEntries = new ParseResultEntry[indexes.length];
+        for (int i = namedEntries.length; --i >= 0;) {
+            namedEntries[i] = entries.get(indexes[i]);
+        }
+        return namedEntries;
     }
     
     /** Returns the all the match */
@@ -449,37 +449,95 @@ abstract public class ParseResult implements Serializable {
     
     /** Returns the text of the the last match */
     public String lastStringOf(String name) {
-        for (int i = entryCount(); --i >= 0;) {
-            var entry = entryAt(i);
-            if (!entry.hasParserEntry())
-                continue;
-            
-            var parseEntry = entry.parserEntry();
-            var entryName  = parseEntry.name();
-            if (name.equals(entryName))
-                return textOf(i);
+        int index = lastIndexOfName(name);
+        return (index != -1)
+                ? textOf(index)
+                : null;
+    }
+    
+    //-- Text view -----------------------------------------------------------------------------------------------------
+    
+    /** Returns the text of the result as a view over the original text -- without copying it (see {@link TextView}) */
+    public final TextView textView() {
+        return textViewOf(originalCharSequence(), startPosition(), endPosition());
+    }
+    
+    /** Returns the text of the entry at the index as a view over the original text -- without copying it */
+    public final TextView textViewOf(int index) {
+        return textViewOf(originalCharSequence(), startPositionOf(index), endPositionOf(index));
+    }
+    
+    /** Returns the text of the last entry named name as a view over the original text -- without copying it */
+    public final TextView textViewOf(String name) {
+        int lastIndex = indexOf(name);
+        return textViewOf(lastIndex);
+    }
+    
+    /** Returns the texts of the entries named name as views over the original text -- without copying them */
+    public final TextView[] textViewsOf(String name) {
+        int[] indexes = indexesOf(name);
+        if (indexes == null)
+            return null;
+        
+        var views = new TextView[indexes.length];
+        for (int i = views.length; --i >= 0;) {
+            views[i] = textViewOf(indexes[i]);
         }
-        return null;
+        return views;
+    }
+    
+    /** Returns the text of the the last match as a view over the original text -- without copying it */
+    public TextView lastTextViewOf(String name) {
+        int index = lastIndexOfName(name);
+        return (index != -1)
+                ? textViewOf(index)
+                : null;
+    }
+    
+    private static TextView textViewOf(CharSequence text, int start, int end) {
+        if ((text  == null)
+         || (start <  0)
+         || (end   <  0)
+         || (start >  text.length())
+         || (end   >  text.length()))
+            return null;
+        
+        if (start == end)
+            return TextView.EMPTY;
+        
+        return TextView.of(text, start, end);
+    }
+    
+    /** Returns the index of the last entry with the name among all the entries or -1 -- may be overridden. */
+    int lastIndexOfName(String name) {
+        return table().lastIndexOfName(name);
     }
     
     /** Returns the all the match */
     public final String[][] allStringsOf(String name) {
+        var entries = table();
+        var indexes = entries.indexesOfName(name);
+        if (indexes == null)
+            return null;
+        
         var arrayMatches = new ArrayList<String[]>();
         var matchers     = new ArrayList<String>();
         var orgText      = originalCharSequence();
-        var prevEntry    = (ParseResultEntry)null;
-        for (var entry : entries) {
-            if (entry.hasParserEntry() && name.equals(entry.parserEntry().name())) {
-                int start = (prevEntry == null) ? 0 : prevEntry.endPosition();
-                int end   = entry.endPosition();
-                var text  = orgText.subSequence(start, end).toString();
-                matchers.add(text);
-            } else if (matchers.size() > 0) {
+        for (int i = 0; i < indexes.length; i++) {
+            int index = indexes[i];
+            int start = (index == 0) ? 0 : entries.endPositionAt(index - 1);
+            int end   = entries.endPositionAt(index);
+            var text  = orgText.subSequence(start, end).toString();
+            matchers.add(text);
+            
+            // A group ends before an entry without the name -- so the group of the last entry is not one.
+            int next = index + 1;
+            if ((next < entries.size())
+             && ((i == indexes.length - 1) || (indexes[i + 1] != next))) {
                 var matchStrings = matchers.toArray(String[]::new);
                 arrayMatches.add(matchStrings);
                 matchers.clear();
             }
-            prevEntry = entry;
         }
         
         if (arrayMatches.size() == 0) {
@@ -536,13 +594,16 @@ abstract public class ParseResult implements Serializable {
     
     /** Checks if the result has entries with name */
     final boolean hasNames() {
-        for (var entry : entries) {
-            var parserEntry = entry.parserEntry();
-            if ((parserEntry        != null)
-             && (parserEntry.name() != null))
-                return true;
-            
-            var subResult = entry.subResult();
+        // A second stage yet to be parsed is assumed to have some.
+        if (secondStage != null)
+            return true;
+        
+        var entries = table();
+        if (entries.hasNames())
+            return true;
+        
+        for (int i = entries.size(); --i >= 0;) {
+            var subResult = entries.subResultAt(i);
             if ((subResult != null)
               && subResult.hasNames())
                 return true;
@@ -555,14 +616,12 @@ abstract public class ParseResult implements Serializable {
           || name.isBlank())
             return false;
         
-        for (var entry : entries) {
-            var parserEntry = entry.parserEntry();
-            if (parserEntry != null) {
-                var entryName = parserEntry.name();
-                if (name.equals(entryName))
-                    return true;
-            }
-            var subResult = entry.subResult();
+        var entries = table();
+        if (entries.hasName(name))
+            return true;
+        
+        for (int i = entries.size(); --i >= 0;) {
+            var subResult = entries.subResultAt(i);
             if ((subResult != null)
               && subResult.hasName(name))
                 return true;
@@ -572,31 +631,27 @@ abstract public class ParseResult implements Serializable {
     
     /** Returns names of all result entries */
     public Stream<String> names() {
+        var entries = table();
         if (entries == null)
             return Stream.empty();
         
-        var names = new HashSet<String>();
-        entries
-        .forEach(entry -> {
-            var parserEntry = entry.parserEntry();
-            if (parserEntry != null) {
-                var name = parserEntry.name();
-                if (name != null) {
-                    names.add(name);
-                }
-            }
-        });
-        return names.stream();
+        return entries.names();
     }
     
     //-- SubResult -----------------------------------------------------------------------------------------------------
     
     /** Returns the sub result at the index. or null if the index of out of bound. */
     public final ParseResult subResultOf(int index) {
-        var entry = entryAt(index);
-        return (entry == null)
-                ? null
-                : entry.subResult();
+        if ((index < 0)
+          || index >= entryCount())
+            return null;
+        
+        return entrySubResultAt(index);
+    }
+    
+    /** Returns the sub result of the entry at the index (in range) without making the entry -- may be overridden. */
+    ParseResult entrySubResultAt(int index) {
+        return table().subResultAt(index);
     }
     
     /** Returns the nested sub result at the indexes. or null if the index of out of bound. */
@@ -683,14 +738,15 @@ abstract public class ParseResult implements Serializable {
     
     /** Checks if the result has entries with name */
     final boolean hasTypes() {
-        for (var entry : entries) {
-            var parserEntry = entry.parserEntry();
-            if (parserEntry != null) {
-                if ((parserEntry.type()    != null)
-                 || (parserEntry.typeRef() != null))
-                    return true;
-            }
-            var subResult = entry.subResult();
+        if (secondStage != null)
+            return true;
+        
+        var entries = table();
+        if (entries.hasTypes())
+            return true;
+        
+        for (int i = entries.size(); --i >= 0;) {
+            var subResult = entries.subResultAt(i);
             if ((subResult != null)
               && subResult.hasNames())
                 return true;
@@ -788,36 +844,12 @@ abstract public class ParseResult implements Serializable {
     
     /** Returns the index of the last entry that has the same name with the given name */
     public final int indexOf(String name) {
-        for (int i = entries.size(); --i >= 0;) {
-            var entry       = entries.get(i);
-            var parserEntry = entry.parserEntry();
-            if (parserEntry != null) {
-                var entryName = parserEntry.name();
-                if (name.equals(entryName)) {
-                    return i;
-                }
-            }
-        }
-        return -1;
+        return table().lastIndexOfName(name);
     }
     
     /** Returns the all indexes of the result entries that has the same name with the given name */
     public final int[] indexesOf(String name) {
-        var indexes = new ArrayList<Integer>();
-        for (int i = 0; i < entries.size(); i++) {
-            var entry       = entries.get(i);
-            var parserEntry = entry.parserEntry();
-            if ((parserEntry != null)
-              && name.equals(parserEntry.name())) {
-                indexes.add(i);
-            }
-        }
-        if (indexes.size() == 0)
-            return null;
-        
-        return indexes.stream()
-                .mapToInt(Integer::intValue)
-                .toArray();
+        return table().indexesOfName(name);
     }
     
     /** Returns the all the match */
@@ -871,11 +903,7 @@ abstract public class ParseResult implements Serializable {
         if (index >= entryCount())
             return -1;
         
-        int previousIndex = index - 1;
-        var previousEntry = entryAt(previousIndex);
-        return (previousEntry == null)
-                ? -1
-                : previousEntry.endPosition();
+        return entryEndPositionAt(index - 1);
     }
     
     /** Returns the start position of sub entry at the indexes */
@@ -940,8 +968,27 @@ abstract public class ParseResult implements Serializable {
         if (index >= entryCount())
             return -1;
         
-        var entry = entryAt(index);
-        return entry.endPosition();
+        return entryEndPositionAt(index);
+    }
+    
+    /** Returns the entry at the index of the entries of this result only -- Used internally. */
+    final ParseResultEntry rawEntryAt(int index) {
+        return entries.get(index);
+    }
+    
+    /** Returns the end position of the entry at the index of the entries of this result only -- Used internally. */
+    final int rawEndPositionAt(int index) {
+        return entries.endPositionAt(index);
+    }
+    
+    /** Returns the sub result of the entry at the index of the entries of this result only -- Used internally. */
+    final ParseResult rawSubResultAt(int index) {
+        return entries.subResultAt(index);
+    }
+    
+    /** Returns the end position of the entry at the index (in range) without making the entry -- may be overridden. */
+    int entryEndPositionAt(int index) {
+        return table().endPositionAt(index);
     }
     
     /** Returns the end position of sub entry at the indexes */
@@ -965,6 +1012,17 @@ abstract public class ParseResult implements Serializable {
     
     // Entry Location in Col,Row --------------------------------------------------------
     
+    /**
+     * Returns the line index of the original text -- for the coordinate and the location lookups.
+     * 
+     * The index is built on the first use and is kept by the root result so all the results of a parse share it.
+     * 
+     * @return  the line index of the original text.
+     */
+    public LineIndex lineIndex() {
+        return LineIndex.of(originalCharSequence());
+    }
+    
     /** Get locationCR of the entry at the index */
     public final Coordinate coordinateOf(int index) {
         var entry = entryAt(index);
@@ -975,8 +1033,7 @@ abstract public class ParseResult implements Serializable {
         if (Pos == -1)
             return null;
         
-        var originalText = originalCharSequence();
-        return Coordinate.of(originalText, Pos);
+        return lineIndex().coordinateOf(Pos);
     }
     
     /** Get locationRC of the last entry named name */
@@ -1015,8 +1072,7 @@ abstract public class ParseResult implements Serializable {
         if (Pos == -1)
             return null;
         
-        var originalText = originalCharSequence();
-        return Location.of(originalText, Pos);
+        return lineIndex().locationOf(Pos);
     }
     
     /** Get location of the last entry named name */
@@ -1299,20 +1355,68 @@ abstract public class ParseResult implements Serializable {
             throw new NullPointerException();
         
         if (entries == null) {
-            entries = new ArrayList<>();
+            entries = new EntryTable();
         }
         entries.add(entry);
         return this;
     }
     
+    /**
+     * Appends the result with an entry of the end position, the parser entry and the sub result -- without making the
+     *   entry object.
+     * 
+     * @param  endPosition  the end position of the entry.
+     * @param  parserEntry  the parser entry of the entry or null.
+     * @param  subResult    the sub result of the entry or null.
+     * @return              this result.
+     */
+    public final ParseResult append(int endPosition, RegParserEntry parserEntry, ParseResult subResult) {
+        if (entries == null) {
+            entries = new EntryTable();
+        }
+        entries.add(endPosition, parserEntry, subResult);
+        return this;
+    }
+    
     /** Reset the entry since the index */
     public final void reset(int index) {
         if (entries == null)
             return;
         
-        for (int i = entries.size(); --i >= index;) {
-            entries.remove(i);
+        entries.truncate(index);
+    }
+    
+    /** Appends the result with the entries -- the sub results of the entries will be moved to this result. */
+    public final ParseResult appendAll(List<ParseResultEntry> newEntries) {
+        if ((newEntries == null)
+         || newEntries.isEmpty())
+            return this;
+        
+        if (entries == null) {
+            entries = new EntryTable();
+        }
+        for (var entry : newEntries) {
+            if (entry == null)
+                throw new NullPointerException();
+            
+            entries.add(entry);
+            if (entry.hasSubResult()) {
+                var subResult = entry.subResult();
+                if (subResult instanceof ParseResultNode) {
+                    ((ParseResultNode)subResult).parent(this);
+                }
+            }
         }
+        return this;
+    }
+    
+    /** Returns a copy of the raw entries since the index -- Used internally. */
+    public final List<ParseResultEntry> rawEntriesFrom(int index) {
+        if ((entries == null)
+         || (index >= entries.size()))
+            return new ArrayList<>();
+        
+        return new ArrayList<>(entries.subList(Math.max(0, index), entries.size()));
     }
     
     /** Merge a temporary result with this result */
@@ -1323,7 +1427,7 @@ abstract public class ParseResult implements Serializable {
         
         var tempEntries = tempResult.entries().collect(toList());
         if (entries == null) {
-            entries = new ArrayList<>();
+            entries = new EntryTable();
         }
         entries.addAll(tempEntries);
         
@@ -1341,128 +1445,217 @@ abstract public class ParseResult implements Serializable {
     
     /** Collapse the result so entry with $ and [] will be combine */
     public final void collapse(ParserTypeProvider typeProvider) {
+        collapse(typeProvider, false);
+    }
+    
+    /**
+     * Collapse the result so entry with $ and [] will be combine.
+     * 
+     * With the lazy second stage, the second stage of an entry is not parsed right away.
+     * Instead, the entry is given a sub result that parses the second stage on the first access to its entries and
+     *   keeps them -- the entries of the second stage are then found in the sub result of the entry instead of in
+     *   place of the entry.
+     * 
+     * @param  typeProvider       the type provider to collapse the result with.
+     * @param  isSecondStageLazy  {@code true} if the second stages are parsed on the first access to their results.
+     */
+    public final void collapse(ParserTypeProvider typeProvider, boolean isSecondStageLazy) {
         if (hasCollapsed)
             return;
         
-        if (this.entries == null) {
-            hasCollapsed = true;
+        if ((this.entries == null)
+         || (this.entries.size() == 0)) {
+            hasCollapsed      = true;
+            isCollapsePending = false;
             return;
         }
         
-        if (this.entries.size() == 0) {
-            hasCollapsed = true;
-            return;
+        synchronized (this) {
+            if (hasCollapsed || isCollapsing)
+                return;
+            
+            isCollapsing = true;
+            try {
+                collapseEntries(typeProvider, isSecondStageLazy);
+            } finally {
+                isCollapsing      = false;
+                isCollapsePending = false;
+            }
         }
+    }
+    
+    /**
+     * Defers the collapse of this result to the first access to its entries.
+     * 
+     * The result reads the same as one collapsed right away -- the collapse is just not done if the result is not read.
+     * 
+     * @param  typeProvider  the type provider to collapse the result with.
+     * @return               this result.
+     */
+    public final ParseResult deferCollapse(ParserTypeProvider typeProvider) {
+        return deferCollapse(typeProvider, false);
+    }
+    
+    /**
+     * Defers the collapse of this result to the first access to its entries.
+     * 
+     * @param  typeProvider       the type provider to collapse the result with.
+     * @param  isSecondStageLazy  {@code true} if the second stages are parsed on the first access to their results
+     *                              (see {@link #collapse(ParserTypeProvider, boolean)}).
+     * @return                    this result.
+     */
+    public final ParseResult deferCollapse(ParserTypeProvider typeProvider, boolean isSecondStageLazy) {
+        if (hasCollapsed)
+            return this;
         
         synchronized (this) {
-            if (hasCollapsed)
+            collapseTypeProvider      = typeProvider;
+            isCollapseSecondStageLazy = isSecondStageLazy;
+            isCollapsePending         = true;
+        }
+        return this;
+    }
+    
+    /** Returns the entries -- once the deferred collapse is done (see {@link #deferCollapse(ParserTypeProvider)}). */
+    private EntryTable table() {
+        if (isCollapsePending) {
+            synchronized (this) {
+                if (isCollapsePending) {
+                    collapse(collapseTypeProvider, isCollapseSecondStageLazy);
+                    collapseTypeProvider = null;
+                }
+            }
+        }
+        if (secondStage != null) {
+            parseSecondStage();
+        }
+        return entries;
+    }
+    
+    /**
+     * Defers the parse of the second stage of the entry of this (sub) result to the first access to its entries.
+     * 
+     * The entries of the second stage are parsed from the start position of this result to the given end position.
+     */
+    final void deferSecondStage(RegParser secondStage, int endPosition, ParserTypeProvider typeProvider) {
+        synchronized (this) {
+            this.secondStageTypeProvider = typeProvider;
+            this.secondStageEndPosition  = endPosition;
+            this.secondStage             = secondStage;
+        }
+    }
+    
+    private void parseSecondStage() {
+        synchronized (this) {
+            var secondStage = this.secondStage;
+            if ((secondStage == null)
+             || isParsingSecondStage)
                 return;
             
-            int     entrySize          = entries.size();
-            var     lastEntry          = entries.get(entrySize - 1);
-            boolean lastEntryHasNoName = (lastEntry.name()    == null)
-                                      && (lastEntry.type()    == null)
-                                      && (lastEntry.typeRef() == null);
-            
-            // Basic collapse of the no name and no type
-            for (int i = (entries.size() - 1); --i >= 0;) {
-                var     entry          = entries.get(i);
-                boolean entryHasNoName = ((entry.name()    == null)
-                                       && (entry.type()    == null)
-                                       && (entry.typeRef() == null));
-                // If both has no name, collapse
-                if (entryHasNoName && lastEntryHasNoName) {
-                    entries.remove(i);
+            isParsingSecondStage = true;
+            try {
+                int endPosition = secondStageEndPosition;
+                var text        = originalText().substring(0, endPosition);
+                var options     = ParseOptions.Default.withLazySecondStage();
+                var result      = secondStage.parse(text, startPosition(), secondStageTypeProvider, options);
+                if (result != null) {
+                    var resultEntries = result.table();
+                    for (int i = resultEntries.size(); --i >= 0;) {
+                        var subResult = resultEntries.subResultAt(i);
+                        if (subResult instanceof ParseResultNode) {
+                            ((ParseResultNode)subResult).parent(this);
+                        }
+                    }
+                    entries.insertAll(entries.size(), resultEntries);
                 }
-                
-                lastEntryHasNoName = entryHasNoName;
-                lastEntry          = entry;
+                // The rest of the entry not parsed by the second stage is kept as a nameless entry.
+                int size = entries.size();
+                if ((size == 0)
+                 || (entries.endPositionAt(size - 1) != endPosition)) {
+                    entries.add(endPosition, null, null);
+                }
+            } finally {
+                isParsingSecondStage    = false;
+                secondStageTypeProvider = null;
+                this.secondStage        = null;
             }
+        }
+    }
+    
+    private void writeObject(ObjectOutputStream stream) throws IOException {
+        // A deferred collapse is done so the collapsed entries are written.
+        table();
+        stream.defaultWriteObject();
+    }
+    
+    /** Collapses the result as a sub result -- without the lock as it is only reached through its collapsing parent. */
+    private void collapseAsSub(ParserTypeProvider typeProvider, boolean isSecondStageLazy) {
+        // The second stage yet to be parsed is collapsed when it is parsed.
+        if (hasCollapsed
+         || (secondStage != null))
+            return;
+        
+        if ((entries == null)
+         || (entries.size() == 0)) {
+            hasCollapsed = true;
+            return;
+        }
+        
+        collapseEntries(typeProvider, isSecondStageLazy);
+    }
+    
+    private void collapseEntries(ParserTypeProvider typeProvider, boolean isSecondStageLazy) {
+        // One pass over the entries -- the kept entries are moved down in place.
+        //   1. A run of entries with no name and no type is merged into the last one of the run.
+        //   2. A sub result is collapsed and is dropped if it has no named or typed entry before or after.
+        //   3. A run of the same entries with a name or a type ending with '[]' and no sub result is merged into the
+        //        last one of the run.
+        var     entries        = this.entries;
+        int     size           = entries.size();
+        int     count          = 0;
+        boolean hasSecondStage = false;
+        boolean hasFlattened   = false;
+        for (int i = 0; i < size; i++) {
+            var parserEntry = entries.parserEntryAt(i);
+            if (hasNoName(parserEntry)
+             && ((i + 1) < size)
+             && hasNoName(entries.parserEntryAt(i + 1)))
+                continue;
             
-            // Collapse sub entry that does not have name or type
-            // Remove the entry without sub/type then replace it with the one with out a sub
-            for (int i = entries.size(); --i >= 0;) {
-                var thisEntry = entries.get(i);
-                
-                if (thisEntry.hasSubResult()
-                && !thisEntry.subResult().hasNames()
-                && !thisEntry.subResult().hasTypes()) {
-                    int thisEndPosition = thisEntry.endPosition();
-                    if (thisEntry instanceof ParseResultEntryWithSubResult) {
-                        entries.remove(i);
-                        
-                        var newEntry = newEntry(thisEndPosition);
-                        entries.add(i, newEntry);
-                    } else
-                        if (thisEntry instanceof ParseResultEntryWithParserEntryAndSubResult) {
-                            entries.remove(i);
-                            
-                            var thisParseEntry = thisEntry.parserEntry();
-                            var newEntry       = newEntry(thisEndPosition, thisParseEntry);
-                            entries.add(i, newEntry);
-                        }
+            int endPosition = entries.endPositionAt(i);
+            var subResult   = entries.subResultAt(i);
+            if (subResult != null) {
+                boolean hasNoSub = !subResult.hasNames()
+                                && !subResult.hasTypes();
+                subResult.collapseAsSub(typeProvider, isSecondStageLazy);
+                if (hasNoSub
+                 || (!subResult.hasNames()
+                  && !subResult.hasTypes())) {
+                    subResult = null;
                 }
-                
-                if (!thisEntry.hasSubResult())
-                    continue;
-                
-                thisEntry
-                    .subResult()
-                    .collapse(typeProvider);
             }
             
-            // Collapse entry that its sub does not contain any named or typed entry
-            for (int i = entries.size(); --i >= 0;) {
-                var thisEntry = entries.get(i);
-                if (!thisEntry.hasSubResult())
-                    continue;
-                
-                if (thisEntry.subResult().hasNames())
-                    continue;
-                
-                if (thisEntry.subResult().hasTypes())
-                    continue;
-                
-                entries.remove(i);
-                
-                int thisEndPosition = thisEntry.endPosition();
-                var thisParseEntry  = thisEntry.parserEntry();
-                var newEntry        = newEntry(thisEndPosition, thisParseEntry);
-                entries.add(i, newEntry);
+            if ((count > 0)
+             && (subResult == null)
+             && isSameArrayEntry(entries.parserEntryAt(count - 1), parserEntry)
+             && (entries.subResultAt(count - 1) == null)) {
+                count--;
             }
             
-            // Collapse the same type and same name that end with '[]'
-            lastEntry = entries.get(entries.size() - 1);
-            ParserType    LatestType = lastEntry.type();
-            ParserTypeRef LatestTRef = lastEntry.typeRef();
-            String   LatestName = lastEntry.name();
+            entries.put(count, endPosition, parserEntry, subResult);
+            count++;
             
-            for (int i = (entries.size() - 1); --i >= 0;) {
-                var thisEntry   = entries.get(i);
-                var thisType    = thisEntry.type();
-                var thisTypeRef = thisEntry.typeRef();
-                var thisName    = thisEntry.name();
-                
-                if (!lastEntry.hasSubResult()
-                 && !thisEntry.hasSubResult()
-                 && Objects.equals(LatestType, thisType)
-                 && Objects.equals(LatestTRef, thisTypeRef)
-                 && Objects.equals(LatestName, thisName)
-                 && (((thisName    != null) && thisName          .endsWith("[]"))
-                  || ((thisType    != null) && thisType   .name().endsWith("[]"))
-                  || ((thisTypeRef != null) && thisTypeRef.name().endsWith("[]")))) {
-                    entries.remove(i);
-                }
-                lastEntry  = thisEntry;
-                LatestType = thisType;
-                LatestTRef = thisTypeRef;
-                LatestName = thisName;
+            if (parserEntry != null) {
+                hasSecondStage |= (parserEntry.secondStage() != null);
+                hasFlattened   |= parserEntry.isFlattened() || parserEntry.isFlattenedIfSingle();
             }
-            
-            // Process Second Stage Entry
+        }
+        entries.truncate(count);
+        
+        // Process Second Stage Entry
+        if (hasSecondStage) {
             for (int i = entries.size(); --i >= 0;) {
-                var thisEntry   = entries.get(i);
-                var parserEntry = thisEntry.parserEntry();
+                var parserEntry = entries.parserEntryAt(i);
                 if (parserEntry == null)
                     continue;
                 
@@ -1470,78 +1663,125 @@ abstract public class ParseResult implements Serializable {
                 if (secondStage == null)
                     continue;
                 
-                parseEntry(i, secondStage, typeProvider);
+                if (isSecondStageLazy) {
+                    deferEntry(i, secondStage, typeProvider);
+                } else {
+                    parseEntry(i, secondStage, typeProvider);
+                }
             }
+        }
+        
+        // The second stage parsed right away may bring in the entries to be flattened.
+        if (!hasFlattened
+         && (!hasSecondStage || isSecondStageLazy))
+            return;
+        
+        if (RegParser.isDebugMode) {
+            RegParser.DebugPrintStream.println("Before Flating:------------------------------------------------------");
+            RegParser.DebugPrintStream.println(toString());
+        }
+        
+        // Collapse auto skip name that end with '*'
+        for (int i = entries.size(); i --> 0 ;) {
+            var entry = entries.parserEntryAt(i);
+            if ((entry == null)
+             || !entry.isFlattened())
+                continue;
             
-            if (RegParser.isDebugMode) {
-                RegParser.DebugPrintStream.println("Before Flating:------------------------------------------------------");
-                RegParser.DebugPrintStream.println(toString());
+            if (entries.subResultAt(i) == null) {
+                entries.delete(i);
+                continue;
             }
             
-            // Collapse auto skip name that end with '*'
-            for (int i = entries.size(); i --> 0 ;) {
-                var entry = entries.get(i);
-                var name  = entry.name();
-                var type  = entry.typeName();
-                if (((name == null) || !name.contains("*"))
-                 && ((type == null) || !type.contains("*")))
-                    continue;
-                
-                if (!entry.hasSubResult()) {
-                    entries.remove(i);
-                    continue;
-                }
-                
-                if (RegParser.isDebugMode) {
-                    RegParser.DebugPrintStream
-                            .printf("Flating '%s':'%s' START:----------------------------------------------\n", name, type);
-                }
-                flatEntry(i);
-                if (RegParser.isDebugMode) {
-                    RegParser.DebugPrintStream
-                            .printf("Flating '%s':'%s' END:------------------------------------------------\n", name, type);
-                }
-                i--;
+            if (RegParser.isDebugMode) {
+                RegParser.DebugPrintStream
+                        .printf("Flating '%s':'%s' START:----------------------------------------------\n", entry.name(), typeNameOf(entry));
             }
+            flatEntry(i);
+            if (RegParser.isDebugMode) {
+                RegParser.DebugPrintStream
+                        .printf("Flating '%s':'%s' END:------------------------------------------------\n", entry.name(), typeNameOf(entry));
+            }
+            i--;
+        }
+        
+        // Flatten group with name or type that end with '+'
+        // This is done only if it has sub with only one entry
+        for (int i = entries.size(); i --> 0 ;) {
+            var entry = entries.parserEntryAt(i);
+            if ((entry == null)
+             || !entry.isFlattenedIfSingle())
+                continue;
             
-            // Flatten group with name or type that end with '+'
-            // This is done only if it has sub with only one entry
-            for (int i = entries.size(); i --> 0 ;) {
-                var entry = entries.get(i);
-                var name  = entry.name();
-                var type  = entry.typeName();
-                if (((name == null) || !(name.contains("+")))
-                 && ((type == null) || !(type.contains("+"))))
-                    continue;
-                
-                if (!entry.hasSubResult()) {
-                    entries.remove(i);
-                    continue;
-                }
-                
-                if (entry.subResult().entryCount() != 1)
-                    continue;
-                
-                if (RegParser.isDebugMode) {
-                    RegParser.DebugPrintStream
-                            .printf("Flating '%s':'%s' START:----------------------------------------------\n", name, type);
-                }
-                flatEntry(i);
-                if (RegParser.isDebugMode) {
-                    RegParser.DebugPrintStream
-                            .printf("Flating '%s':'%s' END:------------------------------------------------\n", name, type);
-                }
-                i--;
+            var subResult = entries.subResultAt(i);
+            if (subResult == null) {
+                entries.delete(i);
+                continue;
             }
             
+            if (subResult.entryCount() != 1)
+                continue;
+            
+            if (RegParser.isDebugMode) {
+                RegParser.DebugPrintStream
+                        .printf("Flating '%s':'%s' START:----------------------------------------------\n", entry.name(), typeNameOf(entry));
+            }
+            flatEntry(i);
             if (RegParser.isDebugMode) {
-                RegParser.DebugPrintStream.println("End Flating:---------------------------------------------------------");
+                RegParser.DebugPrintStream
+                        .printf("Flating '%s':'%s' END:------------------------------------------------\n", entry.name(), typeNameOf(entry));
             }
+            i--;
+        }
+        
+        if (RegParser.isDebugMode) {
+            RegParser.DebugPrintStream.println("End Flating:---------------------------------------------------------");
         }
     }
     
+    private static boolean hasNoName(RegParserEntry entry) {
+        return (entry == null)
+            || entry.hasNoName();
+    }
+    
+    private static boolean isSameArrayEntry(RegParserEntry previous, RegParserEntry entry) {
+        if ((previous == null)
+         || (entry    == null)
+         || !previous.isArray())
+            return false;
+        
+        return (previous == entry)
+            || (Objects.equals(previous.type(),    entry.type())
+             && Objects.equals(previous.typeRef(), entry.typeRef())
+             && Objects.equals(previous.name(),    entry.name()));
+    }
+    
+    private static String typeNameOf(RegParserEntry entry) {
+        var typeRef = entry.typeRef();
+        if (typeRef != null)
+            return typeRef.name();
+        
+        var type = entry.type();
+        return (type != null)
+                ? type.name()
+                : null;
+    }
+    
     //-- Second Stage related ------------------------------------------------------------------------------------------
     
+    /** Gives the entry a sub result parsing the second stage on the first access - Only when the entry has no sub */
+    private void deferEntry(int index, RegParser secondStage, ParserTypeProvider typeProvider) {
+        var entries = this.entries;
+        if (entries.subResultAt(index) != null)
+            return;
+        
+        int startPosition = (index == 0) ? startPosition() : entries.endPositionAt(index - 1);
+        int endPosition   = entries.endPositionAt(index);
+        var subResult     = new ParseResultNode(startPosition, this);
+        subResult.deferSecondStage(secondStage, endPosition, typeProvider);
+        entries.put(index, endPosition, entries.parserEntryAt(index), subResult);
+    }
+    
     /** Parse the result entry - Only when the entry has no sub */
     public final boolean parseEntry(int index, RegParser parser) {
         return parseEntry(index, parser, null);
@@ -1552,6 +1792,7 @@ abstract public class ParseResult implements Serializable {
         if (parser == null)
             return false;
         
+        var entries = table();
         var Entry = entryAt(index);
         if ((Entry == null)
           || Entry.hasSubResult())
@@ -1567,13 +1808,11 @@ abstract public class ParseResult implements Serializable {
         if (result.entryCount() == 0)
             return true;
         
-        if (result.endPosition() == text.length()) {
-            // If the end position is equal, there is no need to keep the old one.
-            entries.remove(index);
-        }
-        for (int i = result.entryCount(); --i >= 0;) {
-            var resultEntry = result.entries.get(i);
-            entries.add(index, resultEntry);
+        // If the end position is equal, there is no need to keep the old one.
+        boolean isReplaced = (result.endPosition() == text.length());
+        entries.insertAll(isReplaced ? (index + 1) : index, result.table());
+        if (isReplaced) {
+            entries.delete(index);
         }
         
         return true;
@@ -1588,16 +1827,12 @@ abstract public class ParseResult implements Serializable {
          || !entry.hasSubResult())
             return false;
         
+        var entries   = table();
         var subResult = entry.subResult();
         
-        // Remove the main one
-        entries.remove(index);
-        
-        // Replace with the sub of the main one
-        for (int i = subResult.entryCount(); --i >= 0;) {
-            var subEntry = subResult.entries.get(i);
-            entries.add(index, subEntry);
-        }
+        // Replace the main one with the sub of the main one
+        entries.insertAll(index + 1, subResult.table());
+        entries.delete(index);
         
         return true;
     }
@@ -1649,6 +1884,7 @@ abstract public class ParseResult implements Serializable {
     
     /** An internal service for toDetail() */
     final String toString(int indent, int tab, int depth) {
+        var entries = table();
         int count   = entries.size();
         int last    = count - 1;
         var tabs    = indents(indent) + tabs(tab);
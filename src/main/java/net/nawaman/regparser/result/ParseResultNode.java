@@ -29,7 +29,6 @@ public final class ParseResultNode extends NormalParseResult {
     private static final long serialVersionUID = 2545684654651635454L;
     
     private ParseResult parent;
-    private int         index;
     
     ParseResultNode(int startPosition, ParseResult parentResult) {
         this(startPosition, parentResult, null);
@@ -38,16 +37,6 @@ public final class ParseResultNode extends NormalParseResult {
     private ParseResultNode(int startPosition, ParseResult parentResult, List<ParseResultEntry> resultEntries) {
         super(startPosition, resultEntries);
         this.parent = parentResult;
-        
-        int index      = 0;
-        int entryCount = parentResult.entryCount();
-        for (int i = 0; i < entryCount; i++) {
-            if (startPosition == parentResult.endPositionOf(i)) {
-                index = i;
-                break;
-            }
-        }
-        this.index = index;
     }
     
     final void parent(ParseResult parent) {
@@ -64,6 +53,11 @@ public final class ParseResultNode extends NormalParseResult {
         return parent.originalCharSequence();
     }
     
+    @Override
+    public final LineIndex lineIndex() {
+        return parent.lineIndex();
+    }
+    
     @Override
     public final ParseResult duplicate() {
         // Duplication of Node cannot be optimize the same way with Temp (by avoiding recursive) 
@@ -72,9 +66,7 @@ public final class ParseResultNode extends NormalParseResult {
         var duplicate     = parent.duplicate();
         var entryList     = entryList();
         
-        var node = new ParseResultNode(startPosition, duplicate, entryList);
-        node.index = index;
-        return node;
+        return new ParseResultNode(startPosition, duplicate, entryList);
     }
     
     // Get Element by name -----------------------------------------------------------------------
@@ -98,4 +90,17 @@ public final class ParseResultNode extends NormalParseResult {
         return null;
     }
     
+    /**{@inheritDoc}*/
+    @Override
+    public final TextView lastTextViewOf(String name) {
+        var view = super.lastTextViewOf(name);
+        if (view != null)
+            return view;
+        
+        if (parent != null)
+            return parent.lastTextViewOf(name);
+        
+        return null;
+    }
+    
 }
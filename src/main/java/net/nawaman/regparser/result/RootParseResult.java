@@ -28,6 +28,9 @@ public final class RootParseResult extends NormalParseResult {
     
     private final CharSequence originalText;
     
+    /** The line index of the original text -- built on the first use. */
+    private transient volatile LineIndex lineIndex;
+    
     RootParseResult(int startPosition, CharSequence originalText) {
         this(startPosition, originalText, null);
     }
@@ -44,6 +47,16 @@ public final class RootParseResult extends NormalParseResult {
         return originalText;
     }
     
+    @Override
+    public final LineIndex lineIndex() {
+        var lineIndex = this.lineIndex;
+        if (lineIndex == null) {
+            lineIndex      = LineIndex.of(originalText);
+            this.lineIndex = lineIndex;
+        }
+        return lineIndex;
+    }
+    
     @Override
     public final ParseResult duplicate() {
         int startPosition = startPosition();
@@ -63,20 +63,58 @@ public final class TemporaryParseResult extends ParseResult {
           || index >= entryCount())
             return null;
         
-        if (index < first.entryCount()) {
-            var result = this;
-            while (index < result.first.entryCount()) {
-                if (!(result.first instanceof TemporaryParseResult))
-                    return result.first.entryAt(index);
-                
-                result = (TemporaryParseResult)result.first;
-            }
-            return result.entryAt(index);
+        var result = this;
+        while (true) {
+            int firstCount = result.first.entryCount();
+            if (index >= firstCount)
+                return result.rawEntryAt(index - firstCount);
+            if (!(result.first instanceof TemporaryParseResult))
+                return result.first.entryAt(index);
+            
+            result = (TemporaryParseResult)result.first;
+        }
+    }
+    
+    @Override
+    final int entryEndPositionAt(int index) {
+        var result = this;
+        while (true) {
+            int firstCount = result.first.entryCount();
+            if (index >= firstCount)
+                return result.rawEndPositionAt(index - firstCount);
+            if (!(result.first instanceof TemporaryParseResult))
+                return result.first.entryEndPositionAt(index);
+            
+            result = (TemporaryParseResult)result.first;
+        }
+    }
+    
+    @Override
+    final ParseResult entrySubResultAt(int index) {
+        var result = this;
+        while (true) {
+            int firstCount = result.first.entryCount();
+            if (index >= firstCount)
+                return result.rawSubResultAt(index - firstCount);
+            if (!(result.first instanceof TemporaryParseResult))
+                return result.first.entrySubResultAt(index);
+            
+            result = (TemporaryParseResult)result.first;
+        }
+    }
+    
+    @Override
+    final int lastIndexOfName(String name) {
+        var result = this;
+        while (true) {
+            int index = result.indexOf(name);
+            if (index != -1)
+                return result.first.entryCount() + index;
+            if (!(result.first instanceof TemporaryParseResult))
+                return result.first.lastIndexOfName(name);
+            
+            result = (TemporaryParseResult)result.first;
         }
-        return entries()
-                .skip(index - first.entryCount())
-                .findFirst()
-                .orElse(null);
     }
     
     @Override
@@ -89,6 +127,11 @@ public final class TemporaryParseResult extends ParseResult {
         return first.originalCharSequence();
     }
     
+    @Override
+    public final LineIndex lineIndex() {
+        return first.lineIndex();
+    }
+    
     @Override
     public final ParseResult duplicate() {
         // This was initially implement using recursive but it was too slow.
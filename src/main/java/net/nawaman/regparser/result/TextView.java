@@ -0,0 +1,237 @@
+/*----------------------------------------------------------------------------------------------------------------------
+ * Copyright (C) 2008-2024 Nawapunth Manusitthipol.
+ *----------------------------------------------------------------------------------------------------------------------
+ * LICENSE:
+ * 
+ * This file is part of Nawa's RegParser.
+ * 
+ * The project is a free software; you can redistribute it and/or modify it under the SIMILAR terms of the GNU General
+ * Public License as published by the Free Software Foundation; either version 2 of the License, or any later version.
+ * You are only required to inform me about your modification and redistribution as or as part of commercial software
+ * package. You can inform me via nawa<at>nawaman<dot>net.
+ * 
+ * The project is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the 
+ * implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for
+ * more details.
+ * ---------------------------------------------------------------------------------------------------------------------
+ */
+package net.nawaman.regparser.result;
+
+import java.util.Locale;
+import java.util.Objects;
+
+/**
+ * A view of a part of a text -- without copying it.
+ * 
+ * The view is a {@link CharSequence} reading through to the text it is over.
+ * Its hash code is the same as the one of the {@link String} of the same content and is computed once.
+ * A view equals another view of the same content -- use {@link #contentEquals(CharSequence)} to compare the content
+ *   with any other char sequence.
+ * The text is assumed not to change while the view is in use.
+ * 
+ * @author Nawapunth Manusitthipol (https://github.com/NawaMan)
+ */
+public final class TextView implements CharSequence {
+    
+    /** The empty view. */
+    public static final TextView EMPTY = new TextView("", 0, 0);
+    
+    /** @return  the view of the whole text or {@code null} if the text is null. */
+    public static TextView of(CharSequence text) {
+        if (text == null)
+            return null;
+        
+        if (text instanceof TextView)
+            return (TextView)text;
+        
+        return new TextView(text, 0, text.length());
+    }
+    
+    /** @return  the view of the text from the start (inclusive) to the end (exclusive). */
+    public static TextView of(CharSequence text, int start, int end) {
+        Objects.checkFromToIndex(start, end, text.length());
+        if (text instanceof TextView) {
+            var view = (TextView)text;
+            return new TextView(view.text, view.start + start, view.start + end);
+        }
+        return new TextView(text, start, end);
+    }
+    
+    //== Instance ======================================================================================================
+    
+    private final CharSequence text;
+    private final int          start;
+    private final int          end;
+    
+    private int    hashCode = 0;
+    private String string   = null;
+    
+    private TextView(CharSequence text, int start, int end) {
+        this.text  = text;
+        this.start = start;
+        this.end   = end;
+    }
+    
+    /** @return  the text this view is over. */
+    public CharSequence text() {
+        return text;
+    }
+    
+    /** @return  the start of this view in the text. */
+    public int start() {
+        return start;
+    }
+    
+    /** @return  the end of this view in the text. */
+    public int end() {
+        return end;
+    }
+    
+    @Override
+    public int length() {
+        return end - start;
+    }
+    
+    @Override
+    public char charAt(int index) {
+        Objects.checkIndex(index, end - start);
+        return text.charAt(start + index);
+    }
+    
+    @Override
+    public TextView subSequence(int start, int end) {
+        Objects.checkFromToIndex(start, end, this.end - this.start);
+        return new TextView(text, this.start + start, this.start + end);
+    }
+    
+    /** @return {@code true} if this view has the same chars as the given text. */
+    public boolean contentEquals(CharSequence other) {
+        if (other == null)
+            return false;
+        
+        int length = end - start;
+        if (other.length() != length)
+            return false;
+        
+        if (other instanceof TextView) {
+            var view = (TextView)other;
+            if ((view.text == text) && (view.start == start))
+                return true;
+        }
+        
+        for (int i = 0; i < length; i++) {
+            if (text.charAt(start + i) != other.charAt(i))
+                return false;
+        }
+        return true;
+    }
+    
+    /** @return {@code true} if this view has the same chars as the given text ignoring the case of the chars. */
+    public boolean contentEqualsIgnoreCase(CharSequence other) {
+        if (other == null)
+            return false;
+        
+        int length = end - start;
+        if (other.length() != length)
+            return false;
+        
+        // The same comparison as String.equalsIgnoreCase(...).
+        for (int i = 0; i < length; i++) {
+            char thisChar  = text.charAt(start + i);
+            char otherChar = other.charAt(i);
+            if (thisChar == otherChar)
+                continue;
+            
+            char thisUpper  = Character.toUpperCase(thisChar);
+            char otherUpper = Character.toUpperCase(otherChar);
+            if ((thisUpper != otherUpper)
+             && (Character.toLowerCase(thisUpper) != Character.toLowerCase(otherUpper)))
+                return false;
+        }
+        return true;
+    }
+    
+    /**
+     * Checks if this view has the same chars as the given text when both are lower-cased by {@link String#toLowerCase()}.
+     * 
+     * The chars are compared in place when both are ASCII -- which lower-case one to one (but in the Turkish and
+     *   Azerbaijani locales).
+     * Otherwise, both are lower-cased as strings as a char may lower-case to more chars or depend on the next ones.
+     * 
+     * @param  other  the other text.
+     * @return        {@code true} if the lower cases of both are equal.
+     */
+    public boolean contentEqualsLowerCase(CharSequence other) {
+        if (other == null)
+            return false;
+        
+        int length = end - start;
+        if (isAsciiLowerCaseInPlace(other)) {
+            if (other.length() != length)
+                return false;
+            
+            for (int i = 0; i < length; i++) {
+                char thisChar  = text.charAt(start + i);
+                char otherChar = other.charAt(i);
+                if ((thisChar != otherChar)
+                 && (Character.toLowerCase(thisChar) != Character.toLowerCase(otherChar)))
+                    return false;
+            }
+            return true;
+        }
+        return toString().toLowerCase().equals(other.toString().toLowerCase());
+    }
+    
+    private boolean isAsciiLowerCaseInPlace(CharSequence other) {
+        var language = Locale.getDefault().getLanguage();
+        if ("tr".equals(language)
+         || "az".equals(language))
+            return false;
+        
+        for (int i = start; i < end; i++) {
+            if (text.charAt(i) >= 128)
+                return false;
+        }
+        for (int i = 0; i < other.length(); i++) {
+            if (other.charAt(i) >= 128)
+                return false;
+        }
+        return true;
+    }
+    
+    @Override
+    public int hashCode() {
+        int hashCode = this.hashCode;
+        if ((hashCode == 0) && (end != start)) {
+            for (int i = start; i < end; i++) {
+                hashCode = 31*hashCode + text.charAt(i);
+            }
+            this.hashCode = hashCode;
+        }
+        return hashCode;
+    }
+    
+    @Override
+    public boolean equals(Object obj) {
+        if (obj == this)
+            return true;
+        
+        if (!(obj instanceof TextView))
+            return false;
+        
+        return contentEquals((TextView)obj);
+    }
+    
+    @Override
+    public String toString() {
+        var string = this.string;
+        if (string == null) {
+            string = ((start == 0) && (end == text.length()) && (text instanceof String))
+                   ? (String)text
+                   : text.subSequence(start, end).toString();
+            this.string = string;
+        }
+        return string;
+    }
+    
+}
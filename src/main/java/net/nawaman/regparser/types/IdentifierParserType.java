@@ -63,6 +63,11 @@ public class IdentifierParserType extends ParserType {
         return checker;
     }
     
+    @Override
+    public boolean hasFixedChecker() {
+        return true;
+    }
+    
     @Override
     public final Boolean isDeterministic() {
         return checker.isDeterministic();
@@ -23,8 +23,8 @@ import static net.nawaman.regparser.utils.Util.getClassByName;
 
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
-import java.util.Hashtable;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
 
 import net.nawaman.regparser.Checker;
 import net.nawaman.regparser.ParserType;
@@ -52,7 +52,7 @@ public class JavaCheckerParserType extends ParserType {
     
     private static final long serialVersionUID = 2084235385677789297L;
 
-    private static Hashtable<String, Checker> checkers = new Hashtable<String, Checker>();
+    private static final ConcurrentHashMap<String, Checker> checkers = new ConcurrentHashMap<String, Checker>();
     
     private static Class<?>[] emptyClassArray          = new Class<?>[0];
     private static Class<?>[] checkerClassArrayInt     = new Class<?>[] { CharSequence.class, int.class,     ParserTypeProvider.class, ParseResult.class };
@@ -67,6 +67,10 @@ public class JavaCheckerParserType extends ParserType {
     
     @Override
     public Checker checker(ParseResult hostResult, String parameter, ParserTypeProvider typeProvider) {
+        var checker = checkers.get(parameter);
+        if (checker != null)
+            return checker;
+        
         return JavaCheckerParserType.checkers.computeIfAbsent(parameter, __ -> {
             try {
                 int index;
@@ -33,16 +33,22 @@ public class SimpleParserType extends ParserType {
     private static final long serialVersionUID = 5886175272511843777L;
     
     public SimpleParserType(String name, Checker checker) {
-        this(name, CheckerProvider.of(checker));
+        this(name, CheckerProvider.of(checker), true);
     }
     
     public SimpleParserType(String name, CheckerProvider checkerProvider) {
+        this(name, checkerProvider, false);
+    }
+    
+    private SimpleParserType(String name, CheckerProvider checkerProvider, boolean hasFixedChecker) {
         this.name            = name;
         this.checkerProvider = checkerProvider;
+        this.hasFixedChecker = hasFixedChecker;
     }
     
     private final String          name;
     private final CheckerProvider checkerProvider;
+    private final boolean         hasFixedChecker;
     
     /**{@inheritDoc}*/
     @Override
@@ -60,6 +66,12 @@ public class SimpleParserType extends ParserType {
         return (Checker)checkerProvider;
     }
     
+    /** @return  {@code true} if this type is made with a checker -- not a checker provider that may read the host. */
+    @Override
+    public final boolean hasFixedChecker() {
+        return hasFixedChecker;
+    }
+    
     @Override
     public final Boolean isDeterministic() {
         return null;
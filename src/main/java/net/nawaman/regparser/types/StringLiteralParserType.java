@@ -78,6 +78,11 @@ public class StringLiteralParserType extends ParserType {
         return checker;
     }
     
+    @Override
+    public boolean hasFixedChecker() {
+        return true;
+    }
+    
     @Override
     public final Boolean isDeterministic() {
         return true;
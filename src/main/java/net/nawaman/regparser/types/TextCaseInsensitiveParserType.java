@@ -23,23 +23,31 @@ import static net.nawaman.regparser.Quantifier.bound;
 import static net.nawaman.regparser.RegParser.newRegParser;
 
 // Usage: !text("Text")! will match everything that is equals to "Text" case insensitively
-import java.util.Hashtable;
+import java.util.concurrent.ConcurrentHashMap;
 
 import net.nawaman.regparser.Checker;
 import net.nawaman.regparser.ParserType;
 import net.nawaman.regparser.ParserTypeProvider;
 import net.nawaman.regparser.ParserTypeRef;
 import net.nawaman.regparser.result.ParseResult;
+import net.nawaman.regparser.result.TextView;
 
 /**
  * Parser Type for Case-Insensitive Text
+ * 
+ * The text is matched by the checker (as this type has no validation) when its lower case is the one of the parameter
+ *   -- the same rule as the case-insensitive back reference (see {@link TextView#contentEqualsLowerCase}).
+ * The checkers are kept for up to {@link #MAX_CHECKERS} texts -- all are dropped when there are more.
  *  
  * @author Nawapunth Manusitthipol (https://github.com/NawaMan)
  */
 @SuppressWarnings("serial")
 public class TextCaseInsensitiveParserType extends ParserType {
     
-    private static Hashtable<Integer, Checker> checkers = new Hashtable<Integer, Checker>();
+    /** The maximum number of the texts whose checkers are kept. */
+    public static final int MAX_CHECKERS = 256;
+    
+    private static final ConcurrentHashMap<String, Checker> checkers = new ConcurrentHashMap<String, Checker>();
     
     public static String                        name     = "textCI";
     public static TextCaseInsensitiveParserType instance = new TextCaseInsensitiveParserType();
@@ -55,33 +63,85 @@ public class TextCaseInsensitiveParserType extends ParserType {
         if (parameter == null) {
             parameter = "";
         }
-        int length  = parameter.length();
-        return checkers.computeIfAbsent(length, __ ->{
-            return newRegParser()
-                    .entry(Any, bound(length))
-                    .build();
+        var checker = checkers.get(parameter);
+        if (checker != null)
+            return checker;
+        
+        // The texts are given by the users so the kept checkers are bounded.
+        if (checkers.size() >= MAX_CHECKERS) {
+            checkers.clear();
+        }
+        return checkers.computeIfAbsent(parameter, text -> {
+            return text.isEmpty()
+                    ? newRegParser().entry(Any, bound(0)).build()
+                    : newRegParser().entry(new LowerCaseChecker(text)).build();
         });
     }
     
     @Override
-    public boolean doValidate(
-                    ParseResult        hostResult,
-                    ParseResult        thisResult,
-                    String             parameter,
-                    ParserTypeProvider typeProvider) {
-        var text = thisResult.text();
-        if (text == parameter)
+    public final Boolean isDeterministic() {
+        return true;
+    }
+    
+    /** The checker of the text whose lower case is the one of the parameter. */
+    private static final class LowerCaseChecker implements Checker {
+        
+        private static final long serialVersionUID = -2316618304716043398L;
+        
+        private final String text;
+        private final int    lowerCaseLength;
+        
+        LowerCaseChecker(String text) {
+            this.text            = text;
+            this.lowerCaseLength = text.toLowerCase().length();
+        }
+        
+        @Override
+        public int startLengthOf(CharSequence text, int offset, ParserTypeProvider typeProvider) {
+            return startLengthOf(text, offset, typeProvider, null);
+        }
+        
+        @Override
+        public int startLengthOf(CharSequence text, int offset, ParserTypeProvider typeProvider, ParseResult parseResult) {
+            if ((text == null) || (offset < 0) || (offset > text.length()))
+                return -1;
+            
+            int available = text.length() - offset;
+            int length    = this.text.length();
+            if ((length <= available) && TextView.of(text, offset, offset + length).contentEqualsLowerCase(this.text))
+                return length;
+            
+            // A char may lower-case to up to three chars (like U+0130 does) so the match may be shorter.
+            if (isOneToOne(text, offset, Math.min(available, lowerCaseLength)))
+                return -1;
+            
+            for (int each = Math.min(available, lowerCaseLength); each >= (lowerCaseLength + 2)/3; each--) {
+                if ((each != length) && TextView.of(text, offset, offset + each).contentEqualsLowerCase(this.text))
+                    return each;
+            }
+            return -1;
+        }
+        
+        /** @return {@code true} if the lower cases of this text and the part of the text have as many chars as them. */
+        private boolean isOneToOne(CharSequence text, int offset, int length) {
+            if (lowerCaseLength != this.text.length())
+                return false;
+            
+            for (int i = 0; i < length; i++) {
+                if (text.charAt(offset + i) >= 128)
+                    return false;
+            }
             return true;
+        }
         
-        if ((text      == null)
-         || (parameter == null))
-            return false;
+        @Override
+        public Boolean isDeterministic() {
+            return true;
+        }
         
-        return text.toLowerCase().equals(parameter.toLowerCase());
-    }
-    
-    @Override
-    public final Boolean isDeterministic() {
-        return true;
+        @Override
+        public String toString() {
+            return "!" + name + "(\"" + text + "\")!";
+        }
     }
 }
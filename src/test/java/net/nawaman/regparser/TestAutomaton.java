@@ -0,0 +1,108 @@
+package net.nawaman.regparser;
+
+import static net.nawaman.regparser.PredefinedCharClasses.Alphabet;
+import static net.nawaman.regparser.PredefinedCharClasses.Digit;
+import static net.nawaman.regparser.RegParser.compileRegParser;
+import static net.nawaman.regparser.RegParser.newRegParser;
+import static net.nawaman.regparser.TestUtils.validate;
+import static net.nawaman.regparser.checkers.CheckerAlternative.either;
+
+import org.junit.ClassRule;
+import org.junit.Test;
+
+import net.nawaman.regparser.checkers.WordChecker;
+
+public class TestAutomaton {
+    
+    @ClassRule
+    public static TimeRecordRule timeRecordRule = TimeRecordRule.instance;
+    
+    private static final String[] texts = {
+        "", "A", "AZ", "A1Z", "A12345Z", "Abc", "abc123", "123abc", "true", "falsetrue", "AAAAA", "Colour", "Color",
+        "key=value;", "key = value ; other=1;", "x=", "=x", "A1B2C3Z", "Ho Ho\tHo\nHo", "A.Z", "Shape", "Shap",
+        "intint", "in t", "abab", "ababa", "aab"
+    };
+    
+    private static String solve(RegParser parser, String text, int offset) {
+        var entries = parser.entries().toArray(RegParserEntry[]::new);
+        var result  = RegParserSolver.startParse(entries, text, offset, 0, 0, null, null, null, null, ParseContext.Default, 0);
+        if (result == null)
+            return "null";
+        
+        result.collapse(null);
+        return result.toString();
+    }
+    
+    private static void validateSameParse(RegParser parser) {
+        validate("true", RegParserAutomaton.of(parser) != null);
+        for (var text : texts) {
+            for (int offset = 0; offset <= text.length(); offset++) {
+                validate(solve(parser, text, offset), String.valueOf(parser.parse(text, offset)));
+            }
+        }
+    }
+    
+    @Test
+    public void testSameParse() {
+        var grammars = new String[] {
+            "Shape",
+            "Colou?r",
+            "Roar*",
+            "A.Z",
+            "A[0-9]+Z",
+            "A.*Z",
+            "(true|false)",
+            "(true|false)+",
+            "(AA|AAA|AAAA)",
+            "(AA|AAA||AAAA)",
+            "(int|in)[: :]?t",
+            "(a|ab)*b",
+            "(a(b|ba)|ab)a",
+            "(ab){0}a",
+            "A([0-9][A-Z])*[0-9]?Z",
+            "[a-z]{2,3}[0-9]{1,2}",
+            "(([a-z]+[: :]*=[: :]*[a-z0-9]+[: :]*;)[: :]*)+",
+            "Ho[: :]Ho[:Tab:]Ho[:NewLine:]Ho",
+            "(Shape|Shap)[a-z]*",
+            "x(=|[a-z]*)+",
+        };
+        for (var grammar : grammars) {
+            validateSameParse(compileRegParser(grammar));
+        }
+    }
+    
+    @Test
+    public void testEndOfText() {
+        validateSameParse(newRegParser().entry(newRegParser(Digit.zeroOrMore(), Alphabet.zeroOrMore()), Quantifier.OneOrMore).build());
+        validateSameParse(newRegParser().entry(Digit.zeroOrMore()).entry(newRegParser(Alphabet, Digit.zeroOrMore())).build());
+        validateSameParse(newRegParser().entry(either(Digit).or(WordChecker.EmptyWord)).entry(Alphabet).build());
+        validateSameParse(newRegParser().entry(either(Digit).orDefault(WordChecker.EmptyWord)).entry(Alphabet.zeroOrMore()).build());
+    }
+    
+    @Test
+    public void testNotPlain() {
+        // Named, typed and non-possessive entries are parsed by the solver.
+        validate("true", RegParserAutomaton.of(compileRegParser("A($Middle:~.~)*Z"))         == null);
+        validate("true", RegParserAutomaton.of(compileRegParser("A(#Middle:~[0-9]+~)Z"))     == null);
+        validate("true", RegParserAutomaton.of(compileRegParser("A[0-9]*+Z"))                == null);
+        validate("true", RegParserAutomaton.of(compileRegParser("A(#Int:!int!)Z"))           == null);
+        validate("true", RegParserAutomaton.of(compileRegParser("[a-z]+[0-9]*").toCompiled()) == null);
+    }
+    
+    @Test
+    public void testStateCache() {
+        var parser    = compileRegParser("(([a-z]+[: :]*=[: :]*[a-z0-9]+[: :]*;)[: :]*)+");
+        var automaton = RegParserAutomaton.of(parser);
+        validate(22, automaton.match("key = value ; other=1;", 0));
+        
+        validate(26, automaton.match("another = 12 ; key=value ;", 0));
+        
+        // The states are reused once they are built.
+        int stateCount = automaton.stateCount();
+        validate(22,         automaton.match("key = value ; other=1;", 0));
+        validate(26,         automaton.match("another = 12 ; key=value ;", 0));
+        validate(stateCount, automaton.stateCount());
+        validate("true",     stateCount <= RegParserAutomaton.MAX_STATES);
+    }
+    
+}
@@ -0,0 +1,70 @@
+package net.nawaman.regparser;
+
+import static net.nawaman.regparser.RegParser.compileRegParser;
+import static net.nawaman.regparser.TestUtils.validate;
+
+import org.junit.ClassRule;
+import org.junit.Test;
+
+public class TestCollapse {
+    
+    @ClassRule
+    public static TimeRecordRule timeRecordRule = TimeRecordRule.instance;
+    
+    private static final String[] grammars = {
+        "A($Middle[]:~.~)**Z",
+        "A($Middle[]:~.~)*+Z",
+        "A(#Middle*:~(#Sub:~[0-9]~)*~)Z",
+        "A(#Middle+:~(#Sub:~[0-9]~)*~)Z",
+        "(($Chars[]:~[a-z]~)|(#Digit:~[0-9]~)|[: :])*",
+        "(#Item:~[a-z]+(#Number:~[0-9]+~)?~)(([: :]|[:,:])+(#Item:~[a-z]+(#Number:~[0-9]+~)?~))*",
+        "(#Sum:~!Plus!~)[: :]*(#Other:~!Number!~)?",
+    };
+    
+    private static final String[] texts = {
+        "A123Z", "A1Z", "AZ", "Axy1Z", "ab c1d 23 e", "one, two2 three33", "5 + 10 7", "",
+    };
+    
+    @Test
+    public void testDeferredSameResult() {
+        var typeProvider = new ParserTypeProvider.Extensible();
+        typeProvider.addType("Number", "[0-9]+");
+        typeProvider.addType("Plus",   "!Number![: :]*[:+:][: :]*!Number!");
+        
+        var deferred = ParseOptions.Default.withDeferredCollapse();
+        for (var grammar : grammars) {
+            var parser = compileRegParser(typeProvider, grammar);
+            for (var text : texts) {
+                var expected = parser.parse(text, typeProvider, ParseOptions.Default);
+                var result   = parser.parse(text, typeProvider, deferred);
+                validate(String.valueOf(expected), String.valueOf(result));
+            }
+        }
+    }
+    
+    @Test
+    public void testDeferredFirstAccess() {
+        var parser = compileRegParser("(($Chars[]:~[a-z]~)|(#Digit:~[0-9]~)|[: :])*");
+        var text   = "ab c1d";
+        var result = parser.parse(text, null, ParseOptions.Default.withDeferredCollapse());
+        // The first read collapses the result -- the same as the one collapsed right away.
+        validate("d",  result.textOf("$Chars[]"));
+        validate(5,    result.entryCount());
+        validate(parser.parse(text).toString(), result.toString());
+        
+        validate("true",  ParseOptions.Default.withDeferredCollapse().isCollapseDeferred());
+        validate("false", ParseOptions.Default.isCollapseDeferred());
+    }
+    
+    @Test
+    public void testLongUnnamedRuns() {
+        // The unnamed entries before each digit are merged into one.
+        var parser = compileRegParser("(([a-z]|[: :])([a-z]|[: :])([a-z]|[: :])($Digit:~[0-9]~))*");
+        var text   = "ab 1".repeat(2_000);
+        var result = parser.parse(text);
+        validate(text.length(), result.endPosition());
+        validate(4_000,         result.entryCount());
+        validate(2_000,         result.indexesOf("$Digit").length);
+    }
+    
+}
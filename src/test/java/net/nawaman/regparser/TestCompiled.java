@@ -0,0 +1,138 @@
+package net.nawaman.regparser;
+
+import static net.nawaman.regparser.PredefinedCharClasses.Alphabet;
+import static net.nawaman.regparser.PredefinedCharClasses.Digit;
+import static net.nawaman.regparser.Quantifier.OneOrMore;
+import static net.nawaman.regparser.Quantifier.ZeroOrMore;
+import static net.nawaman.regparser.RegParser.compileRegParser;
+import static net.nawaman.regparser.RegParser.newRegParser;
+import static net.nawaman.regparser.TestUtils.validate;
+import static net.nawaman.regparser.checkers.CheckerAlternative.either;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+
+import org.junit.ClassRule;
+import org.junit.Test;
+
+import net.nawaman.regparser.checkers.CharSet;
+import net.nawaman.regparser.checkers.WordChecker;
+
+public class TestCompiled {
+    
+    @ClassRule
+    public static TimeRecordRule timeRecordRule = TimeRecordRule.instance;
+    
+    private static final String[] texts = {
+        "", "A", "AZ", "A1Z", "A12345Z", "Abc", "abc123", "123abc", "true", "falsetrue", "AAAAA", "Colour", "Color",
+        "key=value;", "key = value ; other=1;", "x=", "=x", "A1B2C3Z", "Ho Ho\tHo\nHo", "A.Z", "Shape", "Shap"
+    };
+    
+    private static void validateSameParse(RegParser parser) {
+        var compiled = parser.toCompiled();
+        validate(parser.toString(), compiled.toString());
+        for (var text : texts) {
+            for (int offset = 0; offset <= text.length(); offset++) {
+                var expected = parser  .parse(text, offset);
+                var actual   = compiled.parse(text, offset);
+                validate(String.valueOf(expected), String.valueOf(actual));
+            }
+            validate(String.valueOf(parser.match(text)), String.valueOf(compiled.match(text)));
+        }
+    }
+    
+    private static boolean hasCompiled(RegParser parser) {
+        return parser.entries().anyMatch(entry -> entry.checker() instanceof CompiledChecker);
+    }
+    
+    @Test
+    public void testSameParse() {
+        var grammars = new String[] {
+            "Shape",
+            "Colou?r",
+            "Roar*",
+            "A.Z",
+            "A[0-9]+Z",
+            "A[^0-9]++Z",
+            "A.*Z",
+            "A.**Z",
+            "A.*+Z",
+            "(true|false)",
+            "(true|false)+",
+            "(AA|AAA|AAAA)",
+            "(AA|AAA||AAAA)",
+            "A([0-9][A-Z])*[0-9]?Z",
+            "[a-z]+[0-9]*",
+            "[0-9]*[a-z]+",
+            "[a-z]{2,3}[0-9]{1,2}",
+            "A($Middle:~.~)*Z",
+            "A(#Middle:~[0-9]+~)Z",
+            "A(#Middle:~([0-9][A-Z])*~)[0-9]?Z",
+            "($Key:~[a-z]+~)[: :]*=[: :]*($Value:~[a-z0-9]+~)[: :]*;",
+            "(([a-z]+[: :]*=[: :]*[a-z0-9]+[: :]*;)[: :]*)+",
+            "Ho[: :]Ho[:Tab:]Ho[:NewLine:]Ho",
+            "[[:Alphabet:][:Digit:]_]+",
+            "(Shape|Shap)[a-z]*",
+            "x(=|[a-z]*)+",
+        };
+        for (var grammar : grammars) {
+            validateSameParse(compileRegParser(grammar));
+        }
+    }
+    
+    @Test
+    public void testEndOfText() {
+        // The parts that may match at the end of the text (like the ones of all optional entries) are left interpreted.
+        validateSameParse(newRegParser().entry(newRegParser(Digit.zeroOrMore(), Alphabet.zeroOrMore()), OneOrMore).build());
+        validateSameParse(newRegParser().entry(newRegParser(Digit.zeroOrMore(), Alphabet.zeroOrMore()), Quantifier.bound(2)).build());
+        validateSameParse(newRegParser().entry(Digit, ZeroOrMore).entry(newRegParser(Alphabet, Digit.zeroOrMore())).build());
+        validateSameParse(newRegParser().entry(either(Digit).or(WordChecker.EmptyWord)).entry(Alphabet).build());
+        validateSameParse(newRegParser().entry(either(Digit).orDefault(WordChecker.EmptyWord)).entry(Alphabet.zeroOrMore()).build());
+        validateSameParse(newRegParser().entry(Digit.zeroOrMore()).entry(Alphabet.zeroOrMore()).build());
+    }
+    
+    @Test
+    public void testCompiled() {
+        var parser   = compileRegParser("[a-z]+[0-9]*");
+        var compiled = parser.toCompiled();
+        validate("true",         hasCompiled(compiled));
+        validate(1,              compiled.getEntryCount());
+        validate("[a-z]+[0-9]*", compiled);
+        validate(5,              compiled.startLengthOf("abc12;", 0, null));
+        
+        // A large char set is looked up from its table.
+        var chars = newRegParser(new CharSet("aeiouxyz02468").oneOrMore(), Digit.zeroOrMore()).toCompiled();
+        validate("true", hasCompiled(chars));
+        validate(5,      chars.startLengthOf("ax024!", 0, null));
+        
+        // Nothing to compile
+        var plain = newRegParser().entry(Digit).build();
+        validate("true", plain.toCompiled() == plain);
+    }
+    
+    @Test
+    public void testTypedIsInterpreted() {
+        var parser   = compileRegParser("($Begin:~[a-z]+~)=(#End:!textCI(`abc`)!)[0-9]+;");
+        var compiled = parser.toCompiled();
+        validate("true", hasCompiled(compiled));
+        validate(String.valueOf(parser.parse("abc=ABC12;")), String.valueOf(compiled.parse("abc=ABC12;")));
+        validate(String.valueOf(parser.parse("abc=ABD12;")), String.valueOf(compiled.parse("abc=ABD12;")));
+    }
+    
+    @Test
+    public void testSerializeAsSource() throws Exception {
+        var compiled = compileRegParser("A[0-9]+Z[a-z]*").toCompiled();
+        var buffer   = new ByteArrayOutputStream();
+        try (var out = new ObjectOutputStream(buffer)) {
+            out.writeObject(compiled);
+        }
+        try (var in = new ObjectInputStream(new ByteArrayInputStream(buffer.toByteArray()))) {
+            var parser = (RegParser)in.readObject();
+            validate(compiled.toString(),                   parser.toString());
+            validate(compiled.parse("A123Zabc").toString(), parser.parse("A123Zabc").toString());
+        }
+    }
+    
+}
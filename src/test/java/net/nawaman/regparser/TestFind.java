@@ -0,0 +1,159 @@
+package net.nawaman.regparser;
+
+import static java.util.stream.Collectors.joining;
+import static net.nawaman.regparser.RegParser.compileRegParser;
+import static net.nawaman.regparser.TestUtils.validate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import org.junit.ClassRule;
+import org.junit.Test;
+
+import net.nawaman.regparser.result.ParseResult;
+
+public class TestFind {
+    
+    @ClassRule
+    public static TimeRecordRule timeRecordRule = TimeRecordRule.instance;
+    
+    private static final String[] grammars = {
+        "ERROR",
+        "ERROR:[: :]+(#Code:~[0-9]+~)",
+        "id=[0-9]+",
+        "[0-9]+",
+        "(cat|dog)s?",
+        "[a-z]*",
+        "($Key:~[a-z]+~)=($Value:~[a-z0-9]+~)",
+        "!textCI(`error`)!",
+        "x?y",
+    };
+    
+    private static final String[] texts = {
+        "",
+        "ERROR",
+        "INFO ok\nERROR: 42 disk\nWARN\nERROR:  7",
+        "id=1 id=x id=22 cats dog",
+        "key=value1; other=2, bad= ",
+        "Error error ERROR",
+        "xxy y xy",
+    };
+    
+    // The naive search that tries every offset.
+    private static ParseResult naiveFind(RegParser parser, CharSequence text, int offset) {
+        for (int i = offset; i <= text.length(); i++) {
+            var result = parser.parse(text, i);
+            if (result != null)
+                return result;
+        }
+        return null;
+    }
+    
+    private static String naiveFindAll(RegParser parser, CharSequence text) {
+        var results = new ArrayList<String>();
+        var result  = naiveFind(parser, text, 0);
+        while (result != null) {
+            results.add(result.startPosition() + ":" + result.text());
+            int end = result.endPosition();
+            result = naiveFind(parser, text, (end == result.startPosition()) ? end + 1 : end);
+        }
+        return results.toString();
+    }
+    
+    @Test
+    public void testSameAsNaive() {
+        for (var grammar : grammars) {
+            var parser = compileRegParser(grammar);
+            for (var text : texts) {
+                for (var each : new CharSequence[] { text, new StringBuilder(text) }) {
+                    for (int offset = 0; offset <= text.length(); offset++) {
+                        validate(String.valueOf(naiveFind(parser, each, offset)), parser.find(each, offset));
+                    }
+                    var found = parser.findAll(each)
+                              .map(result -> result.startPosition() + ":" + result.text())
+                              .collect(joining(", ", "[", "]"));
+                    validate(naiveFindAll(parser, each), found);
+                }
+            }
+        }
+    }
+    
+    @Test
+    public void testScanner() {
+        validate("RegParserScanner[literal=ERROR:]",   RegParserScanner.of(compileRegParser("ERROR:[: :]+[0-9]+")));
+        validate("RegParserScanner[literal=id=]",      RegParserScanner.of(compileRegParser("(#Id:~id~)=[0-9]+")));
+        validate("RegParserScanner[firstChars=[0-9]]", RegParserScanner.of(compileRegParser("[0-9]+")));
+        validate("RegParserScanner[any]",              RegParserScanner.of(compileRegParser("[a-z]*")));
+    }
+    
+    /** The text that records the furthest char read -- how far the search went. */
+    private static final class ReadText implements CharSequence {
+        private final String text;
+        private int          furthest = -1;
+        ReadText(String text) {
+            this.text = text;
+        }
+        @Override
+        public int length() {
+            return text.length();
+        }
+        @Override
+        public char charAt(int index) {
+            furthest = Math.max(furthest, index);
+            return text.charAt(index);
+        }
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            furthest = Math.max(furthest, end - 1);
+            return text.subSequence(start, end);
+        }
+        @Override
+        public String toString() {
+            return text;
+        }
+    }
+    
+    @Test
+    public void testFindAllIsLazy() {
+        var parser = compileRegParser("[0-9]+");
+        var text   = "1 22 333 4444";
+        validate("22", parser.findAll(text).skip(1).findFirst().get().text());
+        validate(4,    (int)parser.findAll(text).count());
+        validate(0,    (int)parser.findAll("none").count());
+        
+        // Nothing is searched for until the stream is read and only up to the match read.
+        var readText = new ReadText(text);
+        var matches  = parser.findAll(readText);
+        validate(-1,     readText.furthest);
+        validate("1",    matches.findFirst().get().text());
+        validate("true", readText.furthest < 2);
+        
+        readText = new ReadText(text);
+        validate("22",   parser.findAll(readText).skip(1).findFirst().get().text());
+        validate("true", readText.furthest < 5);
+    }
+    
+    @Test
+    public void testSplit() {
+        var parser = compileRegParser("[: :]*[:,:][: :]*");
+        validate("[a, b, , c, ]", Arrays.toString(parser.split("a , b,,c,")));
+        validate("[abc]",         Arrays.toString(parser.split("abc")));
+        validate("[, ]",          Arrays.toString(parser.split(",")));
+        // The empty matches do not split.
+        validate("[a-b]",         Arrays.toString(compileRegParser("[0-9]*").split("a-b")));
+    }
+    
+    @Test
+    public void testReplaceAll() {
+        var parser = compileRegParser("($Key:~[a-z]+~)=($Value:~[0-9]+~)");
+        var text   = "x=1; yy=22; z=a";
+        validate("1:x; 22:yy; z=a", parser.replaceAll(text, match -> match.textOf("$Value") + ":" + match.textOf("$Key")));
+        
+        var output = new StringBuilder(">");
+        validate("><1>", parser.replaceAll("<a=1>", null, match -> match.textOf("$Value"), output));
+        
+        // An empty match inserts the replacement.
+        validate("-a-b-", compileRegParser("[0-9]*").replaceAll("ab", match -> "-"));
+    }
+    
+}
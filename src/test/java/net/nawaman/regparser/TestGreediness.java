@@ -3,7 +3,9 @@ package net.nawaman.regparser;
 import static net.nawaman.regparser.Greediness.Maximum;
 import static net.nawaman.regparser.Greediness.Minimum;
 import static net.nawaman.regparser.Greediness.Possessive;
+import static net.nawaman.regparser.PredefinedCharClasses.Digit;
 import static net.nawaman.regparser.PredefinedCharClasses.Java_Any;
+import static net.nawaman.regparser.PredefinedCharClasses.NonDigit;
 import static net.nawaman.regparser.Quantifier.ZeroOrMore_Maximum;
 import static net.nawaman.regparser.Quantifier.ZeroOrMore_Minimum;
 import static net.nawaman.regparser.Quantifier.ZeroOrMore_Possessive;
@@ -382,4 +384,26 @@ public class TestGreediness {
         validate(10, parser.parse("1234567end123456789012345end9012").endPosition());
     }
     
+    @Test
+    public void testQuantifierPossessive_charRun() {
+        var parser = newRegParser(
+                        newParserEntry(Digit, new Quantifier(2, 5, Possessive)),
+                        newParserEntry(new WordChecker("end")));
+        validate(null, parser.parse("1end"));
+        validate(5,    parser.parse("12end").endPosition());
+        validate(8,    parser.parse("12345end").endPosition());
+        validate(null, parser.parse("123456end"));
+    }
+    
+    @Test
+    public void testQuantifierZeroOrMore_Possessive_charRun() {
+        var parser = newRegParser(
+                        newParserEntry(NonDigit, ZeroOrMore_Possessive),
+                        newParserEntry(Digit,    ZeroOrMore_Possessive));
+        validate(0, parser.parse("").endPosition());
+        validate(6, parser.parse("abc123").endPosition());
+        validate(3, parser.match("abc").endPosition());
+        validate(null, parser.match("abc123x"));
+    }
+    
 }
@@ -0,0 +1,106 @@
+package net.nawaman.regparser;
+
+import static net.nawaman.regparser.RegParser.compileRegParser;
+import static net.nawaman.regparser.TestUtils.validate;
+
+import org.junit.ClassRule;
+import org.junit.Test;
+
+import net.nawaman.regparser.result.ParseResult;
+
+public class TestIterativeSolver {
+    
+    @ClassRule
+    public static TimeRecordRule timeRecordRule = TimeRecordRule.instance;
+    
+    private static String parse(RegParser parser, String text, ParserTypeProvider typeProvider, ParseOptions options) {
+        return String.valueOf(parser.parse(text, typeProvider, options));
+    }
+    
+    @Test
+    public void testSameResult() {
+        var typeProvider = new ParserTypeProvider.Extensible();
+        typeProvider.addType("Number", "[0-9]+");
+        typeProvider.addType("Plus",   "!Number![: :]*[:+:][: :]*!Number!");
+        typeProvider.addType(ParserTypeBackRef.BackRef_Instance);
+        
+        var grammars = new String[] {
+            "($Key:~[a-z]+~)=($Value:~[a-z0-9]+~);",
+            "(#Item:~[a-z]+[0-9]*~)*+[0-9]",
+            "(#Item:~[a-z]+[0-9]*~)**(#Rest:~.*~)",
+            "($First:~(a|ab|abc)~)*+($Second:~(b|bc|c)~)+",
+            "(a|ab)**b(#Tail:~.*~)",
+            "(#Word:~(one||two||[a-z]+)~)[: :]*+",
+            "(#Sum:~!Plus!~)[: :]*(#Other:~!Number!~)?",
+            "($Begin:~[a-z]+~)=($Begin;)",
+            ".{2,4}*(#End:~[0-9]+~)",
+        };
+        var texts = new String[] {
+            "key=value1;", "abc123def45", "ababb", "aabcbc", "two one", "5 + 10 7", "abc=abc", "abc=abd", "xyz123", ""
+        };
+        for (var grammar : grammars) {
+            var parser = compileRegParser(typeProvider, grammar);
+            for (var text : texts) {
+                var expected = parse(parser, text, typeProvider, ParseOptions.Default);
+                validate(expected, parse(parser, text, typeProvider, ParseOptions.Iterative));
+                validate(expected, parse(parser, text, typeProvider, ParseOptions.Packrat.withIterative()));
+            }
+        }
+    }
+    
+    private static ParseResult parseWithSmallStack(RegParser parser, String text, ParserTypeProvider typeProvider)
+            throws InterruptedException {
+        var results = new ParseResult[1];
+        var errors  = new Throwable[1];
+        var thread  = new Thread(null, () -> {
+            try {
+                results[0] = parser.parse(text, typeProvider, ParseOptions.Iterative);
+            } catch (Throwable throwable) {
+                errors[0] = throwable;
+            }
+        }, "small-stack", 512*1024);
+        thread.start();
+        thread.join();
+        validate(null, errors[0]);
+        return results[0];
+    }
+    
+    @Test
+    public void testDeepNesting() throws InterruptedException {
+        var typeProvider = new ParserTypeProvider.Extensible();
+        // A text type so the result stays flat however deep the nesting is.
+        typeProvider.addType("$Paren", "[:(:]!$Paren!*[:):]");
+        
+        int depth = 20_000;
+        var text  = "(".repeat(depth) + ")".repeat(depth);
+        
+        var parser = compileRegParser("!$Paren!");
+        var result = parseWithSmallStack(parser, text, typeProvider);
+        validate(2*depth, result.endPosition());
+    }
+    
+    @Test
+    public void testLongBacktrackingRepeat() throws InterruptedException {
+        // A maximum repeat tries the rest of the entries after each repeat -- one nested attempt per char.
+        int length = 50_000;
+        var text   = "a".repeat(length) + "1";
+        
+        var parser = compileRegParser("($Letter:~[a-z]~)*+[0-9]");
+        var result = parseWithSmallStack(parser, text, null);
+        validate(length + 1, result.endPosition());
+        validate(length,     result.textsOf("$Letter").length);
+    }
+    
+    @Test
+    public void testOptions() {
+        validate("false", ParseOptions.Default.isIterative());
+        validate("true",  ParseOptions.Iterative.isIterative());
+        validate("true",  ParseOptions.Packrat.withIterative().isPackrat());
+        validate("true",  ParseOptions.Packrat.withIterative().isIterative());
+        validate(ParseOptions.Iterative.toString(), ParseOptions.Default.withIterative(true).toString());
+        validate(ParseOptions.Default.toString(),   ParseOptions.Iterative.withIterative(false).toString());
+        validate("ParseOptions[isPackrat=true, isIterative=true, stepLimit=-1, timeLimit=null, entryLimit=-1, isInterruptible=false, isCollapseDeferred=false, isSecondStageLazy=false]",
+                ParseOptions.Packrat.withIterative());
+    }
+    
+}
@@ -0,0 +1,143 @@
+package net.nawaman.regparser;
+
+import static java.nio.charset.StandardCharsets.ISO_8859_1;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.stream.Collectors.toList;
+import static net.nawaman.regparser.RegParser.compileRegParser;
+import static net.nawaman.regparser.TestUtils.validate;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.ClassRule;
+import org.junit.Test;
+
+public class TestMappedText {
+    
+    @ClassRule
+    public static TimeRecordRule timeRecordRule = TimeRecordRule.instance;
+    
+    private static final String log
+            = "INFO start ok\n"
+            + "ERROR: 42 disk full — retry ünd naïve\n"
+            + "WARN 😀 emoji line\n"
+            + "ERROR: 7 network 日本語テキスト\n"
+            + "id=1 id=22 id=333\n";
+    
+    private static Path fileOf(String text, Charset charset) throws IOException {
+        var path = Files.createTempFile("mapped-text", ".log");
+        path.toFile().deleteOnExit();
+        Files.write(path, text.getBytes(charset));
+        return path;
+    }
+    
+    @Test
+    public void testDecode() throws IOException {
+        // The small pages and windows so the text spans many of them.
+        var text = MappedText.open(fileOf(log, UTF_8), UTF_8, 7, 16);
+        validate(log.length(), (int)text.longLength());
+        validate(log,          text.toString());
+        for (int i = log.length(); --i >= 0;) {
+            validate(String.valueOf(log.charAt(i)), text.charAt(i));
+        }
+        validate(log.substring(20, 45), text.window(20, 45).toString());
+        validate(20,                    (int)text.window(20, 45).offset());
+        validate(log.substring(25, 30), text.window(20, 45).subSequence(5, 10).toString());
+        
+        var latin = "café crème brûlée";
+        validate(latin, MappedText.open(fileOf(latin, ISO_8859_1), ISO_8859_1).toString());
+    }
+    
+    @Test
+    public void testMalformed() throws IOException {
+        var path = Files.createTempFile("mapped-text", ".bin");
+        path.toFile().deleteOnExit();
+        Files.write(path, new byte[] { 'a', (byte)0xFF, 'b', (byte)0xC3, 'c' });
+        validate("a�b�c", MappedText.open(path).toString());
+        
+        // Overlong, surrogate and above U+10FFFF -- a U+FFFD for each byte as none starts a well-formed sequence.
+        var bytes = new byte[][] {
+            { (byte)0xE0, (byte)0x80, (byte)0xAF },
+            { (byte)0xE0, (byte)0x9F, (byte)0xBF },
+            { (byte)0xED, (byte)0xA0, (byte)0x80 },
+            { (byte)0xED, (byte)0xBF, (byte)0xBF },
+            { (byte)0xF0, (byte)0x8F, (byte)0xBF, (byte)0xBF },
+            { (byte)0xF4, (byte)0x90, (byte)0x80, (byte)0x80 },
+        };
+        for (var each : bytes) {
+            Files.write(path, each);
+            validate("\uFFFD".repeat(each.length), MappedText.open(path).toString());
+        }
+        
+        // The bounds of the ranges are well-formed.
+        var text = "\u0800\uD7FF\uE000\uD800\uDC00\uDBFF\uDFFF";
+        validate(text, MappedText.open(fileOf(text, UTF_8)).toString());
+    }
+    
+    @Test
+    public void testUnsupportedCharset() throws IOException {
+        try {
+            MappedText.open(fileOf(log, UTF_8), Charset.forName("UTF-16"));
+            validate("An exception", "No exception");
+        } catch (IllegalArgumentException exception) {
+            validate("Unsupported charset: UTF-16 (only UTF-8, ISO-8859-1 and US-ASCII are supported).",
+                    exception.getMessage());
+        }
+    }
+    
+    @Test
+    public void testFindAllSameAsString() throws IOException {
+        var grammars = new String[] {
+            "ERROR:[: :]+(#Code:~[0-9]+~)",
+            "id=[0-9]+",
+            "[0-9]+",
+            "(#Line:~[^[:NewLine:]]*~)[:NewLine:]",
+            "[a-z]*",
+            "(#Word:~[a-zA-Z]+~)[: :]",
+        };
+        for (int windowLength : new int[] { 4, 16, 1024 }) {
+            var text = MappedText.open(fileOf(log, UTF_8), UTF_8, 7, windowLength);
+            for (var grammar : grammars) {
+                var parser   = compileRegParser(grammar);
+                var expected = parser.findAll(log)
+                             .map(result -> "[" + result.startPosition() + ", " + result.endPosition() + ") " + result.text())
+                             .collect(toList())
+                             .toString();
+                validate(expected, RegParserMapped.findAll(parser, text).map(String::valueOf).collect(toList()));
+            }
+        }
+    }
+    
+    @Test
+    public void testParseAt() throws IOException {
+        var text   = MappedText.open(fileOf(log, UTF_8), UTF_8, 7, 4);
+        var result = RegParserMapped.parseAt(compileRegParser("ERROR:[: :]+(#Code:~[0-9]+~)(#Rest:~.*~)"), text, 14);
+        validate(14,           (int)result.startPosition());
+        validate(log.length(), (int)result.endPosition());
+        validate(23,           (int)result.startPositionOf("#Rest"));
+        validate("42",         result.textOf("#Code"));
+        validate(null,         RegParserMapped.parseAt(compileRegParser("ERROR"), text, 0));
+    }
+    
+    @Test
+    public void testWindowsOnThreads() throws IOException {
+        // The small pages so the windows of the results and the text are on different pages.
+        var lines  = log.repeat(100);
+        var text   = MappedText.open(fileOf(lines, UTF_8), UTF_8, 7, 64);
+        var parser = compileRegParser("(#Line:~[^[:NewLine:]]*~)[:NewLine:]");
+        var found  = RegParserMapped.findAll(parser, text).collect(toList());
+        
+        // The windows of the results are read on other threads while the text is read on this one.
+        var reads = CompletableFuture.supplyAsync(() -> {
+            return found.parallelStream()
+                    .map(result -> result.text())
+                    .collect(toList());
+        });
+        validate(lines, text.toString());
+        validate(String.valueOf(lines.lines().map(line -> line + "\n").collect(toList())), reads.join());
+    }
+    
+}
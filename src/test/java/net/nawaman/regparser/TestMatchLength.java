@@ -0,0 +1,80 @@
+package net.nawaman.regparser;
+
+import static net.nawaman.regparser.RegParser.compileRegParser;
+import static net.nawaman.regparser.TestUtils.validate;
+
+import java.lang.management.ManagementFactory;
+
+import org.junit.ClassRule;
+import org.junit.Test;
+
+public class TestMatchLength {
+    
+    @ClassRule
+    public static TimeRecordRule timeRecordRule = TimeRecordRule.instance;
+    
+    private static final String[] texts = {
+        "", "A", "AZ", "A1Z", "A12345Z", "abc123", "123abc", "true", "falsetrue", "Colour", "Color", "key=value;",
+        "x=", "A.Z", "Shape", "Shap", "intint", "in t", "abab", "aab", "ONE two", "var x"
+    };
+    
+    private static void validateSameLength(RegParser parser) {
+        for (var text : texts) {
+            for (int offset = 0; offset <= text.length(); offset++) {
+                var result = parser.parse(text, offset);
+                int length = (result == null) ? -1 : (result.endPosition() - offset);
+                validate(length, parser.matchLength(text, offset));
+            }
+            validate(String.valueOf(parser.match(text) != null), parser.matches(text));
+        }
+    }
+    
+    @Test
+    public void testSameAsParse() {
+        var grammars = new String[] {
+            "Shape",
+            "Colou?r",
+            "A[0-9]+Z",
+            "A.*Z",
+            "(true|false)+",
+            "(int|in)[: :]?t",
+            "(a|ab)*b",
+            "[a-z]*",
+            "[a-z]+[0-9]*+",
+            "($Key:~[a-z]+~)=($Value:~[a-z0-9]+~);",
+            "(#Word:~[a-z]+~)[0-9]*",
+            "[0-9]+(#Rest:~[a-z]+~)?",
+            "!textCI(`one`)![: :]+",
+            "!textCI(`Var`)!",
+        };
+        for (var grammar : grammars) {
+            validateSameLength(compileRegParser(grammar));
+            validateSameLength(compileRegParser(grammar).toCompiled());
+        }
+    }
+    
+    @Test
+    public void testNoAllocation() {
+        var parser = compileRegParser("[a-z]+[: :]*=[: :]*[a-z0-9]+;");
+        var text   = "key = value123;";
+        validate(15, parser.matchLength(text, 0));
+        
+        // Warm up -- the automaton builds its states on the first matches.
+        int total = 0;
+        for (int i = 0; i < 20_000; i++) {
+            total += parser.matchLength(text, 0);
+        }
+        
+        var threadBean = (com.sun.management.ThreadMXBean)ManagementFactory.getThreadMXBean();
+        var threadId   = Thread.currentThread().getId();
+        var before     = threadBean.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < 20_000; i++) {
+            total += parser.matchLength(text, 0);
+        }
+        var allocated = threadBean.getThreadAllocatedBytes(threadId) - before;
+        validate(40_000*15, total);
+        // Allow a little for the bookkeeping of the measurement itself.
+        validate("true", allocated < 1_000);
+    }
+    
+}
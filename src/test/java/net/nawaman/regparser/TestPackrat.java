@@ -0,0 +1,168 @@
+package net.nawaman.regparser;
+
+import static net.nawaman.regparser.PredefinedCharClasses.Alphabet;
+import static net.nawaman.regparser.PredefinedCharClasses.Any;
+import static net.nawaman.regparser.PredefinedCharClasses.Digit;
+import static net.nawaman.regparser.Quantifier.OneOrMore;
+import static net.nawaman.regparser.Quantifier.ZeroOrMore_Maximum;
+import static net.nawaman.regparser.RegParser.compileRegParser;
+import static net.nawaman.regparser.RegParser.newRegParser;
+import static net.nawaman.regparser.RegParserEntry.newParserEntry;
+import static net.nawaman.regparser.TestUtils.validate;
+import static net.nawaman.regparser.checkers.CheckerAlternative.either;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.ClassRule;
+import org.junit.Test;
+
+import net.nawaman.regparser.checkers.CharSingle;
+import net.nawaman.regparser.result.ParseResult;
+
+public class TestPackrat {
+    
+    @ClassRule
+    public static TimeRecordRule timeRecordRule = TimeRecordRule.instance;
+    
+    @SuppressWarnings("serial")
+    private static ParserType countingType(String name, AtomicInteger counter) {
+        var checker = newRegParser()
+                    .entry(new Checker() {
+                        @Override
+                        public int startLengthOf(CharSequence text, int offset, ParserTypeProvider typeProvider) {
+                            return startLengthOf(text, offset, typeProvider, null);
+                        }
+                        @Override
+                        public int startLengthOf(CharSequence text, int offset, ParserTypeProvider typeProvider, ParseResult parseResult) {
+                            counter.incrementAndGet();
+                            int length = 0;
+                            while (((offset + length) < text.length()) && Alphabet.inSet(text.charAt(offset + length))) {
+                                length++;
+                            }
+                            return (length == 0) ? -1 : length;
+                        }
+                        @Override
+                        public Checker optimize() {
+                            return this;
+                        }
+                        @Override
+                        public Boolean isDeterministic() {
+                            return true;
+                        }
+                    })
+                    .build();
+        return new ParserType() {
+            @Override
+            public String name() {
+                return name;
+            }
+            @Override
+            public Checker checker(ParseResult hostResult, String param, ParserTypeProvider typeProvider) {
+                return checker;
+            }
+            @Override
+            public boolean hasFixedChecker() {
+                return true;
+            }
+            @Override
+            public Boolean isDeterministic() {
+                return true;
+            }
+        };
+    }
+    
+    @Test
+    public void testReplay() {
+        var counter  = new AtomicInteger();
+        var wordType = countingType("word", counter);
+        var word     = newParserEntry("#Word", wordType);
+        var parser   = newRegParser()
+                     .entry(either(newRegParser(word, newParserEntry(CharSingle.of('1'))))
+                            .or  (newRegParser(word, newParserEntry(CharSingle.of('2')))))
+                     .build();
+        
+        var result = parser.parse("abc2");
+        validate(2, counter.getAndSet(0));
+        
+        var packratResult = parser.parse("abc2", null, ParseOptions.Packrat);
+        validate(1, counter.getAndSet(0));
+        validate(result.toString(), packratResult.toString());
+        validate("abc", packratResult.textOf("#Word"));
+        
+        validate(null, parser.parse("abc3", null, ParseOptions.Packrat));
+        validate(1, counter.getAndSet(0));
+    }
+    
+    @Test
+    public void testSameResult() {
+        var counter = new AtomicInteger();
+        var parser  = newRegParser()
+                    .entry("#Item", newRegParser()
+                            .entry("#Word", countingType("word", counter))
+                            .entry(Digit, OneOrMore),
+                            ZeroOrMore_Maximum)
+                    .entry("#Rest", Any, ZeroOrMore_Maximum)
+                    .entry(CharSingle.of(';'))
+                    .build();
+        
+        var text   = "ab12cd34ef56;gh78";
+        var result = parser.parse(text);
+        validate(result.toString(), parser.parse(text, null, ParseOptions.Default).toString());
+        validate(result.toString(), parser.parse(text, null, ParseOptions.Packrat).toString());
+        validate(result.toString(), parser.match(text.substring(0, 13), null, ParseOptions.Packrat).toString());
+    }
+    
+    @Test
+    public void testBackReferenceIsNotMemoized() {
+        var parser = newRegParser()
+                   .entry(either(newRegParser()
+                                 .entry("$Begin", newRegParser(Alphabet.oneOrMore()))
+                                 .entry(CharSingle.of('='))
+                                 .entry("$End", new ParserTypeRef.Simple(ParserTypeBackRef.BackRef_Instance.name(), "$Begin")))
+                          .or(newRegParser()
+                                 .entry("$Begin", newRegParser(Alphabet.oneOrMore()))
+                                 .entry(CharSingle.of(':'))
+                                 .entry("$End", new ParserTypeRef.Simple(ParserTypeBackRef.BackRef_Instance.name(), "$Begin"))))
+                   .build();
+        
+        validate(parser.parse("abc:abc").toString(), parser.parse("abc:abc", null, ParseOptions.Packrat).toString());
+        validate(null, parser.parse("abc:abd", null, ParseOptions.Packrat));
+    }
+    
+    @Test
+    public void testHostDependentTypeIsNotMemoized() {
+        // The checker of Echo reads the host -- it is "c" once $X is matched and "b" otherwise.
+        var c        = compileRegParser("c");
+        var b        = compileRegParser("b");
+        var provider = new ParserTypeProvider.Extensible();
+        provider.addType(new ParserType() {
+            private static final long serialVersionUID = 1L;
+            @Override
+            public String name() {
+                return "Echo";
+            }
+            @Override
+            public Checker checker(ParseResult hostResult, String param, ParserTypeProvider typeProvider) {
+                return ((hostResult != null) && (hostResult.lastStringOf("$X") != null)) ? c : b;
+            }
+            @Override
+            public Boolean isDeterministic() {
+                return true;
+            }
+        });
+        
+        var parser = compileRegParser("($X:~a~)?+[a]?+!Echo!");
+        validate("ab", parser.match("ab", provider).text());
+        validate("ab", parser.match("ab", provider, ParseOptions.Default.withPackrat()).text());
+    }
+    
+    @Test
+    public void testOptions() {
+        validate("false", ParseOptions.Default.isPackrat());
+        validate("true",  ParseOptions.Packrat.isPackrat());
+        validate("true",  ParseOptions.Default.withPackrat().isPackrat());
+        validate(ParseOptions.Packrat.toString(), ParseOptions.Default.withPackrat(true).toString());
+        validate(ParseOptions.Default.toString(), ParseOptions.Packrat.withPackrat(false).toString());
+    }
+    
+}
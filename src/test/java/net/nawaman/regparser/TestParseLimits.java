@@ -0,0 +1,114 @@
+package net.nawaman.regparser;
+
+import static net.nawaman.regparser.RegParser.compileRegParser;
+import static net.nawaman.regparser.TestUtils.validate;
+
+import java.time.Duration;
+
+import org.junit.ClassRule;
+import org.junit.Test;
+
+public class TestParseLimits {
+    
+    @ClassRule
+    public static TimeRecordRule timeRecordRule = TimeRecordRule.instance;
+    
+    // The maximum repeat tries every split of the a's into the two alternatives -- exponential to the length of the text.
+    private static final RegParser pathological = compileRegParser("(($A:~a~)|($B:~aa~))*+b");
+    
+    private static final String pathologicalText = "a".repeat(40) + "c";
+    
+    private static String limitOf(RegParser parser, String text, ParseOptions options) {
+        try {
+            parser.parse(text, null, options);
+            return null;
+        } catch (ParseLimitException exception) {
+            return exception.limit().name();
+        }
+    }
+    
+    @Test
+    public void testStepLimit() {
+        var options = ParseOptions.Default.withStepLimit(10_000);
+        validate("Steps", limitOf(pathological, pathologicalText, options));
+        validate("Steps", limitOf(pathological, pathologicalText, options.withIterative()));
+        
+        try {
+            pathological.parse(pathologicalText, null, options);
+        } catch (ParseLimitException exception) {
+            validate(10_001, (int)exception.steps());
+            validate("The parse exceeded the step limit of 10000.", exception.getMessage());
+        }
+    }
+    
+    @Test
+    public void testTimeLimit() {
+        var options = ParseOptions.Default.withTimeLimit(Duration.ofMillis(50));
+        validate("Time", limitOf(pathological, pathologicalText, options));
+        validate("Time", limitOf(pathological, pathologicalText, options.withIterative()));
+    }
+    
+    @Test
+    public void testEntryLimit() {
+        var parser  = compileRegParser("($Letter:~[a-z]~)*+[0-9]");
+        var text    = "a".repeat(500) + "1";
+        var options = ParseOptions.Default.withEntryLimit(200);
+        validate("Entries", limitOf(parser, text, options));
+        validate("Entries", limitOf(parser, text, options.withIterative()));
+        validate(null,      limitOf(parser, text, options.withEntryLimit(1_000)));
+    }
+    
+    @Test
+    public void testInterrupt() {
+        var options = ParseOptions.Default.withInterruptible();
+        Thread.currentThread().interrupt();
+        try {
+            validate("Interrupted", limitOf(pathological, pathologicalText, options));
+            validate("Interrupted", limitOf(pathological, pathologicalText, options.withIterative()));
+            // The interrupt status is kept.
+            validate("true", Thread.currentThread().isInterrupted());
+        } finally {
+            Thread.interrupted();
+        }
+    }
+    
+    @Test
+    public void testWithinLimits() {
+        var typeProvider = new ParserTypeProvider.Extensible();
+        typeProvider.addType("Number", "[0-9]+");
+        typeProvider.addType("Plus",   "($Left:~!Number!~)[: :]*[:+:][: :]*($Right:~!Number!~)");
+        
+        var parser  = compileRegParser(typeProvider, "(#Sum:!Plus!)[: :]*(#Other:~!Number!~)?");
+        var text    = "5 + 10 7";
+        var options = ParseOptions.Default
+                    .withStepLimit(1_000)
+                    .withTimeLimit(Duration.ofSeconds(10))
+                    .withEntryLimit(100)
+                    .withInterruptible();
+        var expected = parser.parse(text, typeProvider).toString();
+        validate(expected, parser.parse(text, typeProvider, options));
+        validate(expected, parser.parse(text, typeProvider, options.withIterative()));
+        validate(expected, parser.parse(text, typeProvider, options.withPackrat()));
+        
+        var type = typeProvider.type("Plus");
+        validate(type.parse("5 + 10", 0, typeProvider).toString(), type.parse("5 + 10", 0, typeProvider, options));
+        validate(null, type.match("5 + 10 7", 0, -1, typeProvider, options));
+    }
+    
+    @Test
+    public void testOptions() {
+        validate("false", ParseOptions.Default.isLimited());
+        validate("true",  ParseOptions.Default.withStepLimit(1).isLimited());
+        validate("true",  ParseOptions.Default.withInterruptible().isLimited());
+        validate("false", ParseOptions.Default.withStepLimit(1).withStepLimit(-5).isLimited());
+        validate(ParseOptions.Default.toString(), ParseOptions.Default.withTimeLimit(Duration.ofSeconds(1)).withTimeLimit(null));
+        validate("PT0.05S", ParseOptions.Default.withTimeLimit(Duration.ofMillis(50)).timeLimit());
+        validate("ParseOptions[isPackrat=false, isIterative=false, stepLimit=100, timeLimit=PT1S, entryLimit=10, isInterruptible=true, isCollapseDeferred=false, isSecondStageLazy=false]",
+                ParseOptions.Default
+                .withStepLimit(100)
+                .withTimeLimit(Duration.ofSeconds(1))
+                .withEntryLimit(10)
+                .withInterruptible());
+    }
+    
+}
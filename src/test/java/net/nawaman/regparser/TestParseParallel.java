@@ -0,0 +1,95 @@
+package net.nawaman.regparser;
+
+import static net.nawaman.regparser.RegParser.compileRegParser;
+import static net.nawaman.regparser.TestUtils.validate;
+
+import java.util.Random;
+
+import org.junit.ClassRule;
+import org.junit.Test;
+
+public class TestParseParallel {
+    
+    @ClassRule
+    public static TimeRecordRule timeRecordRule = TimeRecordRule.instance;
+    
+    private static final RegParser sync = compileRegParser("[:;:][:WhiteSpace:]*");
+    
+    /** A dump of the statements -- the strings with ";" make some of the guesses wrong. */
+    private static String dumpOf(int count, long seed, boolean withStrings) {
+        var random = new Random(seed);
+        var buffer = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            buffer.append((withStrings && (random.nextInt(10) == 0)) ? "INSERT INTO t VALUES (" + i + ", 'a;b')" : "SELECT " + i);
+            buffer.append(';');
+            buffer.append(random.nextBoolean() ? "\n" : " ");
+        }
+        return buffer.toString();
+    }
+    
+    private static ParserTypeProvider typeProvider() {
+        var typeProvider = new ParserTypeProvider.Extensible();
+        typeProvider.addType("Statement", "([^[:;:][:':]]|[:':][^[:':]]*[:':])+[:;:]");
+        return typeProvider;
+    }
+    
+    private static void validateSame(String grammar, String text, int chunkLength) {
+        var typeProvider = typeProvider();
+        var parser       = compileRegParser(typeProvider, grammar);
+        var expected     = String.valueOf(parser.parse(text, typeProvider));
+        var speculation  = RegParserSpeculation.of(parser, sync, typeProvider, chunkLength);
+        validate(expected, String.valueOf(speculation.parse(text)));
+    }
+    
+    @Test
+    public void testSameResult() {
+        var grammars = new String[] {
+            "((#Statement:~([^[:;:][:':]]|[:':][^[:':]]*[:':])+[:;:]~)[:WhiteSpace:]*)*",
+            "(($Statement:!Statement!)[:WhiteSpace:]*)*",
+            "(#Statement:~!Statement![:WhiteSpace:]*~)+(#Rest:~.*~)",
+            "(([^[:;:][:':]]|[:':][^[:':]]*[:':])+[:;:][:WhiteSpace:]*)*",
+        };
+        var dump  = dumpOf(40, 17, true);
+        var texts = new String[] { dump, dump + "not a statement", "", "x;", "'unclosed;" + dump };
+        for (var grammar : grammars) {
+            for (var text : texts) {
+                for (int chunkLength : new int[] { 1, 7, 16, 50, 1000 }) {
+                    validateSame(grammar, text, chunkLength);
+                }
+            }
+        }
+    }
+    
+    @Test
+    public void testReparseOnlyWrongGuesses() {
+        var typeProvider = typeProvider();
+        var parser       = compileRegParser(typeProvider, "((#Statement:~([^[:;:][:':]]|[:':][^[:':]]*[:':])+[:;:]~)[:WhiteSpace:]*)*");
+        var dump         = dumpOf(2000, 3, false);
+        
+        // Every guess is right.
+        var speculation = RegParserSpeculation.of(parser, sync, typeProvider, 1000);
+        var result      = speculation.parse(dump);
+        validate(dump.length(), result.endPosition());
+        validate(2000,          result.textsOf("#Statement").length);
+        validate(0,             speculation.reparsedCount());
+        
+        // The guess in a string is wrong -- only the statements of its chunk are parsed again.
+        dump        = dumpOf(2000, 3, true);
+        speculation = RegParserSpeculation.of(parser, sync, typeProvider, 1000);
+        result      = speculation.parse(dump);
+        validate(dump.length(), result.endPosition());
+        validate(2000,          result.textsOf("#Statement").length);
+        validate("true",        speculation.reparsedCount() > 0);
+        validate("true",        speculation.reparsedCount() < 1000);
+        
+        validate(String.valueOf(parser.parse(dump, typeProvider)), String.valueOf(RegParserSpeculation.parseParallel(parser, dump, sync, typeProvider)));
+    }
+    
+    @Test
+    public void testNotRepeat() {
+        var parser = compileRegParser("(#Statement:~[a-z]+;~){2}");
+        validate("null", RegParserSpeculation.of(parser, sync, null, 16));
+        validate(String.valueOf(parser.parse("ab;cd;")), String.valueOf(RegParserSpeculation.parseParallel(parser, "ab;cd;", sync)));
+    }
+    
+}
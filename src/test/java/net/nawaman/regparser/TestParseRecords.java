@@ -0,0 +1,135 @@
+package net.nawaman.regparser;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.stream.Collectors.toList;
+import static net.nawaman.regparser.RegParser.compileRegParser;
+import static net.nawaman.regparser.TestUtils.validate;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import org.junit.ClassRule;
+import org.junit.Test;
+
+import net.nawaman.regparser.result.ParseResult;
+
+public class TestParseRecords {
+    
+    @ClassRule
+    public static TimeRecordRule timeRecordRule = TimeRecordRule.instance;
+    
+    private static final RegParser parser
+            = compileRegParser("($Level:~[A-Z]+~)[: :]+($Id:~[0-9]+~)[: :]*(#Message:~.*~)");
+    
+    private static final String log
+            = "INFO 1 start ok\n"
+            + "ERROR 42 disk full — retry\r\n"
+            + "\n"
+            + "not a record\n"
+            + "WARN 7 😀 日本語\r\n"
+            + "\r\n"
+            + "DEBUG 1234 last line";
+    
+    private static String textsOf(Stream<ParseResult> results) {
+        return results
+                .map(result -> (result == null) ? "null" : result.textOf("$Level") + "/" + result.textOf("$Id") + "/" + result.textOf("#Message"))
+                .collect(toList())
+                .toString();
+    }
+    
+    private static String expectedOf(List<String> records) {
+        return textsOf(records.stream().map(parser::match));
+    }
+    
+    @Test
+    public void testLines() {
+        var expected = expectedOf(log.lines().collect(toList()));
+        validate("[INFO/1/start ok, ERROR/42/disk full — retry, null, null, WARN/7/😀 日本語, null, DEBUG/1234/last line]",
+                expected);
+        validate(expected, textsOf(RegParserRecords.parseRecords(parser, log, RecordSplitter.lines())));
+        
+        // The small chunks so the chunks start everywhere -- in a record, at "\r" and at "\n".
+        for (int chunkLength = 1; chunkLength <= log.length(); chunkLength++) {
+            var results = RegParserRecords.parse(parser, log, RecordSplitter.lines(), null, chunkLength);
+            validate(expected, textsOf(results));
+        }
+        
+        validate(expectedOf(log.lines().collect(toList())), textsOf(RegParserRecords.parseRecords(parser, log + "\n", RecordSplitter.lines())));
+        validate("[]",     textsOf(RegParserRecords.parseRecords(parser, "", RecordSplitter.lines())));
+        validate("[null]", textsOf(RegParserRecords.parseRecords(parser, "\n", RecordSplitter.lines())));
+    }
+    
+    @Test
+    public void testDelimited() {
+        // A delimiter that does not overlap itself.
+        var text = log.replace("\n", "|;").replace("\r", "");
+        for (var ending : new String[] { "", "|;", "|;|;" }) {
+            var records = new ArrayList<>(Arrays.asList((text + ending).split(Pattern.quote("|;"), -1)));
+            records.remove(records.size() - 1);
+            if (ending.isEmpty()) {
+                records.add(text.substring(text.lastIndexOf("|;") + 2));
+            }
+            
+            var expected = expectedOf(records);
+            for (int chunkLength = 1; chunkLength <= text.length(); chunkLength++) {
+                var results = RegParserRecords.parse(parser, text + ending, RecordSplitter.delimitedBy("|;"), null, chunkLength);
+                validate(expected, textsOf(results));
+            }
+        }
+    }
+    
+    @Test
+    public void testInOrder() {
+        // Long enough for many chunks of the default length.
+        var lines = new ArrayList<String>();
+        for (int i = 0; i < 20_000; i++) {
+            lines.add(((i % 3 == 0) ? "ERROR " : "INFO ") + i + " message number " + i);
+        }
+        var text    = String.join("\n", lines);
+        var results = RegParserRecords.parseRecords(parser, text, RecordSplitter.lines()).collect(toList());
+        validate(lines.size(), results.size());
+        for (int i = 0; i < lines.size(); i++) {
+            validate(String.valueOf(i), results.get(i).textOf("$Id"));
+        }
+    }
+    
+    @Test
+    public void testMapped() throws IOException {
+        var path = Files.createTempFile("parse-records", ".log");
+        path.toFile().deleteOnExit();
+        Files.write(path, log.getBytes(UTF_8));
+        
+        var expected = expectedOf(log.lines().collect(toList()));
+        validate(expected, textsOf(RegParserRecords.parseRecords(parser, path, RecordSplitter.lines())));
+        
+        // The small pages so the chunks read the pages of one another.
+        var text = MappedText.open(path, UTF_8, 7, 16);
+        for (int chunkLength = 1; chunkLength <= log.length(); chunkLength++) {
+            var results = RegParserRecords.parse(parser, text, RecordSplitter.lines(), null, chunkLength);
+            validate(expected, textsOf(results));
+        }
+    }
+    
+    @Test
+    public void testSplitter() {
+        var lines = RecordSplitter.lines();
+        validate(3, lines.recordEnd("abc\r\ndef", 0));
+        validate(5, lines.nextStart("abc\r\ndef", 3));
+        validate(3, lines.recordEnd("abc\ndef", 0));
+        validate(4, lines.nextStart("abc\ndef", 3));
+        validate(7, lines.recordEnd("abc\ndef", 4));
+        validate(0, lines.recordEnd("\r\n", 0));
+        
+        var delimited = RecordSplitter.delimitedBy("||");
+        validate(1, delimited.recordEnd("a||b", 0));
+        validate(3, delimited.nextStart("a||b", 1));
+        validate(4, delimited.recordEnd("a||b", 3));
+        validate("RecordSplitter.delimitedBy(\"||\")", delimited);
+    }
+    
+}
@@ -0,0 +1,206 @@
+package net.nawaman.regparser;
+
+import static net.nawaman.regparser.Quantifier.OneOrMore;
+import static net.nawaman.regparser.RegParser.compileRegParser;
+import static net.nawaman.regparser.RegParser.newRegParser;
+import static net.nawaman.regparser.TestUtils.validate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.ClassRule;
+import org.junit.Test;
+
+import net.nawaman.regparser.checkers.CharChecker;
+import net.nawaman.regparser.checkers.CharSingle;
+import net.nawaman.regparser.result.ParseResult;
+
+public class TestParseSession {
+    
+    @ClassRule
+    public static TimeRecordRule timeRecordRule = TimeRecordRule.instance;
+    
+    private static String describe(ParseResult result) {
+        var buffer = new StringBuilder(result.text());
+        for (int i = 0; i < result.entryCount(); i++) {
+            buffer.append(" ").append(result.nameOf(i)).append("=").append(result.textOf(i));
+        }
+        return buffer.toString();
+    }
+    
+    // The records of the whole text parsed one after another.
+    private static List<String> recordsOf(RegParser parser, String text) {
+        var records = new ArrayList<String>();
+        int offset  = 0;
+        while (offset < text.length()) {
+            var result = parser.parse(text, offset);
+            if ((result == null) || (result.endPosition() == offset)) {
+                records.add("!");
+                break;
+            }
+            var record = parser.parse(text.substring(offset, result.endPosition()));
+            records.add(describe(record));
+            offset = result.endPosition();
+        }
+        return records;
+    }
+    
+    private static List<String> sessionRecordsOf(RegParser parser, String text, int chunkLength) {
+        var records = new ArrayList<String>();
+        var session = new ParseSession(parser, record -> records.add(describe(record)));
+        try {
+            for (int i = 0; i < text.length(); i += chunkLength) {
+                session.feed(text.substring(i, Math.min(text.length(), i + chunkLength)));
+            }
+            session.end();
+        } catch (ParsingException exception) {
+            records.add("!");
+        }
+        return records;
+    }
+    
+    @Test
+    public void testSameAsWholeText() {
+        var cases = new String[][] {
+            { "($Key:~[a-z]+~)=($Value:~[0-9]+~);[: :]*", "a=1;bb=22; ccc=333;  d=4;" },
+            { "(#Line:~[^[:NewLine:]]*~)[:NewLine:]",       "first\nsecond line\n\nlast\n" },
+            { "(#Word:~[a-z]+~)[: :]*",                     "one two  three four" },
+            { "(#Number:~[0-9]+~)(,|$)",                    "1,22,333" },
+            { "(#Word:~(cat|cats|category)~)[: :]?",        "cat cats category cat" },
+            { "(#Rest:~.*~)",                               "all of it" },
+            { "($Key:~[a-z]+~)=($Value:~[0-9]+~);",         "a=1;b=x;" },
+        };
+        for (var each : cases) {
+            var parser   = compileRegParser(each[0]);
+            var text     = each[1];
+            var expected = recordsOf(parser, text).toString();
+            for (int chunkLength = 1; chunkLength <= text.length(); chunkLength++) {
+                validate(expected, sessionRecordsOf(parser, text, chunkLength));
+            }
+        }
+    }
+    
+    @Test
+    public void testEmitsAsSoonAsComplete() {
+        var parser  = compileRegParser("($Key:~[a-z]+~)=($Value:~[0-9]+~);");
+        var records = new ArrayList<ParseResult>();
+        var session = new ParseSession(parser, records::add);
+        validate(0,       session.feed("ab=1"));
+        validate("true",  session.isNeedMore());
+        validate(4,       session.bufferedLength());
+        
+        validate(1,       session.feed("2;cd=3"));
+        validate("ab",    records.get(0).textOf("$Key"));
+        validate("12",    records.get(0).textOf("$Value"));
+        validate(6,       (int)session.position());
+        validate(4,       session.bufferedLength());
+        
+        validate(1,       session.feed(";"));
+        validate("cd=3;", records.get(1).text());
+        validate("false", session.isNeedMore());
+        validate(0,       session.bufferedLength());
+        validate(0,       session.end());
+    }
+    
+    @Test
+    public void testNeedsTheEnd() {
+        // A repeat that can still grow is only completed by the end of the text.
+        var records = new ArrayList<String>();
+        var session = new ParseSession(compileRegParser("[0-9]+"), record -> records.add(record.text()));
+        validate(0,         session.feed("123"));
+        validate(0,         session.feed("45"));
+        validate(1,         session.end());
+        validate("[12345]", records);
+    }
+    
+    @Test
+    public void testBoundedBuffer() {
+        var parser  = compileRegParser("(#Line:~[^[:NewLine:]]*~)[:NewLine:]");
+        var session = new ParseSession(parser, record -> {});
+        int count   = 0;
+        for (int i = 0; i < 10_000; i++) {
+            count += session.feed("line " + i + "\n");
+            validate("true", session.bufferedLength() < 20);
+        }
+        validate(10_000, count);
+    }
+    
+    @SuppressWarnings("serial")
+    private static RegParser countingParser(AtomicInteger counter) {
+        // The record of 'a's ended by ';' that counts the chars its parses read.
+        var as = new CharChecker() {
+            @Override
+            public boolean inSet(char c) {
+                counter.incrementAndGet();
+                return (c == 'a');
+            }
+            @Override
+            public Boolean isDeterministic() {
+                return true;
+            }
+        };
+        return newRegParser()
+                .entry(as, OneOrMore)
+                .entry(CharSingle.of(';'))
+                .build();
+    }
+    
+    @Test
+    public void testLongRecordInSmallChunks() {
+        // A long record is not parsed again with every char.
+        int length  = 100_000;
+        var counter = new AtomicInteger();
+        var records = new ArrayList<String>();
+        var session = new ParseSession(countingParser(counter), record -> records.add(record.text()));
+        for (int i = 0; i < length; i++) {
+            validate(0, session.feed("a"));
+        }
+        validate(0,      session.feed(";"));
+        validate(1,      session.end());
+        validate(length, records.get(0).length() - 1);
+        validate("true", counter.get() < ParseSession.EAGER_LENGTH*ParseSession.EAGER_LENGTH + 8*length);
+    }
+    
+    @Test
+    public void testLongRecordWithSplitter() {
+        // The delimiter tries the long record again as soon as it arrives.
+        int length  = 100_000;
+        var counter = new AtomicInteger();
+        var records = new ArrayList<String>();
+        var parser  = countingParser(counter);
+        var session = new ParseSession(parser, RecordSplitter.delimitedBy(';'), record -> records.add(record.text()));
+        for (int i = 0; i < length; i++) {
+            session.feed("a");
+        }
+        // The parse only knows the record has ended when it sees the char after it.
+        int count = session.feed(";") + session.feed("a");
+        validate(1,      count);
+        validate(length, records.get(0).length() - 1);
+        validate("true", counter.get() < ParseSession.EAGER_LENGTH*ParseSession.EAGER_LENGTH + 8*length);
+        
+        // Without the splitter, the record waits for its text to double.
+        var waiting = new ParseSession(parser, record -> {});
+        for (int i = 0; i < length; i++) {
+            waiting.feed("a");
+        }
+        validate(0, waiting.feed(";") + waiting.feed("a"));
+    }
+    
+    @Test
+    public void testMismatch() {
+        var records = new ArrayList<String>();
+        var session = new ParseSession(compileRegParser("[a-z]+;"), record -> records.add(record.text()));
+        // The plain parser only knows the match has ended when it sees the char after it.
+        validate(0, session.feed("ab;"));
+        try {
+            session.feed("12;");
+            validate("A mismatch", "No mismatch");
+        } catch (ParsingException exception) {
+            validate("The text at the position 3 does not start with a match: 12;", exception.getMessage());
+        }
+        // The records before the mismatch are handled.
+        validate("[ab;]", records);
+    }
+    
+}
@@ -72,8 +72,10 @@ public class TestPattern {
                 parser.parse("shape and shade"));
         
         validate("\n"
-                + "00 => [   15] = <NoName>        :textCI           = \"Sharp and Shade\"",
-                parser.parse("Sharp and Shade"));
+                + "00 => [   15] = <NoName>        :textCI           = \"Shape And SHADE\"",
+                parser.parse("Shape And SHADE"));
+        
+        validate("null", parser.parse("Sharp and Shade"));
     }
     
     @Test
@@ -1024,6 +1026,9 @@ public class TestPattern {
                 compileRegParser(typeProvider, "($X:~.~)[x]($X';)")
                 .parse("axA"));
         
+        // As the lower cases of both are compared -- the long s lower-cases to itself.
+        validate("null", compileRegParser(typeProvider, "($X:~.~)[x]($X';)").parse("\u017Fxs"));
+        
         validate("($X:~.~)\n"
                 + "[x]\n"
                 + "(!$BackRefCI?(\"$X\")!)",
@@ -23,6 +23,7 @@ import net.nawaman.regparser.checkers.CharSingle;
 import net.nawaman.regparser.checkers.CharUnion;
 import net.nawaman.regparser.checkers.WordChecker;
 import net.nawaman.regparser.result.ParseResult;
+import net.nawaman.regparser.types.TextCaseInsensitiveParserType;
 
 
 public class TestType {
@@ -487,4 +488,33 @@ public class TestType {
                + "00 => [    5] = <NoName>        :textCI           = \"te\\\"st\"", result);
     }
     
+    @Test
+    public void testTextCaseInsensitiveOtherText() {
+        var parser = compile("!textCI(`Test`)!");
+        validate("null", parser.parse("Best"));
+        validate("null", parser.parse("Tes"));
+        validate(4,      parser.match("TEST").endPosition());
+    }
+    
+    @Test
+    public void testTextCaseInsensitiveLowerCase() {
+        // The same rule as the case-insensitive back reference -- the lower cases are compared.
+        validate("null", compile("!textCI(`s`)!").parse("\u017F"));
+        validate("null", compile("($X:~.~)[x]($X';)").parse("sx\u017F"));
+        validate(1,      compile("!textCI(`S`)!").match("s").endPosition());
+        // U+0130 lower-cases to two chars -- the match is shorter than the text.
+        validate(1,      compile("!textCI(`i\u0307`)!").match("\u0130").endPosition());
+        validate(2,      compile("!textCI(`i\u0307x`)!").match("\u0130X").endPosition());
+    }
+    
+    @Test
+    public void testTextCaseInsensitiveBoundedCheckers() {
+        // More texts than the checkers kept -- the dropped ones are made again.
+        var type = TextCaseInsensitiveParserType.instance;
+        for (int i = 0; i < 3*TextCaseInsensitiveParserType.MAX_CHECKERS; i++) {
+            validate("true", type.checker(null, "text" + i, null) != null);
+        }
+        validate(6, compile("!textCI(`Text42`)!").match("TEXT42").endPosition());
+    }
+    
 }
@@ -0,0 +1,173 @@
+package net.nawaman.regparser;
+
+import static net.nawaman.regparser.RegParser.compileRegParser;
+import static net.nawaman.regparser.TestUtils.validate;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.ClassRule;
+import org.junit.Test;
+
+import net.nawaman.regparser.result.ParseResult;
+
+public class TestTypeLink {
+    
+    @ClassRule
+    public static TimeRecordRule timeRecordRule = TimeRecordRule.instance;
+    
+    /** A provider counting the lookups of its types. */
+    @SuppressWarnings("serial")
+    private static class CountedProvider extends ParserTypeProvider.Extensible {
+        final AtomicInteger lookups = new AtomicInteger();
+        
+        @Override
+        public ParserType type(String name) {
+            lookups.incrementAndGet();
+            return super.type(name);
+        }
+    }
+    
+    /** A type counting the requests for its checker. */
+    @SuppressWarnings("serial")
+    private static class CountedType extends ParserType {
+        final AtomicInteger checkers  = new AtomicInteger();
+        final AtomicInteger withHosts = new AtomicInteger();
+        final Checker       checker   = compileRegParser("[a-z]+");
+        final boolean       isFixed;
+        
+        CountedType(boolean isFixed) {
+            this.isFixed = isFixed;
+        }
+        
+        @Override
+        public String name() {
+            return "Word";
+        }
+        
+        @Override
+        public Checker checker(ParseResult hostResult, String param, ParserTypeProvider typeProvider) {
+            checkers.incrementAndGet();
+            if (hostResult != null) {
+                withHosts.incrementAndGet();
+            }
+            return checker;
+        }
+        
+        @Override
+        public boolean hasFixedChecker() {
+            return isFixed;
+        }
+        
+        @Override
+        public Boolean isDeterministic() {
+            return true;
+        }
+    }
+    
+    private static ParserTypeProvider.Extensible addExpressionTypes(ParserTypeProvider.Extensible typeProvider) {
+        typeProvider.addType("Number", "[0-9]+");
+        typeProvider.addType("Term",   "(!Number!|[:(:]!Expr!+[:):])");
+        typeProvider.addType("Expr",   "!Term!([: :]*[:+:][: :]*!Term!)*");
+        return typeProvider;
+    }
+    
+    @Test
+    public void testSameResult() {
+        var text     = "1 + (2 + 3) + ((4))";
+        var expected = compileRegParser("!Expr!").parse(text, addExpressionTypes(new ParserTypeProvider.Extensible()));
+        
+        var typeProvider = addExpressionTypes(new ParserTypeProvider.Extensible());
+        var parser       = compileRegParser("!Expr!");
+        validate("true", parser.link(typeProvider) == parser);
+        validate(expected.toString(), parser.parse(text, typeProvider));
+        validate(expected.toString(), parser.parse(text, typeProvider, ParseOptions.Iterative));
+    }
+    
+    @Test
+    public void testNoLookupOnceLinked() {
+        var typeProvider = new CountedProvider();
+        addExpressionTypes(typeProvider);
+        var parser       = compileRegParser("!Expr!").link(typeProvider);
+        
+        typeProvider.lookups.set(0);
+        validate(19, parser.parse("1 + (2 + 3) + ((4))", typeProvider).endPosition());
+        validate(0,  typeProvider.lookups.get());
+        
+        // A change of the provider drops the links.
+        typeProvider.addType("Other", "[a-z]+");
+        validate(19,     parser.parse("1 + (2 + 3) + ((4))", typeProvider).endPosition());
+        validate("true", typeProvider.lookups.get() > 0);
+    }
+    
+    @Test
+    public void testDefaultProviderPath() {
+        var type         = new CountedType(true);
+        var typeProvider = new ParserTypeProvider.Extensible(type);
+        var parser       = compileRegParser(typeProvider, "!Word!([: :]!Word!)*");
+        
+        // The parse is given another provider so the parser parses with a library of both.
+        var other = new ParserTypeProvider.Extensible();
+        parser.link(other);
+        
+        int checkers = type.checkers.get();
+        for (int i = 0; i < 1000; i++) {
+            validate(7, parser.parse("abc def", other).endPosition());
+        }
+        validate(checkers, type.checkers.get());
+    }
+    
+    @Test
+    public void testHostDependentChecker() {
+        var type         = new CountedType(false);
+        var typeProvider = new ParserTypeProvider.Extensible(type);
+        var parser       = compileRegParser("!Word!([: :]!Word!)*").link(typeProvider);
+        
+        // The checker of a type that may depend on the host is asked on each parse -- with the host.
+        type.checkers.set(0);
+        for (int i = 0; i < 10; i++) {
+            validate(7, parser.parse("abc def", typeProvider).endPosition());
+        }
+        validate(20, type.checkers.get());
+        validate(20, type.withHosts.get());
+    }
+    
+    @Test
+    public void testProviderChanged() {
+        var letters = new ParserTypeProvider.Extensible();
+        letters.addType("Word", "[a-z]+");
+        var alphanumerics = new ParserTypeProvider.Extensible();
+        alphanumerics.addType("Word", "[a-z0-9]+");
+        
+        var typeProvider = new ParserTypeProvider.Library(letters);
+        var parser       = compileRegParser("!Word!").link(typeProvider);
+        validate(3, parser.parse("abc123", typeProvider).endPosition());
+        
+        long version = typeProvider.version();
+        typeProvider.removeProvider(letters);
+        typeProvider.addProvider(alphanumerics);
+        validate("true", typeProvider.version() != version);
+        validate(6,      parser.parse("abc123", typeProvider).endPosition());
+        
+        // Another provider is looked up on its own.
+        validate(3, parser.parse("abc123", letters).endPosition());
+        validate(6, parser.parse("abc123", typeProvider).endPosition());
+    }
+    
+    @Test
+    public void testVersion() {
+        var typeProvider = new ParserTypeProvider.Extensible();
+        long version = typeProvider.version();
+        typeProvider.addType("Word", "[a-z]+");
+        validate("true", typeProvider.version() > version);
+        
+        version = typeProvider.version();
+        typeProvider.addType("Word", "[a-z0-9]+");
+        validate("true", typeProvider.version() == version);
+    }
+    
+    @Test(expected = ParsingException.class)
+    public void testMissingType() {
+        compileRegParser("!Missing!").link(new ParserTypeProvider.Extensible());
+    }
+    
+}
@@ -0,0 +1,75 @@
+package net.nawaman.regparser;
+
+import static net.nawaman.regparser.TestUtils.validate;
+
+import java.util.ArrayList;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.ClassRule;
+import org.junit.Test;
+
+public class TestTypeProviderConcurrent {
+    
+    @ClassRule
+    public static TimeRecordRule timeRecordRule = TimeRecordRule.instance;
+    
+    private static final int THREAD_COUNT = 8;
+    
+    private static <T> ArrayList<T> runAll(Callable<T> task) throws Exception {
+        var executor = Executors.newFixedThreadPool(THREAD_COUNT);
+        try {
+            var futures = new ArrayList<Future<T>>();
+            for (int i = 0; i < THREAD_COUNT; i++) {
+                futures.add(executor.submit(task));
+            }
+            var results = new ArrayList<T>();
+            for (var future : futures) {
+                results.add(future.get());
+            }
+            return results;
+        } finally {
+            executor.shutdown();
+        }
+    }
+    
+    @Test
+    public void testParseWhileAdding() throws Exception {
+        var typeProvider = new ParserTypeProvider.Concurrent();
+        typeProvider.addType("Number", "[0-9]+");
+        typeProvider.addType("Plus", "!Number![:WhiteSpace:]*[:+:][:WhiteSpace:]*!Number!");
+        
+        var expected = typeProvider.type("Plus").parse("5 + 10").toString();
+        var counts   = runAll(() -> {
+            int count = 0;
+            for (int i = 0; i < 200; i++) {
+                // Add more types while the others parse.
+                typeProvider.addType("Word" + Thread.currentThread().getId() + "_" + i, "[a-z]+");
+                
+                var result = typeProvider.type("Plus").parse("5 + 10");
+                if (expected.equals(String.valueOf(result))) {
+                    count++;
+                }
+            }
+            return count;
+        });
+        validate("[200, 200, 200, 200, 200, 200, 200, 200]", counts);
+        validate(2 + THREAD_COUNT*200, typeProvider.typeNames().size());
+    }
+    
+    @Test
+    public void testAddOnce() throws Exception {
+        // Only one of the types added with the same name at the same time is added.
+        var typeProvider = new ParserTypeProvider.Concurrent();
+        var isAddeds     = runAll(() -> typeProvider.addType("Number", "[0-9]+"));
+        validate(1, (int)isAddeds.stream().filter(Boolean::booleanValue).count());
+    }
+    
+    @Test
+    public void testDefaultProvider() throws Exception {
+        var providers = runAll(() -> ParserTypeProvider.Simple.defaultProvider());
+        validate(1, (int)providers.stream().distinct().count());
+    }
+    
+}
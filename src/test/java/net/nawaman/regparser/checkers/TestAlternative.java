@@ -1,11 +1,17 @@
 package net.nawaman.regparser.checkers;
 
+import static net.nawaman.regparser.PredefinedCharClasses.Digit;
+import static net.nawaman.regparser.RegParser.compileRegParser;
+import static net.nawaman.regparser.RegParser.newRegParser;
 import static net.nawaman.regparser.TestUtils.validate;
 import static net.nawaman.regparser.checkers.CheckerAlternative.either;
 
+import java.util.Arrays;
+
 import org.junit.ClassRule;
 import org.junit.Test;
 
+import net.nawaman.regparser.Checker;
 import net.nawaman.regparser.TimeRecordRule;
 
 public class TestAlternative {
@@ -24,4 +30,52 @@ public class TestAlternative {
         validate(-1, checker.startLengthOf("5505222",  0, null));
     }
     
+    @Test
+    public void testFirstChars() {
+        validate("[a-z]",      FirstCharDispatch.firstCharsOf(new CharRange('a', 'z')));
+        validate("[x]",        FirstCharDispatch.firstCharsOf(new WordChecker("xyz")));
+        validate("null",       FirstCharDispatch.firstCharsOf(WordChecker.EmptyWord));
+        validate("[[0-9][x]]", FirstCharDispatch.firstCharsOf(compileRegParser("[0-9]?xyz")));
+        validate("null",       FirstCharDispatch.firstCharsOf(compileRegParser("[0-9]?x?")));
+        validate("null",       FirstCharDispatch.firstCharsOf(compileRegParser("(#Int:!int!)x")));
+        validate("[[x][0-9]]", FirstCharDispatch.firstCharsOf(either(new WordChecker("xyz")).or(Digit).build()));
+        validate("null",       FirstCharDispatch.firstCharsOf(either(new WordChecker("xyz")).or(WordChecker.EmptyWord).build()));
+    }
+    
+    @Test
+    public void testDispatch() {
+        var alternatives = new Checker[] {
+            new WordChecker("if"),
+            new WordChecker("int"),
+            newRegParser(Digit.oneOrMore()),
+            WordChecker.EmptyWord,
+            new WordChecker("else")
+        };
+        var dispatch = FirstCharDispatch.of(alternatives);
+        validate("[0, 1, 3]", Arrays.toString(dispatch.candidatesAt("int", 0)));
+        validate("[2, 3]",    Arrays.toString(dispatch.candidatesAt("123", 0)));
+        validate("[3, 4]",    Arrays.toString(dispatch.candidatesAt("else", 0)));
+        validate("[3]",       Arrays.toString(dispatch.candidatesAt("x", 0)));
+        validate("[3]",       Arrays.toString(dispatch.candidatesAt("\u0E01", 0)));
+        validate("[3]",       Arrays.toString(dispatch.candidatesAt("int", 3)));
+    }
+    
+    @Test
+    public void testKeywords() {
+        var keywords = new CheckerAlternative.Builder();
+        for (var keyword : "abstract,assert,boolean,break,byte,case,catch,char,class,const,continue,default,do,double".split(",")) {
+            keywords.or(new WordChecker(keyword));
+        }
+        var checker = keywords.build();
+        validate( 6, checker.startLengthOf("double", 0, null));
+        validate( 2, checker.startLengthOf("do",     0, null));
+        validate( 5, checker.startLengthOf("class;", 0, null));
+        validate(-1, checker.startLengthOf("xclass", 0, null));
+        validate(-1, checker.startLengthOf("class",  5, null));
+        
+        var parser = newRegParser().entry(checker).entry(new WordChecker(";")).build();
+        validate("true", parser.match("class;") != null);
+        validate("true", parser.match("enum;")  == null);
+    }
+    
 }
@@ -0,0 +1,103 @@
+package net.nawaman.regparser.checkers;
+
+import static net.nawaman.regparser.PredefinedCharClasses.Alphabet;
+import static net.nawaman.regparser.PredefinedCharClasses.Digit;
+import static net.nawaman.regparser.TestUtils.validate;
+
+import java.util.regex.Pattern;
+
+import org.junit.ClassRule;
+import org.junit.Test;
+
+import net.nawaman.regparser.PredefinedCharClasses;
+import net.nawaman.regparser.TimeRecordRule;
+
+public class TestCharTable {
+    
+    @ClassRule
+    public static TimeRecordRule timeRecordRule = TimeRecordRule.instance;
+    
+    private static void validateSameChars(CharChecker source) {
+        var table = CharTable.of(source);
+        validate("true", table instanceof CharTable);
+        validate(source.toString(), table.toString());
+        for (int c = 0; c <= Character.MAX_VALUE; c++) {
+            if (source.inSet((char)c) != table.inSet((char)c))
+                throw new AssertionError("Mismatch at " + c + " for " + source);
+        }
+    }
+    
+    @Test
+    public void testSameChars() {
+        validateSameChars(new CharSet("aeiou\u00E9\u4E00 "));
+        validateSameChars(new CharUnion(new CharRange('a', 'f'), new CharRange('d', 'z'), new CharSingle('\uFFFF')));
+        validateSameChars(new CharIntersect(new CharRange('0', 'z'), new CharNot(new CharRange('A', 'Z'))));
+        validateSameChars(new CharNot(new CharSet("\u0000\uFFFF")));
+        validateSameChars(new CharNot(new CharUnion(Digit, Alphabet)));
+        validateSameChars(new CharIntersect(new CharRange('a', 'c'), new CharRange('x', 'z')));
+    }
+    
+    private static void validateSameChars(String javaCharClass, CharClass charClass) {
+        var pattern = Pattern.compile(javaCharClass, Pattern.DOTALL);
+        for (int c = 0; c <= Character.MAX_VALUE; c++) {
+            if (pattern.matcher(String.valueOf((char)c)).matches() != charClass.inSet((char)c))
+                throw new AssertionError("Mismatch at " + c + " for " + charClass);
+        }
+        validateSameChars(charClass);
+    }
+    
+    @Test
+    public void testCharClass() {
+        validateSameChars("\\d",          PredefinedCharClasses.Java_Digit);
+        validateSameChars("\\S",          PredefinedCharClasses.Java_NonWhiteSpace);
+        validateSameChars("\\p{Alpha}",   PredefinedCharClasses.Java_Alphabet);
+        validateSameChars("\\p{InGreek}", new CharClass("\\p{InGreek}", "[:Greek:]"));
+        validateSameChars("\\p{Sc}",      new CharClass("\\p{Sc}",      "[:Currency:]"));
+        
+        validate( 1, PredefinedCharClasses.Java_Digit.startLengthOf("5A", 0, null));
+        validate(-1, PredefinedCharClasses.Java_Digit.startLengthOf("5A", 1, null));
+        validate(-1, PredefinedCharClasses.Java_Digit.startLengthOf("5A", 2, null));
+        validate("[[0-9][:Greek:]]", new CharUnion(Digit, new CharClass("\\p{InGreek}", "[:Greek:]")).optimize());
+    }
+    
+    @Test
+    public void testNotEnumerable() {
+        var union = new CharUnion(Digit, new CharChecker() {
+            private static final long serialVersionUID = 1L;
+            @Override
+            public boolean inSet(char c) {
+                return c == '_';
+            }
+            @Override
+            public Boolean isDeterministic() {
+                return true;
+            }
+        });
+        validate("true", union.optimize() == union);
+    }
+    
+    @Test
+    public void testOptimize() {
+        validate("true", new CharSet("abc").optimize() instanceof CharTable);
+        validate("true", new CharNot(Digit).optimize() instanceof CharTable);
+        validate("true", new CharUnion(Digit).optimize() == Digit);
+        validate("[[0-9][a-z][A-Z]]", new CharUnion(Digit, Alphabet).optimize());
+        validate("[^[0-9]]",          new CharNot(Digit).optimize());
+    }
+    
+    @Test
+    public void testCombineWithTable() {
+        // The tables combine as their sources do.
+        validate("[[a-z][A-Z][0-9][_]]", new CharUnion(Alphabet, Digit, new CharSingle('_')));
+        validate("[^[[a-z][A-Z]]]",      new CharNot(Alphabet));
+        
+        // A table equals the tables of an equal source -- and, to stay symmetric, not the source itself.
+        var union = new CharUnion(new CharRange('a', 'z'), new CharRange('A', 'Z'));
+        validate("true",  Alphabet.equals(CharTable.of(union)));
+        validate("true",  CharTable.of(union).equals(Alphabet));
+        validate("true",  Alphabet.hashCode() == CharTable.of(union).hashCode());
+        validate("false", Alphabet.equals(union));
+        validate("false", union.equals(Alphabet));
+    }
+    
+}
@@ -1,13 +1,19 @@
 package net.nawaman.regparser.checkers;
 
 import static net.nawaman.regparser.RegParser.compile;
+import static net.nawaman.regparser.RegParser.newRegParser;
 import static net.nawaman.regparser.TestUtils.validate;
 
+import java.util.concurrent.atomic.AtomicInteger;
+
 import org.junit.ClassRule;
 import org.junit.Test;
 
+import net.nawaman.regparser.Checker;
+import net.nawaman.regparser.ParseOptions;
 import net.nawaman.regparser.ParserTypeProvider;
 import net.nawaman.regparser.TimeRecordRule;
+import net.nawaman.regparser.result.ParseResult;
 
 public class TestCheckerFixeds {
     
@@ -32,4 +38,77 @@ public class TestCheckerFixeds {
                + ". 02 => [   17] = <NoName>        :<NoType>         = \"ABCDEFG\"", result);
     }
     
+    /** Digits -- counting the times it is checked. */
+    private static class CountedDigits implements Checker {
+        private static final long serialVersionUID = 1L;
+        
+        final AtomicInteger count = new AtomicInteger();
+        
+        @Override
+        public int startLengthOf(CharSequence text, int offset, ParserTypeProvider typeProvider) {
+            return startLengthOf(text, offset, typeProvider, null);
+        }
+        
+        @Override
+        public int startLengthOf(CharSequence text, int offset, ParserTypeProvider typeProvider, ParseResult parseResult) {
+            count.incrementAndGet();
+            int length = 0;
+            while (((offset + length) < text.length()) && Character.isDigit(text.charAt(offset + length))) {
+                length++;
+            }
+            return length;
+        }
+        
+        @Override
+        public Boolean isDeterministic() {
+            return true;
+        }
+    }
+    
+    @Test
+    public void testLazySecondStage() {
+        var typeProvider = new ParserTypeProvider.Extensible();
+        var first        = new CountedDigits();
+        var second       = new CountedDigits();
+        var parser       = newRegParser("#Row",
+                            new CheckerFixeds(
+                            new CheckerFixeds.Entry(5),
+                            new CheckerFixeds.Entry("G1", 5, first),
+                            new CheckerFixeds.Entry("G2", 3, second),
+                            new CheckerFixeds.Entry()));
+        var text     = "0123456789123ABCDEFG";
+        var expected = parser.parse(text, typeProvider);
+        validate("\n"
+               + "00 => [    5] = <NoName>        :<NoType>         = \"01234\"\n"
+               + "01 => [   10] = G1              :<NoType>         = \"56789\"\n"
+               + "02 => [   13] = G2              :<NoType>         = \"123\"\n"
+               + "03 => [   20] = <NoName>        :<NoType>         = \"ABCDEFG\"", expected);
+        validate("true", (first.count.get() > 0) && (second.count.get() > 0));
+        
+        first.count.set(0);
+        second.count.set(0);
+        var result = parser.parse(text, typeProvider, ParseOptions.Default.withLazySecondStage());
+        validate(4,       result.entryCount());
+        validate("56789", result.textOf(1));
+        validate(0,       first.count.get());
+        validate(0,       second.count.get());
+        
+        // Only the second stage of the column read is parsed -- once.
+        validate("56789", result.textOf(1, 0));
+        validate("G1",    result.subResultOf(1).nameOf(0));
+        int count = first.count.get();
+        validate("true", count > 0);
+        validate(0,      second.count.get());
+        validate("56789", result.subResultOf(1).textOf(0));
+        validate(count,   first.count.get());
+        
+        validate("\n"
+               + "00 - => [    5] = <NoName>        :<NoType>         = \"01234\"\n"
+               + "01 - => [   10] = G1              :<NoType>         = \"56789\"\n"
+               + ". 00 => [   10] = G1              :<NoType>         = \"56789\"\n"
+               + "02 - => [   13] = G2              :<NoType>         = \"123\"\n"
+               + ". 00 => [   13] = G2              :<NoType>         = \"123\"\n"
+               + "03 - => [   20] = <NoName>        :<NoType>         = \"ABCDEFG\"", result);
+    }
+    
 }
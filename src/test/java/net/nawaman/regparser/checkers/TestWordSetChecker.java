@@ -0,0 +1,77 @@
+package net.nawaman.regparser.checkers;
+
+import static net.nawaman.regparser.RegParser.compileRegParser;
+import static net.nawaman.regparser.TestUtils.validate;
+
+import java.util.Arrays;
+
+import org.junit.ClassRule;
+import org.junit.Test;
+
+import net.nawaman.regparser.RegParser;
+import net.nawaman.regparser.RegParserEntry;
+import net.nawaman.regparser.TimeRecordRule;
+
+public class TestWordSetChecker {
+    
+    @ClassRule
+    public static TimeRecordRule timeRecordRule = TimeRecordRule.instance;
+    
+    @Test
+    public void testLongest() {
+        var checker = new WordSetChecker("in", "int", "integer", "is", "if");
+        validate( 3, checker.startLengthOf("int x",     0, null));
+        validate( 2, checker.startLengthOf("ins",       0, null));
+        validate( 7, checker.startLengthOf("integers",  0, null));
+        validate( 2, checker.startLengthOf("x if",      2, null));
+        validate(-1, checker.startLengthOf("i",         0, null));
+        validate(-1, checker.startLengthOf("x if",      0, null));
+        validate(-1, checker.startLengthOf("",          0, null));
+        validate("(in|int|integer|is|if)", checker);
+    }
+    
+    @Test
+    public void testCaseInsensitive() {
+        var checker = new WordSetChecker(false, "Select", "from", "WHERE");
+        validate( 6, checker.startLengthOf("SELECT *", 0, null));
+        validate( 4, checker.startLengthOf("From x",   0, null));
+        validate( 5, checker.startLengthOf("where",    0, null));
+        validate(-1, checker.startLengthOf("selec",    0, null));
+        validate("(!textCI(\"Select\")!|!textCI(\"from\")!|!textCI(\"WHERE\")!)", checker);
+        validate("true",  checker.equals(new WordSetChecker(false, "WHERE", "select", "From")));
+        validate("false", checker.equals(new WordSetChecker("Select", "from", "WHERE")));
+    }
+    
+    @Test
+    public void testNonAscii() {
+        var checker = new WordSetChecker(false, "ÉTÉ", "été-là");
+        validate( 3, checker.startLengthOf("été",    0, null));
+        validate( 6, checker.startLengthOf("ÉTÉ-LÀ", 0, null));
+    }
+    
+    @Test
+    public void testOptimize() {
+        // Possessive alternatives of words that do not make a node become word sets.
+        var parser    = compileRegParser("x(select|from|where)+($Op:~(and|or)~)(#Cond:~(not|no)~)(a|b)*+");
+        var optimized = (RegParser)parser.optimize();
+        var checkers  = optimized.entries().map(RegParserEntry::checker).map(c -> c.getClass().getSimpleName()).toArray();
+        validate("[WordChecker, WordSetChecker, WordSetChecker, CheckerAlternative, CheckerAlternative]",
+                 Arrays.toString(checkers));
+        
+        var text = "xwherefromandnotbab";
+        validate(parser.parse(text).toString(), optimized.parse(text).toString());
+    }
+    
+    @Test
+    public void testKeywords() {
+        var keywords = new String[300];
+        for (int i = 0; i < keywords.length; i++) {
+            keywords[i] = "keyword" + i;
+        }
+        var checker = new WordSetChecker(keywords);
+        validate( 9, checker.startLengthOf("keyword29x",  0, null));
+        validate(10, checker.startLengthOf("keyword299x", 0, null));
+        validate(-1, checker.startLengthOf("keyword",     0, null));
+    }
+    
+}
@@ -0,0 +1,136 @@
+package net.nawaman.regparser.result;
+
+import static net.nawaman.regparser.RegParser.compileRegParser;
+import static net.nawaman.regparser.TestUtils.validate;
+import static net.nawaman.regparser.result.entry.ParseResultEntry.newEntry;
+
+import java.util.Arrays;
+
+import org.junit.ClassRule;
+import org.junit.Test;
+
+import net.nawaman.regparser.RegParserEntry;
+import net.nawaman.regparser.TimeRecordRule;
+import net.nawaman.regparser.checkers.CharSingle;
+import net.nawaman.regparser.result.entry.ParseResultEntryWithParserEntry;
+import net.nawaman.regparser.result.entry.ParseResultEntryWithParserEntryAndSubResult;
+import net.nawaman.regparser.result.entry.ParseResultEntryWithSubResult;
+
+public class TestEntryTable {
+    
+    @ClassRule
+    public static TimeRecordRule timeRecordRule = TimeRecordRule.instance;
+    
+    private static String endsOf(EntryTable table) {
+        var buffer = new StringBuilder();
+        for (int i = 0; i < table.size(); i++) {
+            buffer.append((i == 0) ? "" : ",").append(table.endPositionAt(i));
+        }
+        return buffer.toString();
+    }
+    
+    @Test
+    public void testEntries() {
+        var parserEntry = RegParserEntry.newParserEntry("#Name", new CharSingle('a'));
+        var subResult   = ParseResult.newResult(0, "abc");
+        var table       = new EntryTable();
+        table.add(1, null,        null);
+        table.add(2, parserEntry, null);
+        table.add(3, null,        subResult);
+        table.add(4, parserEntry, subResult);
+        
+        validate(4,         table.size());
+        validate("1,2,3,4", endsOf(table));
+        validate("true",    table.get(0).getClass() == newEntry(1).getClass());
+        validate("true",    table.get(1) instanceof ParseResultEntryWithParserEntry);
+        validate("true",    table.get(2) instanceof ParseResultEntryWithSubResult);
+        validate("true",    table.get(3) instanceof ParseResultEntryWithParserEntryAndSubResult);
+        validate("#Name",   table.get(3).name());
+        validate("true",    table.subResultAt(2) == subResult);
+        validate("null",    table.parserEntryAt(2));
+        
+        table.add(1, newEntry(5, parserEntry));
+        validate("1,5,2,3,4", endsOf(table));
+        validate("#Name",     table.get(1).name());
+        
+        table.remove(0);
+        validate("5,2,3,4", endsOf(table));
+        
+        table.subList(1, 3).clear();
+        validate("5,4",  endsOf(table));
+        validate("true", table.subResultAt(1) == subResult);
+        
+        table.truncate(1);
+        validate("5",    endsOf(table));
+        validate("true", table.get(0) instanceof ParseResultEntryWithParserEntry);
+        
+        // Many entries -- the arrays grow.
+        for (int i = 0; i < 100; i++) {
+            table.add(10 + i, ((i % 3) == 0) ? parserEntry : null, null);
+        }
+        validate(101, table.size());
+        validate(109, table.endPositionAt(100));
+        validate("#Name", table.parserEntryAt(100).name());
+        validate("null",  table.parserEntryAt(99));
+    }
+    
+    private static String indexesOf(EntryTable table, String name) {
+        return Arrays.toString(table.indexesOfName(name));
+    }
+    
+    @Test
+    public void testNameIndex() {
+        var nameA = RegParserEntry.newParserEntry("$A", new CharSingle('a'));
+        var nameB = RegParserEntry.newParserEntry("$B", new CharSingle('b'));
+        var table = new EntryTable();
+        table.add(1, nameA, null);
+        table.add(2, null,  null);
+        table.add(3, nameB, null);
+        table.add(4, nameA, null);
+        
+        validate("[0, 3]", indexesOf(table, "$A"));
+        validate(3,        table.lastIndexOfName("$A"));
+        validate(2,        table.lastIndexOfName("$B"));
+        validate(-1,       table.lastIndexOfName("$C"));
+        validate("null",   indexesOf(table, "$C"));
+        validate("true",   table.hasNames());
+        validate("false",  table.hasTypes());
+        
+        // The index is kept along the appends and the truncations.
+        table.add(5, nameB, null);
+        validate("[2, 4]", indexesOf(table, "$B"));
+        table.truncate(3);
+        validate("[0]",    indexesOf(table, "$A"));
+        validate("[2]",    indexesOf(table, "$B"));
+        table.truncate(2);
+        validate("false",  table.hasName("$B"));
+        
+        // Other changes rebuild it.
+        table.add(0, newEntry(0, nameB));
+        validate("[1]",    indexesOf(table, "$A"));
+        validate("[0]",    indexesOf(table, "$B"));
+        table.remove(1);
+        validate("null",   indexesOf(table, "$A"));
+        validate("false",  table.hasName("$A"));
+        table.set(1, newEntry(2, nameA));
+        validate("[1]",    indexesOf(table, "$A"));
+    }
+    
+    @Test
+    public void testQueries() {
+        var parser = compileRegParser("($Key:~[a-z]+~)=(#Value:~($Part:~[0-9]+~)(,($Part:~[0-9]+~))*~);");
+        var result = parser.parse("key=1,22,333;");
+        validate(13,                  result.endPosition());
+        validate("key",               result.textOf("$Key"));
+        validate("1,22,333",          result.textOf("#Value"));
+        validate("1|22|333",          String.join("|", result.subResultOf("#Value").textsOf("$Part")));
+        validate(4,                   result.startPositionOf("#Value"));
+        validate("true",              result.hasName("$Part"));
+        
+        var groups = compileRegParser("(($A:~a~)+[0-9])+").parse("a1aa2");
+        validate("[[a], [a, a]]", Arrays.deepToString(groups.allStringsOf("$A")));
+        validate(2,               groups.lastEntriesOf("$A").length);
+        validate(4,               groups.lastEntriesOf("$A")[1].endPosition());
+    }
+    
+}
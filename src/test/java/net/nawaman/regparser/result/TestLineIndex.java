@@ -0,0 +1,71 @@
+package net.nawaman.regparser.result;
+
+import static net.nawaman.regparser.RegParser.compileRegParser;
+import static net.nawaman.regparser.TestUtils.validate;
+
+import java.io.IOException;
+import java.util.function.Supplier;
+
+import org.junit.ClassRule;
+import org.junit.Test;
+
+import net.nawaman.regparser.TimeRecordRule;
+
+public class TestLineIndex {
+    
+    @ClassRule
+    public static TimeRecordRule timeRecordRule = TimeRecordRule.instance;
+    
+    private static String outcomeOf(Supplier<Object> supplier) {
+        try {
+            return String.valueOf(supplier.get());
+        } catch (RuntimeException exception) {
+            return exception.getClass().getName();
+        }
+    }
+    
+    private static void validateSameAsScan(String text) {
+        var lineIndex = LineIndex.of(text);
+        for (int offset = -2; offset <= text.length() + 2; offset++) {
+            int at = offset;
+            validate(outcomeOf(() -> Coordinate.of(text, at)),             outcomeOf(() -> lineIndex.coordinateOf(at)));
+            validate(outcomeOf(() -> Location.locationOf(text, at)),       outcomeOf(() -> lineIndex.locationOf(at)));
+            validate(outcomeOf(() -> Location.detailLocationOf(text, at)), outcomeOf(() -> lineIndex.detailLocationOf(at)));
+        }
+    }
+    
+    @Test
+    public void testSameAsScan() throws IOException {
+        var texts = new String[] {
+            "", "A", "\n", "\r", "\r\n", "\n\n", "AB\nCD", "AB\rCD", "AB\r\nCD", "AB\r", "AB\n", "\r\r\n\n\rA\r",
+            "\tA\n\tB\r\n\t\tC\rD\n",
+        };
+        for (var text : texts) {
+            validateSameAsScan(text);
+        }
+        validateSameAsScan(new String(Coordinate.class.getResourceAsStream("Code1.txt").readAllBytes()));
+    }
+    
+    @Test
+    public void testRowCount() {
+        validate(1, LineIndex.of("").rowCount());
+        validate(3, LineIndex.of("A\nB\r\nC").rowCount());
+        validate(3, LineIndex.of("A\rB\nC\r").rowCount());
+        validate(null, LineIndex.of(null));
+    }
+    
+    @Test
+    public void testSharedByResult() {
+        var text   = "one\ntwo\r\nthree\n".repeat(1_000);
+        var parser = compileRegParser("(($Word:~[a-z]+~)(#Line:~([:\r:]?[:\n:])~))*");
+        var result = parser.parse(text);
+        validate("true", result.lineIndex() == result.lineIndex());
+        validate(Coordinate.of(5, 2_999).toString(), result.coordinateOf(result.entryCount() - 1));
+        
+        var coordinates = result.coordinatesOf("$Word");
+        validate(3_000,                   coordinates.length);
+        validate(Coordinate.of(0, 1_000).toString(), coordinates[1_000]);
+        validate(Location.of(text, 4),    result.locationOf(2));
+    }
+    
+}
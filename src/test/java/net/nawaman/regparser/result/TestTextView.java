@@ -0,0 +1,82 @@
+package net.nawaman.regparser.result;
+
+import static net.nawaman.regparser.RegParser.compileRegParser;
+import static net.nawaman.regparser.TestUtils.validate;
+
+import java.util.Arrays;
+
+import org.junit.ClassRule;
+import org.junit.Test;
+
+import net.nawaman.regparser.TimeRecordRule;
+
+public class TestTextView {
+    
+    @ClassRule
+    public static TimeRecordRule timeRecordRule = TimeRecordRule.instance;
+    
+    @Test
+    public void testView() {
+        var text = new StringBuilder("key=Value;");
+        var view = TextView.of(text, 4, 9);
+        validate("Value", view);
+        validate(5,       view.length());
+        validate("V",     String.valueOf(view.charAt(0)));
+        validate("alu",   view.subSequence(1, 4));
+        validate(5,       view.subSequence(1, 4).start());
+        validate("Value".hashCode(), view.hashCode());
+        validate(0,       TextView.EMPTY.hashCode());
+        
+        validate("true",  view.contentEquals("Value"));
+        validate("false", view.contentEquals("value"));
+        validate("false", view.contentEquals("Values"));
+        validate("false", view.contentEquals(null));
+        validate("true",  view.contentEqualsIgnoreCase("vALUE"));
+        validate("false", view.contentEqualsIgnoreCase("vALUe;"));
+        
+        validate("true",  view.equals(TextView.of("Value")));
+        validate("false", view.equals(TextView.of("value")));
+        validate("false", view.equals("Value"));
+        
+        // The string of the whole string is the string itself.
+        var string = "Value";
+        validate("true", TextView.of(string).toString() == string);
+    }
+    
+    @Test
+    public void testLowerCase() {
+        // The same as comparing the lower cases of the strings -- not as String.equalsIgnoreCase(...).
+        var pairs = new String[][] {
+            { "Value",  "vALUE"    },
+            { "Value",  "vALUe;"   },
+            { "\u017F", "s"        },  // Long s: upper-cases to S but lower-cases to itself.
+            { "\u0130", "i\u0307"  },  // Dotted I: lower-cases to two chars.
+            { "\u0130", "i"        },
+            { "\u03A3", "\u03C2"   },  // Sigma and final sigma.
+        };
+        for (var pair : pairs) {
+            var expected = pair[0].toLowerCase().equals(pair[1].toLowerCase());
+            validate(String.valueOf(expected), TextView.of(pair[0]).contentEqualsLowerCase(pair[1]));
+        }
+        validate("true",  TextView.of("\u017F").contentEqualsIgnoreCase("s"));
+        validate("false", TextView.of("\u017F").contentEqualsLowerCase("s"));
+        validate("false", TextView.of("Value").contentEqualsLowerCase(null));
+    }
+    
+    @Test
+    public void testSameAsText() {
+        var parser = compileRegParser("(($Key:~[a-z]+~)=($Value:~[a-z0-9]*~);)*");
+        var text   = "one=1;two=;three=333;";
+        var result = parser.parse(text);
+        validate(result.text(), result.textView());
+        for (int i = -1; i <= result.entryCount(); i++) {
+            validate(String.valueOf(result.textOf(i)), String.valueOf(result.textViewOf(i)));
+        }
+        validate(result.textOf("$Key"),         result.textViewOf("$Key"));
+        validate(result.lastStringOf("$Value"), result.lastTextViewOf("$Value"));
+        validate("[one, two, three]",           Arrays.toString(result.textViewsOf("$Key")));
+        validate(null,                          result.textViewsOf("$Missing"));
+        validate(null,                          result.textViewOf("$Missing"));
+    }
+    
+}